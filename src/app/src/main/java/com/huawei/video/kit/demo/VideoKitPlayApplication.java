@@ -17,11 +17,25 @@
 package com.huawei.video.kit.demo;
 
 import android.app.Application;
+import android.content.Context;
+import android.text.TextUtils;
 
 import com.huawei.hms.videokit.player.InitFactoryCallback;
 import com.huawei.hms.videokit.player.WisePlayerFactory;
 import com.huawei.hms.videokit.player.WisePlayerFactoryOptions;
+import com.huawei.video.kit.demo.bookmark.BookmarkStore;
+import com.huawei.video.kit.demo.catalog.CatalogRepository;
+import com.huawei.video.kit.demo.catalog.HttpCatalogSource;
+import com.huawei.video.kit.demo.catalog.PlayProfileCache;
+import com.huawei.video.kit.demo.player.PlaySessionRegistry;
+import com.huawei.video.kit.demo.player.PlayerFactoryReadiness;
+import com.huawei.video.kit.demo.player.WisePlayerPool;
+import com.huawei.video.kit.demo.startup.StartupScheduler;
+import com.huawei.video.kit.demo.startup.StartupTask;
+import com.huawei.video.kit.demo.utils.DeviceUtil;
 import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.MainThreadExecutor;
+import com.huawei.video.kit.demo.utils.PlaybackConfigStore;
 
 /**
  * Application
@@ -29,12 +43,76 @@ import com.huawei.video.kit.demo.utils.LogUtil;
 public class VideoKitPlayApplication extends Application {
     private static final String TAG = VideoKitPlayApplication.class.getSimpleName();
 
-    private static WisePlayerFactory wisePlayerFactory = null;
+    private static final String TASK_PLAYER_FACTORY = "player factory";
+
+    private static final String TASK_CATALOG_SOURCE = "catalog source";
+
+    private static final String TASK_SETTINGS = "settings";
+
+    private static final String TASK_BOOKMARKS = "bookmarks";
+
+    private static final String TASK_PLAY_PROFILES = "play profiles";
+
+    private static WisePlayerPool wisePlayerPool = null;
+
+    // The factory initialization result, only accessed on the main thread
+    private static PlayerFactoryReadiness playerFactoryReadiness = null;
 
     @Override
     public void onCreate() {
         super.onCreate();
-        initPlayer();
+        playerFactoryReadiness = new PlayerFactoryReadiness(MainThreadExecutor.getInstance());
+        wisePlayerPool = new WisePlayerPool(WisePlayerPool.DEFAULT_MAX_IDLE_PLAYERS);
+        startTasks();
+    }
+
+    /**
+     * Start the startup tasks, only the short main thread ones run before onCreate returns.
+     * The tasks do not depend on each other: the catalog source is set on the main thread before the home page
+     * is created, and the factory init, the settings and the caches load in parallel on their own threads,
+     * the tasks end when their loads call back. The catalog is not parsed here, the home page loads it so its
+     * first screen is shown from the first parsed chunk.
+     */
+    private void startTasks() {
+        final Context context = this;
+        new StartupScheduler().add(new StartupTask(TASK_PLAYER_FACTORY, true) {
+            @Override
+            public void run() {
+                // The factory is initialized asynchronously, it runs along with the rest of the startup
+                initPlayer();
+            }
+        }).add(new StartupTask(TASK_CATALOG_SOURCE, true) {
+            @Override
+            public void run() {
+                // Before the home page loads the catalog, so the catalog is not parsed from the wrong source
+                initCatalogSource();
+            }
+        }).add(new StartupTask(TASK_SETTINGS, false) {
+            @Override
+            public void run() {
+                PlaybackConfigStore.getInstance().open(context, defer());
+            }
+        }).add(new StartupTask(TASK_BOOKMARKS, false) {
+            @Override
+            public void run() {
+                // Replay the saved play progress
+                BookmarkStore.getInstance().open(context, defer());
+            }
+        }).add(new StartupTask(TASK_PLAY_PROFILES, false) {
+            @Override
+            public void run() {
+                PlayProfileCache.getInstance().open(context, defer());
+            }
+        }).start();
+    }
+
+    /**
+     * Use the remote play list if it is configured, otherwise the catalog in the assets is used
+     */
+    private void initCatalogSource() {
+        if (!TextUtils.isEmpty(BuildConfig.CATALOG_URL)) {
+            CatalogRepository.getInstance().setCatalogSource(new HttpCatalogSource(this, BuildConfig.CATALOG_URL));
+        }
     }
 
     /**
@@ -51,28 +129,64 @@ public class VideoKitPlayApplication extends Application {
      */
     private static InitFactoryCallback initFactoryCallback = new InitFactoryCallback() {
         @Override
-        public void onSuccess(WisePlayerFactory wisePlayerFactory) {
+        public void onSuccess(final WisePlayerFactory wisePlayerFactory) {
             LogUtil.i(TAG, "init player factory success");
-            setWisePlayerFactory(wisePlayerFactory);
+            MainThreadExecutor.getInstance().execute(new Runnable() {
+                @Override
+                public void run() {
+                    wisePlayerPool.setWisePlayerFactory(wisePlayerFactory);
+                    playerFactoryReadiness.onFactoryReady(wisePlayerFactory);
+                }
+            });
         }
 
         @Override
-        public void onFailure(int errorCode, String reason) {
+        public void onFailure(final int errorCode, final String reason) {
             LogUtil.w(TAG, "init player factory fail reason :" + reason + ", errorCode is " + errorCode);
+            MainThreadExecutor.getInstance().execute(new Runnable() {
+                @Override
+                public void run() {
+                    playerFactoryReadiness.onFactoryFailed(errorCode, reason);
+                }
+            });
         }
     };
 
+    /**
+     * Get the factory initialization result, to wait for the factory on the main thread
+     *
+     * @return Player factory readiness
+     */
+    public static PlayerFactoryReadiness getPlayerFactoryReadiness() {
+        return playerFactoryReadiness;
+    }
+
     /**
      * Get WisePlayer Factory
      * 
      * @return WisePlayer Factory
      */
     public static WisePlayerFactory getWisePlayerFactory() {
-        return wisePlayerFactory;
+        return playerFactoryReadiness.getWisePlayerFactory();
     }
 
-    private static void setWisePlayerFactory(WisePlayerFactory wisePlayerFactory) {
-        VideoKitPlayApplication.wisePlayerFactory = wisePlayerFactory;
+    /**
+     * Get the player pool
+     *
+     * @return Player pool
+     */
+    public static WisePlayerPool getWisePlayerPool() {
+        return wisePlayerPool;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (DeviceUtil.isMemoryShort(level)) {
+            // The play page prepares its own player if its session is gone
+            PlaySessionRegistry.getInstance().clear();
+        }
+        wisePlayerPool.trim(level);
     }
 
 }
@@ -31,6 +31,11 @@ import com.huawei.hms.videokit.player.common.PlayerConstants;
 import com.huawei.hms.videokit.player.common.PlayerConstants.BandwidthSwitchMode;
 import com.huawei.hms.videokit.player.common.PlayerConstants.PlayMode;
 import com.huawei.video.kit.demo.R;
+import com.huawei.video.kit.demo.catalog.CatalogChange;
+import com.huawei.video.kit.demo.catalog.CatalogSnapshot;
+import com.huawei.video.kit.demo.contract.OnCatalogLoadListener;
+import com.huawei.video.kit.demo.contract.OnCatalogSearchListener;
+import com.huawei.video.kit.demo.contract.OnCatalogUpdateListener;
 import com.huawei.video.kit.demo.contract.OnHomePageListener;
 import com.huawei.video.kit.demo.control.HomePageControl;
 import com.huawei.video.kit.demo.entity.PlayEntity;
@@ -42,7 +47,8 @@ import com.huawei.video.kit.demo.view.HomePageView;
 /**
  * Home page activity
  */
-public class HomePageActivity extends AppCompatActivity implements OnHomePageListener {
+public class HomePageActivity extends AppCompatActivity
+    implements OnHomePageListener, OnCatalogLoadListener, OnCatalogSearchListener, OnCatalogUpdateListener {
     // Home page view
     private HomePageView homePageView;
 
@@ -55,20 +61,57 @@ public class HomePageActivity extends AppCompatActivity implements OnHomePageLis
         homePageView = new HomePageView(this, this);
         homePageControl = new HomePageControl(this);
         setContentView(homePageView.getContentView());
+        // Access to data in the background, the list is updated progressively
+        homePageControl.loadPlayList(this);
+        homePageControl.startCatalogUpdate(this);
     }
 
-    /**
-     * Access to data, update the list
-     */
-    private void updateView() {
-        homePageControl.loadPlayList();
-        homePageView.updateRecyclerView(homePageControl.getPlayList());
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        homePageControl.cancelLoadPlayList();
+        homePageControl.cancelSearchPlayList();
+        homePageControl.stopCatalogUpdate();
+    }
+
+    @Override
+    public void onCatalogChunkLoaded(List<PlayEntity> playList, int positionStart, int itemCount) {
+        homePageView.appendRecyclerView(playList, positionStart, itemCount);
+    }
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        // The search results are shown when the search is completed
+        if (!homePageControl.isSearching()) {
+            homePageView.updateRecyclerView(snapshot.getPlayList());
+        }
+    }
+
+    @Override
+    public void onCatalogUpdated(CatalogSnapshot previousSnapshot, CatalogSnapshot snapshot,
+        List<CatalogChange> changes) {
+        homePageView.updateRecyclerView(snapshot.getPlayList(), changes);
+    }
+
+    @Override
+    public void onSearchQueryChanged(String query) {
+        homePageControl.searchPlayList(query, this);
+    }
+
+    @Override
+    public void onCatalogSearched(String query, List<PlayEntity> playList) {
+        homePageView.updateRecyclerView(playList);
+    }
+
+    @Override
+    public void onItemPressed(int pos) {
+        // Start buffering before the click is delivered, the play page takes over the player
+        homePageControl.prepareSpeculatively(pos);
     }
 
     @Override
-    protected void onStart() {
-        super.onStart();
-        updateView();
+    public void onItemPressCancelled(int pos) {
+        homePageControl.cancelSpeculativePrepare();
     }
 
     @Override
@@ -16,7 +16,6 @@
 
 package com.huawei.video.kit.demo.activity;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -29,6 +28,7 @@ import android.graphics.SurfaceTexture;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.support.v7.app.AppCompatActivity;
 import android.text.TextUtils;
 import android.view.SurfaceHolder;
@@ -37,16 +37,23 @@ import android.view.WindowManager;
 import android.widget.SeekBar;
 import android.widget.Toast;
 
-import com.huawei.hms.videokit.player.WisePlayer;
 import com.huawei.hms.videokit.player.common.PlayerConstants.BandwidthSwitchMode;
 import com.huawei.hms.videokit.player.common.PlayerConstants.PlayMode;
 import com.huawei.hms.videokit.player.common.PlayerConstants.ResumeType;
 import com.huawei.video.kit.demo.R;
+import com.huawei.video.kit.demo.catalog.CatalogSnapshot;
+import com.huawei.video.kit.demo.contract.OnCatalogLoadListener;
 import com.huawei.video.kit.demo.contract.OnDialogInputValueListener;
+import com.huawei.video.kit.demo.contract.OnPlayerAttachListener;
 import com.huawei.video.kit.demo.contract.OnPlayWindowListener;
-import com.huawei.video.kit.demo.contract.OnWisePlayerListener;
+import com.huawei.video.kit.demo.contract.OnPlayerEngineListener;
 import com.huawei.video.kit.demo.control.PlayControl;
 import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.player.PlaySession;
+import com.huawei.video.kit.demo.player.PlaySessionRegistry;
+import com.huawei.video.kit.demo.player.PlayerEngine;
+import com.huawei.video.kit.demo.player.StartupMetrics;
+import com.huawei.video.kit.demo.player.StartupTimer;
 import com.huawei.video.kit.demo.utils.Constants;
 import com.huawei.video.kit.demo.utils.DataFormatUtil;
 import com.huawei.video.kit.demo.utils.DeviceUtil;
@@ -59,7 +66,8 @@ import com.huawei.video.kit.demo.view.PlayView;
 /**
  * Play Activity
  */
-public class PlayActivity extends AppCompatActivity implements OnPlayWindowListener, OnWisePlayerListener {
+public class PlayActivity extends AppCompatActivity
+    implements OnPlayWindowListener, OnPlayerEngineListener, SeekBar.OnSeekBarChangeListener {
     private static final String TAG = "PlayActivity";
 
     // Play view
@@ -95,27 +103,57 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
     // Play status
     private boolean isPlaying = false;
 
+    // The time the current play is requested, 0 once it is ready
+    private volatile long playRequestTime = 0;
+
+    // Whether the current play started with the player of the handed session
+    private volatile boolean isHandedOffPlay = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        long createTime = SystemClock.elapsedRealtime();
+        playRequestTime = getIntent().getLongExtra(Constants.PLAY_REQUEST_TIME, createTime);
         // Keep the screen on
         getWindow().setFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON,
             WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
         initView();
         playControl = new PlayControl(this, this);
+        playControl.startStartupTimer(playRequestTime);
+        playControl.markStartupPhase(StartupTimer.PHASE_CREATE, createTime);
         // Some of the properties of preserving vertical screen
         systemUiVisibility = getWindow().getDecorView().getSystemUiVisibility();
         // Set the current vertical screen
         setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_PORTRAIT);
 
-        // If failed to initialize, exit the current interface directly
-        if (playControl.initPlayFail()) {
-            Toast.makeText(this, getResources().getString(R.string.init_play_fail), Toast.LENGTH_SHORT).show();
-            finish();
+        PlaySession playSession = PlaySessionRegistry.getInstance()
+            .take(getIntent().getIntExtra(Constants.PLAY_SESSION_TOKEN, PlaySessionRegistry.NO_TOKEN));
+        if (playSession != null) {
+            // The player of the session is preparing since the click, it only needs the view once created
+            isHandedOffPlay = playControl.takePlaySession(playSession);
         } else {
-            playView.setRecycleData(playControl.getPlayList());
-            ready();
+            playControl.setCurrentPlayData(getIntentPlayEntity());
+        }
+        playView.showBufferingView();
+        if (!isHandedOffPlay) {
+            // The player is attached once the factory is ready, the play list is loaded meanwhile.
+            // If failed to initialize, exit the current interface directly
+            playControl.attachPlayer(new OnPlayerAttachListener() {
+                @Override
+                public void onPlayerAttached() {
+                    ready();
+                }
+
+                @Override
+                public void onPlayerAttachFailed(int errorCode, String reason) {
+                    LogUtil.w(TAG, "attach player fail reason :" + reason + ", errorCode is " + errorCode);
+                    Toast.makeText(PlayActivity.this, getResources().getString(R.string.init_play_fail),
+                        Toast.LENGTH_SHORT).show();
+                    finish();
+                }
+            });
         }
+        playControl.loadPlayList(catalogLoadListener);
     }
 
     @Override
@@ -154,39 +192,65 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
     }
 
     /**
-     * Start playback activity
+     * Start playback activity, the play session is opened first so the player prepares while the activity starts.
+     * The intent carries the session token and the plain fields of the entity instead of the serialized entity.
      *
      * @param context Context
      * @param playEntity Play the video data entity
      */
     public static void startPlayActivity(Context context, PlayEntity playEntity) {
+        long requestTime = SystemClock.elapsedRealtime();
+        PlaySession playSession = PlaySessionRegistry.getInstance().open(playEntity);
         Intent intent = new Intent();
         intent.setClass(context, PlayActivity.class);
-        intent.putExtra(Constants.VIDEO_PLAY_DATA, playEntity);
+        intent.putExtra(Constants.PLAY_SESSION_TOKEN, playSession.getToken());
+        intent.putExtra(Constants.VIDEO_PLAY_ID, playEntity.getId());
+        intent.putExtra(Constants.VIDEO_PLAY_NAME, playEntity.getName());
+        intent.putExtra(Constants.VIDEO_PLAY_URL, playEntity.getUrl());
+        intent.putExtra(Constants.VIDEO_PLAY_URL_TYPE, playEntity.getUrlType());
+        intent.putExtra(Constants.VIDEO_PLAY_APP_ID, playEntity.getAppId());
+        intent.putExtra(Constants.PLAY_REQUEST_TIME, requestTime);
         context.startActivity(intent);
     }
 
     /**
-     * Prepare playing
+     * Prepare playing, the view is bound if it is created before the player is attached
      */
     private void ready() {
-        playControl.setCurrentPlayData(getIntentExtra());
-        playView.showBufferingView();
         playControl.ready();
+        if (hasSurfaceCreated) {
+            bindPlayView();
+        }
     }
 
     /**
-     * get the video data
+     * Bind the created play view to the player
+     */
+    private void bindPlayView() {
+        if (PlayControlUtil.isSurfaceView()) {
+            playControl.setSurfaceView(playView.getSurfaceView());
+        } else {
+            playControl.setTextureView(playView.getTextureView());
+        }
+    }
+
+    /**
+     * Get the video data from the intent fields
      *
-     * @return the video data
+     * @return The video data, null if the intent has none
      */
-    private Serializable getIntentExtra() {
+    private PlayEntity getIntentPlayEntity() {
         Intent intent = getIntent();
-        if (intent != null) {
-            return intent.getSerializableExtra(Constants.VIDEO_PLAY_DATA);
-        } else {
+        if (intent == null || !intent.hasExtra(Constants.VIDEO_PLAY_URL)) {
             return null;
         }
+        PlayEntity playEntity = new PlayEntity();
+        playEntity.setId(intent.getLongExtra(Constants.VIDEO_PLAY_ID, 0));
+        playEntity.setName(intent.getStringExtra(Constants.VIDEO_PLAY_NAME));
+        playEntity.setUrl(intent.getStringExtra(Constants.VIDEO_PLAY_URL));
+        playEntity.setUrlType(intent.getIntExtra(Constants.VIDEO_PLAY_URL_TYPE, 0));
+        playEntity.setAppId(intent.getStringExtra(Constants.VIDEO_PLAY_APP_ID));
+        return playEntity;
     }
 
     @Override
@@ -217,7 +281,7 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
     }
 
     @Override
-    public void onLoadingUpdate(WisePlayer wisePlayer, final int percent) {
+    public void onLoadingUpdate(PlayerEngine playerEngine, final int percent) {
         LogUtil.d(TAG, "update buffering percent :" + percent);
         runOnUiThread(new Runnable() {
             @Override
@@ -232,13 +296,13 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
     }
 
     @Override
-    public void onStartPlaying(WisePlayer wisePlayer) {
+    public void onStartPlaying(PlayerEngine playerEngine) {
         LogUtil.d(TAG, "onStartPlaying");
         isPlayComplete = false;
     }
 
     @Override
-    public boolean onError(WisePlayer wisePlayer, int what, int extra) {
+    public boolean onError(PlayerEngine playerEngine, int what, int extra) {
         LogUtil.d(TAG, "onError what:" + what + " extra:" + extra);
         Toast.makeText(this, "error:" + what + " extra:" + extra, Toast.LENGTH_SHORT).show();
 
@@ -254,6 +318,9 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
             playControl.savePlayProgress();
             isPlayComplete = false;
         }
+        playControl.cancelAttachPlayer();
+        playControl.cancelLoadPlayList();
+        LogUtil.d(TAG, "time to first progress\n" + StartupMetrics.getInstance().getSummary());
         playControl.stop();
         playControl.release();
         // Mute only on the current video effect
@@ -264,6 +331,14 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
         }
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (DeviceUtil.isMemoryShort(level)) {
+            playControl.releaseStandby();
+        }
+    }
+
     @Override
     public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
     }
@@ -286,6 +361,20 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
         updateViewHandler.sendEmptyMessageDelayed(Constants.PLAYING_WHAT, Constants.DELAY_MILLIS_500);
     }
 
+    /**
+     * Show the play list once the catalog is loaded
+     */
+    private OnCatalogLoadListener catalogLoadListener = new OnCatalogLoadListener() {
+        @Override
+        public void onCatalogChunkLoaded(List<PlayEntity> playList, int positionStart, int itemCount) {
+        }
+
+        @Override
+        public void onCatalogLoaded(CatalogSnapshot snapshot) {
+            playView.setRecycleData(snapshot.getPlayList());
+        }
+    };
+
     /**
      * Update the player view
      */
@@ -302,6 +391,8 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
                     if (!isUserTrackingTouch) {
                         playView.updatePlayProgressView(playControl.getCurrentTime(), playControl.getBufferTime(),
                             playControl.getBufferingSpeed(), playControl.getCurrentBitrate());
+                        playControl.checkpointPlayProgress();
+                        playControl.onProgressUpdated();
                         sendEmptyMessageDelayed(Constants.PLAYING_WHAT, Constants.DELAY_MILLIS_500);
                     }
                     break;
@@ -651,12 +742,21 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
         }
         PlayEntity playEntity = playControl.getPlayFromPosition(pos);
         if (playEntity != null) {
+            playRequestTime = SystemClock.elapsedRealtime();
+            isHandedOffPlay = false;
+            playControl.startStartupTimer(playRequestTime);
             playControl.reset();
             playView.reset();
             LogUtil.d(TAG, "reset success");
             if (playControl.initPlayFail()) {
-                Toast.makeText(this, getResources().getString(R.string.init_play_fail), Toast.LENGTH_SHORT).show();
-                finish();
+                // The player is not attached yet, it plays the selected entity once attached
+                playControl.setCurrentPlayData(playEntity);
+            } else if (playControl.switchToStandby(playEntity)) {
+                // The preloaded player is ready or preparing, it only needs the view
+                playControl.setMute(false);
+                if (hasSurfaceCreated) {
+                    bindPlayView();
+                }
             } else {
                 playControl.setCurrentPlayData(playEntity);
                 restartPlayer();
@@ -760,11 +860,7 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
         playControl.setMute(false);
         playControl.ready();
         if (hasSurfaceCreated) {
-            if (PlayControlUtil.isSurfaceView()) {
-                playControl.setSurfaceView(playView.getSurfaceView());
-            } else {
-                playControl.setTextureView(playView.getTextureView());
-            }
+            bindPlayView();
             isSuspend = false;
             playControl.playResume(ResumeType.KEEP);
             if (!updateViewHandler.hasMessages(Constants.PLAYING_WHAT)) {
@@ -774,15 +870,15 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
     }
 
     @Override
-    public boolean onEvent(WisePlayer wisePlayer, int what, int extra, Object o) {
+    public boolean onEvent(PlayerEngine playerEngine, int what, int extra, Object o) {
         LogUtil.d(TAG, "onInfo = " + what + " extra = " + extra);
         isPlaying = false;
         return true;
     }
 
     @Override
-    public void onPlayEnd(WisePlayer wisePlayer) {
-        LogUtil.d(TAG, "onPlayEnd " + wisePlayer.getCurrentTime());
+    public void onPlayEnd(PlayerEngine playerEngine) {
+        LogUtil.d(TAG, "onPlayEnd " + playerEngine.getCurrentTime());
         playControl.clearPlayProgress();
         isPlaying = false;
         isPlayComplete = true;
@@ -790,32 +886,41 @@ public class PlayActivity extends AppCompatActivity implements OnPlayWindowListe
     }
 
     @Override
-    public void onReady(final WisePlayer wisePlayer) {
+    public void onReady(final PlayerEngine playerEngine) {
         LogUtil.d(TAG, "onReady");
+        playControl.markStartupPhase(StartupTimer.PHASE_ON_READY);
+        if (playRequestTime != 0) {
+            // Compare the handed off starts with the others to see the time saved by preparing before the page
+            LogUtil.i(TAG, "play startup latency " + (SystemClock.elapsedRealtime() - playRequestTime) + " ms"
+                + (isHandedOffPlay ? ", session handed off" : ""));
+            playRequestTime = 0;
+        }
         playControl.start();
         isPlaying = true;
         // Make sure the main thread to update
         runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                playView.updatePlayView(wisePlayer);
+                playView.updatePlayView(playerEngine);
                 if (isResume) {
                     playView.setPauseView();
                 }
-                playView.setContentView(wisePlayer, playControl.getCurrentPlayName());
+                playView.setContentView(playerEngine, playControl.getCurrentPlayName());
                 updateViewHandler.sendEmptyMessageDelayed(Constants.PLAYING_WHAT, Constants.DELAY_MILLIS_500);
+                // The current entity is buffered, prepare the next one
+                playControl.preloadNext();
             }
         });
     }
 
     @Override
-    public void onResolutionUpdated(WisePlayer wisePlayer, int w, int h) {
+    public void onResolutionUpdated(PlayerEngine playerEngine, int w, int h) {
         LogUtil.d(TAG, "current video width:" + w + " height:" + h);
-        playView.setContentView(wisePlayer, playControl.getCurrentPlayName());
+        playView.setContentView(playerEngine, playControl.getCurrentPlayName());
     }
 
     @Override
-    public void onSeekEnd(WisePlayer wisePlayer) {
+    public void onSeekEnd(PlayerEngine playerEngine) {
 
     }
 }
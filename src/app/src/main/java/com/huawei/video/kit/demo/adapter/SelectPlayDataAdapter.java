@@ -16,7 +16,7 @@
 
 package com.huawei.video.kit.demo.adapter;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import android.content.Context;
@@ -24,13 +24,17 @@ import android.support.annotation.NonNull;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.RecyclerView.ViewHolder;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.view.View.OnTouchListener;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import com.huawei.video.kit.demo.R;
+import com.huawei.video.kit.demo.catalog.CatalogChange;
 import com.huawei.video.kit.demo.contract.OnItemClickListener;
+import com.huawei.video.kit.demo.contract.OnItemPressListener;
 import com.huawei.video.kit.demo.entity.PlayEntity;
 import com.huawei.video.kit.demo.utils.LogUtil;
 import com.huawei.video.kit.demo.utils.StringUtil;
@@ -50,6 +54,9 @@ public class SelectPlayDataAdapter extends RecyclerView.Adapter<SelectPlayDataAd
     // Click item listener
     private OnItemClickListener onItemClickListener;
 
+    // Press item listener, null if the presses are not needed
+    private OnItemPressListener onItemPressListener;
+
     /**
      * Constructor
      *
@@ -58,23 +65,72 @@ public class SelectPlayDataAdapter extends RecyclerView.Adapter<SelectPlayDataAd
      */
     public SelectPlayDataAdapter(Context context, OnItemClickListener onItemClickListener) {
         this.context = context;
-        playList = new ArrayList<>();
+        playList = Collections.emptyList();
         this.onItemClickListener = onItemClickListener;
     }
 
     /**
-     * Set list data
+     * Set the press listener, which is notified on touch down before the click
+     *
+     * @param onItemPressListener Listener
+     */
+    public void setOnItemPressListener(OnItemPressListener onItemPressListener) {
+        this.onItemPressListener = onItemPressListener;
+    }
+
+    /**
+     * Set list data, the list is shared and not copied, it must not be modified afterwards
      *
      * @param playList Play data
      */
     public void setSelectPlayList(List<PlayEntity> playList) {
-        if (this.playList.size() > 0) {
-            this.playList.clear();
+        if (this.playList == playList) {
+            return;
         }
-        this.playList.addAll(playList);
+        this.playList = playList;
         notifyDataSetChanged();
     }
 
+    /**
+     * Notify the new entities appended to the list
+     *
+     * @param playList Play data
+     * @param positionStart The position of the first new entity
+     * @param itemCount The number of new entities
+     */
+    public void appendSelectPlayList(List<PlayEntity> playList, int positionStart, int itemCount) {
+        if (this.playList != playList) {
+            setSelectPlayList(playList);
+            return;
+        }
+        notifyItemRangeInserted(positionStart, itemCount);
+    }
+
+    /**
+     * Replace the list with the updated list and notify only the changed ranges
+     *
+     * @param playList The updated play data
+     * @param changes The changes from the current list to the updated list, in order
+     */
+    public void updateSelectPlayList(List<PlayEntity> playList, List<CatalogChange> changes) {
+        this.playList = playList;
+        for (CatalogChange change : changes) {
+            switch (change.getType()) {
+                case CatalogChange.TYPE_INSERTED:
+                    notifyItemRangeInserted(change.getPositionStart(), change.getItemCount());
+                    break;
+                case CatalogChange.TYPE_REMOVED:
+                    notifyItemRangeRemoved(change.getPositionStart(), change.getItemCount());
+                    break;
+                case CatalogChange.TYPE_CHANGED:
+                    notifyItemRangeChanged(change.getPositionStart(), change.getItemCount());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     @NonNull
     @Override
     public PlayViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -83,7 +139,7 @@ public class SelectPlayDataAdapter extends RecyclerView.Adapter<SelectPlayDataAd
     }
 
     @Override
-    public void onBindViewHolder(PlayViewHolder holder, final int position) {
+    public void onBindViewHolder(final PlayViewHolder holder, int position) {
         if (playList.size() > position && holder != null) {
             PlayEntity playEntity = playList.get(position);
             if (playEntity == null) {
@@ -96,7 +152,32 @@ public class SelectPlayDataAdapter extends RecyclerView.Adapter<SelectPlayDataAd
             holder.itemView.setOnClickListener(new OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    onItemClickListener.onItemClick(position);
+                    // The bound position is stale once items are inserted or removed above
+                    int adapterPosition = holder.getAdapterPosition();
+                    if (adapterPosition != RecyclerView.NO_POSITION) {
+                        onItemClickListener.onItemClick(adapterPosition);
+                    }
+                }
+            });
+            holder.itemView.setOnTouchListener(new OnTouchListener() {
+                @Override
+                public boolean onTouch(View v, MotionEvent event) {
+                    int adapterPosition = holder.getAdapterPosition();
+                    if (onItemPressListener != null && adapterPosition != RecyclerView.NO_POSITION) {
+                        switch (event.getActionMasked()) {
+                            case MotionEvent.ACTION_DOWN:
+                                onItemPressListener.onItemPressed(adapterPosition);
+                                break;
+                            case MotionEvent.ACTION_CANCEL:
+                                // The list intercepts the touch once it scrolls
+                                onItemPressListener.onItemPressCancelled(adapterPosition);
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                    // Not consumed, the click is still delivered
+                    return false;
                 }
             });
         }
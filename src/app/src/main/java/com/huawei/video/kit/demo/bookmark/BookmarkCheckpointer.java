@@ -0,0 +1,277 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.bookmark;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.LongIntHashMap;
+
+/**
+ * Save the play progress periodically while playing, so a crash or a killed process loses at most one interval.
+ * <p>
+ * The progress tick only records the latest position in memory. The positions are written to the bookmark store
+ * in one batch per interval on the checkpoint thread, a position that hardly moved since the last checkpoint
+ * (a paused title) is not written at all. The bookmark table is flushed to the storage at most once per
+ * flush interval, or right away when the progress is saved explicitly, to keep the writes on the flash low.
+ * <p>
+ * The explicit saves and removals are recorded in memory as well and applied by the checkpoint thread,
+ * so the main thread never waits for the store. The lookups see the recorded changes before they are applied.
+ */
+public class BookmarkCheckpointer {
+    private static final String TAG = "BookmarkCheckpointer";
+
+    /**
+     * The default checkpoint interval
+     */
+    public static final long DEFAULT_INTERVAL_MS = 10000;
+
+    /**
+     * The default interval to flush the checkpoints to the storage
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 60000;
+
+    /**
+     * A position moved less than this since the last checkpoint is not written
+     */
+    private static final int MIN_POSITION_CHANGE = 1000;
+
+    private static final BookmarkCheckpointer INSTANCE = new BookmarkCheckpointer();
+
+    // Write the checkpoints in the background
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "BookmarkCheckpointer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Write the pending checkpoints
+    private final Runnable checkpointTask = new Runnable() {
+        @Override
+        public void run() {
+            checkpoint(false);
+        }
+    };
+
+    // Write the pending checkpoints and flush the table
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            checkpoint(true);
+        }
+    };
+
+    // The latest positions not written yet, guarded by this
+    private LongIntHashMap pendingPositions = new LongIntHashMap();
+
+    // The durations of the pending positions, guarded by this
+    private LongIntHashMap pendingDurations = new LongIntHashMap();
+
+    // The removals not applied yet, guarded by this
+    private LongIntHashMap pendingRemovals = new LongIntHashMap();
+
+    // The changes being written by the checkpoint thread, seen by the lookups until written, guarded by this
+    private LongIntHashMap writingPositions = new LongIntHashMap();
+
+    private LongIntHashMap writingDurations = new LongIntHashMap();
+
+    private LongIntHashMap writingRemovals = new LongIntHashMap();
+
+    // The last written positions of the titles played since the last flush, guarded by this
+    private final LongIntHashMap checkpointPositions = new LongIntHashMap();
+
+    // Whether a checkpoint is scheduled, guarded by this
+    private boolean isCheckpointScheduled = false;
+
+    // Whether the table has changes not flushed to the storage, guarded by this
+    private boolean isDirty = false;
+
+    // The time of the last flush, guarded by this
+    private long lastFlushTime = 0;
+
+    // Checkpoint interval, guarded by this
+    private long intervalMs = DEFAULT_INTERVAL_MS;
+
+    // Flush interval, guarded by this
+    private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+    private BookmarkCheckpointer() {
+    }
+
+    /**
+     * Get the checkpointer
+     *
+     * @return Bookmark checkpointer
+     */
+    public static BookmarkCheckpointer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the intervals, the scheduled checkpoint keeps its time
+     *
+     * @param intervalMs Checkpoint interval
+     * @param flushIntervalMs The interval to flush the checkpoints to the storage
+     */
+    public synchronized void setIntervals(long intervalMs, long flushIntervalMs) {
+        if (intervalMs <= 0 || flushIntervalMs < 0) {
+            throw new IllegalArgumentException("invalid checkpoint intervals");
+        }
+        this.intervalMs = intervalMs;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    /**
+     * Record the play progress, called by the progress tick on the main thread. Only memory is touched,
+     * the position is written by the next checkpoint.
+     *
+     * @param key Entity id
+     * @param position Position
+     * @param duration Duration of the title, 0 if unknown
+     */
+    public synchronized void onProgress(long key, int position, int duration) {
+        if (!pendingPositions.containsKey(key)
+            && Math.abs(position - checkpointPositions.get(key, Integer.MIN_VALUE / 2)) < MIN_POSITION_CHANGE) {
+            return;
+        }
+        pendingPositions.put(key, position);
+        pendingDurations.put(key, duration);
+        pendingRemovals.remove(key);
+        if (!isCheckpointScheduled) {
+            isCheckpointScheduled = true;
+            executor.schedule(checkpointTask, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Save the play progress now, it replaces the pending checkpoint of the entity
+     * and the table is flushed to the storage in the background
+     *
+     * @param key Entity id
+     * @param position Position
+     * @param duration Duration of the title, 0 if unknown
+     */
+    public void save(long key, int position, int duration) {
+        synchronized (this) {
+            pendingPositions.put(key, position);
+            pendingDurations.put(key, duration);
+            pendingRemovals.remove(key);
+        }
+        executor.execute(flushTask);
+    }
+
+    /**
+     * Remove the play progress, the pending checkpoint of the entity is dropped
+     *
+     * @param key Entity id
+     */
+    public void remove(long key) {
+        synchronized (this) {
+            pendingPositions.remove(key);
+            pendingDurations.remove(key);
+            pendingRemovals.put(key, 0);
+            checkpointPositions.remove(key);
+        }
+        executor.execute(flushTask);
+    }
+
+    /**
+     * Get the play progress, including the changes not written to the store yet
+     *
+     * @param key Entity id
+     * @return Position, 0 if there is no bookmark
+     */
+    public int get(long key) {
+        synchronized (this) {
+            if (pendingRemovals.containsKey(key)) {
+                return 0;
+            }
+            if (pendingPositions.containsKey(key)) {
+                return getPosition(pendingPositions, pendingDurations, key);
+            }
+            if (writingRemovals.containsKey(key)) {
+                return 0;
+            }
+            if (writingPositions.containsKey(key)) {
+                return getPosition(writingPositions, writingDurations, key);
+            }
+        }
+        return BookmarkStore.getInstance().get(key);
+    }
+
+    private static int getPosition(LongIntHashMap positions, LongIntHashMap durations, long key) {
+        int position = positions.get(key, 0);
+        return BookmarkStore.isFinished(position, durations.get(key, 0)) ? 0 : position;
+    }
+
+    /**
+     * Write the pending positions in one batch and flush the table if it is due, runs on the checkpoint thread
+     *
+     * @param isForced Whether to flush the table regardless of the flush interval
+     */
+    private void checkpoint(boolean isForced) {
+        LongIntHashMap positions;
+        LongIntHashMap durations;
+        LongIntHashMap removals;
+        synchronized (this) {
+            isCheckpointScheduled = false;
+            positions = pendingPositions;
+            durations = pendingDurations;
+            removals = pendingRemovals;
+            writingPositions = positions;
+            writingDurations = durations;
+            writingRemovals = removals;
+            pendingPositions = new LongIntHashMap();
+            pendingDurations = new LongIntHashMap();
+            pendingRemovals = new LongIntHashMap();
+            for (long key : positions.keys()) {
+                checkpointPositions.put(key, positions.get(key, 0));
+            }
+        }
+        // The store is written without this lock, so the progress ticks of the main thread never wait for it
+        BookmarkStore bookmarkStore = BookmarkStore.getInstance();
+        bookmarkStore.applyBatch(positions, durations, removals);
+        int count = positions.size() + removals.size();
+        synchronized (this) {
+            writingPositions = new LongIntHashMap();
+            writingDurations = new LongIntHashMap();
+            writingRemovals = new LongIntHashMap();
+            isDirty |= count > 0;
+            long now = SystemClock.elapsedRealtime();
+            if (!isDirty || !isForced && now - lastFlushTime < flushIntervalMs) {
+                return;
+            }
+            isDirty = false;
+            lastFlushTime = now;
+            // Only the titles still playing need their last position, they are written again at most once
+            checkpointPositions.clear();
+        }
+        long startTime = SystemClock.elapsedRealtime();
+        bookmarkStore.force();
+        LogUtil.d(TAG, "checkpoint " + count + " bookmarks, flushed in " + (SystemClock.elapsedRealtime() - startTime)
+            + " ms");
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.bookmark;
+
+import com.huawei.video.kit.demo.utils.LongIntHashMap;
+
+/**
+ * Immutable copy of the bookmarks, published by the store after every change so the lookups never wait
+ * for the lock held by the writes. A copy costs time proportional to the number of bookmarks, which is bounded
+ * by the maximum size of the store, and the writes are a few checkpoints a minute.
+ */
+class BookmarkMirror {
+    /**
+     * No bookmark
+     */
+    static final BookmarkMirror EMPTY = new BookmarkMirror(new long[0], new int[0], new long[0], 0,
+        BookmarkTable.NO_EXPIRE);
+
+    // The index of every key in the positions and timestamps, never modified after the constructor
+    private final LongIntHashMap indexes;
+
+    // Positions
+    private final int[] positions;
+
+    // Save times
+    private final long[] timestamps;
+
+    // The bookmarks older than this are expired
+    private final long expireTimeMs;
+
+    /**
+     * Constructor, the arrays are owned by the mirror
+     *
+     * @param keys Entity ids
+     * @param positions Positions
+     * @param timestamps Save times
+     * @param count The number of bookmarks in the arrays
+     * @param expireTimeMs The bookmarks not saved within this time are expired, BookmarkTable.NO_EXPIRE
+     * for no limit
+     */
+    BookmarkMirror(long[] keys, int[] positions, long[] timestamps, int count, long expireTimeMs) {
+        indexes = new LongIntHashMap(count);
+        for (int i = 0; i < count; i++) {
+            indexes.put(keys[i], i);
+        }
+        this.positions = positions;
+        this.timestamps = timestamps;
+        this.expireTimeMs = expireTimeMs;
+    }
+
+    /**
+     * Get the position of the key
+     *
+     * @param key Entity id
+     * @param now The current time
+     * @return Position, 0 if the key is not in the mirror or expired
+     */
+    int get(long key, long now) {
+        int index = indexes.get(key, -1);
+        if (index < 0 || expireTimeMs != BookmarkTable.NO_EXPIRE && now - timestamps[index] > expireTimeMs) {
+            return 0;
+        }
+        return positions[index];
+    }
+
+    /**
+     * Get the number of bookmarks
+     *
+     * @return The number of bookmarks
+     */
+    int size() {
+        return indexes.size();
+    }
+}
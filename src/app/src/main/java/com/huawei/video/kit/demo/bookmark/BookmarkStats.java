@@ -0,0 +1,90 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.bookmark;
+
+/**
+ * Bookmark cache statistics
+ */
+public class BookmarkStats {
+    // The number of bookmarks
+    private final int size;
+
+    // The maximum number of bookmarks
+    private final int maxSize;
+
+    // The lookups which found a bookmark
+    private final long hitCount;
+
+    // The lookups which found no bookmark
+    private final long missCount;
+
+    // The bookmarks evicted for space
+    private final long evictionCount;
+
+    // The bookmarks removed for age
+    private final long expiredCount;
+
+    /**
+     * Constructor
+     *
+     * @param size The number of bookmarks
+     * @param maxSize The maximum number of bookmarks
+     * @param hitCount The lookups which found a bookmark
+     * @param missCount The lookups which found no bookmark
+     * @param evictionCount The bookmarks evicted for space
+     * @param expiredCount The bookmarks removed for age
+     */
+    public BookmarkStats(int size, int maxSize, long hitCount, long missCount, long evictionCount,
+        long expiredCount) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expiredCount = expiredCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    @Override
+    public String toString() {
+        return "size " + size + "/" + maxSize + ", hit " + hitCount + ", miss " + missCount + ", evicted "
+            + evictionCount + ", expired " + expiredCount;
+    }
+}
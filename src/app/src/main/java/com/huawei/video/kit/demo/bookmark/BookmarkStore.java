@@ -0,0 +1,343 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.bookmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.LongIntHashMap;
+
+/**
+ * Persistent play progress store backed by the memory mapped bookmark table. The table is mapped in the
+ * background at startup, the lookups and updates are then plain memory accesses. Until the table is mapped
+ * the changes are kept in memory and written to the table once it is ready.
+ * <p>
+ * The lookups read an immutable mirror of the bookmarks, so they never wait for a write holding the lock
+ * while the table is resized or scanned. Publishing the mirror copies all the bookmarks, so the checkpoints
+ * write their changes with applyBatch, which publishes once per batch instead of once per bookmark.
+ * The lookups do not mark the bookmarks visited for the eviction, the checkpoints of the watched titles do.
+ * <p>
+ * The store keeps at most the configured number of bookmarks, evicting the least recently watched ones,
+ * drops the bookmarks not watched within the expire time, and removes the bookmark of a finished title.
+ */
+public class BookmarkStore {
+    private static final String TAG = "BookmarkStore";
+
+    private static final String TABLE_FILE_NAME = "bookmarks.tbl";
+
+    /**
+     * The default maximum number of bookmarks
+     */
+    public static final int DEFAULT_MAX_SIZE = 2000;
+
+    /**
+     * The default expire time, 90 days
+     */
+    public static final long DEFAULT_EXPIRE_TIME_MS = 90L * 24 * 60 * 60 * 1000;
+
+    /**
+     * A title watched to this part of the duration is finished
+     */
+    private static final float COMPLETED_RATIO = 0.95f;
+
+    private static final BookmarkStore INSTANCE = new BookmarkStore();
+
+    // Map the table in the background
+    private final ExecutorService openExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "BookmarkStore");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Bookmark table, null until mapped, guarded by this
+    private BookmarkTable bookmarkTable;
+
+    // The bookmarks saved before the table is mapped, guarded by this
+    private LongIntHashMap pendingBookmarks = new LongIntHashMap();
+
+    // The bookmarks removed before the table is mapped, guarded by this
+    private LongIntHashMap pendingRemovals = new LongIntHashMap();
+
+    // The maximum number of bookmarks, guarded by this
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    // The expire time, guarded by this
+    private long expireTimeMs = DEFAULT_EXPIRE_TIME_MS;
+
+    // The bookmarks for the lookups, replaced under the lock after every change
+    private volatile BookmarkMirror bookmarkMirror = BookmarkMirror.EMPTY;
+
+    // Lookup counters, the lookups do not reach the table
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private BookmarkStore() {
+    }
+
+    /**
+     * Get the store
+     *
+     * @return Bookmark store
+     */
+    public static BookmarkStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Map the bookmark table in the background, the store is memory only until it is mapped
+     *
+     * @param context Context
+     * @param onOpened Run on the open thread once the table is mapped, may be null
+     */
+    public void open(Context context, final Runnable onOpened) {
+        final File filesDir = context.getFilesDir();
+        openExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    openTable(filesDir);
+                } finally {
+                    if (onOpened != null) {
+                        onOpened.run();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Set the bounds of the store
+     *
+     * @param maxSize The maximum number of bookmarks
+     * @param expireTimeMs The bookmarks not watched within this time are removed, BookmarkTable.NO_EXPIRE
+     * for no limit
+     */
+    public synchronized void setBounds(int maxSize, long expireTimeMs) {
+        this.maxSize = maxSize;
+        this.expireTimeMs = expireTimeMs;
+        if (bookmarkTable != null) {
+            bookmarkTable.setBounds(maxSize, expireTimeMs);
+            publishMirror();
+        }
+    }
+
+    /**
+     * Get the statistics of the bookmarks
+     *
+     * @return Statistics
+     */
+    public synchronized BookmarkStats getStats() {
+        if (bookmarkTable != null) {
+            BookmarkStats tableStats = bookmarkTable.getStats();
+            return new BookmarkStats(tableStats.getSize(), tableStats.getMaxSize(), hitCount.get(), missCount.get(),
+                tableStats.getEvictionCount(), tableStats.getExpiredCount());
+        }
+        return new BookmarkStats(pendingBookmarks.size(), maxSize, hitCount.get(), missCount.get(), 0, 0);
+    }
+
+    /**
+     * Save the bookmark, the bookmark of a finished title is removed instead
+     *
+     * @param key Entity id
+     * @param position Position
+     * @param duration Duration of the title, 0 if unknown
+     */
+    public synchronized void put(long key, int position, int duration) {
+        write(key, position, duration);
+        publishMirror();
+    }
+
+    /**
+     * Apply the changes of a checkpoint, the mirror of the lookups is published once for the whole batch
+     *
+     * @param positions The positions to save by entity id
+     * @param durations The durations of the titles by entity id, 0 if unknown
+     * @param removals The entity ids whose bookmarks are removed
+     */
+    public synchronized void applyBatch(LongIntHashMap positions, LongIntHashMap durations,
+        LongIntHashMap removals) {
+        if (positions.size() == 0 && removals.size() == 0) {
+            return;
+        }
+        for (long key : removals.keys()) {
+            delete(key);
+        }
+        for (long key : positions.keys()) {
+            write(key, positions.get(key, 0), durations.get(key, 0));
+        }
+        publishMirror();
+    }
+
+    /**
+     * Whether the title is watched to the end, its bookmark is removed instead of saved
+     *
+     * @param position Position
+     * @param duration Duration of the title, 0 if unknown
+     * @return Is finished
+     */
+    static boolean isFinished(int position, int duration) {
+        return duration > 0 && position >= duration * COMPLETED_RATIO;
+    }
+
+    /**
+     * Get the bookmark, never takes the lock of the writes
+     *
+     * @param key Entity id
+     * @return Position, 0 if there is no bookmark
+     */
+    public int get(long key) {
+        int position = bookmarkMirror.get(key, System.currentTimeMillis());
+        if (position > 0) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return position;
+    }
+
+    /**
+     * Save the bookmark
+     *
+     * @param key Entity id
+     * @param position Position
+     */
+    public synchronized void put(long key, int position) {
+        save(key, position);
+        publishMirror();
+    }
+
+    /**
+     * Remove the bookmark
+     *
+     * @param key Entity id
+     */
+    public synchronized void remove(long key) {
+        delete(key);
+        publishMirror();
+    }
+
+    /**
+     * Save the bookmark or remove the bookmark of a finished title without publishing, must hold the lock
+     */
+    private void write(long key, int position, int duration) {
+        if (isFinished(position, duration)) {
+            LogUtil.d(TAG, "title " + key + " is finished, remove the bookmark");
+            delete(key);
+        } else {
+            save(key, position);
+        }
+    }
+
+    private void save(long key, int position) {
+        if (bookmarkTable != null) {
+            bookmarkTable.put(key, position, System.currentTimeMillis());
+        } else {
+            pendingBookmarks.put(key, position);
+            pendingRemovals.remove(key);
+        }
+    }
+
+    private void delete(long key) {
+        if (bookmarkTable != null) {
+            bookmarkTable.remove(key);
+        } else {
+            pendingBookmarks.remove(key);
+            pendingRemovals.put(key, 0);
+        }
+    }
+
+    /**
+     * Flush the bookmarks to the storage, must not be called on the main thread.
+     * Nothing is written if the table is not mapped yet.
+     */
+    public void force() {
+        BookmarkTable table;
+        synchronized (this) {
+            table = bookmarkTable;
+        }
+        if (table != null) {
+            table.force();
+        }
+    }
+
+    /**
+     * Map the table and apply the pending changes
+     *
+     * @param filesDir The directory of the files
+     */
+    private void openTable(File filesDir) {
+        long startTime = SystemClock.elapsedRealtime();
+        BookmarkTable table;
+        try {
+            table = BookmarkTable.open(new File(filesDir, TABLE_FILE_NAME));
+        } catch (IOException e) {
+            LogUtil.w(TAG, "open bookmark table error, bookmarks are not saved :" + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            table.setBounds(maxSize, expireTimeMs);
+            int expiredCount = table.removeExpired();
+            if (expiredCount > 0) {
+                LogUtil.i(TAG, "remove " + expiredCount + " expired bookmarks");
+            }
+            long timestamp = System.currentTimeMillis();
+            for (long key : pendingRemovals.keys()) {
+                table.remove(key);
+            }
+            for (long key : pendingBookmarks.keys()) {
+                table.put(key, pendingBookmarks.get(key, 0), timestamp);
+            }
+            pendingBookmarks = new LongIntHashMap();
+            pendingRemovals = new LongIntHashMap();
+            bookmarkTable = table;
+            publishMirror();
+        }
+        LogUtil.i(TAG, "bookmark table opened in " + (SystemClock.elapsedRealtime() - startTime) + " ms, size "
+            + table.size());
+    }
+
+    /**
+     * Replace the mirror of the lookups with the current bookmarks, must hold the lock.
+     * Copies all the bookmarks, O(size).
+     */
+    private void publishMirror() {
+        if (bookmarkTable != null) {
+            bookmarkMirror = bookmarkTable.createMirror();
+            return;
+        }
+        // The pending bookmarks are saved now, they do not expire before the table is mapped
+        long[] keys = pendingBookmarks.keys();
+        int[] positions = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            positions[i] = pendingBookmarks.get(keys[i], 0);
+        }
+        bookmarkMirror = new BookmarkMirror(keys, positions, new long[keys.length], keys.length,
+            BookmarkTable.NO_EXPIRE);
+    }
+}
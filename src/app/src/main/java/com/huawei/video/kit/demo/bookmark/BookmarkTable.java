@@ -0,0 +1,602 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.bookmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.huawei.video.kit.demo.utils.LogUtil;
+
+/**
+ * Memory mapped hash table of the bookmarks. The file is a fixed array of slots, a lookup or update is
+ * a few reads and writes of the mapped memory, nothing is parsed when the file is opened.
+ * Open addressing with linear probing, the removal shifts the following slots back, and the table is
+ * copied to a file of double capacity when it is too full.
+ * <p>
+ * The number of bookmarks is bounded, a full table evicts with SIEVE: a hit marks the slot visited and
+ * the hand sweeps the slots, clearing the visited marks and evicting the first slot which is not visited.
+ * The bookmarks not saved within the expire time are removed when they are found.
+ * <p>
+ * Layout, big endian: header (magic, version, capacity, size), slots (key as long, timestamp as long,
+ * position, state with the used and visited bits). A slot is marked free before its key is rewritten and
+ * marked used after all its fields are written, so a used slot never holds a half written entry, also when
+ * the shift of a removal overwrites a used slot. A killed process may leave the header size behind the slots,
+ * a key in two identical slots, or a slot freed in the middle of a shift which cuts the probe chain of the
+ * slots after it. When the table is mapped the slots are counted, and if a key is found twice or can not
+ * be found from its home slot the table is copied to a new file, which rebuilds the probe chains.
+ */
+public class BookmarkTable {
+    private static final String TAG = "BookmarkTable";
+
+    private static final int MAGIC = 0x564B424D;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int SLOT_SIZE = 24;
+
+    private static final int KEY_OFFSET = 0;
+
+    private static final int TIMESTAMP_OFFSET = 8;
+
+    private static final int POSITION_OFFSET = 16;
+
+    private static final int STATE_OFFSET = 20;
+
+    private static final int STATE_FREE = 0;
+
+    private static final int STATE_USED = 1;
+
+    private static final int STATE_VISITED = 2;
+
+    /**
+     * No limit of the bookmark age
+     */
+    public static final long NO_EXPIRE = Long.MAX_VALUE;
+
+    /**
+     * The capacity of a new table, must be a power of 2
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final float LOAD_FACTOR = 0.7f;
+
+    // Table file
+    private final File file;
+
+    // Mapped table
+    private MappedByteBuffer buffer;
+
+    // The number of slots, a power of 2
+    private int capacity;
+
+    // The number of used slots
+    private int size;
+
+    // The maximum number of bookmarks
+    private int maxSize = Integer.MAX_VALUE;
+
+    // The bookmarks older than this are expired
+    private long expireTimeMs = NO_EXPIRE;
+
+    // The SIEVE hand, the next slot to check for eviction
+    private int hand;
+
+    // Counters since the table is opened
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private long expiredCount;
+
+    // Run before every store to the mapped table, the tests throw from it to simulate a killed process
+    private Runnable beforeStore;
+
+    private BookmarkTable(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Open the table file, a new table is created if the file is missing or invalid
+     *
+     * @param file Table file
+     * @return Bookmark table
+     * @throws IOException The file can not be mapped
+     */
+    public static BookmarkTable open(File file) throws IOException {
+        BookmarkTable table = new BookmarkTable(file);
+        if (!table.map()) {
+            LogUtil.i(TAG, "create bookmark table");
+            table.create(file, DEFAULT_CAPACITY);
+            if (!table.map()) {
+                throw new IOException("map bookmark table fail");
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Set the bounds of the table, the bookmarks over the maximum size are evicted
+     *
+     * @param maxSize The maximum number of bookmarks
+     * @param expireTimeMs The bookmarks not saved within this time are expired, NO_EXPIRE for no limit
+     */
+    public synchronized void setBounds(int maxSize, long expireTimeMs) {
+        this.maxSize = Math.max(maxSize, 1);
+        this.expireTimeMs = expireTimeMs;
+        long now = System.currentTimeMillis();
+        while (size > this.maxSize) {
+            if (!evict(now)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get the position of the key
+     *
+     * @param key Entity id
+     * @return Position, 0 if the key is not in the table or expired
+     */
+    public synchronized int get(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            missCount++;
+            return 0;
+        }
+        int offset = slotOffset(slot);
+        if (isExpired(offset, System.currentTimeMillis())) {
+            removeSlot(slot);
+            expiredCount++;
+            missCount++;
+            return 0;
+        }
+        hitCount++;
+        markVisited(offset);
+        return buffer.getInt(offset + POSITION_OFFSET);
+    }
+
+    /**
+     * Remove all the expired bookmarks
+     *
+     * @return The number of removed bookmarks
+     */
+    public synchronized int removeExpired() {
+        if (expireTimeMs == NO_EXPIRE) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int count = 0;
+        int slot = 0;
+        while (slot < capacity) {
+            // The removal may shift the next bookmark into this slot, check it again
+            if (isUsed(slot) && isExpired(slotOffset(slot), now)) {
+                removeSlot(slot);
+                count++;
+            } else {
+                slot++;
+            }
+        }
+        expiredCount += count;
+        return count;
+    }
+
+    /**
+     * Get the counters since the table is opened
+     *
+     * @return Statistics
+     */
+    public synchronized BookmarkStats getStats() {
+        return new BookmarkStats(size, maxSize, hitCount, missCount, evictionCount, expiredCount);
+    }
+
+    /**
+     * Copy the bookmarks for the lookups without lock, the copy is not updated by the later changes
+     *
+     * @return Bookmark mirror
+     */
+    synchronized BookmarkMirror createMirror() {
+        long[] keys = new long[size];
+        int[] positions = new int[size];
+        long[] timestamps = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < capacity && count < size; slot++) {
+            if (isUsed(slot)) {
+                int offset = slotOffset(slot);
+                keys[count] = buffer.getLong(offset + KEY_OFFSET);
+                positions[count] = buffer.getInt(offset + POSITION_OFFSET);
+                timestamps[count] = buffer.getLong(offset + TIMESTAMP_OFFSET);
+                count++;
+            }
+        }
+        return new BookmarkMirror(keys, positions, timestamps, count, expireTimeMs);
+    }
+
+    /**
+     * Whether the key is in the table
+     *
+     * @param key Entity id
+     * @return Contains the key
+     */
+    public synchronized boolean contains(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Put the position of the key
+     *
+     * @param key Entity id
+     * @param position Position
+     * @param timestamp Save time
+     */
+    public synchronized void put(long key, int position, long timestamp) {
+        int mask = capacity - 1;
+        int slot = home(key, mask);
+        while (isUsed(slot)) {
+            int offset = slotOffset(slot);
+            if (buffer.getLong(offset + KEY_OFFSET) == key) {
+                storeInt(offset + POSITION_OFFSET, position);
+                storeLong(offset + TIMESTAMP_OFFSET, timestamp);
+                markVisited(offset);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= maxSize && evict(timestamp)) {
+            // The eviction may shift the slots, probe again
+            put(key, position, timestamp);
+            return;
+        }
+        storeSlot(slotOffset(slot), key, timestamp, position, STATE_USED);
+        setSize(size + 1);
+        if (size > capacity * LOAD_FACTOR) {
+            resize();
+        }
+    }
+
+    /**
+     * Remove the key
+     *
+     * @param key Entity id
+     * @return Whether the key was in the table
+     */
+    public synchronized boolean remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Get the number of bookmarks
+     *
+     * @return The number of bookmarks
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Flush the mapped memory to the file, the kernel writes it back anyway if the process is killed.
+     * The lock is not held while writing, so the lookups are not blocked by the storage.
+     */
+    public void force() {
+        MappedByteBuffer mapped;
+        synchronized (this) {
+            mapped = buffer;
+        }
+        mapped.force();
+    }
+
+    /**
+     * Evict one bookmark with SIEVE, an expired bookmark is evicted even if it is visited
+     *
+     * @param now The current time
+     * @return Whether a bookmark is evicted, false if the table is empty
+     */
+    private boolean evict(long now) {
+        int mask = capacity - 1;
+        // Two sweeps clear all the visited marks, so a bookmark is always found
+        for (int i = 0; i <= capacity * 2; i++) {
+            int slot = hand;
+            hand = (hand + 1) & mask;
+            if (!isUsed(slot)) {
+                continue;
+            }
+            int offset = slotOffset(slot);
+            int state = buffer.getInt(offset + STATE_OFFSET);
+            boolean isExpired = isExpired(offset, now);
+            if ((state & STATE_VISITED) != 0 && !isExpired) {
+                storeInt(offset + STATE_OFFSET, state & ~STATE_VISITED);
+                continue;
+            }
+            removeSlot(slot);
+            if (isExpired) {
+                expiredCount++;
+            } else {
+                evictionCount++;
+            }
+            // The removal may shift the next bookmark into this slot
+            hand = slot;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove the slot and shift the following slots of the probe chain back
+     *
+     * @param slot Used slot
+     */
+    private void removeSlot(int slot) {
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (isUsed(next)) {
+            int nextHome = home(buffer.getLong(slotOffset(next) + KEY_OFFSET), mask);
+            if (((next - nextHome) & mask) >= ((next - hole) & mask)) {
+                copySlot(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        storeInt(slotOffset(hole) + STATE_OFFSET, STATE_FREE);
+        setSize(size - 1);
+    }
+
+    private boolean isExpired(int offset, long now) {
+        return expireTimeMs != NO_EXPIRE && now - buffer.getLong(offset + TIMESTAMP_OFFSET) > expireTimeMs;
+    }
+
+    private void markVisited(int offset) {
+        int state = buffer.getInt(offset + STATE_OFFSET);
+        if ((state & STATE_VISITED) == 0) {
+            storeInt(offset + STATE_OFFSET, state | STATE_VISITED);
+        }
+    }
+
+    private int find(long key) {
+        int mask = capacity - 1;
+        for (int slot = home(key, mask); isUsed(slot); slot = (slot + 1) & mask) {
+            if (buffer.getLong(slotOffset(slot) + KEY_OFFSET) == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isUsed(int slot) {
+        return (buffer.getInt(slotOffset(slot) + STATE_OFFSET) & STATE_USED) != 0;
+    }
+
+    private void copySlot(int from, int to) {
+        int fromOffset = slotOffset(from);
+        // Keep the visited mark
+        storeSlot(slotOffset(to), buffer.getLong(fromOffset + KEY_OFFSET),
+            buffer.getLong(fromOffset + TIMESTAMP_OFFSET), buffer.getInt(fromOffset + POSITION_OFFSET),
+            buffer.getInt(fromOffset + STATE_OFFSET));
+    }
+
+    /**
+     * Write the slot, it is free while its fields are written and gets the state last
+     */
+    private void storeSlot(int offset, long key, long timestamp, int position, int state) {
+        storeInt(offset + STATE_OFFSET, STATE_FREE);
+        storeLong(offset + KEY_OFFSET, key);
+        storeLong(offset + TIMESTAMP_OFFSET, timestamp);
+        storeInt(offset + POSITION_OFFSET, position);
+        storeInt(offset + STATE_OFFSET, state);
+    }
+
+    private void storeInt(int offset, int value) {
+        if (beforeStore != null) {
+            beforeStore.run();
+        }
+        buffer.putInt(offset, value);
+    }
+
+    private void storeLong(int offset, long value) {
+        if (beforeStore != null) {
+            beforeStore.run();
+        }
+        buffer.putLong(offset, value);
+    }
+
+    /**
+     * Set the task run before every store to the mapped table
+     *
+     * @param task The task, null for none
+     */
+    void setBeforeStore(Runnable task) {
+        beforeStore = task;
+    }
+
+    private void setSize(int newSize) {
+        size = newSize;
+        storeInt(12, newSize);
+    }
+
+    /**
+     * Copy the used slots to a table of double capacity
+     */
+    private void resize() {
+        copyTo(capacity * 2);
+    }
+
+    /**
+     * Copy the used slots to a new table file, which replaces the old one by rename. A key found twice is copied
+     * once. The old table is kept if the copy fails.
+     *
+     * @param newCapacity The capacity of the new table
+     * @return Whether copied
+     */
+    private boolean copyTo(int newCapacity) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(tempFile, "rw");
+            try {
+                randomAccessFile.setLength(0);
+                MappedByteBuffer newBuffer = mapFile(randomAccessFile, newCapacity);
+                int mask = newCapacity - 1;
+                int count = 0;
+                for (int slot = 0; slot < capacity; slot++) {
+                    if (!isUsed(slot)) {
+                        continue;
+                    }
+                    int offset = slotOffset(slot);
+                    long key = buffer.getLong(offset + KEY_OFFSET);
+                    int newSlot = home(key, mask);
+                    while ((newBuffer.getInt(HEADER_SIZE + newSlot * SLOT_SIZE + STATE_OFFSET) & STATE_USED) != 0
+                        && newBuffer.getLong(HEADER_SIZE + newSlot * SLOT_SIZE + KEY_OFFSET) != key) {
+                        newSlot = (newSlot + 1) & mask;
+                    }
+                    if ((newBuffer.getInt(HEADER_SIZE + newSlot * SLOT_SIZE + STATE_OFFSET) & STATE_USED) != 0) {
+                        continue;
+                    }
+                    writeSlot(newBuffer, HEADER_SIZE + newSlot * SLOT_SIZE, key,
+                        buffer.getLong(offset + TIMESTAMP_OFFSET), buffer.getInt(offset + POSITION_OFFSET));
+                    count++;
+                }
+                writeHeader(newBuffer, newCapacity, count);
+                newBuffer.force();
+            } finally {
+                randomAccessFile.close();
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("rename bookmark table fail");
+            }
+            if (!map()) {
+                throw new IOException("map copied bookmark table fail");
+            }
+            LogUtil.i(TAG, "bookmark table copied, capacity " + newCapacity);
+            return true;
+        } catch (IOException e) {
+            // The old table is still valid, it is only fuller than expected or not repaired
+            LogUtil.w(TAG, "copy bookmark table error :" + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Map the table file
+     *
+     * @return Whether the file is a valid table
+     * @throws IOException The file can not be mapped
+     */
+    private boolean map() throws IOException {
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            return false;
+        }
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            MappedByteBuffer mapped =
+                randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, randomAccessFile.length());
+            int mappedCapacity = mapped.getInt(8);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || Integer.bitCount(mappedCapacity) != 1
+                || HEADER_SIZE + (long) mappedCapacity * SLOT_SIZE != mapped.capacity()) {
+                LogUtil.w(TAG, "invalid bookmark table");
+                return false;
+            }
+            buffer = mapped;
+            capacity = mappedCapacity;
+            size = mapped.getInt(12);
+            checkSlots();
+            return true;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Count the used slots and rebuild the probe chains left broken by a killed process
+     */
+    private void checkSlots() {
+        int usedCount = 0;
+        int brokenCount = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (!isUsed(slot)) {
+                continue;
+            }
+            usedCount++;
+            // A second copy of a key is not the first one found, a slot after a freed slot is not found at all
+            if (find(buffer.getLong(slotOffset(slot) + KEY_OFFSET)) != slot) {
+                brokenCount++;
+            }
+        }
+        if (usedCount != size) {
+            LogUtil.w(TAG, "bookmark table size " + size + " does not match the " + usedCount + " used slots");
+            setSize(usedCount);
+        }
+        if (brokenCount > 0) {
+            LogUtil.w(TAG, brokenCount + " bookmarks are duplicated or out of their probe chain, rebuild the table");
+            copyTo(capacity);
+        }
+    }
+
+    private void create(File tableFile, int tableCapacity) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(tableFile, "rw");
+        try {
+            randomAccessFile.setLength(0);
+            MappedByteBuffer mapped = mapFile(randomAccessFile, tableCapacity);
+            writeHeader(mapped, tableCapacity, 0);
+            mapped.force();
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static MappedByteBuffer mapFile(RandomAccessFile randomAccessFile, int tableCapacity)
+        throws IOException {
+        long length = HEADER_SIZE + (long) tableCapacity * SLOT_SIZE;
+        randomAccessFile.setLength(length);
+        return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+    }
+
+    private static void writeHeader(MappedByteBuffer mapped, int tableCapacity, int tableSize) {
+        mapped.putInt(0, MAGIC);
+        mapped.putInt(4, VERSION);
+        mapped.putInt(8, tableCapacity);
+        mapped.putInt(12, tableSize);
+    }
+
+    private static void writeSlot(MappedByteBuffer mapped, int offset, long key, long timestamp, int position) {
+        mapped.putLong(offset + KEY_OFFSET, key);
+        mapped.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        mapped.putInt(offset + POSITION_OFFSET, position);
+        mapped.putInt(offset + STATE_OFFSET, STATE_USED);
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Spread the key bits, the ids are often sequential
+     */
+    private static int home(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import android.content.Context;
+
+import com.huawei.video.kit.demo.contract.OnCatalogSourceChangedListener;
+import com.huawei.video.kit.demo.utils.FileUtil;
+
+/**
+ * The play list json in the assets
+ */
+public class AssetCatalogSource implements CatalogSource {
+    // Context
+    private Context context;
+
+    /**
+     * Constructor
+     *
+     * @param context Context
+     */
+    public AssetCatalogSource(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return FileUtil.openAssetsFile(context);
+    }
+
+    @Override
+    public void setOnCatalogSourceChangedListener(OnCatalogSourceChangedListener listener) {
+        // The assets never change
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+/**
+ * A range of the catalog changed by a delta, the changes are in the order they are applied
+ * so they can be passed to the RecyclerView adapter one by one
+ */
+public class CatalogChange {
+    /**
+     * The entities are inserted
+     */
+    public static final int TYPE_INSERTED = 0;
+
+    /**
+     * The entities are removed
+     */
+    public static final int TYPE_REMOVED = 1;
+
+    /**
+     * The entities are modified
+     */
+    public static final int TYPE_CHANGED = 2;
+
+    // Change type
+    private final int type;
+
+    // The position of the first changed entity
+    private final int positionStart;
+
+    // The number of changed entities
+    private final int itemCount;
+
+    /**
+     * Constructor
+     *
+     * @param type Change type
+     * @param positionStart The position of the first changed entity
+     * @param itemCount The number of changed entities
+     */
+    public CatalogChange(int type, int positionStart, int itemCount) {
+        this.type = type;
+        this.positionStart = positionStart;
+        this.itemCount = itemCount;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getPositionStart() {
+        return positionStart;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Merge the next change into this one if they are the same contiguous range
+     *
+     * @param next The next change
+     * @return The merged change, null if they can not be merged
+     */
+    CatalogChange merge(CatalogChange next) {
+        if (next.type != type) {
+            return null;
+        }
+        if (type == TYPE_REMOVED && next.positionStart == positionStart) {
+            return new CatalogChange(type, positionStart, itemCount + next.itemCount);
+        }
+        if (type != TYPE_REMOVED && next.positionStart == positionStart + itemCount) {
+            return new CatalogChange(type, positionStart, itemCount + next.itemCount);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Versioned change list of the catalog, the operations are keyed by the catalog id
+ */
+public class CatalogDelta {
+    /**
+     * Insert the entity at the front of the catalog
+     */
+    public static final long INSERT_FIRST = 0;
+
+    /**
+     * Append the entity to the end of the catalog
+     */
+    public static final long INSERT_LAST = -1;
+
+    // The catalog version after the delta
+    private final int version;
+
+    // The catalog version the delta applies to
+    private final int baseVersion;
+
+    // Operations in order
+    private final List<Operation> operations;
+
+    /**
+     * Constructor
+     *
+     * @param version The catalog version after the delta
+     * @param baseVersion The catalog version the delta applies to
+     * @param operations Operations in order
+     */
+    public CatalogDelta(int version, int baseVersion, List<Operation> operations) {
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getBaseVersion() {
+        return baseVersion;
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Delta operation
+     */
+    public static class Operation {
+        /**
+         * Add the entity after the entity of the id
+         */
+        public static final int TYPE_ADD = 0;
+
+        /**
+         * Remove the entity of the id
+         */
+        public static final int TYPE_REMOVE = 1;
+
+        /**
+         * Replace the entity of the id
+         */
+        public static final int TYPE_MODIFY = 2;
+
+        // Operation type
+        private final int type;
+
+        // The id of the entity
+        private final long id;
+
+        // The id to add after, INSERT_FIRST or INSERT_LAST
+        private final long afterId;
+
+        // The new entity, null for remove
+        private final PlayEntity playEntity;
+
+        private Operation(int type, long id, long afterId, PlayEntity playEntity) {
+            this.type = type;
+            this.id = id;
+            this.afterId = afterId;
+            this.playEntity = playEntity;
+        }
+
+        /**
+         * Create an add operation
+         *
+         * @param afterId The id to add after, INSERT_FIRST or INSERT_LAST
+         * @param playEntity The new entity
+         * @return Operation
+         */
+        public static Operation add(long afterId, PlayEntity playEntity) {
+            return new Operation(TYPE_ADD, playEntity.getId(), afterId, playEntity);
+        }
+
+        /**
+         * Create a remove operation
+         *
+         * @param id The id of the removed entity
+         * @return Operation
+         */
+        public static Operation remove(long id) {
+            return new Operation(TYPE_REMOVE, id, INSERT_LAST, null);
+        }
+
+        /**
+         * Create a modify operation
+         *
+         * @param playEntity The new entity, replaces the entity of the same id
+         * @return Operation
+         */
+        public static Operation modify(PlayEntity playEntity) {
+            return new Operation(TYPE_MODIFY, playEntity.getId(), INSERT_LAST, playEntity);
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getAfterId() {
+            return afterId;
+        }
+
+        public PlayEntity getPlayEntity() {
+            return playEntity;
+        }
+    }
+}
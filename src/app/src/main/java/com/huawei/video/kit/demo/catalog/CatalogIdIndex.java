@@ -0,0 +1,119 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Map the catalog ids to the positions, the ids are kept sorted in a primitive array and found by binary search
+ */
+public class CatalogIdIndex {
+    // Sorted ids
+    private final long[] ids;
+
+    // The position of every id
+    private final int[] positions;
+
+    private CatalogIdIndex(long[] ids, int[] positions) {
+        this.ids = ids;
+        this.positions = positions;
+    }
+
+    /**
+     * Build the index from the catalog ids
+     *
+     * @param playCatalog Play catalog
+     * @return Id index
+     */
+    public static CatalogIdIndex build(PlayCatalog playCatalog) {
+        int size = playCatalog.size();
+        long[] ids = new long[size];
+        int[] positions = new int[size];
+        boolean isSorted = true;
+        for (int i = 0; i < size; i++) {
+            ids[i] = playCatalog.getId(i);
+            positions[i] = i;
+            if (i > 0 && ids[i] < ids[i - 1]) {
+                isSorted = false;
+            }
+        }
+        // The catalogs are usually in id order, only sort the others
+        if (!isSorted) {
+            sort(ids, positions, 0, size - 1);
+        }
+        return new CatalogIdIndex(ids, positions);
+    }
+
+    /**
+     * Get the position of the id
+     *
+     * @param id Catalog id
+     * @return Position, -1 if the id is not in the catalog
+     */
+    public int getPosition(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? -1 : positions[index];
+    }
+
+    /**
+     * Get the number of ids
+     *
+     * @return The number of ids
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Sort the ids and move the positions together
+     */
+    private static void sort(long[] ids, int[] positions, int low, int high) {
+        while (low < high) {
+            long pivot = ids[(low + high) >>> 1];
+            int left = low;
+            int right = high;
+            while (left <= right) {
+                while (ids[left] < pivot) {
+                    left++;
+                }
+                while (ids[right] > pivot) {
+                    right--;
+                }
+                if (left <= right) {
+                    swap(ids, positions, left++, right--);
+                }
+            }
+            // Recurse into the smaller part to bound the stack depth
+            if (right - low < high - left) {
+                sort(ids, positions, low, right);
+                low = left;
+            } else {
+                sort(ids, positions, left, high);
+                high = right;
+            }
+        }
+    }
+
+    private static void swap(long[] ids, int[] positions, int first, int second) {
+        long id = ids[first];
+        ids[first] = ids[second];
+        ids[second] = id;
+        int position = positions[first];
+        positions[first] = positions[second];
+        positions[second] = position;
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.contract.OnCatalogLoadListener;
+import com.huawei.video.kit.demo.contract.OnPlayEntityParsedListener;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.utils.LogUtil;
+
+/**
+ * Load the catalog in the background and deliver it to the main thread in chunks,
+ * the first chunk is about one screen so the list is shown as soon as possible
+ */
+public class CatalogLoader {
+    private static final String TAG = "CatalogLoader";
+
+    /**
+     * The size of the first chunk, about one screen of items
+     */
+    private static final int FIRST_CHUNK_SIZE = 20;
+
+    /**
+     * The size of the following chunks
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CatalogLoader");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Context
+    private Context context;
+
+    // Load listener
+    private OnCatalogLoadListener onCatalogLoadListener;
+
+    // Deliver the chunks to the main thread
+    private Handler mainHandler;
+
+    // The play list shown while loading, only accessed on the main thread
+    private List<PlayEntity> loadingPlayList;
+
+    // The load task
+    private Future<?> loadFuture;
+
+    // Whether the load is cancelled
+    private volatile boolean isCancelled = false;
+
+    /**
+     * Constructor
+     *
+     * @param context Context
+     * @param onCatalogLoadListener Load listener
+     */
+    public CatalogLoader(Context context, OnCatalogLoadListener onCatalogLoadListener) {
+        this.context = context.getApplicationContext();
+        this.onCatalogLoadListener = onCatalogLoadListener;
+        mainHandler = new Handler(Looper.getMainLooper());
+        loadingPlayList = new ArrayList<>();
+    }
+
+    /**
+     * Start loading, must be called on the main thread.
+     * The listener is notified immediately if the catalog is already loaded.
+     */
+    public void start() {
+        CatalogSnapshot snapshot = CatalogRepository.getInstance().peekSnapshot();
+        if (snapshot != null) {
+            onCatalogLoadListener.onCatalogLoaded(snapshot);
+            return;
+        }
+        loadFuture = EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                load();
+            }
+        });
+    }
+
+    /**
+     * Cancel loading, no more callbacks are delivered
+     */
+    public void cancel() {
+        isCancelled = true;
+        mainHandler.removeCallbacksAndMessages(null);
+        if (loadFuture != null) {
+            loadFuture.cancel(false);
+        }
+    }
+
+    /**
+     * Load the catalog on the loader thread
+     */
+    private void load() {
+        final long startTime = SystemClock.elapsedRealtime();
+        ChunkCollector chunkCollector = new ChunkCollector(startTime);
+        final CatalogSnapshot snapshot = CatalogRepository.getInstance().getSnapshot(context, chunkCollector);
+        if (snapshot == null || isCancelled) {
+            return;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!isCancelled) {
+                    LogUtil.i(TAG, "catalog loaded in " + (SystemClock.elapsedRealtime() - startTime) + " ms, size "
+                        + snapshot.size());
+                    onCatalogLoadListener.onCatalogLoaded(snapshot);
+                    // The loaded entities are replaced by the snapshot, release them
+                    loadingPlayList = new ArrayList<>();
+                }
+            }
+        });
+        // Prepare the indexes while the loader thread is idle, the id index first as the play page finds
+        // the entity to preload with it
+        snapshot.getIdIndex();
+        snapshot.getSearchIndex();
+    }
+
+    /**
+     * Deliver a parsed chunk on the main thread
+     *
+     * @param chunk Parsed entities
+     */
+    private void postChunk(final List<PlayEntity> chunk) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (isCancelled) {
+                    return;
+                }
+                int positionStart = loadingPlayList.size();
+                loadingPlayList.addAll(chunk);
+                onCatalogLoadListener.onCatalogChunkLoaded(loadingPlayList, positionStart, chunk.size());
+            }
+        });
+    }
+
+    /**
+     * Collect the parsed entities into chunks
+     */
+    private class ChunkCollector implements OnPlayEntityParsedListener {
+        private final long startTime;
+
+        private List<PlayEntity> chunk = new ArrayList<>(FIRST_CHUNK_SIZE);
+
+        private int chunkSize = FIRST_CHUNK_SIZE;
+
+        private boolean isFirstChunk = true;
+
+        ChunkCollector(long startTime) {
+            this.startTime = startTime;
+        }
+
+        @Override
+        public boolean onPlayEntityParsed(int position, PlayEntity playEntity) {
+            if (isCancelled) {
+                return false;
+            }
+            chunk.add(playEntity);
+            if (chunk.size() >= chunkSize) {
+                if (isFirstChunk) {
+                    isFirstChunk = false;
+                    LogUtil.i(TAG, "first chunk parsed in " + (SystemClock.elapsedRealtime() - startTime) + " ms");
+                }
+                postChunk(chunk);
+                chunkSize = CHUNK_SIZE;
+                chunk = new ArrayList<>(chunkSize);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.contract.OnCatalogSourceChangedListener;
+import com.huawei.video.kit.demo.contract.OnCatalogUpdateListener;
+import com.huawei.video.kit.demo.contract.OnPlayEntityParsedListener;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.utils.DataFormatUtil;
+import com.huawei.video.kit.demo.utils.LogUtil;
+
+/**
+ * Process wide play catalog, the catalog is parsed once and the snapshot is shared by all the consumers.
+ * A reload publishes a new snapshot atomically, the consumers holding the old one are not affected.
+ */
+public class CatalogRepository {
+    private static final String TAG = "CatalogRepository";
+
+    private static final CatalogRepository INSTANCE = new CatalogRepository();
+
+    // The current snapshot, null if not loaded or invalidated
+    private final AtomicReference<CatalogSnapshot> snapshotReference = new AtomicReference<>();
+
+    // Snapshot version generator
+    private final AtomicInteger versionGenerator = new AtomicInteger();
+
+    // Make sure only one thread parses the catalog
+    private final Object loadLock = new Object();
+
+    // The source of the play list json, null to use the catalog in the assets
+    private volatile CatalogSource catalogSource;
+
+    // Update listeners
+    private final List<OnCatalogUpdateListener> onCatalogUpdateListeners = new CopyOnWriteArrayList<>();
+
+    // Deliver the updates on the main thread
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private CatalogRepository() {
+    }
+
+    /**
+     * Get the repository
+     *
+     * @return Catalog repository
+     */
+    public static CatalogRepository getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the source of the play list json, the current snapshot is dropped.
+     * The snapshot is also dropped when the play list of the source is changed, so the next access loads it.
+     *
+     * @param catalogSource Catalog source, null to use the catalog in the assets
+     */
+    public void setCatalogSource(CatalogSource catalogSource) {
+        CatalogSource oldCatalogSource = this.catalogSource;
+        if (oldCatalogSource != null) {
+            oldCatalogSource.setOnCatalogSourceChangedListener(null);
+        }
+        this.catalogSource = catalogSource;
+        if (catalogSource != null) {
+            catalogSource.setOnCatalogSourceChangedListener(new OnCatalogSourceChangedListener() {
+                @Override
+                public void onCatalogSourceChanged(CatalogSource changedCatalogSource) {
+                    LogUtil.i(TAG, "catalog source changed, drop the current snapshot");
+                    invalidate();
+                }
+            });
+        }
+        invalidate();
+    }
+
+    /**
+     * Get the current snapshot, the catalog is parsed if it is not loaded
+     *
+     * @param context Context
+     * @return Catalog snapshot
+     */
+    public CatalogSnapshot getSnapshot(Context context) {
+        return getSnapshot(context, null);
+    }
+
+    /**
+     * Get the current snapshot, the catalog is parsed if it is not loaded and the listener is notified
+     * for every parsed entity. No entity is notified if the snapshot is already loaded.
+     *
+     * @param context Context
+     * @param listener Parse listener, can be null
+     * @return Catalog snapshot, null if the listener stops parsing
+     */
+    public CatalogSnapshot getSnapshot(Context context, OnPlayEntityParsedListener listener) {
+        CatalogSnapshot snapshot = snapshotReference.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (loadLock) {
+            snapshot = snapshotReference.get();
+            if (snapshot == null) {
+                snapshot = parse(context, listener, null);
+                if (snapshot != null) {
+                    snapshotReference.set(snapshot);
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Get the current snapshot without loading
+     *
+     * @return Catalog snapshot, null if not loaded
+     */
+    public CatalogSnapshot peekSnapshot() {
+        return snapshotReference.get();
+    }
+
+    /**
+     * Parse the catalog again and publish the new snapshot, the current snapshot is kept if the source fails
+     *
+     * @param context Context
+     * @return The new snapshot
+     */
+    public CatalogSnapshot reload(Context context) {
+        synchronized (loadLock) {
+            CatalogSnapshot snapshot = parse(context, null, snapshotReference.get());
+            snapshotReference.set(snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Apply the delta to the current snapshot and publish the updated snapshot, the update listeners are notified
+     * with the changed ranges. The cost is proportional to the number of changes, except that the id index of
+     * a freshly parsed catalog is built once.
+     *
+     * @param delta Catalog delta
+     * @return The updated snapshot, null if the catalog is not loaded or the delta is not for the current version
+     */
+    public CatalogSnapshot applyDelta(CatalogDelta delta) {
+        synchronized (loadLock) {
+            final CatalogSnapshot previousSnapshot = snapshotReference.get();
+            if (previousSnapshot == null) {
+                LogUtil.i(TAG, "catalog is not loaded, skip the delta");
+                return null;
+            }
+            if (delta.getBaseVersion() != previousSnapshot.getCatalogVersion()) {
+                LogUtil.w(TAG, "delta base version " + delta.getBaseVersion() + " does not match the catalog version "
+                    + previousSnapshot.getCatalogVersion());
+                return null;
+            }
+            long startTime = SystemClock.elapsedRealtime();
+            PlayCatalog playCatalog = previousSnapshot.getPlayCatalog();
+            DeltaPlayCatalog deltaPlayCatalog = playCatalog instanceof DeltaPlayCatalog ? (DeltaPlayCatalog) playCatalog
+                : new DeltaPlayCatalog(playCatalog, previousSnapshot.getIdIndex());
+            final List<CatalogChange> changes = new ArrayList<>();
+            deltaPlayCatalog = deltaPlayCatalog.apply(delta, changes);
+            // Move the built search index along with the changes instead of building it again on the next search
+            CatalogSearchIndex searchIndex = previousSnapshot.getBuiltSearchIndex();
+            if (searchIndex != null) {
+                searchIndex = searchIndex.update(deltaPlayCatalog, changes);
+            }
+            final CatalogSnapshot snapshot = new CatalogSnapshot(versionGenerator.incrementAndGet(),
+                delta.getVersion(), deltaPlayCatalog, searchIndex);
+            snapshotReference.set(snapshot);
+            LogUtil.i(TAG, "catalog version " + snapshot.getVersion() + " updated to " + delta.getVersion() + " in "
+                + (SystemClock.elapsedRealtime() - startTime) + " ms, " + changes.size() + " changes");
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    for (OnCatalogUpdateListener listener : onCatalogUpdateListeners) {
+                        listener.onCatalogUpdated(previousSnapshot, snapshot, changes);
+                    }
+                }
+            });
+            return snapshot;
+        }
+    }
+
+    /**
+     * Add the update listener
+     *
+     * @param listener Update listener
+     */
+    public void addOnCatalogUpdateListener(OnCatalogUpdateListener listener) {
+        onCatalogUpdateListeners.add(listener);
+    }
+
+    /**
+     * Remove the update listener
+     *
+     * @param listener Update listener
+     */
+    public void removeOnCatalogUpdateListener(OnCatalogUpdateListener listener) {
+        onCatalogUpdateListeners.remove(listener);
+    }
+
+    /**
+     * Drop the current snapshot, the next access parses the catalog again
+     */
+    public void invalidate() {
+        snapshotReference.set(null);
+    }
+
+    /**
+     * Parse the catalog as a new snapshot
+     *
+     * @param context Context
+     * @param listener Parse listener, can be null
+     * @param currentSnapshot The snapshot kept if the source fails, null to use the catalog in the assets instead
+     * @return Catalog snapshot, null if the listener stops parsing
+     */
+    private CatalogSnapshot parse(Context context, final OnPlayEntityParsedListener listener,
+        CatalogSnapshot currentSnapshot) {
+        // Index the names while the json is parsed, the binary catalog is not parsed so its index is built on use
+        final CatalogSearchIndex.Builder indexBuilder = new CatalogSearchIndex.Builder();
+        OnPlayEntityParsedListener indexListener = new OnPlayEntityParsedListener() {
+            @Override
+            public boolean onPlayEntityParsed(int position, PlayEntity playEntity) {
+                indexBuilder.add(playEntity.getName());
+                return listener == null || listener.onPlayEntityParsed(position, playEntity);
+            }
+        };
+        PlayCatalog playCatalog = null;
+        boolean isLoaded = false;
+        CatalogSource source = catalogSource;
+        if (source != null) {
+            try {
+                playCatalog = DataFormatUtil.getPlayCatalog(source, indexListener);
+                isLoaded = true;
+            } catch (IOException e) {
+                if (currentSnapshot != null) {
+                    LogUtil.w(TAG, "load catalog source error, keep the current catalog :" + e.getMessage());
+                    return currentSnapshot;
+                }
+                LogUtil.w(TAG, "load catalog source error, use the catalog in the assets :" + e.getMessage());
+            }
+        }
+        if (!isLoaded) {
+            playCatalog = DataFormatUtil.getPlayCatalog(context.getApplicationContext(), indexListener);
+        }
+        if (playCatalog == null) {
+            LogUtil.i(TAG, "catalog parsing is stopped");
+            return null;
+        }
+        CatalogSearchIndex searchIndex =
+            indexBuilder.size() == playCatalog.size() && playCatalog.size() > 0 ? indexBuilder.build() : null;
+        CatalogSnapshot snapshot =
+            new CatalogSnapshot(versionGenerator.incrementAndGet(), 0, playCatalog, searchIndex);
+        LogUtil.i(TAG, "catalog version " + snapshot.getVersion() + " loaded, size " + snapshot.size());
+        return snapshot;
+    }
+}
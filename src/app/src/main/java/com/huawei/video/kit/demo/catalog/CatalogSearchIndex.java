@@ -0,0 +1,526 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import com.huawei.video.kit.demo.utils.LongIntHashMap;
+
+/**
+ * Search index over the catalog names. Queries of one or two characters match the beginning of the words
+ * in the names (every ideograph starts a word), longer queries match anywhere in the names through a trigram index.
+ * The matching is case insensitive and the results are the catalog positions in ascending order.
+ * The postings of all the keys are kept in one int array, the keys are looked up without boxing.
+ * A delta updates the index from its changes, only the inserted and changed names are read again.
+ */
+public class CatalogSearchIndex {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int TRIGRAM_LENGTH = 3;
+
+    private static final int[] EMPTY_RESULT = new int[0];
+
+    // Check the thread interruption once every this number of candidates
+    private static final int INTERRUPT_CHECK_INTERVAL = 1024;
+
+    // The number of indexed names
+    private final int size;
+
+    // The ordinal of every key, the positions of the key are in the postings of the ordinal
+    private final LongIntHashMap keyOrdinals;
+
+    // The start of the positions of every ordinal in the postings, the last one is the postings length
+    private final int[] postingStarts;
+
+    // The sorted positions of all the keys, ordinal by ordinal
+    private final int[] postings;
+
+    // The lowercase UTF-8 names
+    private final byte[] names;
+
+    // The start of every name, the name ends at the start of the next name
+    private final int[] nameStarts;
+
+    private CatalogSearchIndex(Builder builder) {
+        size = builder.size;
+        keyOrdinals = builder.keyOrdinals;
+        postingStarts = new int[keyOrdinals.size() + 1];
+        postings = sortByOrdinal(builder, postingStarts);
+        names = Arrays.copyOf(builder.names, builder.namesSize);
+        nameStarts = Arrays.copyOf(builder.nameStarts, size);
+    }
+
+    /**
+     * Merge the moved postings of the previous index with the postings of the new names
+     *
+     * @param previous The index before the changes
+     * @param oldToNew The new position of every previous position, -1 if removed or changed
+     * @param builder Builder with the names after the changes and the keys of the new names
+     */
+    private CatalogSearchIndex(CatalogSearchIndex previous, int[] oldToNew, Builder builder) {
+        size = builder.size;
+        keyOrdinals = builder.keyOrdinals;
+        int ordinalCount = keyOrdinals.size();
+        int previousOrdinalCount = previous.postingStarts.length - 1;
+        int[] newStarts = new int[ordinalCount + 1];
+        int[] newPostings = sortByOrdinal(builder, newStarts);
+        postingStarts = new int[ordinalCount + 1];
+        int[] merged = new int[previous.postings.length + newPostings.length];
+        int count = 0;
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            postingStarts[ordinal] = count;
+            int oldIndex = ordinal < previousOrdinalCount ? previous.postingStarts[ordinal] : 0;
+            int oldEnd = ordinal < previousOrdinalCount ? previous.postingStarts[ordinal + 1] : 0;
+            int newIndex = newStarts[ordinal];
+            int newEnd = newStarts[ordinal + 1];
+            // The moved positions keep their order, so both lists are sorted
+            while (oldIndex < oldEnd || newIndex < newEnd) {
+                int oldPosition = -1;
+                if (oldIndex < oldEnd) {
+                    oldPosition = oldToNew[previous.postings[oldIndex]];
+                    if (oldPosition < 0) {
+                        oldIndex++;
+                        continue;
+                    }
+                }
+                if (newIndex < newEnd && (oldPosition < 0 || newPostings[newIndex] < oldPosition)) {
+                    merged[count++] = newPostings[newIndex++];
+                } else {
+                    merged[count++] = oldPosition;
+                    oldIndex++;
+                }
+            }
+        }
+        postingStarts[ordinalCount] = count;
+        postings = Arrays.copyOf(merged, count);
+        names = Arrays.copyOf(builder.names, builder.namesSize);
+        nameStarts = Arrays.copyOf(builder.nameStarts, size);
+    }
+
+    /**
+     * Build the index from the catalog names
+     *
+     * @param playCatalog Play catalog
+     * @return Search index
+     */
+    public static CatalogSearchIndex build(PlayCatalog playCatalog) {
+        Builder builder = new Builder();
+        for (int i = 0; i < playCatalog.size(); i++) {
+            builder.add(playCatalog.getName(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create the index of the catalog after the changes of a delta, the unchanged names keep their postings
+     * and only the inserted and changed names are read from the catalog
+     *
+     * @param playCatalog The catalog after the changes
+     * @param changes The changes in order, as reported when the delta was applied
+     * @return Search index of the catalog
+     */
+    public CatalogSearchIndex update(PlayCatalog playCatalog, List<CatalogChange> changes) {
+        int newSize = playCatalog.size();
+        int[] newToOld = getOldPositions(changes, newSize);
+        int[] oldToNew = new int[size];
+        Arrays.fill(oldToNew, -1);
+        Builder builder = new Builder(keyOrdinals);
+        for (int i = 0; i < newSize; i++) {
+            int oldPosition = newToOld[i];
+            if (oldPosition >= 0) {
+                oldToNew[oldPosition] = i;
+                int end = oldPosition + 1 < size ? nameStarts[oldPosition + 1] : names.length;
+                builder.addName(names, nameStarts[oldPosition], end - nameStarts[oldPosition]);
+            } else {
+                String text = normalize(playCatalog.getName(i));
+                builder.addKeys(text, i);
+                byte[] bytes = text.getBytes(UTF_8);
+                builder.addName(bytes, 0, bytes.length);
+            }
+        }
+        return new CatalogSearchIndex(this, oldToNew, builder);
+    }
+
+    /**
+     * Get the number of indexed names
+     *
+     * @return The number of names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Search the names, the search stops if the thread is interrupted
+     *
+     * @param query Query text, must not be empty
+     * @return The positions of the matched names in ascending order, null if interrupted
+     */
+    public int[] search(String query) {
+        String text = normalize(query);
+        if (text.length() == 0) {
+            return EMPTY_RESULT;
+        }
+        if (text.length() < TRIGRAM_LENGTH) {
+            int ordinal = keyOrdinals.get(prefixKey(text, 0, text.length()), -1);
+            return ordinal < 0 ? EMPTY_RESULT
+                : Arrays.copyOfRange(postings, postingStarts[ordinal], postingStarts[ordinal + 1]);
+        }
+        int[] ordinals = new int[text.length() - TRIGRAM_LENGTH + 1];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = keyOrdinals.get(trigramKey(text, i), -1);
+            if (ordinals[i] < 0) {
+                return EMPTY_RESULT;
+            }
+        }
+        // Start from the shortest list, insertion sort since a query has few trigrams
+        for (int i = 1; i < ordinals.length; i++) {
+            int ordinal = ordinals[i];
+            int j = i - 1;
+            while (j >= 0 && getPostingCount(ordinals[j]) > getPostingCount(ordinal)) {
+                ordinals[j + 1] = ordinals[j];
+                j--;
+            }
+            ordinals[j + 1] = ordinal;
+        }
+        int[] candidates = Arrays.copyOfRange(postings, postingStarts[ordinals[0]], postingStarts[ordinals[0] + 1]);
+        int count = candidates.length;
+        for (int i = 1; i < ordinals.length && count > 0; i++) {
+            count = intersect(candidates, count, ordinals[i]);
+        }
+        if (text.length() == TRIGRAM_LENGTH) {
+            return Arrays.copyOf(candidates, count);
+        }
+        // All the trigrams are found, make sure they are adjacent
+        byte[] pattern = text.getBytes(UTF_8);
+        int matchCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % INTERRUPT_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            if (containsName(candidates[i], pattern)) {
+                candidates[matchCount++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, matchCount);
+    }
+
+    private int getPostingCount(int ordinal) {
+        return postingStarts[ordinal + 1] - postingStarts[ordinal];
+    }
+
+    /**
+     * Keep the candidates which are also in the postings of the ordinal
+     *
+     * @param candidates Sorted candidates, updated in place
+     * @param count The number of candidates
+     * @param ordinal Key ordinal
+     * @return The number of remaining candidates
+     */
+    private int intersect(int[] candidates, int count, int ordinal) {
+        int result = 0;
+        int listIndex = postingStarts[ordinal];
+        int listEnd = postingStarts[ordinal + 1];
+        for (int i = 0; i < count && listIndex < listEnd; i++) {
+            while (listIndex < listEnd && postings[listIndex] < candidates[i]) {
+                listIndex++;
+            }
+            if (listIndex < listEnd && postings[listIndex] == candidates[i]) {
+                candidates[result++] = candidates[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the name contains the pattern
+     *
+     * @param position Name position
+     * @param pattern Lowercase UTF-8 pattern
+     * @return Contains the pattern
+     */
+    private boolean containsName(int position, byte[] pattern) {
+        int start = nameStarts[position];
+        int end = position + 1 < size ? nameStarts[position + 1] : names.length;
+        for (int i = start; i <= end - pattern.length; i++) {
+            int j = 0;
+            while (j < pattern.length && names[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counting sort of the postings of the builder by ordinal, the positions of every ordinal stay in the added order
+     *
+     * @param builder Builder
+     * @param starts Output of the start of every ordinal, the last one is the postings length
+     * @return Positions ordinal by ordinal
+     */
+    private static int[] sortByOrdinal(Builder builder, int[] starts) {
+        int ordinalCount = starts.length - 1;
+        for (int i = 0; i < ordinalCount; i++) {
+            starts[i + 1] = starts[i] + builder.postingCounts[i];
+        }
+        int[] result = new int[builder.entryCount];
+        int[] cursors = Arrays.copyOf(starts, ordinalCount);
+        for (int i = 0; i < builder.entryCount; i++) {
+            result[cursors[builder.entryOrdinals[i]]++] = builder.entryPositions[i];
+        }
+        return result;
+    }
+
+    /**
+     * Get the previous position of every position after the changes
+     *
+     * @param changes The changes in order
+     * @param newSize The number of names after the changes
+     * @return The previous positions, -1 for the inserted and changed names
+     */
+    private int[] getOldPositions(List<CatalogChange> changes, int newSize) {
+        // Ranges of the names after every change, {previous start or -1 for the new names, count}
+        List<int[]> ranges = new ArrayList<>();
+        if (size > 0) {
+            ranges.add(new int[] {0, size});
+        }
+        for (CatalogChange change : changes) {
+            int start = splitRange(ranges, change.getPositionStart());
+            if (change.getType() != CatalogChange.TYPE_INSERTED) {
+                int end = splitRange(ranges, change.getPositionStart() + change.getItemCount());
+                ranges.subList(start, end).clear();
+            }
+            if (change.getType() != CatalogChange.TYPE_REMOVED) {
+                ranges.add(start, new int[] {-1, change.getItemCount()});
+            }
+        }
+        int count = 0;
+        for (int[] range : ranges) {
+            count += range[1];
+        }
+        if (count != newSize) {
+            throw new IllegalArgumentException("changes lead to " + count + " names, the catalog has " + newSize);
+        }
+        int[] oldPositions = new int[newSize];
+        int position = 0;
+        for (int[] range : ranges) {
+            for (int i = 0; i < range[1]; i++) {
+                oldPositions[position++] = range[0] < 0 ? -1 : range[0] + i;
+            }
+        }
+        return oldPositions;
+    }
+
+    /**
+     * Make sure a range starts at the position
+     *
+     * @return The index of the range starting at the position, the range count if the position is the end
+     */
+    private static int splitRange(List<int[]> ranges, int position) {
+        int start = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            int[] range = ranges.get(i);
+            if (position == start) {
+                return i;
+            }
+            if (position < start + range[1]) {
+                int offset = position - start;
+                ranges.set(i, new int[] {range[0], offset});
+                ranges.add(i + 1, new int[] {range[0] < 0 ? -1 : range[0] + offset, range[1] - offset});
+                return i + 1;
+            }
+            start += range[1];
+        }
+        return ranges.size();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigramKey(String text, int start) {
+        return ((long) TRIGRAM_LENGTH << 48) | ((long) text.charAt(start) << 32)
+            | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static long prefixKey(String text, int start, int length) {
+        long key = (long) length << 48;
+        for (int i = 0; i < length; i++) {
+            key = key | ((long) text.charAt(start + i) << (16 * (length - 1 - i)));
+        }
+        return key;
+    }
+
+    /**
+     * Build the index name by name, the names must be added in the catalog order
+     */
+    public static class Builder {
+        private int size = 0;
+
+        // The ordinal of every key in the order the keys are found
+        private LongIntHashMap keyOrdinals = new LongIntHashMap(1024);
+
+        // The number of positions of every ordinal
+        private int[] postingCounts = new int[1024];
+
+        // The last position added to every ordinal
+        private int[] lastPositions = new int[1024];
+
+        // The ordinal and the position of every added posting
+        private int[] entryOrdinals = new int[4096];
+
+        private int[] entryPositions = new int[4096];
+
+        private int entryCount = 0;
+
+        /**
+         * Constructor
+         */
+        public Builder() {
+        }
+
+        /**
+         * Constructor of the index update, the keys keep their ordinals
+         *
+         * @param previousOrdinals The ordinals of the previous index, not modified
+         */
+        private Builder(LongIntHashMap previousOrdinals) {
+            long[] keys = previousOrdinals.keys();
+            keyOrdinals = new LongIntHashMap(keys.length + 1024);
+            for (long key : keys) {
+                keyOrdinals.put(key, previousOrdinals.get(key, -1));
+            }
+            int capacity = Math.max(keys.length, 1024);
+            postingCounts = new int[capacity];
+            lastPositions = new int[capacity];
+            Arrays.fill(lastPositions, -1);
+        }
+
+        private byte[] names = new byte[1024];
+
+        private int namesSize = 0;
+
+        private int[] nameStarts = new int[64];
+
+        /**
+         * Get the number of added names
+         *
+         * @return The number of names
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Add the name of the next catalog position
+         *
+         * @param name The name
+         * @return Builder
+         */
+        public Builder add(String name) {
+            String text = normalize(name);
+            addKeys(text, size);
+            byte[] bytes = text.getBytes(UTF_8);
+            addName(bytes, 0, bytes.length);
+            return this;
+        }
+
+        /**
+         * Build the index, the builder should not be used afterwards
+         *
+         * @return Search index
+         */
+        public CatalogSearchIndex build() {
+            return new CatalogSearchIndex(this);
+        }
+
+        /**
+         * Whether a word starts at the index, every ideograph is a word since such names have no spaces
+         *
+         * @param text Name
+         * @param index Char index
+         * @return Is word start
+         */
+        private static boolean isWordStart(String text, int index) {
+            return index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1))
+                || Character.isIdeographic(text.charAt(index));
+        }
+
+        private void addKeys(String text, int position) {
+            for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+                addPosting(trigramKey(text, i), position);
+            }
+            for (int i = 0; i < text.length(); i++) {
+                if (isWordStart(text, i)) {
+                    addPosting(prefixKey(text, i, 1), position);
+                    if (i + 1 < text.length()) {
+                        addPosting(prefixKey(text, i, 2), position);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add the lowercase UTF-8 name of the next position
+         */
+        private void addName(byte[] bytes, int offset, int length) {
+            int position = size++;
+            if (position == nameStarts.length) {
+                nameStarts = Arrays.copyOf(nameStarts, position * 2);
+            }
+            nameStarts[position] = namesSize;
+            if (namesSize + length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, namesSize + length));
+            }
+            System.arraycopy(bytes, offset, names, namesSize, length);
+            namesSize += length;
+        }
+
+        private void addPosting(long key, int position) {
+            int ordinal = keyOrdinals.get(key, -1);
+            if (ordinal < 0) {
+                ordinal = keyOrdinals.size();
+                keyOrdinals.put(key, ordinal);
+                if (ordinal == postingCounts.length) {
+                    postingCounts = Arrays.copyOf(postingCounts, ordinal * 2);
+                    lastPositions = Arrays.copyOf(lastPositions, ordinal * 2);
+                }
+                lastPositions[ordinal] = -1;
+            }
+            // A key found twice in a name is indexed once
+            if (lastPositions[ordinal] == position) {
+                return;
+            }
+            lastPositions[ordinal] = position;
+            postingCounts[ordinal]++;
+            if (entryCount == entryOrdinals.length) {
+                entryOrdinals = Arrays.copyOf(entryOrdinals, entryCount * 2);
+                entryPositions = Arrays.copyOf(entryPositions, entryCount * 2);
+            }
+            entryOrdinals[entryCount] = ordinal;
+            entryPositions[entryCount] = position;
+            entryCount++;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.contract.OnCatalogSearchListener;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.utils.LogUtil;
+
+/**
+ * Search the catalog names in the background while the user is typing.
+ * The queries are debounced, a new query cancels the running one and the outdated results are dropped.
+ */
+public class CatalogSearcher {
+    private static final String TAG = "CatalogSearcher";
+
+    /**
+     * Wait for the typing to pause before searching
+     */
+    private static final long DEBOUNCE_DELAY_MS = 150;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CatalogSearcher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Search listener
+    private OnCatalogSearchListener onCatalogSearchListener;
+
+    // Debounce the queries and deliver the results on the main thread
+    private Handler mainHandler;
+
+    // The generation of the latest query, the results of the older generations are dropped
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // The searched catalog, null until the catalog is loaded
+    private CatalogSnapshot snapshot;
+
+    // The query received before the catalog is loaded
+    private String pendingQuery;
+
+    // The running search
+    private Future<?> searchFuture;
+
+    /**
+     * Constructor
+     *
+     * @param onCatalogSearchListener Search listener
+     */
+    public CatalogSearcher(OnCatalogSearchListener onCatalogSearchListener) {
+        this.onCatalogSearchListener = onCatalogSearchListener;
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Set the searched catalog, must be called on the main thread.
+     * The query received before the catalog is loaded is searched now.
+     *
+     * @param snapshot Catalog snapshot
+     */
+    public void setSnapshot(CatalogSnapshot snapshot) {
+        this.snapshot = snapshot;
+        if (pendingQuery != null) {
+            String query = pendingQuery;
+            pendingQuery = null;
+            search(query);
+        }
+    }
+
+    /**
+     * Search the names, must be called on the main thread
+     *
+     * @param query Query text
+     */
+    public void search(final String query) {
+        final int queryGeneration = generation.incrementAndGet();
+        mainHandler.removeCallbacksAndMessages(null);
+        cancelSearchFuture();
+        if (snapshot == null) {
+            pendingQuery = query;
+            return;
+        }
+        if (query == null || query.trim().length() == 0) {
+            onCatalogSearchListener.onCatalogSearched("", snapshot.getPlayList());
+            return;
+        }
+        final CatalogSnapshot searchSnapshot = snapshot;
+        mainHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                searchFuture = EXECUTOR.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        searchInBackground(searchSnapshot, query, queryGeneration);
+                    }
+                });
+            }
+        }, DEBOUNCE_DELAY_MS);
+    }
+
+    /**
+     * Cancel the search, no more results are delivered
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        pendingQuery = null;
+        mainHandler.removeCallbacksAndMessages(null);
+        cancelSearchFuture();
+    }
+
+    private void cancelSearchFuture() {
+        if (searchFuture != null) {
+            searchFuture.cancel(true);
+            searchFuture = null;
+        }
+    }
+
+    /**
+     * Search on the searcher thread
+     *
+     * @param searchSnapshot The searched catalog
+     * @param query Query text
+     * @param queryGeneration The generation of the query
+     */
+    private void searchInBackground(CatalogSnapshot searchSnapshot, final String query, final int queryGeneration) {
+        if (queryGeneration != generation.get()) {
+            return;
+        }
+        long startTime = SystemClock.elapsedRealtime();
+        int[] positions = searchSnapshot.getSearchIndex().search(query);
+        if (positions == null || queryGeneration != generation.get()) {
+            return;
+        }
+        LogUtil.d(TAG, "search " + query + " in " + (SystemClock.elapsedRealtime() - startTime) + " ms, matched "
+            + positions.length);
+        final List<PlayEntity> playList = new FilteredPlayList(searchSnapshot.getPlayCatalog(), positions);
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (queryGeneration == generation.get()) {
+                    onCatalogSearchListener.onCatalogSearched(query, playList);
+                }
+            }
+        });
+    }
+
+    /**
+     * Read only view of the matched entities, backed by the catalog.
+     * The matches are scattered over the catalog, so they are decoded one by one instead of by page.
+     */
+    private static class FilteredPlayList extends AbstractList<PlayEntity> {
+        private final PlayCatalog playCatalog;
+
+        private final int[] positions;
+
+        FilteredPlayList(PlayCatalog playCatalog, int[] positions) {
+            this.playCatalog = playCatalog;
+            this.positions = positions;
+        }
+
+        @Override
+        public PlayEntity get(int index) {
+            return playCatalog.getScatteredPlayEntity(positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return positions.length;
+        }
+    }
+}
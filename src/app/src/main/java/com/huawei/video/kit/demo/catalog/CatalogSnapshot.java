@@ -0,0 +1,187 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Immutable parsed play catalog, one snapshot is shared by all the pages and adapters without copying.
+ * The entities must be treated as read only, a paged catalog may return a different instance
+ * for the same position once its page is evicted.
+ */
+public final class CatalogSnapshot {
+    /**
+     * The empty catalog
+     */
+    public static final CatalogSnapshot EMPTY =
+        new CatalogSnapshot(0, new ListPlayCatalog(new ArrayList<PlayEntity>()));
+
+    // The snapshot version, a reload always publishes a greater version
+    private final int version;
+
+    // The catalog data version, the version of the last applied delta
+    private final int catalogVersion;
+
+    // Play catalog
+    private final PlayCatalog playCatalog;
+
+    // Read only list view of the catalog
+    private final List<PlayEntity> playList;
+
+    // Name search index, built on first use if it is not built while parsing
+    private CatalogSearchIndex searchIndex;
+
+    // Id index, built on first use
+    private CatalogIdIndex idIndex;
+
+    /**
+     * Constructor
+     *
+     * @param version The snapshot version
+     * @param playCatalog Play catalog
+     */
+    CatalogSnapshot(int version, PlayCatalog playCatalog) {
+        this(version, 0, playCatalog, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param version The snapshot version
+     * @param catalogVersion The catalog data version
+     * @param playCatalog Play catalog
+     * @param searchIndex Search index of the catalog names, null to build it on first use
+     */
+    CatalogSnapshot(int version, int catalogVersion, PlayCatalog playCatalog, CatalogSearchIndex searchIndex) {
+        this.version = version;
+        this.catalogVersion = catalogVersion;
+        this.playCatalog = playCatalog;
+        this.playList = Collections.unmodifiableList(playCatalog.asList());
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Get the snapshot version
+     *
+     * @return Version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the catalog data version, a delta only applies to the catalog of its base version
+     *
+     * @return Catalog version
+     */
+    public int getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Get the number of entities
+     *
+     * @return The number of entities
+     */
+    public int size() {
+        return playCatalog.size();
+    }
+
+    /**
+     * Get the entity at the position
+     *
+     * @param position The position
+     * @return Play entity, null if the position is invalid
+     */
+    public PlayEntity get(int position) {
+        if (position >= 0 && position < playCatalog.size()) {
+            return playCatalog.getPlayEntity(position);
+        }
+        return null;
+    }
+
+    /**
+     * Get the catalog
+     *
+     * @return Play catalog
+     */
+    PlayCatalog getPlayCatalog() {
+        return playCatalog;
+    }
+
+    /**
+     * Get the read only play list
+     *
+     * @return Play list
+     */
+    public List<PlayEntity> getPlayList() {
+        return playList;
+    }
+
+    /**
+     * Get the id index, the index is built on the first call so do not call it on the main thread
+     *
+     * @return Id index
+     */
+    public synchronized CatalogIdIndex getIdIndex() {
+        if (idIndex == null) {
+            idIndex = CatalogIdIndex.build(playCatalog);
+        }
+        return idIndex;
+    }
+
+    /**
+     * Find the position of the entity without building an index, so it can be called on the main thread
+     *
+     * @param id Entity id
+     * @return The position, -1 if not found or the id index is not built yet
+     */
+    public synchronized int findPosition(long id) {
+        if (idIndex != null) {
+            return idIndex.getPosition(id);
+        }
+        if (playCatalog instanceof DeltaPlayCatalog) {
+            return ((DeltaPlayCatalog) playCatalog).indexOf(id);
+        }
+        return -1;
+    }
+
+    /**
+     * Get the search index of the names if it is already built
+     *
+     * @return Search index, null if not built
+     */
+    synchronized CatalogSearchIndex getBuiltSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Get the search index of the names, the index is built on the first call so do not call it on the main thread
+     *
+     * @return Search index
+     */
+    public synchronized CatalogSearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = CatalogSearchIndex.build(playCatalog);
+        }
+        return searchIndex;
+    }
+}
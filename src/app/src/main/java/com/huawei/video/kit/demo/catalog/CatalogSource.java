@@ -0,0 +1,42 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.huawei.video.kit.demo.contract.OnCatalogSourceChangedListener;
+
+/**
+ * The source of the play list json
+ */
+public interface CatalogSource {
+    /**
+     * Open the play list json
+     *
+     * @return The json stream, the caller is responsible for closing it
+     * @throws IOException The play list is not available
+     */
+    InputStream open() throws IOException;
+
+    /**
+     * Set the listener notified when the play list of the source is changed
+     *
+     * @param listener Change listener, can be null
+     */
+    void setOnCatalogSourceChangedListener(OnCatalogSourceChangedListener listener);
+}
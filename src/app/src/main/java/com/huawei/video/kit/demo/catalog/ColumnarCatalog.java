@@ -0,0 +1,236 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Compact in memory catalog stored by columns instead of one object per entity:
+ * urlType and the interned appId codes are primitive arrays, the url host prefixes are shared through a
+ * dictionary and the url suffixes and names are UTF-8 slices of one byte array.
+ * The entities are created on demand when they are accessed.
+ */
+public class ColumnarCatalog extends PlayCatalog {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String SCHEME_SEPARATOR = "://";
+
+    private static final int NO_PREFIX = -1;
+
+    private final int size;
+
+    private final int[] urlTypes;
+
+    // Catalog ids
+    private final long[] ids;
+
+    // The appId code of every entity
+    private final int[] appIdCodes;
+
+    // The appId dictionary
+    private final String[] appIds;
+
+    // The url prefix code of every entity, NO_PREFIX if the url has no host
+    private final int[] urlPrefixCodes;
+
+    // The url prefix dictionary, scheme and host
+    private final String[] urlPrefixes;
+
+    // The start of the url suffix of every entity in the data, the url ends at the start of the name
+    private final int[] urlStarts;
+
+    // The start of the name of every entity in the data, the name ends at the start of the next url
+    private final int[] nameStarts;
+
+    // UTF-8 url suffixes and names
+    private final byte[] data;
+
+    private ColumnarCatalog(Builder builder) {
+        size = builder.size;
+        urlTypes = Arrays.copyOf(builder.urlTypes, size);
+        ids = Arrays.copyOf(builder.ids, size);
+        appIdCodes = Arrays.copyOf(builder.appIdCodes, size);
+        appIds = builder.appIds.toArray(new String[builder.appIds.size()]);
+        urlPrefixCodes = Arrays.copyOf(builder.urlPrefixCodes, size);
+        urlPrefixes = builder.urlPrefixes.toArray(new String[builder.urlPrefixes.size()]);
+        urlStarts = Arrays.copyOf(builder.urlStarts, size);
+        nameStarts = Arrays.copyOf(builder.nameStarts, size);
+        data = Arrays.copyOf(builder.data, builder.dataSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create the entity at the index, a new entity is created for every call
+     *
+     * @param index The entity index
+     * @return Play entity
+     */
+    @Override
+    public PlayEntity getPlayEntity(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        int nameEnd = index + 1 < size ? urlStarts[index + 1] : data.length;
+        String urlSuffix = new String(data, urlStarts[index], nameStarts[index] - urlStarts[index], UTF_8);
+        PlayEntity playEntity = new PlayEntity();
+        playEntity.setId(ids[index]);
+        playEntity.setUrlType(urlTypes[index]);
+        playEntity.setAppId(appIds[appIdCodes[index]]);
+        playEntity.setUrl(
+            urlPrefixCodes[index] == NO_PREFIX ? urlSuffix : urlPrefixes[urlPrefixCodes[index]] + urlSuffix);
+        playEntity.setName(new String(data, nameStarts[index], nameEnd - nameStarts[index], UTF_8));
+        return playEntity;
+    }
+
+    @Override
+    public long getId(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return ids[index];
+    }
+
+    @Override
+    public String getName(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        int nameEnd = index + 1 < size ? urlStarts[index + 1] : data.length;
+        return new String(data, nameStarts[index], nameEnd - nameStarts[index], UTF_8);
+    }
+
+    /**
+     * Get the host part of the url, which is shared by the urls of the same server
+     *
+     * @param url Url
+     * @return The url prefix including the slash after the host, null if the url has no host
+     */
+    private static String getUrlPrefix(String url) {
+        int schemeEnd = url.indexOf(SCHEME_SEPARATOR);
+        if (schemeEnd < 0) {
+            return null;
+        }
+        int hostEnd = url.indexOf('/', schemeEnd + SCHEME_SEPARATOR.length());
+        return hostEnd < 0 ? url : url.substring(0, hostEnd + 1);
+    }
+
+    /**
+     * Build the catalog entity by entity
+     */
+    public static class Builder {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private int size = 0;
+
+        private int[] urlTypes = new int[INITIAL_CAPACITY];
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+
+        private int[] appIdCodes = new int[INITIAL_CAPACITY];
+
+        private int[] urlPrefixCodes = new int[INITIAL_CAPACITY];
+
+        private int[] urlStarts = new int[INITIAL_CAPACITY];
+
+        private int[] nameStarts = new int[INITIAL_CAPACITY];
+
+        private byte[] data = new byte[INITIAL_CAPACITY * 32];
+
+        private int dataSize = 0;
+
+        private List<String> appIds = new ArrayList<>();
+
+        private Map<String, Integer> appIdCodeMap = new HashMap<>();
+
+        private List<String> urlPrefixes = new ArrayList<>();
+
+        private Map<String, Integer> urlPrefixCodeMap = new HashMap<>();
+
+        /**
+         * Append the entity
+         *
+         * @param playEntity Play entity
+         * @return Builder
+         */
+        public Builder add(PlayEntity playEntity) {
+            if (size == urlTypes.length) {
+                int capacity = size * 2;
+                urlTypes = Arrays.copyOf(urlTypes, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                appIdCodes = Arrays.copyOf(appIdCodes, capacity);
+                urlPrefixCodes = Arrays.copyOf(urlPrefixCodes, capacity);
+                urlStarts = Arrays.copyOf(urlStarts, capacity);
+                nameStarts = Arrays.copyOf(nameStarts, capacity);
+            }
+            String url = nullToEmpty(playEntity.getUrl());
+            String urlPrefix = getUrlPrefix(url);
+            urlTypes[size] = playEntity.getUrlType();
+            ids[size] = playEntity.getId();
+            appIdCodes[size] = intern(appIds, appIdCodeMap, nullToEmpty(playEntity.getAppId()));
+            urlPrefixCodes[size] = urlPrefix == null ? NO_PREFIX : intern(urlPrefixes, urlPrefixCodeMap, urlPrefix);
+            urlStarts[size] = dataSize;
+            appendData(urlPrefix == null ? url : url.substring(urlPrefix.length()));
+            nameStarts[size] = dataSize;
+            appendData(nullToEmpty(playEntity.getName()));
+            size++;
+            return this;
+        }
+
+        /**
+         * Build the catalog, the builder should not be used afterwards
+         *
+         * @return Columnar catalog
+         */
+        public ColumnarCatalog build() {
+            return new ColumnarCatalog(this);
+        }
+
+        private void appendData(String value) {
+            byte[] bytes = value.getBytes(UTF_8);
+            if (dataSize + bytes.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + bytes.length));
+            }
+            System.arraycopy(bytes, 0, data, dataSize, bytes.length);
+            dataSize += bytes.length;
+        }
+
+        private static int intern(List<String> dictionary, Map<String, Integer> codeMap, String value) {
+            Integer code = codeMap.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codeMap.put(value, code);
+            }
+            return code;
+        }
+
+        private static String nullToEmpty(String value) {
+            return value == null ? "" : value;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.LongIntHashMap;
+
+/**
+ * Catalog with deltas applied on top of a base catalog. The catalog is a list of pieces, every piece is
+ * either a range of the base catalog or a range of the entities added by the deltas, so applying a delta costs time
+ * proportional to the number of changes and pieces, not the catalog size. The catalog is immutable,
+ * a delta creates a new catalog sharing the base.
+ */
+public class DeltaPlayCatalog extends PlayCatalog {
+    private static final String TAG = "DeltaPlayCatalog";
+
+    // Base catalog
+    private final PlayCatalog base;
+
+    // Id index of the base catalog
+    private final CatalogIdIndex baseIdIndex;
+
+    // The entities added by the deltas, the removed and replaced ones stay but no piece refers to them
+    private final PlayEntity[] addedEntities;
+
+    // The index in the added entities of every added id in the catalog
+    private final LongIntHashMap addedIds;
+
+    // Pieces in order and their positions
+    private final PieceTable pieceTable;
+
+    /**
+     * Constructor, no delta is applied
+     *
+     * @param base Base catalog
+     * @param baseIdIndex Id index of the base catalog
+     */
+    public DeltaPlayCatalog(PlayCatalog base, CatalogIdIndex baseIdIndex) {
+        this(base, baseIdIndex, new PlayEntity[0], new LongIntHashMap(),
+            base.size() == 0 ? new ArrayList<Piece>() : Arrays.asList(new Piece(false, 0, base.size())));
+    }
+
+    private DeltaPlayCatalog(PlayCatalog base, CatalogIdIndex baseIdIndex, PlayEntity[] addedEntities,
+        LongIntHashMap addedIds, List<Piece> pieceList) {
+        this.base = base;
+        this.baseIdIndex = baseIdIndex;
+        this.addedEntities = addedEntities;
+        this.addedIds = addedIds;
+        pieceTable = new PieceTable(pieceList);
+    }
+
+    @Override
+    public int size() {
+        return pieceTable.size;
+    }
+
+    @Override
+    public PlayEntity getPlayEntity(int index) {
+        int pieceIndex = pieceTable.findPiece(index);
+        Piece piece = pieceTable.pieces[pieceIndex];
+        int sourceIndex = piece.start + index - pieceTable.pieceStarts[pieceIndex];
+        return piece.isAdded ? addedEntities[sourceIndex] : base.getPlayEntity(sourceIndex);
+    }
+
+    @Override
+    public PlayEntity getScatteredPlayEntity(int index) {
+        int pieceIndex = pieceTable.findPiece(index);
+        Piece piece = pieceTable.pieces[pieceIndex];
+        int sourceIndex = piece.start + index - pieceTable.pieceStarts[pieceIndex];
+        return piece.isAdded ? addedEntities[sourceIndex] : base.getScatteredPlayEntity(sourceIndex);
+    }
+
+    @Override
+    public long getId(int index) {
+        int pieceIndex = pieceTable.findPiece(index);
+        Piece piece = pieceTable.pieces[pieceIndex];
+        int sourceIndex = piece.start + index - pieceTable.pieceStarts[pieceIndex];
+        return piece.isAdded ? addedEntities[sourceIndex].getId() : base.getId(sourceIndex);
+    }
+
+    @Override
+    public String getName(int index) {
+        int pieceIndex = pieceTable.findPiece(index);
+        Piece piece = pieceTable.pieces[pieceIndex];
+        int sourceIndex = piece.start + index - pieceTable.pieceStarts[pieceIndex];
+        return piece.isAdded ? addedEntities[sourceIndex].getName() : base.getName(sourceIndex);
+    }
+
+    /**
+     * Get the number of pieces, grows with the applied changes
+     *
+     * @return The number of pieces
+     */
+    public int getPieceCount() {
+        return pieceTable.pieces.length;
+    }
+
+    /**
+     * Apply the delta and create a new catalog, the operations of unknown ids are skipped
+     *
+     * @param delta Catalog delta
+     * @param changes Output of the changed ranges in order
+     * @return The new catalog
+     */
+    public DeltaPlayCatalog apply(CatalogDelta delta, List<CatalogChange> changes) {
+        List<CatalogDelta.Operation> operations = delta.getOperations();
+        List<Piece> pieceList = new ArrayList<>(Arrays.asList(pieceTable.pieces));
+        PlayEntity[] entities = Arrays.copyOf(addedEntities, addedEntities.length + operations.size());
+        int entityCount = addedEntities.length;
+        LongIntHashMap ids = new LongIntHashMap(addedIds.size() + operations.size());
+        for (long id : addedIds.keys()) {
+            ids.put(id, addedIds.get(id, -1));
+        }
+        // Rebuilt after every change of the pieces
+        PieceTable index = pieceTable;
+        for (CatalogDelta.Operation operation : operations) {
+            if (index == null) {
+                index = new PieceTable(pieceList);
+            }
+            long id = operation.getId();
+            int position = index.indexOf(baseIdIndex, ids, id);
+            switch (operation.getType()) {
+                case CatalogDelta.Operation.TYPE_ADD:
+                    entities[entityCount] = operation.getPlayEntity();
+                    ids.put(id, entityCount);
+                    if (position >= 0) {
+                        LogUtil.w(TAG, "add an existing id " + id + ", modify it");
+                        replace(pieceList, position, entityCount++);
+                        addChange(changes, new CatalogChange(CatalogChange.TYPE_CHANGED, position, 1));
+                    } else {
+                        int insertPosition = getInsertPosition(index, ids, operation.getAfterId());
+                        insert(pieceList, insertPosition, entityCount++);
+                        addChange(changes, new CatalogChange(CatalogChange.TYPE_INSERTED, insertPosition, 1));
+                    }
+                    index = null;
+                    break;
+                case CatalogDelta.Operation.TYPE_REMOVE:
+                    if (position >= 0) {
+                        ids.remove(id);
+                        remove(pieceList, position);
+                        addChange(changes, new CatalogChange(CatalogChange.TYPE_REMOVED, position, 1));
+                        index = null;
+                    }
+                    break;
+                case CatalogDelta.Operation.TYPE_MODIFY:
+                    if (position >= 0) {
+                        entities[entityCount] = operation.getPlayEntity();
+                        ids.put(id, entityCount);
+                        replace(pieceList, position, entityCount++);
+                        addChange(changes, new CatalogChange(CatalogChange.TYPE_CHANGED, position, 1));
+                        index = null;
+                    } else {
+                        LogUtil.w(TAG, "modify an unknown id " + id);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new DeltaPlayCatalog(base, baseIdIndex, Arrays.copyOf(entities, entityCount), ids, pieceList);
+    }
+
+    /**
+     * Get the position of the id
+     *
+     * @param id Catalog id
+     * @return Position, -1 if the id is not in the catalog
+     */
+    public int indexOf(long id) {
+        return pieceTable.indexOf(baseIdIndex, addedIds, id);
+    }
+
+    private int getInsertPosition(PieceTable index, LongIntHashMap ids, long afterId) {
+        if (afterId == CatalogDelta.INSERT_FIRST) {
+            return 0;
+        }
+        int afterPosition = afterId == CatalogDelta.INSERT_LAST ? -1 : index.indexOf(baseIdIndex, ids, afterId);
+        return afterPosition >= 0 ? afterPosition + 1 : index.size;
+    }
+
+    /**
+     * Make sure a piece starts at the position
+     *
+     * @return The index of the piece starting at the position, the piece count if the position is the end
+     */
+    private static int split(List<Piece> pieceList, int position) {
+        int start = 0;
+        for (int i = 0; i < pieceList.size(); i++) {
+            Piece piece = pieceList.get(i);
+            if (position == start) {
+                return i;
+            }
+            if (position < start + piece.count) {
+                int offset = position - start;
+                pieceList.set(i, piece.subPiece(0, offset));
+                pieceList.add(i + 1, piece.subPiece(offset, piece.count - offset));
+                return i + 1;
+            }
+            start += piece.count;
+        }
+        return pieceList.size();
+    }
+
+    private static void insert(List<Piece> pieceList, int position, int addedIndex) {
+        int pieceIndex = split(pieceList, position);
+        Piece previous = pieceIndex > 0 ? pieceList.get(pieceIndex - 1) : null;
+        if (previous != null && previous.isAdded && previous.start + previous.count == addedIndex) {
+            // Grow the added piece before the position instead of adding a piece
+            pieceList.set(pieceIndex - 1, new Piece(true, previous.start, previous.count + 1));
+        } else {
+            pieceList.add(pieceIndex, new Piece(true, addedIndex, 1));
+        }
+    }
+
+    private static void remove(List<Piece> pieceList, int position) {
+        int pieceIndex = split(pieceList, position);
+        split(pieceList, position + 1);
+        pieceList.remove(pieceIndex);
+    }
+
+    private static void replace(List<Piece> pieceList, int position, int addedIndex) {
+        remove(pieceList, position);
+        insert(pieceList, position, addedIndex);
+    }
+
+    private static void addChange(List<CatalogChange> changes, CatalogChange change) {
+        if (!changes.isEmpty()) {
+            CatalogChange merged = changes.get(changes.size() - 1).merge(change);
+            if (merged != null) {
+                changes.set(changes.size() - 1, merged);
+                return;
+            }
+        }
+        changes.add(change);
+    }
+
+    /**
+     * A range of the base catalog or the added entities
+     */
+    private static final class Piece {
+        // Whether the range is in the added entities
+        final boolean isAdded;
+
+        // The first index in the base catalog or the added entities
+        final int start;
+
+        // The number of entities
+        final int count;
+
+        Piece(boolean isAdded, int start, int count) {
+            this.isAdded = isAdded;
+            this.start = start;
+            this.count = count;
+        }
+
+        Piece subPiece(int offset, int subCount) {
+            return new Piece(isAdded, start + offset, subCount);
+        }
+    }
+
+    /**
+     * The positions of the pieces, and the pieces of the base catalog and of the added entities ordered by their start
+     * to find the position of an id without scanning the pieces
+     */
+    private static final class PieceTable {
+        // Pieces in order
+        final Piece[] pieces;
+
+        // The position of the first entity of every piece
+        final int[] pieceStarts;
+
+        // The number of entities
+        final int size;
+
+        // The base pieces by base start, a delta never reorders the base entities so it is the piece order
+        final int[] basePieces;
+
+        // The added pieces by their start in the added entities
+        final int[] addedPieces;
+
+        PieceTable(List<Piece> pieceList) {
+            pieces = pieceList.toArray(new Piece[pieceList.size()]);
+            pieceStarts = new int[pieces.length];
+            int position = 0;
+            int baseCount = 0;
+            long[] addedKeys = new long[pieces.length];
+            int addedCount = 0;
+            for (int i = 0; i < pieces.length; i++) {
+                pieceStarts[i] = position;
+                position += pieces[i].count;
+                if (pieces[i].isAdded) {
+                    addedKeys[addedCount++] = ((long) pieces[i].start << 32) | i;
+                } else {
+                    baseCount++;
+                }
+            }
+            size = position;
+            basePieces = new int[baseCount];
+            baseCount = 0;
+            for (int i = 0; i < pieces.length; i++) {
+                if (!pieces[i].isAdded) {
+                    basePieces[baseCount++] = i;
+                }
+            }
+            // Sort by the start, the piece index is in the low bits
+            Arrays.sort(addedKeys, 0, addedCount);
+            addedPieces = new int[addedCount];
+            for (int i = 0; i < addedCount; i++) {
+                addedPieces[i] = (int) addedKeys[i];
+            }
+        }
+
+        int findPiece(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+            int pieceIndex = Arrays.binarySearch(pieceStarts, index);
+            return pieceIndex >= 0 ? pieceIndex : -pieceIndex - 2;
+        }
+
+        /**
+         * Get the position of the id, an added id is never in the base pieces since adding it removes the base one
+         *
+         * @param baseIdIndex Id index of the base catalog
+         * @param addedIds The index in the added entities of every added id
+         * @param id Catalog id
+         * @return Position, -1 if the id is not in the catalog
+         */
+        int indexOf(CatalogIdIndex baseIdIndex, LongIntHashMap addedIds, long id) {
+            int addedIndex = addedIds.get(id, -1);
+            if (addedIndex >= 0) {
+                return getPosition(addedPieces, addedIndex);
+            }
+            int basePosition = baseIdIndex.getPosition(id);
+            return basePosition < 0 ? -1 : getPosition(basePieces, basePosition);
+        }
+
+        /**
+         * Find the piece of the source index by binary search
+         *
+         * @param sortedPieces Piece indexes ordered by start
+         * @param sourceIndex Index in the base catalog or the added entities
+         * @return Position, -1 if no piece has the source index
+         */
+        private int getPosition(int[] sortedPieces, int sourceIndex) {
+            int low = 0;
+            int high = sortedPieces.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                Piece piece = pieces[sortedPieces[middle]];
+                if (sourceIndex < piece.start) {
+                    high = middle - 1;
+                } else if (sourceIndex >= piece.start + piece.count) {
+                    low = middle + 1;
+                } else {
+                    return pieceStarts[sortedPieces[middle]] + sourceIndex - piece.start;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.huawei.video.kit.demo.contract.OnCatalogSourceChangedListener;
+
+/**
+ * The play list json in a local file
+ */
+public class FileCatalogSource implements CatalogSource {
+    // Play list file
+    private File file;
+
+    /**
+     * Constructor
+     *
+     * @param file Play list file
+     */
+    public FileCatalogSource(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return new FileInputStream(file);
+    }
+
+    @Override
+    public void setOnCatalogSourceChangedListener(OnCatalogSourceChangedListener listener) {
+        // The file is read again on every load, no need to watch it
+    }
+}
@@ -0,0 +1,305 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.content.Context;
+
+import com.huawei.video.kit.demo.contract.OnCatalogSourceChangedListener;
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.StringUtil;
+
+/**
+ * The play list json on a http server, a copy is kept in the internal storage.
+ * The copy is returned at once and revalidated in the background with the ETag and Last-Modified
+ * of the last response, so only the first start waits for the network and an unchanged play list costs a 304.
+ * The validators are written in the header of the copy, one rename replaces both so they always match the body.
+ */
+public class HttpCatalogSource implements CatalogSource {
+    private static final String TAG = "HttpCatalogSource";
+
+    private static final String CACHE_FILE_NAME = "remote_catalog.cache";
+
+    // Starts the copy, followed by the length of the validators, the validators and the json
+    private static final int CACHE_MAGIC = 0x48435331;
+
+    // Bound of the validators length, a larger one means a broken copy
+    private static final int MAX_META_LENGTH = 64 * 1024;
+
+    private static final String META_URL = "url";
+
+    private static final String META_ETAG = "etag";
+
+    private static final String META_LAST_MODIFIED = "lastModified";
+
+    private static final int CONNECT_TIMEOUT_MS = 10000;
+
+    private static final int READ_TIMEOUT_MS = 15000;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "HttpCatalogSource");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Play list url
+    private final String url;
+
+    // The validators and the copy of the play list
+    private final File cacheFile;
+
+    // Whether a revalidation is running
+    private final AtomicBoolean isRevalidating = new AtomicBoolean(false);
+
+    // Change listener
+    private volatile OnCatalogSourceChangedListener onCatalogSourceChangedListener;
+
+    /**
+     * Constructor
+     *
+     * @param context Context
+     * @param url Play list url
+     */
+    public HttpCatalogSource(Context context, String url) {
+        this(context.getFilesDir(), url);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param cacheDir The directory of the copy
+     * @param url Play list url
+     */
+    public HttpCatalogSource(File cacheDir, String url) {
+        this.url = url;
+        cacheFile = new File(cacheDir, CACHE_FILE_NAME);
+    }
+
+    /**
+     * Open the copy and revalidate it in the background, the play list is downloaded first if there is no copy
+     *
+     * @return The json stream
+     * @throws IOException No copy and the download fails
+     */
+    @Override
+    public InputStream open() throws IOException {
+        if (hasCache()) {
+            revalidateAsync();
+        } else {
+            revalidate();
+        }
+        FileInputStream inputStream = new FileInputStream(cacheFile);
+        try {
+            // Skip the validators, the file stream is left at the json
+            readMeta(inputStream);
+            return inputStream;
+        } catch (IOException e) {
+            closeQuietly(inputStream);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setOnCatalogSourceChangedListener(OnCatalogSourceChangedListener listener) {
+        onCatalogSourceChangedListener = listener;
+    }
+
+    /**
+     * Whether there is a copy of the play list url
+     *
+     * @return Has the copy
+     */
+    public boolean hasCache() {
+        return url.equals(readMeta().getProperty(META_URL));
+    }
+
+    /**
+     * Revalidate the copy in the background, the listener is notified if the play list is changed
+     */
+    public void revalidateAsync() {
+        if (!isRevalidating.compareAndSet(false, true)) {
+            return;
+        }
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (revalidate()) {
+                        OnCatalogSourceChangedListener listener = onCatalogSourceChangedListener;
+                        if (listener != null) {
+                            listener.onCatalogSourceChanged(HttpCatalogSource.this);
+                        }
+                    }
+                } catch (IOException e) {
+                    LogUtil.w(TAG, "revalidate catalog error, keep the copy :" + e.getMessage());
+                } finally {
+                    isRevalidating.set(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Send a conditional request and update the copy
+     *
+     * @return Whether the copy is changed, false if the server returns 304
+     * @throws IOException Request fail
+     */
+    public synchronized boolean revalidate() throws IOException {
+        Properties meta = hasCache() ? readMeta() : new Properties();
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            String etag = meta.getProperty(META_ETAG);
+            if (!StringUtil.isEmpty(etag)) {
+                connection.setRequestProperty("If-None-Match", etag);
+            }
+            String lastModified = meta.getProperty(META_LAST_MODIFIED);
+            if (!StringUtil.isEmpty(lastModified)) {
+                connection.setRequestProperty("If-Modified-Since", lastModified);
+            }
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                LogUtil.i(TAG, "catalog not modified");
+                return false;
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("unexpected response code " + responseCode);
+            }
+            Properties newMeta = new Properties();
+            newMeta.setProperty(META_URL, url);
+            putIfNotEmpty(newMeta, META_ETAG, connection.getHeaderField("ETag"));
+            putIfNotEmpty(newMeta, META_LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+            saveCache(newMeta, connection.getInputStream());
+            LogUtil.i(TAG, "catalog downloaded, size " + cacheFile.length());
+            return true;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Write the validators and the response to a temp file and replace the copy,
+     * a broken download never replaces the copy
+     *
+     * @param meta Validators of the response
+     * @param inputStream Response stream
+     * @throws IOException Write fail
+     */
+    private void saveCache(Properties meta, InputStream inputStream) throws IOException {
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        OutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(tempFile);
+            ByteArrayOutputStream metaBytes = new ByteArrayOutputStream();
+            meta.store(metaBytes, null);
+            DataOutputStream header = new DataOutputStream(outputStream);
+            header.writeInt(CACHE_MAGIC);
+            header.writeInt(metaBytes.size());
+            metaBytes.writeTo(header);
+            byte[] bytes = new byte[8192];
+            int count;
+            while ((count = inputStream.read(bytes)) > 0) {
+                outputStream.write(bytes, 0, count);
+            }
+        } finally {
+            closeQuietly(inputStream);
+            closeQuietly(outputStream);
+        }
+        if (!tempFile.renameTo(cacheFile)) {
+            throw new IOException("rename catalog cache fail");
+        }
+    }
+
+    private Properties readMeta() {
+        if (!cacheFile.exists()) {
+            return new Properties();
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(cacheFile);
+            return readMeta(inputStream);
+        } catch (IOException e) {
+            LogUtil.w(TAG, "read catalog meta error :" + e.getMessage());
+            return new Properties();
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    /**
+     * Read the validators at the start of the copy
+     *
+     * @param inputStream Copy stream, left at the json
+     * @return Validators
+     * @throws IOException Not a copy written by this source
+     */
+    private static Properties readMeta(InputStream inputStream) throws IOException {
+        // Not buffered, the stream position stays right after the validators
+        DataInputStream header = new DataInputStream(inputStream);
+        if (header.readInt() != CACHE_MAGIC) {
+            throw new IOException("not a catalog cache");
+        }
+        int length = header.readInt();
+        if (length < 0 || length > MAX_META_LENGTH) {
+            throw new IOException("broken catalog cache meta length " + length);
+        }
+        byte[] bytes = new byte[length];
+        header.readFully(bytes);
+        Properties meta = new Properties();
+        meta.load(new ByteArrayInputStream(bytes));
+        return meta;
+    }
+
+    private static void putIfNotEmpty(Properties properties, String key, String value) {
+        if (!StringUtil.isEmpty(value)) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            LogUtil.i(TAG, "close catalog stream error :" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Play catalog with all the entities in memory
+ */
+public class ListPlayCatalog extends PlayCatalog {
+    // Play list
+    private final List<PlayEntity> playList;
+
+    /**
+     * Constructor
+     *
+     * @param playList Play list, it must not be modified afterwards
+     */
+    public ListPlayCatalog(List<PlayEntity> playList) {
+        this.playList = Collections.unmodifiableList(playList);
+    }
+
+    @Override
+    public int size() {
+        return playList.size();
+    }
+
+    @Override
+    public PlayEntity getPlayEntity(int index) {
+        return playList.get(index);
+    }
+
+    @Override
+    public List<PlayEntity> asList() {
+        return playList;
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Paged view of a catalog which decodes the entities on demand. Only the pages around the accessed
+ * positions are kept in memory, the pages near the last access are prefetched in the background
+ * while the accesses stay near each other, and the least recently used pages are evicted.
+ * The scattered accesses decode single entities so they do not evict the pages of the visible window.
+ */
+public class PagedCatalog extends PlayCatalog {
+    /**
+     * The default number of entities per page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * The default number of pages prefetched on each side of the accessed page
+     */
+    public static final int DEFAULT_PREFETCH_DISTANCE = 2;
+
+    /**
+     * The default maximum number of pages in memory
+     */
+    public static final int DEFAULT_MAX_PAGES = 8;
+
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PagedCatalog");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // The catalog to decode the entities from
+    private final PlayCatalog source;
+
+    private final int pageSize;
+
+    private final int prefetchDistance;
+
+    private final int maxPages;
+
+    // The decoded pages in access order, guarded by itself
+    private final Map<Integer, PlayEntity[]> pages;
+
+    // The pages waiting for prefetch, guarded by pages
+    private final List<Integer> prefetchingPages = new ArrayList<>();
+
+    // The page of the last access, prefetch only when the next access is on it or next to it
+    private volatile int lastPageIndex = -1;
+
+    /**
+     * Constructor with the default paging parameters
+     *
+     * @param source The catalog to decode the entities from
+     */
+    public PagedCatalog(PlayCatalog source) {
+        this(source, DEFAULT_PAGE_SIZE, DEFAULT_PREFETCH_DISTANCE, DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param source The catalog to decode the entities from
+     * @param pageSize The number of entities per page
+     * @param prefetchDistance The number of pages prefetched on each side of the accessed page
+     * @param maxPages The maximum number of pages in memory, at least the prefetched window
+     */
+    public PagedCatalog(PlayCatalog source, int pageSize, int prefetchDistance, int maxPages) {
+        if (pageSize <= 0 || prefetchDistance < 0 || maxPages < prefetchDistance * 2 + 1) {
+            throw new IllegalArgumentException("invalid paging parameters");
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<Integer, PlayEntity[]>(maxPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, PlayEntity[]> eldest) {
+                return size() > PagedCatalog.this.maxPages;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    @Override
+    public PlayEntity getPlayEntity(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        }
+        int pageIndex = index / pageSize;
+        PlayEntity[] page = getPage(pageIndex);
+        int previousPageIndex = lastPageIndex;
+        lastPageIndex = pageIndex;
+        if (Math.abs(pageIndex - previousPageIndex) <= 1) {
+            prefetch(pageIndex);
+        }
+        return page[index - pageIndex * pageSize];
+    }
+
+    /**
+     * Get the entity from its page if the page is in memory, otherwise decode only the entity
+     *
+     * @param index The entity index
+     * @return Play entity
+     */
+    @Override
+    public PlayEntity getScatteredPlayEntity(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        }
+        int pageIndex = index / pageSize;
+        PlayEntity[] page;
+        synchronized (pages) {
+            page = pages.get(pageIndex);
+        }
+        return page != null ? page[index - pageIndex * pageSize] : source.getPlayEntity(index);
+    }
+
+    /**
+     * Get the id from the source, the pages are not touched so a full scan does not evict them
+     *
+     * @param index The entity index
+     * @return Id
+     */
+    @Override
+    public long getId(int index) {
+        return source.getId(index);
+    }
+
+    /**
+     * Get the name from the source, the pages are not touched so a full scan does not evict them
+     *
+     * @param index The entity index
+     * @return Name
+     */
+    @Override
+    public String getName(int index) {
+        return source.getName(index);
+    }
+
+    /**
+     * Get the number of pages in memory
+     *
+     * @return The number of pages
+     */
+    public int getCachedPageCount() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    /**
+     * Get the page, it is decoded if not in memory
+     *
+     * @param pageIndex The page index
+     * @return The page
+     */
+    private PlayEntity[] getPage(int pageIndex) {
+        PlayEntity[] page;
+        synchronized (pages) {
+            page = pages.get(pageIndex);
+        }
+        if (page != null) {
+            return page;
+        }
+        page = decodePage(pageIndex);
+        synchronized (pages) {
+            PlayEntity[] decodedPage = pages.get(pageIndex);
+            if (decodedPage != null) {
+                return decodedPage;
+            }
+            pages.put(pageIndex, page);
+        }
+        return page;
+    }
+
+    /**
+     * Decode the page from the source
+     *
+     * @param pageIndex The page index
+     * @return The page
+     */
+    private PlayEntity[] decodePage(int pageIndex) {
+        int start = pageIndex * pageSize;
+        int count = Math.min(pageSize, size() - start);
+        PlayEntity[] page = new PlayEntity[count];
+        for (int i = 0; i < count; i++) {
+            page[i] = source.getPlayEntity(start + i);
+        }
+        return page;
+    }
+
+    /**
+     * Decode the pages around the accessed page in the background
+     *
+     * @param pageIndex The accessed page index
+     */
+    private void prefetch(int pageIndex) {
+        int lastPageIndex = (size() - 1) / pageSize;
+        for (int distance = 1; distance <= prefetchDistance; distance++) {
+            schedulePrefetch(pageIndex + distance, lastPageIndex);
+            schedulePrefetch(pageIndex - distance, lastPageIndex);
+        }
+    }
+
+    private void schedulePrefetch(final int pageIndex, int lastPageIndex) {
+        if (pageIndex < 0 || pageIndex > lastPageIndex) {
+            return;
+        }
+        synchronized (pages) {
+            if (pages.containsKey(pageIndex) || prefetchingPages.contains(pageIndex)) {
+                return;
+            }
+            prefetchingPages.add(pageIndex);
+        }
+        PREFETCH_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                getPage(pageIndex);
+                synchronized (pages) {
+                    prefetchingPages.remove(Integer.valueOf(pageIndex));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Play catalog with random access by index
+ */
+public abstract class PlayCatalog {
+    /**
+     * Get the number of entities
+     *
+     * @return The number of entities
+     */
+    public abstract int size();
+
+    /**
+     * Get the entity at the index
+     *
+     * @param index The entity index
+     * @return Play entity
+     */
+    public abstract PlayEntity getPlayEntity(int index);
+
+    /**
+     * Get the entity at the index for a scattered access, such as a search result.
+     * The paged catalogs decode only the entity instead of its page and prefetch nothing.
+     *
+     * @param index The entity index
+     * @return Play entity
+     */
+    public PlayEntity getScatteredPlayEntity(int index) {
+        return getPlayEntity(index);
+    }
+
+    /**
+     * Get the id of the entity at the index, the catalogs may decode only the id
+     *
+     * @param index The entity index
+     * @return Id
+     */
+    public long getId(int index) {
+        return getPlayEntity(index).getId();
+    }
+
+    /**
+     * Get the name of the entity at the index, the catalogs may decode only the name
+     *
+     * @param index The entity index
+     * @return Name
+     */
+    public String getName(int index) {
+        return getPlayEntity(index).getName();
+    }
+
+    /**
+     * Get the entities as a read only list, backed by the catalog
+     *
+     * @return Play list
+     */
+    public List<PlayEntity> asList() {
+        return new AbstractList<PlayEntity>() {
+            @Override
+            public PlayEntity get(int index) {
+                return getPlayEntity(index);
+            }
+
+            @Override
+            public int size() {
+                return PlayCatalog.this.size();
+            }
+        };
+    }
+}
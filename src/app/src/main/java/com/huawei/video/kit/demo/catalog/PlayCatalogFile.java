@@ -0,0 +1,278 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import com.huawei.video.kit.demo.BuildConfig;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.StringUtil;
+
+/**
+ * Binary play catalog compiled from the json play list at build time (see the compilePlayCatalog task).
+ * The file is memory mapped and the entities are decoded on demand by index.
+ * <p>
+ * Layout, all int values are big endian:
+ * header (magic, version, record count, string count, records offset, string index offset, string data offset),
+ * records (id as long, urlType, appId string, url string, name string), string index (string count + 1 offsets),
+ * string data (UTF-8)
+ */
+public class PlayCatalogFile extends PlayCatalog {
+    private static final String TAG = "PlayCatalogFile";
+
+    /**
+     * The binary catalog file name in the assets
+     */
+    public static final String CATALOG_FILE_NAME = "video_kit_demo.bin";
+
+    private static final int MAGIC = 0x564B4354;
+
+    // The format version, must match playCatalogVersion of the compilePlayCatalog task
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 28;
+
+    private static final int RECORD_SIZE = 24;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // The mapped catalog data
+    private final ByteBuffer buffer;
+
+    // The number of records
+    private final int size;
+
+    // The number of strings
+    private final int stringCount;
+
+    private final int recordsOffset;
+
+    private final int stringIndexOffset;
+
+    private final int stringDataOffset;
+
+    /**
+     * Constructor
+     *
+     * @param buffer The catalog data
+     * @throws IOException The data is not a valid catalog
+     */
+    public PlayCatalogFile(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("invalid catalog file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported catalog version " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        size = buffer.getInt(8);
+        stringCount = buffer.getInt(12);
+        recordsOffset = buffer.getInt(16);
+        stringIndexOffset = buffer.getInt(20);
+        stringDataOffset = buffer.getInt(24);
+        if (size < 0 || stringCount < 0 || recordsOffset + (long) size * RECORD_SIZE > stringIndexOffset
+            || stringIndexOffset + (stringCount + 1L) * 4 > stringDataOffset
+            || stringDataOffset + (long) buffer.getInt(stringIndexOffset + stringCount * 4) > buffer.capacity()) {
+            throw new IOException("corrupted catalog file");
+        }
+    }
+
+    /**
+     * Map the catalog in the assets, an uncompressed asset is mapped straight from the apk,
+     * otherwise it is copied to the internal storage first
+     *
+     * @param context Context
+     * @return Catalog file
+     * @throws IOException The catalog is missing or invalid
+     */
+    public static PlayCatalogFile open(Context context) throws IOException {
+        AssetFileDescriptor fileDescriptor;
+        try {
+            fileDescriptor = context.getAssets().openFd(CATALOG_FILE_NAME);
+        } catch (IOException e) {
+            LogUtil.i(TAG, "catalog asset is compressed, map the copy in internal storage");
+            File file = copyToFile(context);
+            try {
+                return open(file);
+            } catch (IOException ex) {
+                LogUtil.w(TAG, "catalog copy is invalid, copy it again :" + ex.getMessage());
+                if (!file.delete()) {
+                    throw ex;
+                }
+                return open(copyToFile(context));
+            }
+        }
+        FileInputStream inputStream = null;
+        try {
+            inputStream = fileDescriptor.createInputStream();
+            return new PlayCatalogFile(inputStream.getChannel()
+                .map(FileChannel.MapMode.READ_ONLY, fileDescriptor.getStartOffset(), fileDescriptor.getLength()));
+        } finally {
+            closeQuietly(inputStream);
+            closeQuietly(fileDescriptor);
+        }
+    }
+
+    /**
+     * Map the catalog file
+     *
+     * @param file Catalog file
+     * @return Catalog file
+     * @throws IOException The catalog is missing or invalid
+     */
+    public static PlayCatalogFile open(File file) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileChannel channel = inputStream.getChannel();
+            return new PlayCatalogFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    /**
+     * Copy the catalog asset to the internal storage once per app version, catalog format and play list content,
+     * the copies of the other versions are deleted
+     *
+     * @param context Context
+     * @return The copied file
+     * @throws IOException Copy fail
+     */
+    private static File copyToFile(Context context) throws IOException {
+        String suffix = "_" + CATALOG_FILE_NAME;
+        String fileName =
+            BuildConfig.VERSION_CODE + "_" + VERSION + "_" + Long.toHexString(BuildConfig.PLAY_CATALOG_CRC) + suffix;
+        File file = new File(context.getFilesDir(), fileName);
+        if (file.exists()) {
+            return file;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        InputStream inputStream = null;
+        OutputStream outputStream = null;
+        try {
+            inputStream = context.getAssets().open(CATALOG_FILE_NAME);
+            outputStream = new FileOutputStream(tempFile);
+            byte[] bytes = new byte[8192];
+            int count;
+            while ((count = inputStream.read(bytes)) > 0) {
+                outputStream.write(bytes, 0, count);
+            }
+        } finally {
+            closeQuietly(inputStream);
+            closeQuietly(outputStream);
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("rename catalog file fail");
+        }
+        String[] fileNames = context.getFilesDir().list();
+        for (int i = 0; fileNames != null && i < fileNames.length; i++) {
+            if (fileNames[i].endsWith(suffix) && !fileNames[i].equals(fileName)
+                && new File(context.getFilesDir(), fileNames[i]).delete()) {
+                LogUtil.i(TAG, "delete the stale catalog copy " + fileNames[i]);
+            }
+        }
+        return file;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decode the entity at the index, a new entity is created for every call
+     *
+     * @param index The entity index
+     * @return Play entity
+     */
+    @Override
+    public PlayEntity getPlayEntity(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        int offset = recordsOffset + index * RECORD_SIZE;
+        PlayEntity playEntity = new PlayEntity();
+        playEntity.setUrlType(buffer.getInt(offset + 8));
+        playEntity.setAppId(getString(buffer.getInt(offset + 12)));
+        playEntity.setUrl(getString(buffer.getInt(offset + 16)));
+        playEntity.setName(getString(buffer.getInt(offset + 20)));
+        long id = buffer.getLong(offset);
+        playEntity.setId(id <= 0 ? StringUtil.getStableId(playEntity.getUrl()) : id);
+        return playEntity;
+    }
+
+    @Override
+    public long getId(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        int offset = recordsOffset + index * RECORD_SIZE;
+        long id = buffer.getLong(offset);
+        // The same id as PlayListReader for the entry without id, a negative id of an older file is not valid either
+        return id <= 0 ? StringUtil.getStableId(getString(buffer.getInt(offset + 16))) : id;
+    }
+
+    @Override
+    public String getName(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return getString(buffer.getInt(recordsOffset + index * RECORD_SIZE + 20));
+    }
+
+    /**
+     * Decode the string in the string table
+     *
+     * @param index The string index
+     * @return String value
+     */
+    private String getString(int index) {
+        if (index < 0 || index >= stringCount) {
+            return "";
+        }
+        int start = buffer.getInt(stringIndexOffset + index * 4);
+        int end = buffer.getInt(stringIndexOffset + index * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer data = buffer.duplicate();
+        data.position(stringDataOffset + start);
+        data.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            LogUtil.i(TAG, "close catalog stream error :" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.huawei.video.kit.demo.entity.PlayProfile;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.StringUtil;
+
+/**
+ * Per title play profiles keyed by the catalog id. A profile comes from the optional play_profiles.json in the
+ * assets, and the bitrate a title last played at is remembered so the next session of the title starts there.
+ * <p>
+ * Profile json: an array of objects with "id" (or "url" for the entry without id) and any of "playMode",
+ * "minBitrate", "maxBitrate", "initBitrate".
+ * <p>
+ * Bitrate file layout, big endian: magic, version, record count, records (id as long, bitrate),
+ * crc32 of the rest. The records are in access order, the least recently played first.
+ */
+public class PlayProfileCache {
+    private static final String TAG = "PlayProfileCache";
+
+    /**
+     * The profile file name in the assets
+     */
+    public static final String PROFILE_FILE_NAME = "play_profiles.json";
+
+    private static final String BITRATE_FILE_NAME = "play_bitrates.bin";
+
+    private static final int MAGIC = 0x564B4252;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 12;
+
+    private static final int RECORD_SIZE = 12;
+
+    /**
+     * The maximum number of remembered bitrates, the least recently played are dropped
+     */
+    private static final int MAX_BITRATES = 500;
+
+    /**
+     * Wait for more changes before writing
+     */
+    private static final long WRITE_DELAY_MS = 2000;
+
+    private static final PlayProfileCache INSTANCE = new PlayProfileCache();
+
+    // Load and write the files in the background
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PlayProfileCache");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Write the remembered bitrates
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            writeBitrates();
+        }
+    };
+
+    // The profiles by id, guarded by this
+    private final Map<Long, PlayProfile> profiles = new HashMap<>();
+
+    // The last bitrate by id in access order, guarded by this
+    private final Map<Long, Integer> bitrates = new LinkedHashMap<Long, Integer>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > MAX_BITRATES;
+        }
+    };
+
+    // Bitrate file, null until opened, guarded by this
+    private File bitrateFile;
+
+    // Whether a write is scheduled, guarded by this
+    private boolean isWriteScheduled = false;
+
+    private PlayProfileCache() {
+    }
+
+    /**
+     * Get the cache
+     *
+     * @return Play profile cache
+     */
+    public static PlayProfileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load the profiles and the remembered bitrates in the background
+     *
+     * @param context Context
+     * @param onOpened Run on the cache thread once the profiles and the bitrates are loaded, may be null
+     */
+    public void open(Context context, final Runnable onOpened) {
+        final Context appContext = context.getApplicationContext();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    loadProfiles(appContext);
+                    loadBitrates(new File(appContext.getFilesDir(), BITRATE_FILE_NAME));
+                } finally {
+                    if (onOpened != null) {
+                        onOpened.run();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Set the profile of the title
+     *
+     * @param id Entity id
+     * @param playProfile Play profile, null to remove
+     */
+    public synchronized void putProfile(long id, PlayProfile playProfile) {
+        if (playProfile == null) {
+            profiles.remove(id);
+        } else {
+            profiles.put(id, playProfile);
+        }
+    }
+
+    /**
+     * Get the profile of the title, including the remembered bitrate
+     *
+     * @param id Entity id
+     * @return Play profile, null if the title has no overrides
+     */
+    public synchronized PlayProfile getProfile(long id) {
+        PlayProfile playProfile = profiles.get(id);
+        Integer bitrate = bitrates.get(id);
+        if (bitrate == null) {
+            return playProfile;
+        }
+        if (playProfile == null) {
+            return new PlayProfile(PlayProfile.UNSET, PlayProfile.UNSET, PlayProfile.UNSET, bitrate);
+        }
+        return playProfile.getInitBitrate() == PlayProfile.UNSET ? playProfile.withInitBitrate(bitrate) : playProfile;
+    }
+
+    /**
+     * Merge the profile of the title into the global settings
+     *
+     * @param id Entity id
+     * @param config The global settings
+     * @return The settings of the title
+     */
+    public PlaybackConfig apply(long id, PlaybackConfig config) {
+        PlayProfile playProfile = getProfile(id);
+        return playProfile == null ? config : playProfile.applyTo(config);
+    }
+
+    /**
+     * Remember the bitrate the title played at, the file is written in the background
+     *
+     * @param id Entity id
+     * @param bitrate Bitrate, ignored if not positive
+     */
+    public synchronized void recordBitrate(long id, int bitrate) {
+        if (bitrate <= 0) {
+            return;
+        }
+        Integer oldBitrate = bitrates.put(id, bitrate);
+        if (oldBitrate != null && oldBitrate == bitrate) {
+            return;
+        }
+        if (!isWriteScheduled && bitrateFile != null) {
+            isWriteScheduled = true;
+            executor.schedule(writeTask, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Load the profiles in the assets, runs on the cache thread
+     *
+     * @param context Context
+     */
+    private void loadProfiles(Context context) {
+        Map<Long, PlayProfile> loadedProfiles = new HashMap<>();
+        JsonReader jsonReader = null;
+        try {
+            jsonReader = new JsonReader(new InputStreamReader(context.getAssets().open(PROFILE_FILE_NAME), "UTF-8"));
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                readProfile(jsonReader, loadedProfiles);
+            }
+            jsonReader.endArray();
+        } catch (FileNotFoundException e) {
+            LogUtil.i(TAG, "no play profiles in the assets");
+            return;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            LogUtil.w(TAG, "read play profiles error :" + e.getMessage());
+            return;
+        } finally {
+            closeQuietly(jsonReader);
+        }
+        synchronized (this) {
+            for (Map.Entry<Long, PlayProfile> entry : loadedProfiles.entrySet()) {
+                // A profile set at runtime wins
+                if (!profiles.containsKey(entry.getKey())) {
+                    profiles.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        LogUtil.i(TAG, "load " + loadedProfiles.size() + " play profiles");
+    }
+
+    private static void readProfile(JsonReader jsonReader, Map<Long, PlayProfile> loadedProfiles)
+        throws IOException {
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            jsonReader.skipValue();
+            return;
+        }
+        long id = 0;
+        String url = null;
+        int playMode = PlayProfile.UNSET;
+        int minBitrate = PlayProfile.UNSET;
+        int maxBitrate = PlayProfile.UNSET;
+        int initBitrate = PlayProfile.UNSET;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String key = jsonReader.nextName();
+            if ("id".equals(key)) {
+                id = jsonReader.nextLong();
+            } else if ("url".equals(key)) {
+                url = jsonReader.nextString();
+            } else if ("playMode".equals(key)) {
+                playMode = jsonReader.nextInt();
+            } else if ("minBitrate".equals(key)) {
+                minBitrate = jsonReader.nextInt();
+            } else if ("maxBitrate".equals(key)) {
+                maxBitrate = jsonReader.nextInt();
+            } else if ("initBitrate".equals(key)) {
+                initBitrate = jsonReader.nextInt();
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        if (id == 0 && !StringUtil.isEmpty(url)) {
+            // The same id as the catalog entry without id
+            id = StringUtil.getStableId(url);
+        }
+        if (id != 0) {
+            loadedProfiles.put(id, new PlayProfile(playMode, minBitrate, maxBitrate, initBitrate));
+        }
+    }
+
+    /**
+     * Load the remembered bitrates, runs on the cache thread
+     *
+     * @param file Bitrate file
+     */
+    private void loadBitrates(File file) {
+        byte[] data = null;
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new FileInputStream(file));
+            long length = file.length();
+            if (length >= HEADER_SIZE + 4 && length <= HEADER_SIZE + (long) MAX_BITRATES * RECORD_SIZE + 4) {
+                data = new byte[(int) length];
+                inputStream.readFully(data);
+            }
+        } catch (FileNotFoundException e) {
+            LogUtil.i(TAG, "no remembered bitrates");
+        } catch (IOException e) {
+            LogUtil.w(TAG, "read bitrate file error :" + e.getMessage());
+        } finally {
+            closeQuietly(inputStream);
+        }
+        int count = data == null ? -1 : decodeBitrateCount(data);
+        if (data != null && count < 0) {
+            LogUtil.w(TAG, "bitrate file is corrupted, drop it");
+        }
+        synchronized (this) {
+            bitrateFile = file;
+            // The bitrates recorded while loading are newer, keep them as the most recently played
+            Map<Long, Integer> recordedBitrates = new LinkedHashMap<>(bitrates);
+            bitrates.clear();
+            ByteBuffer buffer = ByteBuffer.wrap(data == null ? new byte[0] : data);
+            for (int i = 0; i < count; i++) {
+                int offset = HEADER_SIZE + i * RECORD_SIZE;
+                bitrates.put(buffer.getLong(offset), buffer.getInt(offset + 8));
+            }
+            bitrates.putAll(recordedBitrates);
+            if (!recordedBitrates.isEmpty() && !isWriteScheduled) {
+                isWriteScheduled = true;
+                executor.schedule(writeTask, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+        LogUtil.i(TAG, "load " + Math.max(count, 0) + " remembered bitrates");
+    }
+
+    /**
+     * Check the bitrate file
+     *
+     * @param data File data
+     * @return The record count, -1 if the data is not valid
+     */
+    private static int decodeBitrateCount(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int count = buffer.getInt(8);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || count < 0
+            || HEADER_SIZE + (long) count * RECORD_SIZE + 4 != data.length) {
+            return -1;
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, data.length - 4);
+        return buffer.getInt(data.length - 4) == (int) crc32.getValue() ? count : -1;
+    }
+
+    /**
+     * Write the remembered bitrates to the file, runs on the cache thread
+     */
+    private void writeBitrates() {
+        File file;
+        ByteBuffer buffer;
+        synchronized (this) {
+            isWriteScheduled = false;
+            file = bitrateFile;
+            buffer = ByteBuffer.allocate(HEADER_SIZE + bitrates.size() * RECORD_SIZE + 4);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(bitrates.size());
+            for (Map.Entry<Long, Integer> entry : bitrates.entrySet()) {
+                buffer.putLong(entry.getKey()).putInt(entry.getValue());
+            }
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc32.getValue());
+        File tempFile = new File(file.getPath() + ".tmp");
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(tempFile);
+            outputStream.write(buffer.array());
+            outputStream.getFD().sync();
+        } catch (IOException e) {
+            LogUtil.w(TAG, "write bitrate file error :" + e.getMessage());
+            return;
+        } finally {
+            closeQuietly(outputStream);
+        }
+        if (!tempFile.renameTo(file)) {
+            LogUtil.w(TAG, "rename bitrate file fail");
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            LogUtil.i(TAG, "close profile stream error :" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.contract;
+
+import java.util.List;
+
+import com.huawei.video.kit.demo.catalog.CatalogSnapshot;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Catalog load listener, called on the main thread
+ */
+public interface OnCatalogLoadListener {
+    /**
+     * A chunk of the catalog is loaded, the play list grows until the catalog is completed
+     *
+     * @param playList The loaded play list
+     * @param positionStart The position of the first new entity
+     * @param itemCount The number of new entities
+     */
+    void onCatalogChunkLoaded(List<PlayEntity> playList, int positionStart, int itemCount);
+
+    /**
+     * The catalog is completed
+     *
+     * @param snapshot Catalog snapshot
+     */
+    void onCatalogLoaded(CatalogSnapshot snapshot);
+}
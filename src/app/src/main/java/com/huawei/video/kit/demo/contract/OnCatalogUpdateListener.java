@@ -0,0 +1,36 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.contract;
+
+import java.util.List;
+
+import com.huawei.video.kit.demo.catalog.CatalogChange;
+import com.huawei.video.kit.demo.catalog.CatalogSnapshot;
+
+/**
+ * Catalog update listener, called on the main thread
+ */
+public interface OnCatalogUpdateListener {
+    /**
+     * A delta is applied to the catalog
+     *
+     * @param previousSnapshot The snapshot the delta is applied to
+     * @param snapshot The updated snapshot
+     * @param changes The changed ranges from the previous snapshot, in order
+     */
+    void onCatalogUpdated(CatalogSnapshot previousSnapshot, CatalogSnapshot snapshot, List<CatalogChange> changes);
+}
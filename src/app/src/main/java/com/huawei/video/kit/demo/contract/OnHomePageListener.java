@@ -21,5 +21,6 @@ import android.view.View.OnClickListener;
 /**
  * Home page listener
  */
-public interface OnHomePageListener extends OnItemClickListener, OnClickListener, OnPlaySettingListener {
+public interface OnHomePageListener
+    extends OnItemClickListener, OnItemPressListener, OnClickListener, OnPlaySettingListener, OnSearchQueryListener {
 }
@@ -0,0 +1,32 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.contract;
+
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+
+/**
+ * Player settings change listener, called on the thread changing the settings
+ */
+public interface OnPlaybackConfigChangedListener {
+    /**
+     * The settings are changed
+     *
+     * @param playbackConfig The new settings
+     */
+    void onPlaybackConfigChanged(PlaybackConfig playbackConfig);
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.contract;
+
+/**
+ * Player attach listener, called on the main thread
+ */
+public interface OnPlayerAttachListener {
+    /**
+     * The player is attached and ready for use
+     */
+    void onPlayerAttached();
+
+    /**
+     * No player can be attached
+     *
+     * @param errorCode Error code
+     * @param reason Reason
+     */
+    void onPlayerAttachFailed(int errorCode, String reason);
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.contract;
+
+import com.huawei.video.kit.demo.player.PlayerEngine;
+
+/**
+ * Player engine events
+ */
+public interface OnPlayerEngineListener {
+    /**
+     * The engine is ready to start
+     *
+     * @param engine Player engine
+     */
+    void onReady(PlayerEngine engine);
+
+    /**
+     * Play error
+     *
+     * @param engine Player engine
+     * @param what Error code
+     * @param extra Extra code
+     * @return Whether handled
+     */
+    boolean onError(PlayerEngine engine, int what, int extra);
+
+    /**
+     * Play event
+     *
+     * @param engine Player engine
+     * @param what Event code
+     * @param extra Extra code
+     * @param o Event data
+     * @return Whether handled
+     */
+    boolean onEvent(PlayerEngine engine, int what, int extra, Object o);
+
+    /**
+     * The video size is changed
+     *
+     * @param engine Player engine
+     * @param width Width
+     * @param height Height
+     */
+    void onResolutionUpdated(PlayerEngine engine, int width, int height);
+
+    /**
+     * Buffering progress
+     *
+     * @param engine Player engine
+     * @param percent Percent, 100 when the buffering ends
+     */
+    void onLoadingUpdate(PlayerEngine engine, int percent);
+
+    /**
+     * The first frame is played
+     *
+     * @param engine Player engine
+     */
+    void onStartPlaying(PlayerEngine engine);
+
+    /**
+     * Play end
+     *
+     * @param engine Player engine
+     */
+    void onPlayEnd(PlayerEngine engine);
+
+    /**
+     * Seek end
+     *
+     * @param engine Player engine
+     */
+    void onSeekEnd(PlayerEngine engine);
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.contract;
+
+import com.huawei.hms.videokit.player.WisePlayerFactory;
+
+/**
+ * Player factory readiness listener, called on the main thread
+ */
+public interface OnPlayerFactoryListener {
+    /**
+     * The factory is initialized
+     *
+     * @param wisePlayerFactory Player factory
+     */
+    void onFactoryReady(WisePlayerFactory wisePlayerFactory);
+
+    /**
+     * The factory initialization failed or timed out
+     *
+     * @param errorCode Error code
+     * @param reason Reason
+     */
+    void onFactoryFailed(int errorCode, String reason);
+}
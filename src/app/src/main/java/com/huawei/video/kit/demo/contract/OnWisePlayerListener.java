@@ -16,14 +16,12 @@
 
 package com.huawei.video.kit.demo.contract;
 
-import android.widget.SeekBar.OnSeekBarChangeListener;
-
 import com.huawei.hms.videokit.player.WisePlayer;
 
 /**
- * Player SDK support to listener events
+ * Player SDK support to listener events, relayed to the player engine listener
  */
 public interface OnWisePlayerListener extends WisePlayer.ErrorListener, WisePlayer.ReadyListener,
     WisePlayer.EventListener, WisePlayer.PlayEndListener, WisePlayer.ResolutionUpdatedListener,
-    WisePlayer.SeekEndListener, WisePlayer.LoadingListener, OnSeekBarChangeListener {
+    WisePlayer.SeekEndListener, WisePlayer.LoadingListener {
 }
@@ -21,17 +21,50 @@ import java.util.List;
 
 import android.content.Context;
 
+import com.huawei.video.kit.demo.catalog.CatalogChange;
+import com.huawei.video.kit.demo.catalog.CatalogLoader;
+import com.huawei.video.kit.demo.catalog.CatalogRepository;
+import com.huawei.video.kit.demo.catalog.CatalogSearcher;
+import com.huawei.video.kit.demo.catalog.CatalogSnapshot;
+import com.huawei.video.kit.demo.contract.OnCatalogLoadListener;
+import com.huawei.video.kit.demo.contract.OnCatalogSearchListener;
+import com.huawei.video.kit.demo.contract.OnCatalogUpdateListener;
 import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.player.PlaySessionRegistry;
 import com.huawei.video.kit.demo.utils.Constants.UrlType;
-import com.huawei.video.kit.demo.utils.DataFormatUtil;
 import com.huawei.video.kit.demo.utils.PlayControlUtil;
+import com.huawei.video.kit.demo.utils.StringUtil;
 
 /**
  * Home page control class
  */
 public class HomePageControl {
-    // Play list
-    private List<PlayEntity> playEntityList;
+    // Play list, the growing list while the catalog is loading
+    private List<PlayEntity> playList;
+
+    // The loaded catalog, null while loading
+    private CatalogSnapshot catalogSnapshot;
+
+    // The list shown on the page, the search results while searching
+    private List<PlayEntity> displayPlayList;
+
+    // Catalog loader
+    private CatalogLoader catalogLoader;
+
+    // Catalog searcher
+    private CatalogSearcher catalogSearcher;
+
+    // The current search text
+    private String searchQuery = "";
+
+    // Catalog update listener registered to the repository
+    private OnCatalogUpdateListener onCatalogUpdateListener;
+
+    // Open the sessions of the pressed titles
+    private final PlaySessionRegistry playSessionRegistry;
+
+    // The session opened for the pressed title, NO_TOKEN if none
+    private int pressedSessionToken = PlaySessionRegistry.NO_TOKEN;
 
     // Context
     private Context context;
@@ -42,7 +75,18 @@ public class HomePageControl {
      * @param context Context
      */
     public HomePageControl(Context context) {
+        this(context, PlaySessionRegistry.getInstance());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context Context
+     * @param playSessionRegistry Open the sessions of the pressed titles
+     */
+    HomePageControl(Context context, PlaySessionRegistry playSessionRegistry) {
         this.context = context;
+        this.playSessionRegistry = playSessionRegistry;
         init();
     }
 
@@ -50,43 +94,155 @@ public class HomePageControl {
      * Init data
      */
     private void init() {
-        playEntityList = new ArrayList<>();
+        playList = CatalogSnapshot.EMPTY.getPlayList();
+        displayPlayList = playList;
+    }
+
+    /**
+     * Access to the default address under the sources of information, the catalog is loaded in the background
+     * and delivered in chunks
+     *
+     * @param onCatalogLoadListener Load listener
+     */
+    public void loadPlayList(final OnCatalogLoadListener onCatalogLoadListener) {
+        cancelLoadPlayList();
+        catalogLoader = new CatalogLoader(context, new OnCatalogLoadListener() {
+            @Override
+            public void onCatalogChunkLoaded(List<PlayEntity> loadingPlayList, int positionStart, int itemCount) {
+                playList = loadingPlayList;
+                if (isSearching()) {
+                    return;
+                }
+                displayPlayList = loadingPlayList;
+                onCatalogLoadListener.onCatalogChunkLoaded(loadingPlayList, positionStart, itemCount);
+            }
+
+            @Override
+            public void onCatalogLoaded(CatalogSnapshot snapshot) {
+                setCatalogSnapshot(snapshot);
+                onCatalogLoadListener.onCatalogLoaded(snapshot);
+            }
+        });
+        catalogLoader.start();
+    }
+
+    /**
+     * Show the loaded catalog, the search results are kept while searching
+     *
+     * @param snapshot The loaded catalog
+     */
+    void setCatalogSnapshot(CatalogSnapshot snapshot) {
+        catalogSnapshot = snapshot;
+        playList = snapshot.getPlayList();
+        if (!isSearching()) {
+            displayPlayList = playList;
+        }
+        if (catalogSearcher != null) {
+            catalogSearcher.setSnapshot(snapshot);
+        }
     }
 
     /**
-     * Access to the default address under the sources of information
+     * Cancel loading the play list
      */
-    public void loadPlayList() {
-        playEntityList.clear();
-        playEntityList.addAll(DataFormatUtil.getPlayList(context));
+    public void cancelLoadPlayList() {
+        if (catalogLoader != null) {
+            catalogLoader.cancel();
+            catalogLoader = null;
+        }
     }
 
     /**
-     * A list of display data
+     * Listen to the deltas applied to the catalog, the list shown on the page is updated by the changed ranges
      *
-     * @return Data
+     * @param listener Update listener
      */
-    public List<PlayEntity> getPlayList() {
-        return playEntityList;
+    public void startCatalogUpdate(final OnCatalogUpdateListener listener) {
+        stopCatalogUpdate();
+        onCatalogUpdateListener = new OnCatalogUpdateListener() {
+            @Override
+            public void onCatalogUpdated(CatalogSnapshot previousSnapshot, CatalogSnapshot snapshot,
+                List<CatalogChange> changes) {
+                List<CatalogChange> displayChanges = changes;
+                if (catalogSnapshot != previousSnapshot || displayPlayList != previousSnapshot.getPlayList()) {
+                    // The shown list is not the updated one, replace it as a whole
+                    displayChanges = new ArrayList<>();
+                    displayChanges.add(new CatalogChange(CatalogChange.TYPE_REMOVED, 0, displayPlayList.size()));
+                    displayChanges.add(new CatalogChange(CatalogChange.TYPE_INSERTED, 0, snapshot.size()));
+                }
+                catalogSnapshot = snapshot;
+                playList = snapshot.getPlayList();
+                if (catalogSearcher != null) {
+                    catalogSearcher.setSnapshot(snapshot);
+                }
+                if (isSearching()) {
+                    // The search results are delivered to the search listener
+                    catalogSearcher.search(searchQuery);
+                    return;
+                }
+                displayPlayList = playList;
+                listener.onCatalogUpdated(previousSnapshot, snapshot, displayChanges);
+            }
+        };
+        CatalogRepository.getInstance().addOnCatalogUpdateListener(onCatalogUpdateListener);
     }
 
     /**
-     * If the data is empty
+     * Stop listening to the catalog deltas
+     */
+    public void stopCatalogUpdate() {
+        if (onCatalogUpdateListener != null) {
+            CatalogRepository.getInstance().removeOnCatalogUpdateListener(onCatalogUpdateListener);
+            onCatalogUpdateListener = null;
+        }
+    }
+
+    /**
+     * Search the play list by name, the search starts after the catalog is loaded
      *
-     * @return The data is empty
+     * @param query Search text, empty to show the whole play list
+     * @param onCatalogSearchListener Search listener
+     */
+    public void searchPlayList(String query, final OnCatalogSearchListener onCatalogSearchListener) {
+        searchQuery = query == null ? "" : query.trim();
+        if (catalogSearcher == null) {
+            catalogSearcher = new CatalogSearcher(new OnCatalogSearchListener() {
+                @Override
+                public void onCatalogSearched(String searchedQuery, List<PlayEntity> searchedPlayList) {
+                    displayPlayList = searchedPlayList;
+                    onCatalogSearchListener.onCatalogSearched(searchedQuery, searchedPlayList);
+                }
+            });
+            catalogSearcher.setSnapshot(CatalogRepository.getInstance().peekSnapshot());
+        }
+        catalogSearcher.search(searchQuery);
+    }
+
+    /**
+     * Cancel the running search
      */
-    private boolean isPlayListEmpty() {
-        return playEntityList == null || playEntityList.size() == 0;
+    public void cancelSearchPlayList() {
+        if (catalogSearcher != null) {
+            catalogSearcher.cancel();
+        }
     }
 
     /**
-     * The currently selected data is valid
+     * Whether the play list is filtered by the search text
      *
-     * @param position Select position
-     * @return Effective
+     * @return Is searching
+     */
+    public boolean isSearching() {
+        return searchQuery.length() > 0;
+    }
+
+    /**
+     * A list of display data
+     *
+     * @return Data
      */
-    private boolean isPlayEffective(int position) {
-        return !isPlayListEmpty() && playEntityList.size() > position;
+    public List<PlayEntity> getPlayList() {
+        return displayPlayList;
     }
 
     /**
@@ -96,12 +252,40 @@ public class HomePageControl {
      * @return Data
      */
     public PlayEntity getPlayFromPosition(int position) {
-        if (isPlayEffective(position)) {
-            return playEntityList.get(position);
+        if (position >= 0 && position < displayPlayList.size()) {
+            return displayPlayList.get(position);
         }
         return null;
     }
 
+    /**
+     * Open the play session of the title at the position while it is pressed,
+     * the play page started by the click takes the session
+     *
+     * @param position Pressed position
+     */
+    public void prepareSpeculatively(int position) {
+        PlayEntity playEntity = getPlayFromPosition(position);
+        if (playEntity == null) {
+            return;
+        }
+        int token = playSessionRegistry.open(playEntity).getToken();
+        if (token != pressedSessionToken) {
+            cancelSpeculativePrepare();
+            pressedSessionToken = token;
+        }
+    }
+
+    /**
+     * Release the session opened for the pressed title, the session taken by the play page is not affected
+     */
+    public void cancelSpeculativePrepare() {
+        if (pressedSessionToken != PlaySessionRegistry.NO_TOKEN) {
+            playSessionRegistry.release(pressedSessionToken);
+            pressedSessionToken = PlaySessionRegistry.NO_TOKEN;
+        }
+    }
+
     /**
      * Set play type 0: on demand (the default) 1: live
      *
@@ -179,6 +363,7 @@ public class HomePageControl {
      */
     public PlayEntity getInputPlay(String inputUrl) {
         PlayEntity playEntity = new PlayEntity();
+        playEntity.setId(StringUtil.getStableId(inputUrl));
         playEntity.setUrl(inputUrl);
         playEntity.setUrlType(UrlType.URL);
         return playEntity;
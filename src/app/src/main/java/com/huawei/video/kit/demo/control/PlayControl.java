@@ -16,27 +16,39 @@
 
 package com.huawei.video.kit.demo.control;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.view.SurfaceView;
 import android.view.TextureView;
 
-import com.huawei.hms.videokit.player.InitBitrateParam;
-import com.huawei.hms.videokit.player.StreamInfo;
-import com.huawei.hms.videokit.player.VideoInfo;
-import com.huawei.hms.videokit.player.WisePlayer;
-import com.huawei.hms.videokit.player.common.PlayerConstants.CycleMode;
-import com.huawei.hms.videokit.player.common.PlayerConstants.ScenarioType;
+import com.huawei.hms.videokit.player.WisePlayerFactory;
 import com.huawei.video.kit.demo.VideoKitPlayApplication;
-import com.huawei.video.kit.demo.contract.OnWisePlayerListener;
+import com.huawei.video.kit.demo.catalog.CatalogLoader;
+import com.huawei.video.kit.demo.catalog.CatalogSnapshot;
+import com.huawei.video.kit.demo.catalog.PlayProfileCache;
+import com.huawei.video.kit.demo.contract.OnCatalogLoadListener;
+import com.huawei.video.kit.demo.contract.OnPlayerAttachListener;
+import com.huawei.video.kit.demo.contract.OnPlayerEngineListener;
+import com.huawei.video.kit.demo.contract.OnPlayerFactoryListener;
 import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+import com.huawei.video.kit.demo.player.PlaySession;
+import com.huawei.video.kit.demo.player.PlayerEngine;
+import com.huawei.video.kit.demo.player.PlayerEngineFactory;
+import com.huawei.video.kit.demo.player.PlayerFactoryReadiness;
+import com.huawei.video.kit.demo.player.PlayerPreloader;
+import com.huawei.video.kit.demo.player.PlayerPreparer;
+import com.huawei.video.kit.demo.player.StartupMetrics;
+import com.huawei.video.kit.demo.player.StartupTimer;
+import com.huawei.video.kit.demo.player.WisePlayerEngine;
 import com.huawei.video.kit.demo.utils.Constants.UrlType;
-import com.huawei.video.kit.demo.utils.DataFormatUtil;
 import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.MainThreadExecutor;
 import com.huawei.video.kit.demo.utils.PlayControlUtil;
 import com.huawei.video.kit.demo.utils.StringUtil;
 
@@ -46,33 +58,80 @@ import com.huawei.video.kit.demo.utils.StringUtil;
 public class PlayControl {
     private static final String TAG = "PlayControl";
 
+    /**
+     * The maximum time to wait for the player factory
+     */
+    static final long FACTORY_TIMEOUT_MS = 10000;
+
     // Context
     private Context context;
 
-    // Player entity
-    private WisePlayer wisePlayer;
+    // Player engine
+    private PlayerEngine playerEngine;
+
+    // Create the player engine
+    private PlayerEngineFactory playerEngineFactory;
 
     // The current play data
     private PlayEntity currentPlayData;
 
     // Player listener
-    private OnWisePlayerListener onWisePlayerListener;
+    private OnPlayerEngineListener onPlayerEngineListener;
 
     // Play list data
-    private List<PlayEntity> playEntityList;
+    private CatalogSnapshot catalogSnapshot;
+
+    // Catalog loader
+    private CatalogLoader catalogLoader;
 
     // Video play url start with Http/Https
     private boolean isHttpVideo = true;
 
+    // Wait for the player factory, null if not waiting
+    private OnPlayerFactoryListener onPlayerFactoryListener;
+
+    // Keep the next entity prepared
+    private PlayerPreloader playerPreloader;
+
+    // Deliver the events of the standby player on the main thread
+    private Executor mainExecutor;
+
+    // Wait for the player factory
+    private PlayerFactoryReadiness playerFactoryReadiness;
+
+    // The startup phases of the current play, null once recorded
+    private volatile StartupTimer startupTimer;
+
     /**
-     * Constructor
+     * Constructor, the players are taken from the player pool
      *
      * @param context Context
-     * @param onWisePlayerListener Player listener
+     * @param onPlayerEngineListener Player listener
      */
-    public PlayControl(Context context, OnWisePlayerListener onWisePlayerListener) {
+    public PlayControl(Context context, OnPlayerEngineListener onPlayerEngineListener) {
+        this(context, onPlayerEngineListener, WisePlayerEngine.FACTORY, new PlayerPreloader(context),
+            MainThreadExecutor.getInstance(), VideoKitPlayApplication.getPlayerFactoryReadiness());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context Context
+     * @param onPlayerEngineListener Player listener
+     * @param playerEngineFactory Create the player engine, for example the fake engine of the tests
+     * @param playerPreloader Keep the next entity prepared
+     * @param mainExecutor Run the tasks on the thread the controls are called on
+     * @param playerFactoryReadiness Wait for the player factory before creating the player engine
+     */
+    public PlayControl(Context context, OnPlayerEngineListener onPlayerEngineListener,
+        PlayerEngineFactory playerEngineFactory, PlayerPreloader playerPreloader, Executor mainExecutor,
+        PlayerFactoryReadiness playerFactoryReadiness) {
         this.context = context;
-        this.onWisePlayerListener = onWisePlayerListener;
+        this.onPlayerEngineListener = onPlayerEngineListener;
+        this.playerEngineFactory = playerEngineFactory;
+        this.playerPreloader = playerPreloader;
+        this.mainExecutor = mainExecutor;
+        this.playerFactoryReadiness = playerFactoryReadiness;
         init();
     }
 
@@ -88,14 +147,51 @@ public class PlayControl {
      * Set the play listener
      */
     private void setPlayListener() {
-        if (wisePlayer != null) {
-            wisePlayer.setErrorListener(onWisePlayerListener);
-            wisePlayer.setEventListener(onWisePlayerListener);
-            wisePlayer.setResolutionUpdatedListener(onWisePlayerListener);
-            wisePlayer.setReadyListener(onWisePlayerListener);
-            wisePlayer.setLoadingListener(onWisePlayerListener);
-            wisePlayer.setPlayEndListener(onWisePlayerListener);
-            wisePlayer.setSeekEndListener(onWisePlayerListener);
+        if (playerEngine != null) {
+            playerEngine.setListener(onPlayerEngineListener);
+        }
+    }
+
+    /**
+     * Attach a player as soon as the player factory is ready, must be called on the main thread.
+     * The listener is notified right away if the player is already attached.
+     *
+     * @param listener Attach listener
+     */
+    public void attachPlayer(final OnPlayerAttachListener listener) {
+        if (playerEngine != null) {
+            listener.onPlayerAttached();
+            return;
+        }
+        cancelAttachPlayer();
+        onPlayerFactoryListener = new OnPlayerFactoryListener() {
+            @Override
+            public void onFactoryReady(WisePlayerFactory wisePlayerFactory) {
+                onPlayerFactoryListener = null;
+                init();
+                if (playerEngine != null) {
+                    listener.onPlayerAttached();
+                } else {
+                    listener.onPlayerAttachFailed(0, "create player fail");
+                }
+            }
+
+            @Override
+            public void onFactoryFailed(int errorCode, String reason) {
+                onPlayerFactoryListener = null;
+                listener.onPlayerAttachFailed(errorCode, reason);
+            }
+        };
+        playerFactoryReadiness.addListener(onPlayerFactoryListener, FACTORY_TIMEOUT_MS);
+    }
+
+    /**
+     * Stop waiting for the player factory, the attach listener is not notified
+     */
+    public void cancelAttachPlayer() {
+        if (onPlayerFactoryListener != null) {
+            playerFactoryReadiness.removeListener(onPlayerFactoryListener);
+            onPlayerFactoryListener = null;
         }
     }
 
@@ -105,25 +201,24 @@ public class PlayControl {
      * @return Whether the failure
      */
     public boolean initPlayFail() {
-        return wisePlayer == null;
+        return playerEngine == null;
     }
 
     /**
      * Init the player
      */
     private void initPlayer() {
-        if (VideoKitPlayApplication.getWisePlayerFactory() == null) {
-            return;
-        }
-        wisePlayer = VideoKitPlayApplication.getWisePlayerFactory().createWisePlayer();
+        playerEngine = playerEngineFactory.create();
     }
 
     /**
-     * Get the current play data
+     * Set the current play data
+     *
+     * @param playEntity Play data, ignored if null
      */
-    public void setCurrentPlayData(Serializable serializable) {
-        if (serializable != null && serializable instanceof PlayEntity) {
-            currentPlayData = (PlayEntity) serializable;
+    public void setCurrentPlayData(PlayEntity playEntity) {
+        if (playEntity != null) {
+            currentPlayData = playEntity;
         }
     }
 
@@ -131,39 +226,177 @@ public class PlayControl {
      * Start the player, the state of ready to start
      */
     public void ready() {
-        if (currentPlayData != null && wisePlayer != null) {
+        if (currentPlayData != null && playerEngine != null) {
             LogUtil.d(TAG, "current play video url is :" + currentPlayData.getUrl());
-            if (currentPlayData.getUrlType() == UrlType.URL) {
-                setHttpVideo(true);
-                wisePlayer.setPlayUrl(new String[] {currentPlayData.getUrl()});
-            } else if (currentPlayData.getUrlType() == UrlType.URL_JSON) {
-                setHttpVideo(false);
-                wisePlayer.setPlayUrl(currentPlayData.getUrl(), currentPlayData.getAppId(), ScenarioType.ONLINE);
-            } else if (currentPlayData.getUrlType() == UrlType.URL_MULTIPLE) {
-                setHttpVideo(true);
-                String[] strings = StringUtil.getStringArray(currentPlayData.getUrl(), "-SPAD-");
-                wisePlayer.setPlayUrl(strings);
-            } else {
-                setHttpVideo(true);
-                wisePlayer.setPlayUrl(new String[] {currentPlayData.getUrl()});
-            }
-            setBookmark();
-            setPlayMode(PlayControlUtil.getPlayMode(), false);
-            setMute(PlayControlUtil.isMute());
-            setVideoType(PlayControlUtil.getVideoType(), false);
-            setBandwidthSwitchMode(PlayControlUtil.getBandwidthSwitchMode(), false);
-            setInitBitrateEnable();
-            setBitrateRange();
-            setCloseLogo();
-            wisePlayer.ready();
+            // Read the settings once, so the player gets a consistent config while they are changed
+            PlaybackConfig globalConfig = PlayControlUtil.getPlaybackConfig();
+            markStartupPhase(StartupTimer.PHASE_SET_URL);
+            setHttpVideo(PlayerPreparer.prepare(playerEngine, currentPlayData, globalConfig));
+            markStartupPhase(StartupTimer.PHASE_READY);
+            playerEngine.ready();
+            PlayControlUtil.onPlaybackConfigApplied(globalConfig);
+        }
+    }
+
+    /**
+     * Prepare a standby player for the entity after the current one in the play list,
+     * so selecting it starts without the prepare. Called once the current entity is ready.
+     * The position of the current entity is found without building an index, from the id index once the loader
+     * built it or from the piece table of a delta catalog. Skipped while the position is not found.
+     */
+    public void preloadNext() {
+        if (!playerPreloader.isEnabled() || currentPlayData == null || catalogSnapshot == null) {
+            return;
+        }
+        int position = catalogSnapshot.findPosition(currentPlayData.getId());
+        if (position < 0 || position + 1 >= catalogSnapshot.size()) {
+            return;
+        }
+        PlayEntity nextPlayData = catalogSnapshot.get(position + 1);
+        if (nextPlayData == null || playerPreloader.hasStandby(nextPlayData.getId())) {
+            return;
+        }
+        PlayerEngine standbyEngine = playerEngineFactory.create();
+        if (standbyEngine == null) {
+            return;
+        }
+        StartupTimer standbyStartupTimer = playerPreloader.setStandby(standbyEngine, nextPlayData).getStartupTimer();
+        standbyStartupTimer.mark(StartupTimer.PHASE_SET_URL);
+        PlayerPreparer.prepare(standbyEngine, nextPlayData, PlayControlUtil.getPlaybackConfig());
+        standbyStartupTimer.mark(StartupTimer.PHASE_READY);
+        standbyEngine.ready();
+    }
+
+    /**
+     * Switch to the standby player if it is prepared for the entity, the current player is given back to the pool.
+     * The ready event is delivered after the caller binds the view, right away if the standby player is ready.
+     *
+     * @param playEntity The selected entity
+     * @return Whether switched, false if there is no standby player for the entity
+     */
+    public boolean switchToStandby(PlayEntity playEntity) {
+        if (playEntity == null || playerEngine == null) {
+            return false;
         }
+        PlayerPreloader.StandbyPlayer standbyPlayer = playerPreloader.takeStandby(playEntity.getId());
+        if (standbyPlayer == null) {
+            return false;
+        }
+        LogUtil.d(TAG, "switch to the standby player of " + playEntity.getId());
+        switchTo(standbyPlayer);
+        return true;
+    }
+
+    /**
+     * Take over the session handed from the home page, its entity becomes the current play data and its player,
+     * if any, replaces the player attached from the pool. The ready event is delivered as for a standby player.
+     *
+     * @param playSession The taken session
+     * @return Whether the player of the session is taken, false if the player has to be prepared
+     */
+    public boolean takePlaySession(PlaySession playSession) {
+        currentPlayData = playSession.getPlayEntity();
+        StartupTimer timer = startupTimer;
+        if (timer != null) {
+            timer.merge(playSession.getStartupTimer());
+        }
+        PlayerPreloader.StandbyPlayer standbyPlayer = playSession.getStandbyPlayer();
+        if (standbyPlayer == null) {
+            return false;
+        }
+        switchTo(standbyPlayer);
+        return true;
+    }
+
+    /**
+     * Replace the current player with the prepared player
+     *
+     * @param standbyPlayer The prepared player
+     */
+    private void switchTo(final PlayerPreloader.StandbyPlayer standbyPlayer) {
+        if (playerEngine != null) {
+            playerEngine.release();
+        }
+        playerEngine = standbyPlayer.getPlayerEngine();
+        currentPlayData = standbyPlayer.getPlayEntity();
+        StartupTimer timer = startupTimer;
+        if (timer != null) {
+            timer.merge(standbyPlayer.getStartupTimer());
+        }
+        setHttpVideo(currentPlayData.getUrlType() != UrlType.URL_JSON);
+        // The ready and error events stay with the standby player until it is attached
+        standbyPlayer.setListener(onPlayerEngineListener);
+        mainExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Not attached if the player is released or replaced meanwhile
+                if (playerEngine == standbyPlayer.getPlayerEngine()) {
+                    standbyPlayer.attach();
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the standby player, for example when memory is short
+     */
+    public void releaseStandby() {
+        playerPreloader.clear();
     }
 
     /**
      * Start playing
      */
     public void start() {
-        wisePlayer.start();
+        markStartupPhase(StartupTimer.PHASE_START);
+        playerEngine.start();
+    }
+
+    /**
+     * Start timing the startup phases of a new play, the previous unfinished timing is dropped
+     *
+     * @param clickTime The time the play is requested, SystemClock.elapsedRealtime
+     */
+    public void startStartupTimer(long clickTime) {
+        StartupTimer timer = new StartupTimer();
+        timer.mark(StartupTimer.PHASE_CLICK, clickTime);
+        startupTimer = timer;
+    }
+
+    /**
+     * Mark the startup phase of the current play now
+     *
+     * @param phase StartupTimer phase
+     */
+    public void markStartupPhase(int phase) {
+        markStartupPhase(phase, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Mark the startup phase of the current play, ignored if the startup is not timed
+     *
+     * @param phase StartupTimer phase
+     * @param time SystemClock.elapsedRealtime
+     */
+    public void markStartupPhase(int phase, long time) {
+        StartupTimer timer = startupTimer;
+        if (timer != null) {
+            timer.mark(phase, time);
+        }
+    }
+
+    /**
+     * Called on every progress update, the first one after the start completes the startup timing
+     * and the phases are recorded to the startup metrics
+     */
+    public void onProgressUpdated() {
+        StartupTimer timer = startupTimer;
+        if (timer == null || !timer.isMarked(StartupTimer.PHASE_START) || currentPlayData == null) {
+            return;
+        }
+        startupTimer = null;
+        timer.mark(StartupTimer.PHASE_FIRST_PROGRESS);
+        StartupMetrics.getInstance().record(currentPlayData.getUrlType(), timer);
     }
 
     /**
@@ -172,8 +405,8 @@ public class PlayControl {
      * @return The current play time
      */
     public int getCurrentTime() {
-        if (wisePlayer != null) {
-            return wisePlayer.getCurrentTime();
+        if (playerEngine != null) {
+            return playerEngine.getCurrentTime();
         } else {
             return 0;
         }
@@ -184,8 +417,8 @@ public class PlayControl {
      * @return Total time
      */
     public int getDuration() {
-        if (wisePlayer != null) {
-            return wisePlayer.getDuration();
+        if (playerEngine != null) {
+            return playerEngine.getDuration();
         } else {
             return 0;
         }
@@ -197,8 +430,8 @@ public class PlayControl {
      * @param progress Drag the time of position, the unit is milliseconds
      */
     public void updateCurProgress(int progress) {
-        if (wisePlayer != null) {
-            wisePlayer.seek(progress);
+        if (playerEngine != null) {
+            playerEngine.seek(progress);
         }
     }
 
@@ -208,8 +441,8 @@ public class PlayControl {
      * @param surfaceView The player SurfaceView
      */
     public void setSurfaceView(SurfaceView surfaceView) {
-        if (wisePlayer != null) {
-            wisePlayer.setView(surfaceView);
+        if (playerEngine != null) {
+            playerEngine.setView(surfaceView);
         }
     }
 
@@ -219,8 +452,8 @@ public class PlayControl {
      * @param textureView The player TextureView
      */
     public void setTextureView(TextureView textureView) {
-        if (wisePlayer != null) {
-            wisePlayer.setView(textureView);
+        if (playerEngine != null) {
+            playerEngine.setView(textureView);
         }
     }
 
@@ -228,19 +461,20 @@ public class PlayControl {
      * The player suspend
      */
     public void suspend() {
-        if (wisePlayer != null) {
+        if (playerEngine != null) {
             setBufferingStatus(false, false);
-            wisePlayer.suspend();
+            playerEngine.suspend();
         }
     }
 
     /**
-     * Release player
+     * Release player, the player of the pool is given back to it
      */
     public void release() {
-        if (wisePlayer != null) {
-            wisePlayer.release();
-            wisePlayer = null;
+        playerPreloader.clear();
+        if (playerEngine != null) {
+            playerEngine.release();
+            playerEngine = null;
         }
     }
 
@@ -248,8 +482,8 @@ public class PlayControl {
      * stop play
      */
     public void stop() {
-        if (wisePlayer != null) {
-            wisePlayer.stop();
+        if (playerEngine != null) {
+            playerEngine.stop();
         }
     }
 
@@ -258,11 +492,14 @@ public class PlayControl {
      * @param isPlaying The player status
      */
     public void setPlayData(boolean isPlaying) {
+        if (playerEngine == null) {
+            return;
+        }
         if (isPlaying) {
-            wisePlayer.pause();
+            playerEngine.pause();
             setBufferingStatus(false, false);
         } else {
-            wisePlayer.start();
+            playerEngine.start();
             setBufferingStatus(true, false);
         }
     }
@@ -286,9 +523,9 @@ public class PlayControl {
      * @param play Resume after the player is in a state of play or pause state 0:1: pause play - 1: keep
      */
     public void playResume(int play) {
-        if (wisePlayer != null) {
+        if (playerEngine != null) {
             setBufferingStatus(true, false);
-            wisePlayer.resume(play);
+            playerEngine.resume(play);
         }
     }
 
@@ -301,8 +538,8 @@ public class PlayControl {
      */
 
     public void setBufferingStatus(boolean status, boolean isUpdateLocal) {
-        if (wisePlayer != null && (isUpdateLocal || PlayControlUtil.isLoadBuff())) {
-            wisePlayer.setBufferingStatus(status);
+        if (playerEngine != null && (isUpdateLocal || PlayControlUtil.isLoadBuff())) {
+            playerEngine.setBufferingStatus(status);
             if (isUpdateLocal) {
                 PlayControlUtil.setLoadBuff(status);
             }
@@ -315,20 +552,23 @@ public class PlayControl {
      * @param speedValue The speed of the string
      */
     public void setPlaySpeed(String speedValue) {
+        if (playerEngine == null) {
+            return;
+        }
         if (speedValue.equals("1.25x")) {
-            wisePlayer.setPlaySpeed(1.25f);
+            playerEngine.setPlaySpeed(1.25f);
         } else if (speedValue.equals("1.5x")) {
-            wisePlayer.setPlaySpeed(1.5f);
+            playerEngine.setPlaySpeed(1.5f);
         } else if (speedValue.equals("1.75x")) {
-            wisePlayer.setPlaySpeed(1.75f);
+            playerEngine.setPlaySpeed(1.75f);
         } else if (speedValue.equals("2.0x")) {
-            wisePlayer.setPlaySpeed(2.0f);
+            playerEngine.setPlaySpeed(2.0f);
         } else if (speedValue.equals("0.5x")) {
-            wisePlayer.setPlaySpeed(0.5f);
+            playerEngine.setPlaySpeed(0.5f);
         } else if (speedValue.equals("0.75x")) {
-            wisePlayer.setPlaySpeed(0.75f);
+            playerEngine.setPlaySpeed(0.75f);
         } else {
-            wisePlayer.setPlaySpeed(1.0f);
+            playerEngine.setPlaySpeed(1.0f);
         }
     }
 
@@ -338,8 +578,8 @@ public class PlayControl {
      * @return Cache progress unit of milliseconds
      */
     public int getBufferTime() {
-        if (wisePlayer != null) {
-            return wisePlayer.getBufferTime();
+        if (playerEngine != null) {
+            return playerEngine.getBufferTime();
         } else {
             return 0;
         }
@@ -351,8 +591,8 @@ public class PlayControl {
      * @return Download speed unit b/s
      */
     public long getBufferingSpeed() {
-        if (wisePlayer != null) {
-            return wisePlayer.getBufferingSpeed();
+        if (playerEngine != null) {
+            return playerEngine.getBufferingSpeed();
         } else {
             return 0;
         }
@@ -380,16 +620,9 @@ public class PlayControl {
      */
     private List<Integer> getBitrateIntegerList() {
         List<Integer> bitrateIntList = new ArrayList<>();
-        if (wisePlayer != null) {
-            VideoInfo videoInfo = wisePlayer.getVideoInfo();
-            if (videoInfo != null && videoInfo.getStreamInfos() != null) {
-                for (StreamInfo streamInfo : videoInfo.getStreamInfos()) {
-                    if (streamInfo != null) {
-                        bitrateIntList.add(streamInfo.getBitrate());
-                    }
-                }
-                Collections.sort(bitrateIntList);
-            }
+        if (playerEngine != null) {
+            bitrateIntList.addAll(playerEngine.getStreamBitrates());
+            Collections.sort(bitrateIntList);
         }
         return bitrateIntList;
     }
@@ -414,9 +647,9 @@ public class PlayControl {
      * @param currentBitrate The current need to set the bitrate
      */
     public void switchBitrateSmooth(int currentBitrate) {
-        if (wisePlayer != null) {
+        if (playerEngine != null) {
             LogUtil.d(TAG, "switch bitrate smooth : currentBitrate " + currentBitrate);
-            wisePlayer.switchBitrateSmooth(currentBitrate);
+            playerEngine.switchBitrateSmooth(currentBitrate);
         }
     }
 
@@ -426,9 +659,9 @@ public class PlayControl {
      * @param currentBitrate The current need to set the bitrate
      */
     public void switchBitrateDesignated(int currentBitrate) {
-        if (wisePlayer != null) {
+        if (playerEngine != null) {
             LogUtil.d(TAG, "switch bitrate designated : currentBitrate " + currentBitrate);
-            wisePlayer.switchBitrateDesignated(currentBitrate);
+            playerEngine.switchBitrateDesignated(currentBitrate);
         }
     }
 
@@ -438,13 +671,12 @@ public class PlayControl {
      * @return The play stream bitrate
      */
     public int getCurrentBitrate() {
-        if (wisePlayer != null) {
-            StreamInfo streamInfo = wisePlayer.getCurrentStreamInfo();
-            if (streamInfo != null) {
-                return streamInfo.getBitrate();
-            } else {
+        if (playerEngine != null) {
+            int bitrate = playerEngine.getCurrentBitrate();
+            if (bitrate == 0) {
                 LogUtil.d(TAG, "get current bitrate info is empty!");
             }
+            return bitrate;
         }
         return 0;
     }
@@ -456,8 +688,8 @@ public class PlayControl {
      * @param updateLocate Whether to update the local configuration
      */
     public void setBandwidthSwitchMode(int mod, boolean updateLocate) {
-        if (wisePlayer != null) {
-            wisePlayer.setBandwidthSwitchMode(mod);
+        if (playerEngine != null) {
+            playerEngine.setBandwidthSwitchMode(mod);
         }
         if (updateLocate) {
             PlayControlUtil.setBandwidthSwitchMode(mod);
@@ -470,8 +702,8 @@ public class PlayControl {
      * @return Play speed
      */
     public float getPlaySpeed() {
-        if (wisePlayer != null) {
-            return wisePlayer.getPlaySpeed();
+        if (playerEngine != null) {
+            return playerEngine.getPlaySpeed();
         }
         return 1f;
     }
@@ -480,8 +712,8 @@ public class PlayControl {
      * Close logo
      */
     public void closeLogo() {
-        if (wisePlayer != null) {
-            wisePlayer.closeLogo();
+        if (playerEngine != null) {
+            playerEngine.closeLogo();
         }
     }
 
@@ -492,8 +724,8 @@ public class PlayControl {
      * @param updateLocate Whether to update the local configuration
      */
     public void setPlayMode(int playMode, boolean updateLocate) {
-        if (wisePlayer != null) {
-            wisePlayer.setPlayMode(playMode);
+        if (playerEngine != null) {
+            playerEngine.setPlayMode(playMode);
         }
         if (updateLocate) {
             PlayControlUtil.setPlayMode(playMode);
@@ -506,8 +738,8 @@ public class PlayControl {
      * @return Play mode
      */
     public int getPlayMode() {
-        if (wisePlayer != null) {
-            return wisePlayer.getPlayMode();
+        if (playerEngine != null) {
+            return playerEngine.getPlayMode();
         } else {
             return 1;
         }
@@ -519,8 +751,8 @@ public class PlayControl {
      * @param isCycleMode Whether open loop
      */
     public void setCycleMode(boolean isCycleMode) {
-        if (wisePlayer != null) {
-            wisePlayer.setCycleMode(isCycleMode ? CycleMode.MODE_CYCLE : CycleMode.MODE_NORMAL);
+        if (playerEngine != null) {
+            playerEngine.setCycleMode(isCycleMode);
         }
     }
 
@@ -530,8 +762,8 @@ public class PlayControl {
      * @return Is cycle mode
      */
     public boolean isCycleMode() {
-        if (wisePlayer != null) {
-            return wisePlayer.getCycleMode() == CycleMode.MODE_CYCLE;
+        if (playerEngine != null) {
+            return playerEngine.isCycleMode();
         } else {
             return false;
         }
@@ -543,8 +775,8 @@ public class PlayControl {
      * @param status Whether quiet
      */
     public void setMute(boolean status) {
-        if (wisePlayer != null) {
-            wisePlayer.setMute(status);
+        if (playerEngine != null) {
+            playerEngine.setMute(status);
         }
         PlayControlUtil.setIsMute(status);
     }
@@ -555,9 +787,9 @@ public class PlayControl {
      * @param volume The volume interval [0, 1]
      */
     public void setVolume(float volume) {
-        if (wisePlayer != null) {
+        if (playerEngine != null) {
             LogUtil.d(TAG, "current set volume is " + volume);
-            wisePlayer.setVolume(volume);
+            playerEngine.setVolume(volume);
         }
     }
 
@@ -568,8 +800,8 @@ public class PlayControl {
      * @param updateLocate Whether to update the local configuration
      */
     public void setVideoType(int videoType, boolean updateLocate) {
-        if (wisePlayer != null) {
-            wisePlayer.setVideoType(videoType);
+        if (playerEngine != null) {
+            playerEngine.setVideoType(videoType);
         }
         if (updateLocate) {
             PlayControlUtil.setVideoType(videoType);
@@ -580,8 +812,8 @@ public class PlayControl {
      * Set change notification
      */
     public void setSurfaceChange() {
-        if (wisePlayer != null) {
-            wisePlayer.setSurfaceChange();
+        if (playerEngine != null) {
+            playerEngine.setSurfaceChange();
         }
     }
 
@@ -589,13 +821,8 @@ public class PlayControl {
      * Set up the bitrate
      */
     public void setInitBitrateEnable() {
-        if (PlayControlUtil.isInitBitrateEnable() && wisePlayer != null) {
-            InitBitrateParam initBitrateParam = new InitBitrateParam();
-            initBitrateParam.setBitrate(PlayControlUtil.getInitBitrate());
-            initBitrateParam.setHeight(PlayControlUtil.getInitHeight());
-            initBitrateParam.setWidth(PlayControlUtil.getInitWidth());
-            initBitrateParam.setType(PlayControlUtil.getInitType());
-            wisePlayer.setInitBitrate(initBitrateParam);
+        if (playerEngine != null) {
+            PlayerPreparer.setInitBitrateEnable(playerEngine, PlayControlUtil.getPlaybackConfig());
         }
     }
 
@@ -603,9 +830,10 @@ public class PlayControl {
      * Set the bitrate range
      */
     public void setBitrateRange() {
-        if (PlayControlUtil.isSetBitrateRangeEnable() && wisePlayer != null) {
-            wisePlayer.setBitrateRange(PlayControlUtil.getMinBitrate(), PlayControlUtil.getMaxBitrate());
-            PlayControlUtil.clearBitrateRange();
+        if (playerEngine != null) {
+            PlaybackConfig config = PlayControlUtil.getPlaybackConfig();
+            PlayerPreparer.setBitrateRange(playerEngine, config);
+            PlayControlUtil.onPlaybackConfigApplied(config);
         }
     }
 
@@ -614,8 +842,8 @@ public class PlayControl {
      */
     public void clearPlayProgress() {
         if (currentPlayData != null) {
-            LogUtil.d("clear current progress " + currentPlayData.getUrl());
-            PlayControlUtil.clearPlayData(currentPlayData.getUrl());
+            LogUtil.d("clear current progress " + currentPlayData.getId());
+            PlayControlUtil.clearPlayData(currentPlayData.getId());
         }
     }
 
@@ -623,9 +851,30 @@ public class PlayControl {
      * Save the current sources of progress
      */
     public void savePlayProgress() {
-        if (currentPlayData != null && wisePlayer != null) {
-            LogUtil.d("save current progress " + wisePlayer.getCurrentTime());
-            PlayControlUtil.savePlayData(currentPlayData.getUrl(), wisePlayer.getCurrentTime());
+        if (currentPlayData != null && playerEngine != null) {
+            LogUtil.d("save current progress " + playerEngine.getCurrentTime());
+            PlayControlUtil.savePlayData(currentPlayData.getId(), playerEngine.getCurrentTime(),
+                playerEngine.getDuration());
+            rememberBitrate();
+        }
+    }
+
+    /**
+     * Checkpoint the current progress while playing, called with the progress update
+     */
+    public void checkpointPlayProgress() {
+        if (currentPlayData != null && playerEngine != null) {
+            PlayControlUtil.checkpointPlayData(currentPlayData.getId(), playerEngine.getCurrentTime(),
+                playerEngine.getDuration());
+        }
+    }
+
+    /**
+     * Remember the bitrate the title is playing at, the next session of the title starts with it
+     */
+    private void rememberBitrate() {
+        if (currentPlayData != null && playerEngine != null) {
+            PlayProfileCache.getInstance().recordBitrate(currentPlayData.getId(), getCurrentBitrate());
         }
     }
 
@@ -634,25 +883,53 @@ public class PlayControl {
      */
     public void setBookmark() {
         if (currentPlayData != null) {
-            int bookmark = PlayControlUtil.getPlayData(currentPlayData.getUrl());
+            int bookmark = PlayControlUtil.getPlayData(currentPlayData.getId());
             LogUtil.d("current book mark is " + bookmark);
-            if (wisePlayer != null && bookmark != 0) {
-                wisePlayer.setBookmark(bookmark);
+            if (playerEngine != null && bookmark != 0) {
+                playerEngine.setBookmark(bookmark);
             }
         }
     }
 
     /**
-     * Get XML data in the sdcard
+     * Load the shared play list in the background, the catalog is parsed only once per process
      *
-     * @return Data list
+     * @param onCatalogLoadListener Load listener
+     */
+    public void loadPlayList(final OnCatalogLoadListener onCatalogLoadListener) {
+        cancelLoadPlayList();
+        catalogLoader = new CatalogLoader(context, new OnCatalogLoadListener() {
+            @Override
+            public void onCatalogChunkLoaded(List<PlayEntity> playList, int positionStart, int itemCount) {
+                onCatalogLoadListener.onCatalogChunkLoaded(playList, positionStart, itemCount);
+            }
+
+            @Override
+            public void onCatalogLoaded(CatalogSnapshot snapshot) {
+                setCatalogSnapshot(snapshot);
+                onCatalogLoadListener.onCatalogLoaded(snapshot);
+            }
+        });
+        catalogLoader.start();
+    }
+
+    /**
+     * Set the play list data, loadPlayList sets it once the catalog is loaded
+     *
+     * @param snapshot Catalog snapshot
      */
-    public List<PlayEntity> getPlayList() {
-        if (playEntityList == null || playEntityList.size() == 0) {
-            playEntityList = new ArrayList<>();
-            playEntityList.addAll(DataFormatUtil.getPlayList(context));
+    void setCatalogSnapshot(CatalogSnapshot snapshot) {
+        catalogSnapshot = snapshot;
+    }
+
+    /**
+     * Cancel loading the play list
+     */
+    public void cancelLoadPlayList() {
+        if (catalogLoader != null) {
+            catalogLoader.cancel();
+            catalogLoader = null;
         }
-        return playEntityList;
     }
 
     /**
@@ -662,8 +939,8 @@ public class PlayControl {
      * @return The play data
      */
     public PlayEntity getPlayFromPosition(int position) {
-        if (playEntityList != null && playEntityList.size() > position) {
-            return playEntityList.get(position);
+        if (catalogSnapshot != null) {
+            return catalogSnapshot.get(position);
         }
         return null;
     }
@@ -672,8 +949,8 @@ public class PlayControl {
      * Player reset
      */
     public void reset() {
-        if (wisePlayer != null) {
-            wisePlayer.reset();
+        if (playerEngine != null) {
+            playerEngine.reset();
         }
     }
 
@@ -681,13 +958,10 @@ public class PlayControl {
      * Close logo
      */
     public void setCloseLogo() {
-        if (wisePlayer != null) {
-            if (PlayControlUtil.isCloseLogo()) {
-                if (!PlayControlUtil.isTakeEffectOfAll()) {
-                    PlayControlUtil.setCloseLogo(false);
-                }
-                wisePlayer.closeLogo();
-            }
+        if (playerEngine != null) {
+            PlaybackConfig config = PlayControlUtil.getPlaybackConfig();
+            PlayerPreparer.setCloseLogo(playerEngine, config);
+            PlayControlUtil.onPlaybackConfigApplied(config);
         }
     }
 
@@ -695,8 +969,10 @@ public class PlayControl {
      * Video into the background
      */
     public void onPause() {
-        if (currentPlayData != null && wisePlayer != null) {
-            PlayControlUtil.savePlayData(currentPlayData.getUrl(), wisePlayer.getCurrentTime());
+        if (currentPlayData != null && playerEngine != null) {
+            PlayControlUtil.savePlayData(currentPlayData.getId(), playerEngine.getCurrentTime(),
+                playerEngine.getDuration());
+            rememberBitrate();
             suspend();
         }
     }
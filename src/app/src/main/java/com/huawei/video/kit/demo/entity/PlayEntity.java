@@ -24,6 +24,11 @@ import java.io.Serializable;
 public class PlayEntity implements Serializable {
     private static final long serialVersionUID = -5470245891598196978L;
 
+    /**
+     * The catalog id
+     */
+    private long id;
+
     /**
      * The video name
      */
@@ -46,6 +51,14 @@ public class PlayEntity implements Serializable {
      */
     private String appId;
 
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
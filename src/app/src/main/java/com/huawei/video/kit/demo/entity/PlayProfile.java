@@ -0,0 +1,127 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.entity;
+
+/**
+ * Immutable per title overrides of the player settings, for example audio only for a podcast
+ * or a capped bitrate range for a heavy source
+ */
+public class PlayProfile {
+    /**
+     * The setting is not overridden
+     */
+    public static final int UNSET = -1;
+
+    /**
+     * Play mode
+     */
+    private final int playMode;
+
+    /**
+     * The minimum bitrate
+     */
+    private final int minBitrate;
+
+    /**
+     * The maximum bitrate
+     */
+    private final int maxBitrate;
+
+    /**
+     * The bitrate to start with
+     */
+    private final int initBitrate;
+
+    /**
+     * Constructor
+     *
+     * @param playMode Play mode, UNSET to keep the global setting
+     * @param minBitrate The minimum bitrate, UNSET to keep the global setting
+     * @param maxBitrate The maximum bitrate, UNSET to keep the global setting
+     * @param initBitrate The bitrate to start with, UNSET to keep the global setting
+     */
+    public PlayProfile(int playMode, int minBitrate, int maxBitrate, int initBitrate) {
+        this.playMode = playMode;
+        this.minBitrate = minBitrate;
+        this.maxBitrate = maxBitrate;
+        this.initBitrate = initBitrate;
+    }
+
+    public int getPlayMode() {
+        return playMode;
+    }
+
+    public int getMinBitrate() {
+        return minBitrate;
+    }
+
+    public int getMaxBitrate() {
+        return maxBitrate;
+    }
+
+    public int getInitBitrate() {
+        return initBitrate;
+    }
+
+    /**
+     * Create a copy with the bitrate to start with
+     *
+     * @param initBitrate The bitrate to start with
+     * @return Play profile
+     */
+    public PlayProfile withInitBitrate(int initBitrate) {
+        return new PlayProfile(playMode, minBitrate, maxBitrate, initBitrate);
+    }
+
+    /**
+     * Merge the overrides into the global settings. A bitrate bound the profile does not set keeps the global one,
+     * the bitrate to start with is only used if the user has not set one, and it is kept inside the bitrate range.
+     *
+     * @param config The global settings
+     * @return The settings of the title
+     */
+    public PlaybackConfig applyTo(PlaybackConfig config) {
+        PlaybackConfig.Builder builder = config.buildUpon();
+        if (playMode != UNSET) {
+            builder.setPlayMode(playMode);
+        }
+        int min = config.getMinBitrate();
+        int max = config.getMaxBitrate();
+        if (minBitrate != UNSET || maxBitrate != UNSET) {
+            // The global bound the profile does not override is kept, moved to the overridden one if it crosses it
+            min = minBitrate != UNSET ? minBitrate : min;
+            max = maxBitrate != UNSET ? maxBitrate : max;
+            if (max > 0 && min > max) {
+                if (minBitrate == UNSET) {
+                    min = max;
+                } else {
+                    max = min;
+                }
+            }
+            builder.setMinBitrate(min).setMaxBitrate(max);
+        }
+        if (initBitrate != UNSET && !config.isInitBitrateEnable()) {
+            int bitrate = Math.max(initBitrate, min);
+            if (max > 0) {
+                bitrate = Math.min(bitrate, max);
+            }
+            builder.setInitBitrateEnable(true).setInitBitrate(bitrate).setInitWidth(0).setInitHeight(0);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,344 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.entity;
+
+import com.huawei.hms.videokit.player.common.PlayerConstants.PlayMode;
+
+/**
+ * Immutable player settings, a change creates a new config through buildUpon
+ */
+public class PlaybackConfig {
+    /**
+     * The default settings
+     */
+    public static final PlaybackConfig DEFAULT = new Builder().build();
+
+    /**
+     * Local loads of players if the View is SurfaceView
+     */
+    private final boolean isSurfaceView;
+
+    /**
+     * Play type 0: on demand (the default) 1: live
+     */
+    private final int videoType;
+
+    /**
+     * Whether mute
+     */
+    private final boolean isMute;
+
+    /**
+     * Play mode
+     */
+    private final int playMode;
+
+    /**
+     * Bandwidth switching mode, 0 is adaptive
+     */
+    private final int bandwidthSwitchMode;
+
+    /**
+     * Whether to set up the bitrate
+     */
+    private final boolean initBitrateEnable;
+
+    /**
+     * The Bitrate type
+     * 0：The default priority search upwards
+     * 1：The priority search down
+     */
+    private final int initType;
+
+    /**
+     * Bitrate (if set up by resolution rate setting is effective)
+     */
+    private final int initBitrate;
+
+    /**
+     * Resolution width (width height must be set up in pairs)
+     */
+    private final int initWidth;
+
+    /**
+     * Resolution height (width height must be set up in pairs)
+     */
+    private final int initHeight;
+
+    /**
+     * Whether close the logo
+     */
+    private final boolean closeLogo;
+
+    /**
+     * Close the logo, whether to affect all sources
+     */
+    private final boolean takeEffectOfAll;
+
+    /**
+     * The minimum bitrate
+     */
+    private final int minBitrate;
+
+    /**
+     * The maximum bitrate
+     */
+    private final int maxBitrate;
+
+    /**
+     * Whether the background buffer load is allowed
+     */
+    private final boolean isLoadBuff;
+
+    private PlaybackConfig(Builder builder) {
+        isSurfaceView = builder.isSurfaceView;
+        videoType = builder.videoType;
+        isMute = builder.isMute;
+        playMode = builder.playMode;
+        bandwidthSwitchMode = builder.bandwidthSwitchMode;
+        initBitrateEnable = builder.initBitrateEnable;
+        initType = builder.initType;
+        initBitrate = builder.initBitrate;
+        initWidth = builder.initWidth;
+        initHeight = builder.initHeight;
+        closeLogo = builder.closeLogo;
+        takeEffectOfAll = builder.takeEffectOfAll;
+        minBitrate = builder.minBitrate;
+        maxBitrate = builder.maxBitrate;
+        isLoadBuff = builder.isLoadBuff;
+    }
+
+    public boolean isSurfaceView() {
+        return isSurfaceView;
+    }
+
+    public int getVideoType() {
+        return videoType;
+    }
+
+    public boolean isMute() {
+        return isMute;
+    }
+
+    public int getPlayMode() {
+        return playMode;
+    }
+
+    public int getBandwidthSwitchMode() {
+        return bandwidthSwitchMode;
+    }
+
+    public boolean isInitBitrateEnable() {
+        return initBitrateEnable;
+    }
+
+    public int getInitType() {
+        return initType;
+    }
+
+    public int getInitBitrate() {
+        return initBitrate;
+    }
+
+    public int getInitWidth() {
+        return initWidth;
+    }
+
+    public int getInitHeight() {
+        return initHeight;
+    }
+
+    public boolean isCloseLogo() {
+        return closeLogo;
+    }
+
+    public boolean isTakeEffectOfAll() {
+        return takeEffectOfAll;
+    }
+
+    public int getMinBitrate() {
+        return minBitrate;
+    }
+
+    public int getMaxBitrate() {
+        return maxBitrate;
+    }
+
+    /**
+     * Whether need to modify the code bitrate range
+     */
+    public boolean isSetBitrateRangeEnable() {
+        return maxBitrate != 0 || minBitrate != 0;
+    }
+
+    public boolean isLoadBuff() {
+        return isLoadBuff;
+    }
+
+    /**
+     * Create a builder initialized with this config
+     *
+     * @return Builder
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * Build the config
+     */
+    public static class Builder {
+        private boolean isSurfaceView = true;
+
+        private int videoType = 0;
+
+        private boolean isMute = false;
+
+        private int playMode = PlayMode.PLAY_MODE_NORMAL;
+
+        private int bandwidthSwitchMode = 0;
+
+        private boolean initBitrateEnable = false;
+
+        private int initType = 0;
+
+        private int initBitrate = 0;
+
+        private int initWidth = 0;
+
+        private int initHeight = 0;
+
+        private boolean closeLogo = false;
+
+        private boolean takeEffectOfAll = false;
+
+        private int minBitrate = 0;
+
+        private int maxBitrate = 0;
+
+        private boolean isLoadBuff = true;
+
+        /**
+         * Constructor with the default settings
+         */
+        public Builder() {
+        }
+
+        private Builder(PlaybackConfig config) {
+            isSurfaceView = config.isSurfaceView;
+            videoType = config.videoType;
+            isMute = config.isMute;
+            playMode = config.playMode;
+            bandwidthSwitchMode = config.bandwidthSwitchMode;
+            initBitrateEnable = config.initBitrateEnable;
+            initType = config.initType;
+            initBitrate = config.initBitrate;
+            initWidth = config.initWidth;
+            initHeight = config.initHeight;
+            closeLogo = config.closeLogo;
+            takeEffectOfAll = config.takeEffectOfAll;
+            minBitrate = config.minBitrate;
+            maxBitrate = config.maxBitrate;
+            isLoadBuff = config.isLoadBuff;
+        }
+
+        public Builder setIsSurfaceView(boolean isSurfaceView) {
+            this.isSurfaceView = isSurfaceView;
+            return this;
+        }
+
+        public Builder setVideoType(int videoType) {
+            this.videoType = videoType;
+            return this;
+        }
+
+        public Builder setIsMute(boolean isMute) {
+            this.isMute = isMute;
+            return this;
+        }
+
+        public Builder setPlayMode(int playMode) {
+            this.playMode = playMode;
+            return this;
+        }
+
+        public Builder setBandwidthSwitchMode(int bandwidthSwitchMode) {
+            this.bandwidthSwitchMode = bandwidthSwitchMode;
+            return this;
+        }
+
+        public Builder setInitBitrateEnable(boolean initBitrateEnable) {
+            this.initBitrateEnable = initBitrateEnable;
+            return this;
+        }
+
+        public Builder setInitType(int initType) {
+            this.initType = initType;
+            return this;
+        }
+
+        public Builder setInitBitrate(int initBitrate) {
+            this.initBitrate = initBitrate;
+            return this;
+        }
+
+        public Builder setInitWidth(int initWidth) {
+            this.initWidth = initWidth;
+            return this;
+        }
+
+        public Builder setInitHeight(int initHeight) {
+            this.initHeight = initHeight;
+            return this;
+        }
+
+        public Builder setCloseLogo(boolean closeLogo) {
+            this.closeLogo = closeLogo;
+            return this;
+        }
+
+        public Builder setTakeEffectOfAll(boolean takeEffectOfAll) {
+            this.takeEffectOfAll = takeEffectOfAll;
+            return this;
+        }
+
+        public Builder setMinBitrate(int minBitrate) {
+            this.minBitrate = minBitrate;
+            return this;
+        }
+
+        public Builder setMaxBitrate(int maxBitrate) {
+            this.maxBitrate = maxBitrate;
+            return this;
+        }
+
+        public Builder setLoadBuff(boolean isLoadBuff) {
+            this.isLoadBuff = isLoadBuff;
+            return this;
+        }
+
+        /**
+         * Build the config
+         *
+         * @return Playback config
+         */
+        public PlaybackConfig build() {
+            return new PlaybackConfig(this);
+        }
+    }
+}
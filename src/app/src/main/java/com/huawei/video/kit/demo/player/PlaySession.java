@@ -0,0 +1,98 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+
+/**
+ * A playback session opened before the play page is created: the entity, the player already preparing it,
+ * the settings and the bookmark it is prepared with. The session is handed to the play page by its token.
+ */
+public class PlaySession {
+    // The token the session is registered with
+    private final int token;
+
+    // The entity of the session
+    private final PlayEntity playEntity;
+
+    // The settings the player is prepared with
+    private final PlaybackConfig appliedConfig;
+
+    // The bookmark the player starts from
+    private final int bookmark;
+
+    // The time the session is opened
+    private final long openTime;
+
+    // The startup phases reached before the play page takes the session
+    private final StartupTimer startupTimer;
+
+    // The preparing player, null if the player factory was not ready or the player failed
+    private PlayerPreloader.StandbyPlayer standbyPlayer;
+
+    // Drop the session if the play page does not take it
+    Runnable expireTask;
+
+    PlaySession(int token, PlayEntity playEntity, PlaybackConfig appliedConfig, int bookmark, long openTime,
+        StartupTimer startupTimer) {
+        this.token = token;
+        this.playEntity = playEntity;
+        this.appliedConfig = appliedConfig;
+        this.bookmark = bookmark;
+        this.openTime = openTime;
+        this.startupTimer = startupTimer;
+    }
+
+    public int getToken() {
+        return token;
+    }
+
+    public PlayEntity getPlayEntity() {
+        return playEntity;
+    }
+
+    public PlaybackConfig getAppliedConfig() {
+        return appliedConfig;
+    }
+
+    public int getBookmark() {
+        return bookmark;
+    }
+
+    public long getOpenTime() {
+        return openTime;
+    }
+
+    public StartupTimer getStartupTimer() {
+        return startupTimer;
+    }
+
+    /**
+     * Get the preparing player, the ready and error events are relayed once a listener is attached
+     *
+     * @return The preparing player, null if the play page has to create its own player
+     */
+    public PlayerPreloader.StandbyPlayer getStandbyPlayer() {
+        return standbyPlayer;
+    }
+
+    void setStandbyPlayer(PlayerPreloader.StandbyPlayer standbyPlayer) {
+        this.standbyPlayer = standbyPlayer;
+    }
+}
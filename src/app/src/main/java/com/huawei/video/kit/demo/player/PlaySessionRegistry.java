@@ -0,0 +1,213 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+import com.huawei.video.kit.demo.utils.DelayedExecutor;
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.MainThreadExecutor;
+import com.huawei.video.kit.demo.utils.PlayControlUtil;
+
+/**
+ * In process registry of the playback sessions handed from the home page to the play page.
+ * The home page opens the session, so the player buffers while the play page is inflated,
+ * and the play page takes it by the token carried in the intent. A session nobody takes expires.
+ * All the methods must be called on the main thread.
+ */
+public class PlaySessionRegistry {
+    private static final String TAG = "PlaySessionRegistry";
+
+    /**
+     * The token of no session
+     */
+    public static final int NO_TOKEN = 0;
+
+    /**
+     * The time an open session waits for the play page
+     */
+    static final long EXPIRE_MS = 5000;
+
+    private static final PlaySessionRegistry INSTANCE =
+        new PlaySessionRegistry(WisePlayerEngine.FACTORY, MainThreadExecutor.getInstance());
+
+    // The open sessions by token
+    private final Map<Integer, PlaySession> sessions = new HashMap<>();
+
+    // Create the player engines of the sessions
+    private final PlayerEngineFactory playerEngineFactory;
+
+    // Expire the sessions
+    private final DelayedExecutor mainExecutor;
+
+    // Token generator
+    private int nextToken = 1;
+
+    // The number of the sessions taken by the play page
+    private int takenCount = 0;
+
+    // The number of the sessions released before they are taken
+    private int releasedCount = 0;
+
+    // The number of the sessions nobody took
+    private int expiredCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param playerEngineFactory Create the player engines of the sessions, for example the fake engines of the tests
+     * @param mainExecutor Expire the sessions on the main thread
+     */
+    public PlaySessionRegistry(PlayerEngineFactory playerEngineFactory, DelayedExecutor mainExecutor) {
+        this.playerEngineFactory = playerEngineFactory;
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Get the registry
+     *
+     * @return Session registry
+     */
+    public static PlaySessionRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Open a session for the entity and start preparing its player, the session already open for the entity
+     * is reused. The session has no player if the player factory is not ready.
+     *
+     * @param playEntity Play entity
+     * @return The open session
+     */
+    public PlaySession open(PlayEntity playEntity) {
+        for (PlaySession session : sessions.values()) {
+            if (session.getPlayEntity().getId() == playEntity.getId()) {
+                scheduleExpire(session);
+                return session;
+            }
+        }
+        int token = nextToken++;
+        if (nextToken == NO_TOKEN) {
+            nextToken++;
+        }
+        PlaybackConfig appliedConfig = PlayControlUtil.getPlaybackConfig();
+        int bookmark = PlayControlUtil.getPlayData(playEntity.getId());
+        long openTime = SystemClock.elapsedRealtime();
+        PlayerEngine playerEngine = playerEngineFactory.create();
+        final PlaySession session;
+        if (playerEngine != null) {
+            PlayerPreloader.StandbyPlayer standbyPlayer = new PlayerPreloader.StandbyPlayer(playerEngine, playEntity);
+            session = new PlaySession(token, playEntity, appliedConfig, bookmark, openTime,
+                standbyPlayer.getStartupTimer());
+            playerEngine.setListener(standbyPlayer);
+            session.getStartupTimer().mark(StartupTimer.PHASE_SET_URL);
+            PlayerPreparer.prepare(playerEngine, playEntity, appliedConfig, bookmark);
+            session.getStartupTimer().mark(StartupTimer.PHASE_READY);
+            playerEngine.ready();
+            session.setStandbyPlayer(standbyPlayer);
+        } else {
+            session = new PlaySession(token, playEntity, appliedConfig, bookmark, openTime, new StartupTimer());
+            LogUtil.d(TAG, "player factory is not ready, session " + token + " has no player");
+        }
+        session.expireTask = new Runnable() {
+            @Override
+            public void run() {
+                expiredCount++;
+                LogUtil.i(TAG, "session " + session.getToken() + " expired");
+                discard(session);
+            }
+        };
+        sessions.put(token, session);
+        scheduleExpire(session);
+        LogUtil.d(TAG, "open session " + token + " for " + playEntity.getId());
+        return session;
+    }
+
+    /**
+     * Take the session, the caller owns its player afterwards
+     *
+     * @param token Session token
+     * @return The session, null if it is not open. The player of the session is dropped if its preparing failed.
+     */
+    public PlaySession take(int token) {
+        PlaySession session = sessions.remove(token);
+        if (session == null) {
+            return null;
+        }
+        mainExecutor.cancel(session.expireTask);
+        takenCount++;
+        PlayerPreloader.StandbyPlayer standbyPlayer = session.getStandbyPlayer();
+        long now = SystemClock.elapsedRealtime();
+        if (standbyPlayer == null) {
+            LogUtil.i(TAG, "session " + token + " taken without player");
+        } else if (standbyPlayer.isFailed()) {
+            LogUtil.i(TAG, "player of session " + token + " failed, drop it");
+            session.setStandbyPlayer(null);
+            standbyPlayer.release();
+        } else {
+            PlayControlUtil.onPlaybackConfigApplied(session.getAppliedConfig());
+            long readyTime = standbyPlayer.getReadyTime();
+            LogUtil.i(TAG, "session " + token + " taken, prepare started " + (now - session.getOpenTime())
+                + " ms ago, " + (readyTime == 0 ? "still preparing" : "ready for " + (now - readyTime) + " ms"));
+        }
+        LogUtil.d(TAG, "sessions taken " + takenCount + " released " + releasedCount + " expired " + expiredCount);
+        return session;
+    }
+
+    /**
+     * Release the session which is not going to be taken, its player is given back to the pool
+     *
+     * @param token Session token
+     */
+    public void release(int token) {
+        PlaySession session = sessions.get(token);
+        if (session != null) {
+            releasedCount++;
+            discard(session);
+        }
+    }
+
+    /**
+     * Release all the open sessions, for example when memory is short
+     */
+    public void clear() {
+        for (PlaySession session : sessions.values().toArray(new PlaySession[sessions.size()])) {
+            discard(session);
+        }
+    }
+
+    private void scheduleExpire(PlaySession session) {
+        mainExecutor.cancel(session.expireTask);
+        mainExecutor.executeDelayed(session.expireTask, EXPIRE_MS);
+    }
+
+    private void discard(PlaySession session) {
+        sessions.remove(session.getToken());
+        mainExecutor.cancel(session.expireTask);
+        PlayerPreloader.StandbyPlayer standbyPlayer = session.getStandbyPlayer();
+        if (standbyPlayer != null) {
+            session.setStandbyPlayer(null);
+            standbyPlayer.release();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.List;
+
+import android.view.SurfaceView;
+import android.view.TextureView;
+
+import com.huawei.video.kit.demo.contract.OnPlayerEngineListener;
+
+/**
+ * The player operations used by the play controls, implemented over WisePlayer and by the fake engine
+ * for the JVM tests and benchmarks. The times are in milliseconds and the bitrates in b/s.
+ */
+public interface PlayerEngine {
+    /**
+     * Set the play urls
+     *
+     * @param urls Play urls
+     */
+    void setPlayUrl(String[] urls);
+
+    /**
+     * Set the vod json of the online scenario
+     *
+     * @param vodJson Vod json
+     * @param appId App id
+     */
+    void setPlayUrl(String vodJson, String appId);
+
+    /**
+     * Set the position to start from
+     *
+     * @param bookmark Position
+     */
+    void setBookmark(int bookmark);
+
+    /**
+     * Set play mode
+     *
+     * @param playMode Play mode
+     */
+    void setPlayMode(int playMode);
+
+    int getPlayMode();
+
+    /**
+     * Set the mute
+     *
+     * @param isMute Whether quiet
+     */
+    void setMute(boolean isMute);
+
+    /**
+     * Set play type 0: on demand 1: live
+     *
+     * @param videoType Play type
+     */
+    void setVideoType(int videoType);
+
+    /**
+     * Set the bandwidth switching mode
+     *
+     * @param mode 0: auto 1: manual
+     */
+    void setBandwidthSwitchMode(int mode);
+
+    /**
+     * Set the bitrate to start with
+     *
+     * @param type Init bitrate type
+     * @param bitrate Bitrate
+     * @param width Width
+     * @param height Height
+     */
+    void setInitBitrate(int type, int bitrate, int width, int height);
+
+    /**
+     * Set the bitrate range
+     *
+     * @param minBitrate The minimum bitrate
+     * @param maxBitrate The maximum bitrate
+     */
+    void setBitrateRange(int minBitrate, int maxBitrate);
+
+    /**
+     * Close logo
+     */
+    void closeLogo();
+
+    /**
+     * Prepare the url, the ready event is delivered once it can be started
+     */
+    void ready();
+
+    /**
+     * Start playing
+     */
+    void start();
+
+    /**
+     * Pause playing
+     */
+    void pause();
+
+    /**
+     * Resume after suspend
+     *
+     * @param play 0: play 1: pause -1: keep
+     */
+    void resume(int play);
+
+    /**
+     * Suspend, the view is released
+     */
+    void suspend();
+
+    /**
+     * Stop playing
+     */
+    void stop();
+
+    /**
+     * Reset to the state before the url is set
+     */
+    void reset();
+
+    /**
+     * Seek to the position
+     *
+     * @param position Position
+     */
+    void seek(int position);
+
+    int getCurrentTime();
+
+    int getDuration();
+
+    /**
+     * Get the end of the buffered range
+     *
+     * @return Position
+     */
+    int getBufferTime();
+
+    /**
+     * Get the download speed
+     *
+     * @return Speed b/s
+     */
+    long getBufferingSpeed();
+
+    int getVideoWidth();
+
+    int getVideoHeight();
+
+    /**
+     * Get the bitrates of the streams
+     *
+     * @return Bitrates in the stream order, empty if unknown
+     */
+    List<Integer> getStreamBitrates();
+
+    /**
+     * Get the bitrate of the playing stream
+     *
+     * @return Bitrate, 0 if unknown
+     */
+    int getCurrentBitrate();
+
+    /**
+     * Switch the bitrate after the buffered data is played
+     *
+     * @param bitrate Bitrate
+     */
+    void switchBitrateSmooth(int bitrate);
+
+    /**
+     * Switch the bitrate now, the buffered data is dropped
+     *
+     * @param bitrate Bitrate
+     */
+    void switchBitrateDesignated(int bitrate);
+
+    /**
+     * Set play speed
+     *
+     * @param speed Speed
+     */
+    void setPlaySpeed(float speed);
+
+    float getPlaySpeed();
+
+    /**
+     * Set cycle mode
+     *
+     * @param isCycleMode Whether open loop
+     */
+    void setCycleMode(boolean isCycleMode);
+
+    boolean isCycleMode();
+
+    /**
+     * Set the volume
+     *
+     * @param volume The volume interval [0, 1]
+     */
+    void setVolume(float volume);
+
+    /**
+     * Set whether to allow the buffer load
+     *
+     * @param status Whether to allow
+     */
+    void setBufferingStatus(boolean status);
+
+    /**
+     * Set change notification
+     */
+    void setSurfaceChange();
+
+    /**
+     * Binding the SurfaceView
+     *
+     * @param surfaceView SurfaceView
+     */
+    void setView(SurfaceView surfaceView);
+
+    /**
+     * Binding the TextureView
+     *
+     * @param textureView TextureView
+     */
+    void setView(TextureView textureView);
+
+    /**
+     * Set the listener of all the player events
+     *
+     * @param listener Listener, null to remove
+     */
+    void setListener(OnPlayerEngineListener listener);
+
+    /**
+     * Release the engine, it must not be used afterwards
+     */
+    void release();
+}
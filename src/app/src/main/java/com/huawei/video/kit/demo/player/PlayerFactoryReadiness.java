@@ -0,0 +1,160 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.huawei.hms.videokit.player.WisePlayerFactory;
+import com.huawei.video.kit.demo.contract.OnPlayerFactoryListener;
+import com.huawei.video.kit.demo.utils.DelayedExecutor;
+import com.huawei.video.kit.demo.utils.LogUtil;
+
+/**
+ * The result of the player factory initialization and the listeners waiting for it.
+ * All the methods must be called on the thread of the executor, the main thread.
+ */
+public class PlayerFactoryReadiness {
+    private static final String TAG = "PlayerFactoryReadiness";
+
+    /**
+     * Error code of the factory not initialized in time
+     */
+    public static final int ERROR_FACTORY_TIMEOUT = -1;
+
+    // Run the timeouts
+    private final DelayedExecutor mainExecutor;
+
+    // The listeners waiting for the factory and their timeout tasks
+    private final Map<OnPlayerFactoryListener, Runnable> listeners = new LinkedHashMap<>();
+
+    // Whether the factory is initialized
+    private boolean isReady = false;
+
+    private WisePlayerFactory wisePlayerFactory;
+
+    // Whether the factory initialization failed
+    private boolean isFailed = false;
+
+    private int errorCode = 0;
+
+    private String errorReason = null;
+
+    /**
+     * Constructor
+     *
+     * @param mainExecutor Run the timeouts on the main thread
+     */
+    public PlayerFactoryReadiness(DelayedExecutor mainExecutor) {
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Get the factory
+     *
+     * @return Player factory, null until initialized
+     */
+    public WisePlayerFactory getWisePlayerFactory() {
+        return wisePlayerFactory;
+    }
+
+    /**
+     * The factory is initialized, the waiting listeners are notified
+     *
+     * @param wisePlayerFactory Player factory
+     */
+    public void onFactoryReady(WisePlayerFactory wisePlayerFactory) {
+        isReady = true;
+        this.wisePlayerFactory = wisePlayerFactory;
+        for (OnPlayerFactoryListener listener : takeListeners()) {
+            listener.onFactoryReady(wisePlayerFactory);
+        }
+    }
+
+    /**
+     * The factory initialization failed, the waiting listeners are notified
+     *
+     * @param errorCode Error code
+     * @param reason Reason
+     */
+    public void onFactoryFailed(int errorCode, String reason) {
+        isFailed = true;
+        this.errorCode = errorCode;
+        errorReason = reason;
+        for (OnPlayerFactoryListener listener : takeListeners()) {
+            listener.onFactoryFailed(errorCode, reason);
+        }
+    }
+
+    /**
+     * Wait for the player factory, the listener is notified right away if the factory is already initialized
+     * or failed
+     *
+     * @param listener Readiness listener, notified once
+     * @param timeoutMs The listener fails with ERROR_FACTORY_TIMEOUT if the factory is not ready within this time
+     */
+    public void addListener(final OnPlayerFactoryListener listener, final long timeoutMs) {
+        if (isReady) {
+            listener.onFactoryReady(wisePlayerFactory);
+            return;
+        }
+        if (isFailed) {
+            listener.onFactoryFailed(errorCode, errorReason);
+            return;
+        }
+        Runnable timeoutTask = new Runnable() {
+            @Override
+            public void run() {
+                if (listeners.remove(listener) != null) {
+                    LogUtil.w(TAG, "player factory is not ready in " + timeoutMs + " ms");
+                    listener.onFactoryFailed(ERROR_FACTORY_TIMEOUT, "player factory init timeout");
+                }
+            }
+        };
+        listeners.put(listener, timeoutTask);
+        mainExecutor.executeDelayed(timeoutTask, timeoutMs);
+    }
+
+    /**
+     * Stop waiting for the player factory, the listener is not notified
+     *
+     * @param listener Readiness listener
+     */
+    public void removeListener(OnPlayerFactoryListener listener) {
+        Runnable timeoutTask = listeners.remove(listener);
+        if (timeoutTask != null) {
+            mainExecutor.cancel(timeoutTask);
+        }
+    }
+
+    /**
+     * Remove all the waiting listeners and cancel their timeouts
+     *
+     * @return The waiting listeners
+     */
+    private List<OnPlayerFactoryListener> takeListeners() {
+        List<OnPlayerFactoryListener> waitingListeners = new ArrayList<>(listeners.keySet());
+        for (Runnable timeoutTask : listeners.values()) {
+            mainExecutor.cancel(timeoutTask);
+        }
+        listeners.clear();
+        return waitingListeners;
+    }
+}
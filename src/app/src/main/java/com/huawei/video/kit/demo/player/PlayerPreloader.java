@@ -0,0 +1,314 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.contract.OnPlayerEngineListener;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.utils.LogUtil;
+
+/**
+ * Keep a second player prepared for the entity most likely played next, so switching to it skips the prepare
+ * and the initial buffering. The standby player is not started and has no view until it is taken.
+ * Preloading is disabled on the low RAM devices, and the standby player is dropped when memory is short.
+ * All the methods must be called on the main thread.
+ */
+public class PlayerPreloader {
+    private static final String TAG = "PlayerPreloader";
+
+    /**
+     * Preload only if the app may use at least this much heap, in MB
+     */
+    private static final int MIN_MEMORY_CLASS = 128;
+
+    // Whether the device has enough memory for a second player
+    private final boolean isEnabled;
+
+    // The prepared player, null if none
+    private StandbyPlayer standbyPlayer;
+
+    /**
+     * Constructor
+     *
+     * @param context Context
+     */
+    public PlayerPreloader(Context context) {
+        this(hasEnoughMemory(context));
+        if (!isEnabled) {
+            LogUtil.i(TAG, "low memory device, preloading is disabled");
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param isEnabled Whether preloading is allowed, for example by the tests
+     */
+    public PlayerPreloader(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    private static boolean hasEnoughMemory(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        return activityManager != null && !activityManager.isLowRamDevice()
+            && activityManager.getMemoryClass() >= MIN_MEMORY_CLASS;
+    }
+
+    /**
+     * Whether preloading is allowed on the device
+     *
+     * @return Is enabled
+     */
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Whether the standby player is for the entity
+     *
+     * @param id Entity id
+     * @return Has the standby player
+     */
+    public boolean hasStandby(long id) {
+        return standbyPlayer != null && standbyPlayer.playEntity.getId() == id;
+    }
+
+    /**
+     * Keep the engine as the standby player, the previous one is dropped.
+     * Must be called before the engine is prepared so its ready event is kept.
+     *
+     * @param playerEngine Player engine, the url and settings of the entity are set by the caller
+     * @param playEntity The entity of the player
+     * @return The standby player
+     */
+    public StandbyPlayer setStandby(PlayerEngine playerEngine, PlayEntity playEntity) {
+        clear();
+        standbyPlayer = new StandbyPlayer(playerEngine, playEntity);
+        playerEngine.setListener(standbyPlayer);
+        LogUtil.d(TAG, "preload " + playEntity.getId());
+        return standbyPlayer;
+    }
+
+    /**
+     * Take the standby player of the entity, the caller owns the player afterwards
+     *
+     * @param id Entity id
+     * @return The standby player, null if there is none for the entity or its preparing failed
+     */
+    public StandbyPlayer takeStandby(long id) {
+        if (!hasStandby(id)) {
+            return null;
+        }
+        StandbyPlayer taken = standbyPlayer;
+        standbyPlayer = null;
+        if (taken.isFailed()) {
+            LogUtil.i(TAG, "standby player failed, drop it");
+            taken.release();
+            return null;
+        }
+        return taken;
+    }
+
+    /**
+     * Drop the standby player
+     */
+    public void clear() {
+        if (standbyPlayer != null) {
+            standbyPlayer.release();
+            standbyPlayer = null;
+        }
+    }
+
+    /**
+     * The standby player, the listener of its engine. The ready and error events are held until it is attached,
+     * the other events are relayed once a listener is set.
+     */
+    public static class StandbyPlayer implements OnPlayerEngineListener {
+        private final PlayerEngine playerEngine;
+
+        private final PlayEntity playEntity;
+
+        // The startup phases reached while the player is prepared
+        private final StartupTimer startupTimer = new StartupTimer();
+
+        // The time the ready event is received, 0 if not ready, guarded by this
+        private long readyTime = 0;
+
+        // The listener the events are relayed to, guarded by this
+        private OnPlayerEngineListener listener;
+
+        // Whether the ready and error events are relayed, guarded by this
+        private boolean isAttached = false;
+
+        // Whether the player is ready, guarded by this
+        private boolean isReady = false;
+
+        // Whether the player failed before it is attached, guarded by this
+        private boolean isFailed = false;
+
+        /**
+         * Constructor, the caller sets it as the listener of the engine
+         *
+         * @param playerEngine Player engine
+         * @param playEntity The entity of the player
+         */
+        StandbyPlayer(PlayerEngine playerEngine, PlayEntity playEntity) {
+            this.playerEngine = playerEngine;
+            this.playEntity = playEntity;
+        }
+
+        public PlayerEngine getPlayerEngine() {
+            return playerEngine;
+        }
+
+        public PlayEntity getPlayEntity() {
+            return playEntity;
+        }
+
+        public StartupTimer getStartupTimer() {
+            return startupTimer;
+        }
+
+        /**
+         * Get the time the player became ready
+         *
+         * @return Elapsed realtime, 0 if not ready yet
+         */
+        public synchronized long getReadyTime() {
+            return readyTime;
+        }
+
+        /**
+         * Relay the events other than ready and error to the listener
+         *
+         * @param onPlayerEngineListener Player listener
+         */
+        public synchronized void setListener(OnPlayerEngineListener onPlayerEngineListener) {
+            listener = onPlayerEngineListener;
+        }
+
+        /**
+         * Relay the ready and error events to the listener from now on, a ready event already received
+         * is delivered right away
+         */
+        public void attach() {
+            OnPlayerEngineListener target;
+            synchronized (this) {
+                isAttached = true;
+                target = isReady ? listener : null;
+            }
+            if (target != null) {
+                target.onReady(playerEngine);
+            }
+        }
+
+        /**
+         * Give the engine back, no more events are relayed
+         */
+        void release() {
+            synchronized (this) {
+                listener = null;
+            }
+            playerEngine.release();
+        }
+
+        synchronized boolean isFailed() {
+            return isFailed;
+        }
+
+        private synchronized OnPlayerEngineListener getListener() {
+            return listener;
+        }
+
+        @Override
+        public void onReady(PlayerEngine engine) {
+            OnPlayerEngineListener target;
+            synchronized (this) {
+                isReady = true;
+                readyTime = SystemClock.elapsedRealtime();
+                target = isAttached ? listener : null;
+            }
+            if (target != null) {
+                target.onReady(engine);
+            }
+        }
+
+        @Override
+        public boolean onError(PlayerEngine engine, int what, int extra) {
+            OnPlayerEngineListener target;
+            synchronized (this) {
+                target = isAttached ? listener : null;
+                if (target == null) {
+                    isFailed = true;
+                    LogUtil.w(TAG, "standby player error what:" + what + " extra:" + extra);
+                    return false;
+                }
+            }
+            return target.onError(engine, what, extra);
+        }
+
+        @Override
+        public boolean onEvent(PlayerEngine engine, int what, int extra, Object o) {
+            OnPlayerEngineListener target = getListener();
+            return target != null && target.onEvent(engine, what, extra, o);
+        }
+
+        @Override
+        public void onResolutionUpdated(PlayerEngine engine, int width, int height) {
+            OnPlayerEngineListener target = getListener();
+            if (target != null) {
+                target.onResolutionUpdated(engine, width, height);
+            }
+        }
+
+        @Override
+        public void onLoadingUpdate(PlayerEngine engine, int percent) {
+            OnPlayerEngineListener target = getListener();
+            if (target != null) {
+                target.onLoadingUpdate(engine, percent);
+            }
+        }
+
+        @Override
+        public void onStartPlaying(PlayerEngine engine) {
+            OnPlayerEngineListener target = getListener();
+            if (target != null) {
+                target.onStartPlaying(engine);
+            }
+        }
+
+        @Override
+        public void onPlayEnd(PlayerEngine engine) {
+            OnPlayerEngineListener target = getListener();
+            if (target != null) {
+                target.onPlayEnd(engine);
+            }
+        }
+
+        @Override
+        public void onSeekEnd(PlayerEngine engine) {
+            OnPlayerEngineListener target = getListener();
+            if (target != null) {
+                target.onSeekEnd(engine);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import com.huawei.video.kit.demo.catalog.PlayProfileCache;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+import com.huawei.video.kit.demo.utils.Constants.UrlType;
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.PlayControlUtil;
+import com.huawei.video.kit.demo.utils.StringUtil;
+
+/**
+ * Set a play entity and the settings to a player before it is prepared,
+ * shared by the current, the standby and the speculative players
+ */
+public class PlayerPreparer {
+    private static final String TAG = "PlayerPreparer";
+
+    private PlayerPreparer() {
+    }
+
+    /**
+     * Set the url, the bookmark and the settings of the entity to the player,
+     * the profile of the entity is merged into the settings
+     *
+     * @param player Player engine
+     * @param playEntity Play entity
+     * @param globalConfig The global settings
+     * @return Whether the url is a http url
+     */
+    public static boolean prepare(PlayerEngine player, PlayEntity playEntity, PlaybackConfig globalConfig) {
+        return prepare(player, playEntity, globalConfig, PlayControlUtil.getPlayData(playEntity.getId()));
+    }
+
+    /**
+     * Set the url, the bookmark and the settings of the entity to the player,
+     * the profile of the entity is merged into the settings
+     *
+     * @param player Player engine
+     * @param playEntity Play entity
+     * @param globalConfig The global settings
+     * @param bookmark The position to start from, 0 to start from the beginning
+     * @return Whether the url is a http url
+     */
+    public static boolean prepare(PlayerEngine player, PlayEntity playEntity, PlaybackConfig globalConfig,
+        int bookmark) {
+        boolean isHttp = true;
+        if (playEntity.getUrlType() == UrlType.URL) {
+            player.setPlayUrl(new String[] {playEntity.getUrl()});
+        } else if (playEntity.getUrlType() == UrlType.URL_JSON) {
+            isHttp = false;
+            player.setPlayUrl(playEntity.getUrl(), playEntity.getAppId());
+        } else if (playEntity.getUrlType() == UrlType.URL_MULTIPLE) {
+            String[] strings = StringUtil.getStringArray(playEntity.getUrl(), "-SPAD-");
+            player.setPlayUrl(strings);
+        } else {
+            player.setPlayUrl(new String[] {playEntity.getUrl()});
+        }
+        LogUtil.d(TAG, "current book mark is " + bookmark);
+        if (bookmark != 0) {
+            player.setBookmark(bookmark);
+        }
+        PlaybackConfig config = PlayProfileCache.getInstance().apply(playEntity.getId(), globalConfig);
+        player.setPlayMode(config.getPlayMode());
+        player.setMute(config.isMute());
+        player.setVideoType(config.getVideoType());
+        player.setBandwidthSwitchMode(config.getBandwidthSwitchMode());
+        setInitBitrateEnable(player, config);
+        setBitrateRange(player, config);
+        setCloseLogo(player, config);
+        return isHttp;
+    }
+
+    /**
+     * Set up the bitrate of the config
+     *
+     * @param player Player engine
+     * @param config Playback config
+     */
+    public static void setInitBitrateEnable(PlayerEngine player, PlaybackConfig config) {
+        if (config.isInitBitrateEnable()) {
+            player.setInitBitrate(config.getInitType(), config.getInitBitrate(), config.getInitWidth(),
+                config.getInitHeight());
+        }
+    }
+
+    /**
+     * Set the bitrate range of the config
+     *
+     * @param player Player engine
+     * @param config Playback config
+     */
+    public static void setBitrateRange(PlayerEngine player, PlaybackConfig config) {
+        if (config.isSetBitrateRangeEnable()) {
+            player.setBitrateRange(config.getMinBitrate(), config.getMaxBitrate());
+        }
+    }
+
+    /**
+     * Close logo if the config asks for it
+     *
+     * @param player Player engine
+     * @param config Playback config
+     */
+    public static void setCloseLogo(PlayerEngine player, PlaybackConfig config) {
+        if (config.isCloseLogo()) {
+            player.closeLogo();
+        }
+    }
+}
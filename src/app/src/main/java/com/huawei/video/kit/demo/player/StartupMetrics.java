@@ -0,0 +1,199 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.Arrays;
+
+import com.huawei.video.kit.demo.utils.Constants.UrlType;
+import com.huawei.video.kit.demo.utils.LogUtil;
+
+/**
+ * Process wide startup phase histograms of the recent plays, one rolling window per url type and phase.
+ * The recorded time of a phase is from the click to the phase, it is negative for the phases reached before
+ * the click by a prepared player. The preparing done before the click is also kept as the time saved for the play.
+ */
+public class StartupMetrics {
+    private static final String TAG = "StartupMetrics";
+
+    /**
+     * The number of recent plays kept per url type
+     */
+    public static final int WINDOW_SIZE = 100;
+
+    private static final int[] URL_TYPES = {UrlType.URL, UrlType.URL_MULTIPLE, UrlType.URL_JSON};
+
+    private static final String[] URL_TYPE_NAMES = {"URL", "URL_MULTIPLE", "URL_JSON"};
+
+    // Created after the url types it depends on
+    private static final StartupMetrics INSTANCE = new StartupMetrics();
+
+    // The windows by url type index and phase, guarded by this
+    private final Window[][] windows = new Window[URL_TYPES.length][StartupTimer.PHASE_COUNT];
+
+    // The time saved by the prepared players by url type index, guarded by this
+    private final Window[] savedWindows = new Window[URL_TYPES.length];
+
+    private StartupMetrics() {
+        reset();
+    }
+
+    /**
+     * Get the metrics
+     *
+     * @return Startup metrics
+     */
+    public static StartupMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record the phases of a finished startup, the timer without click is ignored
+     *
+     * @param urlType The url type of the played entity
+     * @param startupTimer Startup timer
+     */
+    public void record(int urlType, StartupTimer startupTimer) {
+        long clickTime = startupTimer.getTime(StartupTimer.PHASE_CLICK);
+        if (clickTime == 0) {
+            return;
+        }
+        long savedTime = getSavedTime(startupTimer);
+        synchronized (this) {
+            Window[] phaseWindows = windows[indexOf(urlType)];
+            for (int phase = StartupTimer.PHASE_CLICK + 1; phase < StartupTimer.PHASE_COUNT; phase++) {
+                long time = startupTimer.getTime(phase);
+                if (time != 0) {
+                    phaseWindows[phase].add(time - clickTime);
+                }
+            }
+            if (savedTime > 0) {
+                savedWindows[indexOf(urlType)].add(savedTime);
+            }
+        }
+        LogUtil.i(TAG, "startup of url type " + urlType + ": " + startupTimer
+            + (savedTime > 0 ? ", saved " + savedTime + " ms" : ""));
+    }
+
+    /**
+     * Get the statistics of the phase over the recent plays of the url type
+     *
+     * @param urlType Url type, the unknown types are counted as URL
+     * @param phase StartupTimer phase
+     * @return Statistics
+     */
+    public synchronized StartupStats getStats(int urlType, int phase) {
+        return windows[indexOf(urlType)][phase].getStats();
+    }
+
+    /**
+     * Get the statistics of the time saved by the prepared players over the recent plays of the url type,
+     * the plays prepared after the click are not counted
+     *
+     * @param urlType Url type, the unknown types are counted as URL
+     * @return Statistics
+     */
+    public synchronized StartupStats getSavedStats(int urlType) {
+        return savedWindows[indexOf(urlType)].getStats();
+    }
+
+    /**
+     * Get the time to the first progress and the saved time of every url type, for display or logging
+     *
+     * @return Summary text
+     */
+    public synchronized String getSummary() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < URL_TYPES.length; i++) {
+            builder.append(i == 0 ? "" : "\n").append(URL_TYPE_NAMES[i]).append(": ")
+                .append(windows[i][StartupTimer.PHASE_FIRST_PROGRESS].getStats()).append(", saved ")
+                .append(savedWindows[i].getStats());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Drop all the recorded plays
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < URL_TYPES.length; i++) {
+            for (int phase = 0; phase < StartupTimer.PHASE_COUNT; phase++) {
+                windows[i][phase] = new Window(WINDOW_SIZE);
+            }
+            savedWindows[i] = new Window(WINDOW_SIZE);
+        }
+    }
+
+    /**
+     * Get the time the prepared player saved for the play, the preparing done before the click
+     *
+     * @param startupTimer Startup timer with the click marked
+     * @return Saved time, 0 if the player is prepared after the click
+     */
+    private static long getSavedTime(StartupTimer startupTimer) {
+        long clickTime = startupTimer.getTime(StartupTimer.PHASE_CLICK);
+        long setUrlTime = startupTimer.getTime(StartupTimer.PHASE_SET_URL);
+        if (setUrlTime == 0 || setUrlTime >= clickTime) {
+            return 0;
+        }
+        // A player ready before the click saved only its preparing
+        long onReadyTime = startupTimer.getTime(StartupTimer.PHASE_ON_READY);
+        long preparedTime = onReadyTime != 0 && onReadyTime < clickTime ? onReadyTime : clickTime;
+        return preparedTime - setUrlTime;
+    }
+
+    private static int indexOf(int urlType) {
+        for (int i = 0; i < URL_TYPES.length; i++) {
+            if (URL_TYPES[i] == urlType) {
+                return i;
+            }
+        }
+        // Played as a single url
+        return 0;
+    }
+
+    /**
+     * The recent samples in a ring buffer
+     */
+    private static class Window {
+        private final long[] samples;
+
+        private int count = 0;
+
+        private int next = 0;
+
+        Window(int size) {
+            samples = new long[size];
+        }
+
+        void add(long sample) {
+            samples[next] = sample;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        StartupStats getStats() {
+            if (count == 0) {
+                return new StartupStats(0, 0, 0, 0, 0);
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return new StartupStats(count, sorted[0], sorted[(count - 1) / 2], sorted[(count - 1) * 9 / 10],
+                sorted[count - 1]);
+        }
+    }
+}
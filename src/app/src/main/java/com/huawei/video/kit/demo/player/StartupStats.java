@@ -0,0 +1,81 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+/**
+ * Startup phase statistics over the recent plays, the times are from the click to the phase
+ */
+public class StartupStats {
+    // The number of plays in the window
+    private final int count;
+
+    // The shortest time, ms
+    private final long min;
+
+    // The median time, ms
+    private final long p50;
+
+    // The 90th percentile time, ms
+    private final long p90;
+
+    // The longest time, ms
+    private final long max;
+
+    /**
+     * Constructor
+     *
+     * @param count The number of plays in the window
+     * @param min The shortest time
+     * @param p50 The median time
+     * @param p90 The 90th percentile time
+     * @param max The longest time
+     */
+    public StartupStats(int count, long min, long p50, long p90, long max) {
+        this.count = count;
+        this.min = min;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.max = max;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return count == 0 ? "no data"
+            : "count " + count + ", min " + min + ", p50 " + p50 + ", p90 " + p90 + ", max " + max;
+    }
+}
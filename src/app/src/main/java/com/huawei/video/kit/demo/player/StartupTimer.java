@@ -0,0 +1,150 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import android.os.SystemClock;
+
+/**
+ * Monotonic timestamps of the startup phases of one play, from the click to the first progress update.
+ * A phase keeps its first timestamp, the marks may come from the player threads.
+ */
+public class StartupTimer {
+    /**
+     * The item is clicked
+     */
+    public static final int PHASE_CLICK = 0;
+
+    /**
+     * The play page is created
+     */
+    public static final int PHASE_CREATE = 1;
+
+    /**
+     * The url is set to the player
+     */
+    public static final int PHASE_SET_URL = 2;
+
+    /**
+     * The player is asked to prepare
+     */
+    public static final int PHASE_READY = 3;
+
+    /**
+     * The player is ready
+     */
+    public static final int PHASE_ON_READY = 4;
+
+    /**
+     * The player is started
+     */
+    public static final int PHASE_START = 5;
+
+    /**
+     * The first progress update after the start
+     */
+    public static final int PHASE_FIRST_PROGRESS = 6;
+
+    /**
+     * The number of phases
+     */
+    public static final int PHASE_COUNT = 7;
+
+    private static final String[] PHASE_NAMES = {
+        "click", "create", "set url", "ready", "on ready", "start", "first progress"
+    };
+
+    // SystemClock.elapsedRealtime of every phase, 0 if not reached, guarded by this
+    private final long[] times = new long[PHASE_COUNT];
+
+    /**
+     * Get the name of the phase
+     *
+     * @param phase Phase
+     * @return Phase name
+     */
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Mark the phase now
+     *
+     * @param phase Phase
+     */
+    public void mark(int phase) {
+        mark(phase, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Mark the phase at the time, ignored if the phase is already marked
+     *
+     * @param phase Phase
+     * @param time SystemClock.elapsedRealtime
+     */
+    public synchronized void mark(int phase, long time) {
+        if (times[phase] == 0) {
+            times[phase] = time;
+        }
+    }
+
+    /**
+     * Copy the phases marked by the timer of a prepared player, the phases already marked are kept
+     *
+     * @param other The timer of the prepared player
+     */
+    public void merge(StartupTimer other) {
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            long time = other.getTime(phase);
+            if (time != 0) {
+                mark(phase, time);
+            }
+        }
+    }
+
+    /**
+     * Whether the phase is marked
+     *
+     * @param phase Phase
+     * @return Is marked
+     */
+    public boolean isMarked(int phase) {
+        return getTime(phase) != 0;
+    }
+
+    /**
+     * Get the time of the phase
+     *
+     * @param phase Phase
+     * @return SystemClock.elapsedRealtime, 0 if not marked
+     */
+    public synchronized long getTime(int phase) {
+        return times[phase];
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int phase = PHASE_CLICK + 1; phase < PHASE_COUNT; phase++) {
+            if (times[phase] != 0) {
+                builder.append(builder.length() == 0 ? "" : ", ").append(PHASE_NAMES[phase]).append(' ');
+                builder.append(times[PHASE_CLICK] == 0 ? "?" : String.valueOf(times[phase] - times[PHASE_CLICK]));
+            }
+        }
+        return builder.append(" ms after click").toString();
+    }
+}
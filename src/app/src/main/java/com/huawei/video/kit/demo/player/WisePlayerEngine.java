@@ -0,0 +1,367 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.view.SurfaceView;
+import android.view.TextureView;
+
+import com.huawei.hms.videokit.player.InitBitrateParam;
+import com.huawei.hms.videokit.player.StreamInfo;
+import com.huawei.hms.videokit.player.VideoInfo;
+import com.huawei.hms.videokit.player.WisePlayer;
+import com.huawei.hms.videokit.player.common.PlayerConstants.CycleMode;
+import com.huawei.hms.videokit.player.common.PlayerConstants.ScenarioType;
+import com.huawei.video.kit.demo.VideoKitPlayApplication;
+import com.huawei.video.kit.demo.contract.OnPlayerEngineListener;
+import com.huawei.video.kit.demo.contract.OnWisePlayerListener;
+
+/**
+ * Player engine over WisePlayer, the player is taken from and given back to the player pool
+ */
+public class WisePlayerEngine implements PlayerEngine {
+    /**
+     * Create the engine over a player of the pool
+     */
+    public static final PlayerEngineFactory FACTORY = new PlayerEngineFactory() {
+        @Override
+        public PlayerEngine create() {
+            WisePlayer wisePlayer = VideoKitPlayApplication.getWisePlayerPool().acquire();
+            return wisePlayer == null ? null : new WisePlayerEngine(wisePlayer);
+        }
+    };
+
+    private final WisePlayer wisePlayer;
+
+    // Relay the player events to the engine listener
+    private final EventBridge eventBridge = new EventBridge();
+
+    // Engine listener
+    private volatile OnPlayerEngineListener listener;
+
+    /**
+     * Constructor
+     *
+     * @param wisePlayer Player
+     */
+    public WisePlayerEngine(WisePlayer wisePlayer) {
+        this.wisePlayer = wisePlayer;
+    }
+
+    public WisePlayer getWisePlayer() {
+        return wisePlayer;
+    }
+
+    @Override
+    public void setPlayUrl(String[] urls) {
+        wisePlayer.setPlayUrl(urls);
+    }
+
+    @Override
+    public void setPlayUrl(String vodJson, String appId) {
+        wisePlayer.setPlayUrl(vodJson, appId, ScenarioType.ONLINE);
+    }
+
+    @Override
+    public void setBookmark(int bookmark) {
+        wisePlayer.setBookmark(bookmark);
+    }
+
+    @Override
+    public void setPlayMode(int playMode) {
+        wisePlayer.setPlayMode(playMode);
+    }
+
+    @Override
+    public int getPlayMode() {
+        return wisePlayer.getPlayMode();
+    }
+
+    @Override
+    public void setMute(boolean isMute) {
+        wisePlayer.setMute(isMute);
+    }
+
+    @Override
+    public void setVideoType(int videoType) {
+        wisePlayer.setVideoType(videoType);
+    }
+
+    @Override
+    public void setBandwidthSwitchMode(int mode) {
+        wisePlayer.setBandwidthSwitchMode(mode);
+    }
+
+    @Override
+    public void setInitBitrate(int type, int bitrate, int width, int height) {
+        InitBitrateParam initBitrateParam = new InitBitrateParam();
+        initBitrateParam.setBitrate(bitrate);
+        initBitrateParam.setHeight(height);
+        initBitrateParam.setWidth(width);
+        initBitrateParam.setType(type);
+        wisePlayer.setInitBitrate(initBitrateParam);
+    }
+
+    @Override
+    public void setBitrateRange(int minBitrate, int maxBitrate) {
+        wisePlayer.setBitrateRange(minBitrate, maxBitrate);
+    }
+
+    @Override
+    public void closeLogo() {
+        wisePlayer.closeLogo();
+    }
+
+    @Override
+    public void ready() {
+        wisePlayer.ready();
+    }
+
+    @Override
+    public void start() {
+        wisePlayer.start();
+    }
+
+    @Override
+    public void pause() {
+        wisePlayer.pause();
+    }
+
+    @Override
+    public void resume(int play) {
+        wisePlayer.resume(play);
+    }
+
+    @Override
+    public void suspend() {
+        wisePlayer.suspend();
+    }
+
+    @Override
+    public void stop() {
+        wisePlayer.stop();
+    }
+
+    @Override
+    public void reset() {
+        wisePlayer.reset();
+    }
+
+    @Override
+    public void seek(int position) {
+        wisePlayer.seek(position);
+    }
+
+    @Override
+    public int getCurrentTime() {
+        return wisePlayer.getCurrentTime();
+    }
+
+    @Override
+    public int getDuration() {
+        return wisePlayer.getDuration();
+    }
+
+    @Override
+    public int getBufferTime() {
+        return wisePlayer.getBufferTime();
+    }
+
+    @Override
+    public long getBufferingSpeed() {
+        return wisePlayer.getBufferingSpeed();
+    }
+
+    @Override
+    public int getVideoWidth() {
+        return wisePlayer.getVideoWidth();
+    }
+
+    @Override
+    public int getVideoHeight() {
+        return wisePlayer.getVideoHeight();
+    }
+
+    @Override
+    public List<Integer> getStreamBitrates() {
+        List<Integer> bitrates = new ArrayList<>();
+        VideoInfo videoInfo = wisePlayer.getVideoInfo();
+        if (videoInfo != null && videoInfo.getStreamInfos() != null) {
+            for (StreamInfo streamInfo : videoInfo.getStreamInfos()) {
+                if (streamInfo != null) {
+                    bitrates.add(streamInfo.getBitrate());
+                }
+            }
+        }
+        return bitrates;
+    }
+
+    @Override
+    public int getCurrentBitrate() {
+        StreamInfo streamInfo = wisePlayer.getCurrentStreamInfo();
+        return streamInfo == null ? 0 : streamInfo.getBitrate();
+    }
+
+    @Override
+    public void switchBitrateSmooth(int bitrate) {
+        wisePlayer.switchBitrateSmooth(bitrate);
+    }
+
+    @Override
+    public void switchBitrateDesignated(int bitrate) {
+        wisePlayer.switchBitrateDesignated(bitrate);
+    }
+
+    @Override
+    public void setPlaySpeed(float speed) {
+        wisePlayer.setPlaySpeed(speed);
+    }
+
+    @Override
+    public float getPlaySpeed() {
+        return wisePlayer.getPlaySpeed();
+    }
+
+    @Override
+    public void setCycleMode(boolean isCycleMode) {
+        wisePlayer.setCycleMode(isCycleMode ? CycleMode.MODE_CYCLE : CycleMode.MODE_NORMAL);
+    }
+
+    @Override
+    public boolean isCycleMode() {
+        return wisePlayer.getCycleMode() == CycleMode.MODE_CYCLE;
+    }
+
+    @Override
+    public void setVolume(float volume) {
+        wisePlayer.setVolume(volume);
+    }
+
+    @Override
+    public void setBufferingStatus(boolean status) {
+        wisePlayer.setBufferingStatus(status);
+    }
+
+    @Override
+    public void setSurfaceChange() {
+        wisePlayer.setSurfaceChange();
+    }
+
+    @Override
+    public void setView(SurfaceView surfaceView) {
+        wisePlayer.setView(surfaceView);
+    }
+
+    @Override
+    public void setView(TextureView textureView) {
+        wisePlayer.setView(textureView);
+    }
+
+    /**
+     * Set the listener
+     *
+     * @param listener Listener, null to remove
+     */
+    @Override
+    public void setListener(OnPlayerEngineListener listener) {
+        this.listener = listener;
+        wisePlayer.setEventListener(eventBridge);
+        wisePlayer.setResolutionUpdatedListener(eventBridge);
+        wisePlayer.setLoadingListener(eventBridge);
+        wisePlayer.setPlayEndListener(eventBridge);
+        wisePlayer.setSeekEndListener(eventBridge);
+        wisePlayer.setReadyListener(eventBridge);
+        wisePlayer.setErrorListener(eventBridge);
+    }
+
+    /**
+     * Give the player back to the player pool
+     */
+    @Override
+    public void release() {
+        listener = null;
+        VideoKitPlayApplication.getWisePlayerPool().recycle(wisePlayer);
+    }
+
+    /**
+     * Relay the player events with the engine
+     */
+    private class EventBridge implements OnWisePlayerListener {
+        @Override
+        public void onReady(WisePlayer player) {
+            OnPlayerEngineListener target = listener;
+            if (target != null) {
+                target.onReady(WisePlayerEngine.this);
+            }
+        }
+
+        @Override
+        public boolean onError(WisePlayer player, int what, int extra) {
+            OnPlayerEngineListener target = listener;
+            return target != null && target.onError(WisePlayerEngine.this, what, extra);
+        }
+
+        @Override
+        public boolean onEvent(WisePlayer player, int what, int extra, Object o) {
+            OnPlayerEngineListener target = listener;
+            return target != null && target.onEvent(WisePlayerEngine.this, what, extra, o);
+        }
+
+        @Override
+        public void onResolutionUpdated(WisePlayer player, int width, int height) {
+            OnPlayerEngineListener target = listener;
+            if (target != null) {
+                target.onResolutionUpdated(WisePlayerEngine.this, width, height);
+            }
+        }
+
+        @Override
+        public void onLoadingUpdate(WisePlayer player, int percent) {
+            OnPlayerEngineListener target = listener;
+            if (target != null) {
+                target.onLoadingUpdate(WisePlayerEngine.this, percent);
+            }
+        }
+
+        @Override
+        public void onStartPlaying(WisePlayer player) {
+            OnPlayerEngineListener target = listener;
+            if (target != null) {
+                target.onStartPlaying(WisePlayerEngine.this);
+            }
+        }
+
+        @Override
+        public void onPlayEnd(WisePlayer player) {
+            OnPlayerEngineListener target = listener;
+            if (target != null) {
+                target.onPlayEnd(WisePlayerEngine.this);
+            }
+        }
+
+        @Override
+        public void onSeekEnd(WisePlayer player) {
+            OnPlayerEngineListener target = listener;
+            if (target != null) {
+                target.onSeekEnd(WisePlayerEngine.this);
+            }
+        }
+    }
+}
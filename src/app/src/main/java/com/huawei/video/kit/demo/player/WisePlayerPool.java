@@ -0,0 +1,262 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import android.view.SurfaceView;
+
+import com.huawei.hms.videokit.player.WisePlayer;
+import com.huawei.hms.videokit.player.WisePlayerFactory;
+import com.huawei.video.kit.demo.utils.DelayedExecutor;
+import com.huawei.video.kit.demo.utils.DeviceUtil;
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.MainThreadExecutor;
+
+/**
+ * Small pool of idle players, so opening a video does not pay the player construction.
+ * One player is created ahead once the factory is ready, a released player is reset and kept for the next
+ * open, and the idle players are released when the system is short of memory. No player is created ahead
+ * for a while after that, the next opens create their players on demand.
+ * All the methods must be called on the main thread.
+ */
+public class WisePlayerPool {
+    private static final String TAG = "WisePlayerPool";
+
+    /**
+     * The default maximum number of idle players
+     */
+    public static final int DEFAULT_MAX_IDLE_PLAYERS = 1;
+
+    /**
+     * The time no player is created ahead after the memory was short
+     */
+    static final long PREWARM_PAUSE_MS = 60000;
+
+    // The maximum number of idle players
+    private final int maxIdlePlayers;
+
+    // Idle players, the most recently used first
+    private final Deque<WisePlayer> idlePlayers = new ArrayDeque<>();
+
+    // Create the players on the main thread
+    private final DelayedExecutor mainExecutor;
+
+    // Create the idle player ahead
+    private final Runnable prewarmTask = new Runnable() {
+        @Override
+        public void run() {
+            prewarm();
+        }
+    };
+
+    // Create the players, null until the factory is initialized
+    private PlayerCreator playerCreator;
+
+    // No player is created ahead before this time
+    private long prewarmPausedUntil = 0;
+
+    // The number of players from the pool, for the log
+    private int hitCount = 0;
+
+    // The number of players created on demand, for the log
+    private int missCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param maxIdlePlayers The maximum number of idle players
+     */
+    public WisePlayerPool(int maxIdlePlayers) {
+        this(maxIdlePlayers, MainThreadExecutor.getInstance());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxIdlePlayers The maximum number of idle players
+     * @param mainExecutor Run the prewarm on the main thread
+     */
+    WisePlayerPool(int maxIdlePlayers, DelayedExecutor mainExecutor) {
+        this.maxIdlePlayers = maxIdlePlayers;
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Set the initialized factory and create the idle player ahead
+     *
+     * @param wisePlayerFactory Player factory
+     */
+    public void setWisePlayerFactory(final WisePlayerFactory wisePlayerFactory) {
+        setPlayerCreator(new PlayerCreator() {
+            @Override
+            public WisePlayer create() {
+                return wisePlayerFactory.createWisePlayer();
+            }
+        });
+    }
+
+    /**
+     * Set how the players are created and create the idle player ahead
+     *
+     * @param playerCreator Player creator
+     */
+    void setPlayerCreator(PlayerCreator playerCreator) {
+        this.playerCreator = playerCreator;
+        prewarm();
+    }
+
+    /**
+     * Get a player in the initial state, an idle player is used if there is one
+     *
+     * @return Player, null if the factory is not initialized
+     */
+    public WisePlayer acquire() {
+        WisePlayer wisePlayer = idlePlayers.pollFirst();
+        if (wisePlayer != null) {
+            hitCount++;
+        } else if (playerCreator != null) {
+            missCount++;
+            wisePlayer = playerCreator.create();
+        }
+        LogUtil.d(TAG, "acquire player, pooled " + hitCount + ", created " + missCount);
+        // Replace the used idle player while the main thread is free, unless the memory was short lately
+        if (!isPrewarmPaused()) {
+            mainExecutor.cancel(prewarmTask);
+            mainExecutor.execute(prewarmTask);
+        }
+        return wisePlayer;
+    }
+
+    /**
+     * Give back the player, it is reset and kept if the pool is not full, otherwise it is released.
+     * The player must not be used by the caller afterwards.
+     *
+     * @param wisePlayer Player
+     */
+    public void recycle(WisePlayer wisePlayer) {
+        if (wisePlayer == null) {
+            return;
+        }
+        if (idlePlayers.size() >= maxIdlePlayers || !detach(wisePlayer)) {
+            wisePlayer.release();
+            return;
+        }
+        idlePlayers.offerFirst(wisePlayer);
+    }
+
+    /**
+     * Release the idle players according to the memory level
+     *
+     * @param level The level of ComponentCallbacks2.onTrimMemory
+     */
+    public void trim(int level) {
+        if (!DeviceUtil.isMemoryShort(level)) {
+            return;
+        }
+        mainExecutor.cancel(prewarmTask);
+        prewarmPausedUntil = mainExecutor.now() + PREWARM_PAUSE_MS;
+        int count = idlePlayers.size();
+        while (!idlePlayers.isEmpty()) {
+            idlePlayers.pollFirst().release();
+        }
+        LogUtil.i(TAG, "trim memory level " + level + ", release " + count + " idle players");
+    }
+
+    /**
+     * Get the number of idle players
+     *
+     * @return The number of idle players
+     */
+    public int getIdleCount() {
+        return idlePlayers.size();
+    }
+
+    /**
+     * Get the number of players from the pool
+     *
+     * @return The number of players from the pool
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Get the number of players created on demand
+     *
+     * @return The number of players created on demand
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    private boolean isPrewarmPaused() {
+        return mainExecutor.now() < prewarmPausedUntil;
+    }
+
+    /**
+     * Create the idle player if the pool is empty
+     */
+    private void prewarm() {
+        if (playerCreator == null || !idlePlayers.isEmpty() || isPrewarmPaused()) {
+            return;
+        }
+        WisePlayer wisePlayer = playerCreator.create();
+        if (wisePlayer != null) {
+            idlePlayers.offerFirst(wisePlayer);
+            LogUtil.d(TAG, "prewarm player");
+        }
+    }
+
+    /**
+     * Reset the player and drop the references to the old page, so the idle player does not keep it alive
+     *
+     * @param wisePlayer Player
+     * @return Whether the player can be reused
+     */
+    private static boolean detach(WisePlayer wisePlayer) {
+        try {
+            wisePlayer.reset();
+            wisePlayer.setErrorListener(null);
+            wisePlayer.setEventListener(null);
+            wisePlayer.setResolutionUpdatedListener(null);
+            wisePlayer.setReadyListener(null);
+            wisePlayer.setLoadingListener(null);
+            wisePlayer.setPlayEndListener(null);
+            wisePlayer.setSeekEndListener(null);
+            wisePlayer.setView((SurfaceView) null);
+            return true;
+        } catch (RuntimeException e) {
+            LogUtil.w(TAG, "detach player error, release it :" + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Create the players of the pool
+     */
+    interface PlayerCreator {
+        /**
+         * Create a player
+         *
+         * @return Player, null if it cannot be created
+         */
+        WisePlayer create();
+    }
+}
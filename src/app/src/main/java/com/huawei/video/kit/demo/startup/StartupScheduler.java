@@ -0,0 +1,268 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.startup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.SystemClock;
+
+import com.huawei.video.kit.demo.utils.LogUtil;
+import com.huawei.video.kit.demo.utils.MainThreadExecutor;
+
+/**
+ * Run the startup tasks in the order of their dependencies, the independent tasks run in parallel on a small
+ * thread pool and the main thread tasks, which must be short, run on the main thread. A task whose work runs on
+ * its own executor is deferred and ends when the work calls back, no pool thread waits for it. The time of every
+ * task is logged.
+ * The tasks are added and started on the main thread, a scheduler is started once.
+ */
+public class StartupScheduler {
+    private static final String TAG = "StartupScheduler";
+
+    /**
+     * The maximum number of background threads
+     */
+    private static final int MAX_THREADS = 3;
+
+    // The tasks by name in the order they are added
+    private final Map<String, StartupTask> tasks = new LinkedHashMap<>();
+
+    // The number of unfinished dependencies of every task, guarded by this
+    private final Map<String, Integer> pendingCounts = new HashMap<>();
+
+    // The tasks depending on every task
+    private final Map<String, List<StartupTask>> dependents = new HashMap<>();
+
+    // The number of unfinished tasks, guarded by this
+    private int remainingCount;
+
+    // Run the main thread tasks on the main thread
+    private final Executor mainExecutor;
+
+    private ExecutorService executor;
+
+    // The time the scheduler is started
+    private long startTime;
+
+    /**
+     * Constructor, the main thread tasks are posted to the main looper
+     */
+    public StartupScheduler() {
+        this(MainThreadExecutor.getInstance());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param mainExecutor Run the main thread tasks, start must be called on its thread
+     */
+    StartupScheduler(Executor mainExecutor) {
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Add the task
+     *
+     * @param task Startup task
+     * @return Scheduler
+     */
+    public StartupScheduler add(StartupTask task) {
+        if (tasks.containsKey(task.getName())) {
+            throw new IllegalArgumentException("duplicate startup task " + task.getName());
+        }
+        tasks.put(task.getName(), task);
+        return this;
+    }
+
+    /**
+     * Start the tasks without dependencies, the main thread ones run before this returns
+     *
+     * @throws IllegalStateException A dependency is not added or the dependencies have a cycle
+     */
+    public void start() {
+        for (StartupTask task : tasks.values()) {
+            pendingCounts.put(task.getName(), task.getDependencies().size());
+            for (String dependency : task.getDependencies()) {
+                if (!tasks.containsKey(dependency)) {
+                    throw new IllegalStateException(task.getName() + " depends on unknown task " + dependency);
+                }
+                List<StartupTask> list = dependents.get(dependency);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    dependents.put(dependency, list);
+                }
+                list.add(task);
+            }
+        }
+        checkAcyclic();
+        remainingCount = tasks.size();
+        final AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, Math.min(MAX_THREADS, tasks.size()));
+        executor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "StartupScheduler-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        startTime = SystemClock.elapsedRealtime();
+        List<StartupTask> readyTasks = new ArrayList<>();
+        for (StartupTask task : tasks.values()) {
+            if (task.getDependencies().isEmpty()) {
+                readyTasks.add(task);
+            }
+        }
+        dispatch(readyTasks, true);
+    }
+
+    /**
+     * Make sure every task can run, with the same counting as the scheduling
+     */
+    private void checkAcyclic() {
+        Map<String, Integer> counts = new HashMap<>(pendingCounts);
+        List<String> doneNames = new ArrayList<>();
+        for (StartupTask task : tasks.values()) {
+            if (task.getDependencies().isEmpty()) {
+                doneNames.add(task.getName());
+            }
+        }
+        for (int i = 0; i < doneNames.size(); i++) {
+            List<StartupTask> list = dependents.get(doneNames.get(i));
+            if (list == null) {
+                continue;
+            }
+            for (StartupTask dependent : list) {
+                int count = counts.get(dependent.getName()) - 1;
+                counts.put(dependent.getName(), count);
+                if (count == 0) {
+                    doneNames.add(dependent.getName());
+                }
+            }
+        }
+        if (doneNames.size() != tasks.size()) {
+            throw new IllegalStateException("startup tasks have a dependency cycle");
+        }
+    }
+
+    /**
+     * Run the ready tasks. The main thread tasks are short and run first, so the background tasks they unlock
+     * are queued before the other background tasks.
+     *
+     * @param readyTasks The tasks whose dependencies are done
+     * @param isOnMainThread Whether the caller is on the main thread
+     */
+    private void dispatch(List<StartupTask> readyTasks, boolean isOnMainThread) {
+        for (final StartupTask task : readyTasks) {
+            if (!task.isMainThread()) {
+                continue;
+            }
+            if (isOnMainThread) {
+                execute(task);
+            } else {
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        execute(task);
+                    }
+                });
+            }
+        }
+        for (final StartupTask task : readyTasks) {
+            if (!task.isMainThread()) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        execute(task);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Run the task, it ends when run returns or once a deferred task calls done.
+     * A failed task ends right away and does not stop its dependents.
+     *
+     * @param task Startup task
+     */
+    private void execute(final StartupTask task) {
+        final long taskStartTime = SystemClock.elapsedRealtime();
+        final Thread runThread = Thread.currentThread();
+        task.setDoneCallback(new Runnable() {
+            @Override
+            public void run() {
+                finish(task, taskStartTime, task.isMainThread() && Thread.currentThread() == runThread);
+            }
+        });
+        boolean isFailed = false;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            isFailed = true;
+            LogUtil.w(TAG, "startup task " + task.getName() + " failed :" + e.getMessage());
+        }
+        if (isFailed || !task.isDeferred()) {
+            task.done();
+        }
+    }
+
+    /**
+     * Start the dependents of the ended task which are ready
+     *
+     * @param task Startup task
+     * @param taskStartTime The time the task started
+     * @param isOnMainThread Whether the task ends on the main thread
+     */
+    private void finish(StartupTask task, long taskStartTime, boolean isOnMainThread) {
+        long endTime = SystemClock.elapsedRealtime();
+        LogUtil.i(TAG, task.getName() + " done in " + (endTime - taskStartTime) + " ms, started at +"
+            + (taskStartTime - startTime) + " ms, ended on " + Thread.currentThread().getName());
+        List<StartupTask> readyTasks = new ArrayList<>();
+        boolean isAllDone;
+        synchronized (this) {
+            List<StartupTask> list = dependents.get(task.getName());
+            if (list != null) {
+                for (StartupTask dependent : list) {
+                    int count = pendingCounts.get(dependent.getName()) - 1;
+                    pendingCounts.put(dependent.getName(), count);
+                    if (count == 0) {
+                        readyTasks.add(dependent);
+                    }
+                }
+            }
+            remainingCount--;
+            isAllDone = remainingCount == 0;
+        }
+        if (isAllDone) {
+            LogUtil.i(TAG, "startup tasks done in " + (endTime - startTime) + " ms");
+            executor.shutdown();
+            return;
+        }
+        dispatch(readyTasks, isOnMainThread);
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.startup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A named step of the app startup, run by StartupScheduler once all its dependencies are done
+ */
+public abstract class StartupTask {
+    // Task name, unique in the scheduler
+    private final String name;
+
+    // Whether the task must run on the main thread
+    private final boolean isMainThread;
+
+    // The names of the tasks which must be done first
+    private final List<String> dependencies;
+
+    // Whether the task ends when done is called instead of when run returns
+    private volatile boolean isDeferred = false;
+
+    // Whether the task has ended
+    private final AtomicBoolean isDone = new AtomicBoolean();
+
+    // End the task in the scheduler, set before run
+    private volatile Runnable doneCallback;
+
+    /**
+     * Constructor
+     *
+     * @param name Task name, unique in the scheduler
+     * @param isMainThread Whether the task must run on the main thread
+     * @param dependencies The names of the tasks which must be done first
+     */
+    public StartupTask(String name, boolean isMainThread, String... dependencies) {
+        this.name = name;
+        this.isMainThread = isMainThread;
+        this.dependencies = Collections.unmodifiableList(Arrays.asList(dependencies));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isMainThread() {
+        return isMainThread;
+    }
+
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Do the work of the task, the dependents start when it returns unless the task is deferred
+     */
+    public abstract void run();
+
+    /**
+     * Keep the task running after run returns, for the work the task starts on another executor.
+     * Called in run, the task ends once done is called, so no scheduler thread waits for the work.
+     *
+     * @return Calls done, for the work that takes a completion callback
+     */
+    protected Runnable defer() {
+        isDeferred = true;
+        return new Runnable() {
+            @Override
+            public void run() {
+                done();
+            }
+        };
+    }
+
+    /**
+     * End the deferred task, from any thread, once the work is done
+     */
+    protected void done() {
+        Runnable callback = doneCallback;
+        if (callback != null && isDone.compareAndSet(false, true)) {
+            callback.run();
+        }
+    }
+
+    boolean isDeferred() {
+        return isDeferred;
+    }
+
+    /**
+     * Set how the task is ended, called by the scheduler before run
+     *
+     * @param doneCallback End the task in the scheduler
+     */
+    void setDoneCallback(Runnable doneCallback) {
+        this.doneCallback = doneCallback;
+    }
+}
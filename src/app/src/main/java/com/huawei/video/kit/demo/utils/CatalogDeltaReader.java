@@ -0,0 +1,158 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.huawei.video.kit.demo.catalog.CatalogDelta;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Parser for the catalog delta json:
+ * {"version": 3, "baseVersion": 2, "operations": [
+ * {"op": "add", "after": 12, "entry": {"id": 50, ...}},
+ * {"op": "remove", "id": 5},
+ * {"op": "modify", "entry": {"id": 7, ...}}]}
+ * An add without "after" appends the entry, "after": 0 inserts it at the front.
+ * The catalog ids must be positive, an operation with a negative id is skipped.
+ */
+public class CatalogDeltaReader implements Closeable {
+    private static final String OP_ADD = "add";
+
+    private static final String OP_REMOVE = "remove";
+
+    private static final String OP_MODIFY = "modify";
+
+    // Json stream reader
+    private JsonReader jsonReader;
+
+    // Reads the entries of the operations
+    private PlayListReader playListReader;
+
+    /**
+     * Constructor
+     *
+     * @param reader The delta json reader
+     */
+    public CatalogDeltaReader(Reader reader) {
+        jsonReader = new JsonReader(reader);
+        playListReader = new PlayListReader(jsonReader);
+    }
+
+    /**
+     * Read the delta
+     *
+     * @return Catalog delta
+     * @throws IOException The json stream is broken or the delta has no version
+     */
+    public CatalogDelta read() throws IOException {
+        int version = -1;
+        int baseVersion = -1;
+        List<CatalogDelta.Operation> operations = new ArrayList<>();
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String key = jsonReader.nextName();
+            if ("version".equals(key)) {
+                version = jsonReader.nextInt();
+            } else if ("baseVersion".equals(key)) {
+                baseVersion = jsonReader.nextInt();
+            } else if ("operations".equals(key)) {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    CatalogDelta.Operation operation = readOperation();
+                    if (operation != null) {
+                        operations.add(operation);
+                    }
+                }
+                jsonReader.endArray();
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        if (version < 0 || baseVersion < 0) {
+            throw new IOException("delta version is missing");
+        }
+        return new CatalogDelta(version, baseVersion, operations);
+    }
+
+    /**
+     * Read the current json object as operation
+     *
+     * @return Operation, null if the operation is unknown
+     * @throws IOException The json stream is broken
+     */
+    private CatalogDelta.Operation readOperation() throws IOException {
+        String op = null;
+        long id = 0;
+        long afterId = CatalogDelta.INSERT_LAST;
+        PlayEntity playEntity = null;
+        boolean isValid = true;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String key = jsonReader.nextName();
+            if ("op".equals(key)) {
+                op = jsonReader.nextString();
+            } else if ("id".equals(key)) {
+                id = jsonReader.nextLong();
+                if (id < 0) {
+                    LogUtil.i("skip the delta operation of the negative id :" + id);
+                    isValid = false;
+                }
+            } else if ("after".equals(key)) {
+                afterId = jsonReader.nextLong();
+            } else if ("entry".equals(key) && jsonReader.peek() == JsonToken.BEGIN_OBJECT) {
+                playEntity = playListReader.readPlayEntity();
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        if (!isValid) {
+            return null;
+        }
+        if (OP_REMOVE.equals(op)) {
+            return CatalogDelta.Operation.remove(id);
+        }
+        if (playEntity == null) {
+            LogUtil.i("skip the delta operation without entry :" + op);
+            return null;
+        }
+        if (playEntity.getId() == 0) {
+            playEntity.setId(id != 0 ? id : StringUtil.getStableId(playEntity.getUrl()));
+        }
+        if (OP_ADD.equals(op)) {
+            return CatalogDelta.Operation.add(afterId, playEntity);
+        } else if (OP_MODIFY.equals(op)) {
+            return CatalogDelta.Operation.modify(playEntity);
+        }
+        LogUtil.i("skip the unknown delta operation :" + op);
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        jsonReader.close();
+    }
+}
@@ -21,9 +21,27 @@ package com.huawei.video.kit.demo.utils;
  */
 public class Constants {
     /**
-     * The current data
+     * The token of the play session opened by the caller
      */
-    public static final String VIDEO_PLAY_DATA = "video_play_data";
+    public static final String PLAY_SESSION_TOKEN = "play_session_token";
+
+    /**
+     * The current data, used if the play session is gone, for example the activity is recreated
+     */
+    public static final String VIDEO_PLAY_ID = "video_play_id";
+
+    public static final String VIDEO_PLAY_NAME = "video_play_name";
+
+    public static final String VIDEO_PLAY_URL = "video_play_url";
+
+    public static final String VIDEO_PLAY_URL_TYPE = "video_play_url_type";
+
+    public static final String VIDEO_PLAY_APP_ID = "video_play_app_id";
+
+    /**
+     * The time the play is requested, SystemClock.elapsedRealtime
+     */
+    public static final String PLAY_REQUEST_TIME = "play_request_time";
 
     /**
      * The delay time
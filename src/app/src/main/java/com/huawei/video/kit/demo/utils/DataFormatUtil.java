@@ -16,16 +16,23 @@
 
 package com.huawei.video.kit.demo.utils;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
 import android.content.Context;
-import android.text.TextUtils;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
+import com.huawei.video.kit.demo.catalog.CatalogDelta;
+import com.huawei.video.kit.demo.catalog.CatalogSource;
+import com.huawei.video.kit.demo.catalog.ColumnarCatalog;
+import com.huawei.video.kit.demo.catalog.ListPlayCatalog;
+import com.huawei.video.kit.demo.catalog.PagedCatalog;
+import com.huawei.video.kit.demo.catalog.PlayCatalog;
+import com.huawei.video.kit.demo.catalog.PlayCatalogFile;
+import com.huawei.video.kit.demo.contract.OnPlayEntityParsedListener;
 import com.huawei.video.kit.demo.entity.PlayEntity;
 
 /**
@@ -39,45 +46,169 @@ public class DataFormatUtil {
      * @return Video list entity
      */
     public static List<PlayEntity> getPlayList(String value) {
-        List<PlayEntity> list = new ArrayList<>();
+        return getPlayList(new StringReader(StringUtil.getNotEmptyString(value)));
+    }
+
+    /**
+     * Parse json data from the stream, the entities are read one by one
+     *
+     * @param reader Video json reader
+     * @return Video list entity, empty if the json is broken
+     */
+    public static List<PlayEntity> getPlayList(Reader reader) {
         try {
-            JSONArray array = new JSONArray(value);
-            for (int i = 0; i < array.length(); i++) {
-                JSONObject jsonObject = array.optJSONObject(i);
-                if (jsonObject != null) {
-                    PlayEntity playEntity = new PlayEntity();
-                    if (TextUtils.isEmpty(jsonObject.optString("appId"))) {
-                        playEntity.setAppId("104");
-                    } else {
-                        playEntity.setAppId(jsonObject.optString("appId"));
-                    }
-                    playEntity.setUrl(jsonObject.optString("url"));
-                    playEntity.setUrlType(jsonObject.optInt("urlType"));
-                    playEntity.setName(jsonObject.optString("name"));
-                    list.add(playEntity);
+            List<PlayEntity> list = getPlayList(reader, null);
+            return list == null ? new ArrayList<PlayEntity>() : list;
+        } catch (IOException e) {
+            LogUtil.i("parse local data error:" + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Parse json data from the stream, the listener is notified for every entity
+     *
+     * @param reader Video json reader
+     * @param listener Parse listener, can be null
+     * @return Video list entity, null if the listener stops parsing
+     * @throws IOException The json is broken or truncated
+     */
+    public static List<PlayEntity> getPlayList(Reader reader, final OnPlayEntityParsedListener listener)
+        throws IOException {
+        final List<PlayEntity> list = new ArrayList<>();
+        boolean isCompleted = parsePlayList(reader, new OnPlayEntityParsedListener() {
+            @Override
+            public boolean onPlayEntityParsed(int position, PlayEntity playEntity) {
+                list.add(playEntity);
+                return listener == null || listener.onPlayEntityParsed(position, playEntity);
+            }
+        });
+        return isCompleted ? list : null;
+    }
+
+    /**
+     * Parse json data from the stream into a columnar catalog, the listener is notified for every entity
+     *
+     * @param reader Video json reader
+     * @param listener Parse listener, can be null
+     * @return Play catalog, null if the listener stops parsing
+     * @throws IOException The json is broken or truncated
+     */
+    public static PlayCatalog getPlayCatalog(Reader reader, final OnPlayEntityParsedListener listener)
+        throws IOException {
+        final ColumnarCatalog.Builder builder = new ColumnarCatalog.Builder();
+        boolean isCompleted = parsePlayList(reader, new OnPlayEntityParsedListener() {
+            @Override
+            public boolean onPlayEntityParsed(int position, PlayEntity playEntity) {
+                builder.add(playEntity);
+                return listener == null || listener.onPlayEntityParsed(position, playEntity);
+            }
+        });
+        return isCompleted ? builder.build() : null;
+    }
+
+    /**
+     * Parse json data from the stream, the entities are read one by one and passed to the listener.
+     * A broken or truncated json fails instead of ending the list early, so it is never taken as a whole catalog.
+     *
+     * @param reader Video json reader
+     * @param listener Parse listener
+     * @return Whether the stream is parsed to the end, false if the listener stops parsing
+     * @throws IOException The json is broken or truncated
+     */
+    private static boolean parsePlayList(Reader reader, OnPlayEntityParsedListener listener) throws IOException {
+        PlayListReader playListReader = new PlayListReader(reader);
+        int position = 0;
+        try {
+            PlayEntity playEntity;
+            while ((playEntity = playListReader.next()) != null) {
+                if (!listener.onPlayEntityParsed(position++, playEntity)) {
+                    return false;
                 }
             }
-        } catch (JSONException e) {
-            LogUtil.i("parse local data error:" + e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new IOException("malformed play list at entity " + position + ": " + e.getMessage(), e);
+        } finally {
+            try {
+                playListReader.close();
+            } catch (IOException e) {
+                LogUtil.i("close PlayListReader error :" + e.getMessage());
+            }
         }
-        return list;
+        return true;
     }
 
     /**
-     * Access to assets in the XML data
+     * Access to assets in the XML data, the binary catalog is preferred and the json file is the fallback
      *
      * @param context Context
      * @return Video list entity
      */
     public static List<PlayEntity> getPlayList(Context context) {
+        return getPlayCatalog(context, null).asList();
+    }
+
+    /**
+     * Access to the catalog in the assets. The binary catalog is paged and decoded on demand,
+     * the json file is the fallback and is parsed into a columnar catalog, the listener is notified
+     * for every parsed entity.
+     *
+     * @param context Context
+     * @param listener Parse listener of the json file, can be null
+     * @return Play catalog, null if the listener stops parsing
+     */
+    public static PlayCatalog getPlayCatalog(Context context, OnPlayEntityParsedListener listener) {
         try {
-            List<PlayEntity> playList =
-                DataFormatUtil.getPlayList(FileUtil.parseAssetsFile(context, FileUtil.ENCODE_UTF_8));
-            return playList;
+            return new PagedCatalog(PlayCatalogFile.open(context));
+        } catch (IOException e) {
+            LogUtil.i("open play catalog error, parse the json play list : " + e.getMessage());
+        }
+        try {
+            PlayCatalog playCatalog = DataFormatUtil.getPlayCatalog(
+                new InputStreamReader(FileUtil.openAssetsFile(context), FileUtil.ENCODE_UTF_8), listener);
+            return playCatalog == null ? null : new PagedCatalog(playCatalog);
         } catch (Exception e) {
             LogUtil.i("get play list error : " + e.getMessage());
         }
-        return new ArrayList<>();
+        return new ListPlayCatalog(new ArrayList<PlayEntity>());
+    }
+
+    /**
+     * Parse the play list json of the source into a columnar catalog, the listener is notified
+     * for every parsed entity
+     *
+     * @param catalogSource Catalog source
+     * @param listener Parse listener, can be null
+     * @return Play catalog, null if the listener stops parsing
+     * @throws IOException The source can not be opened
+     */
+    public static PlayCatalog getPlayCatalog(CatalogSource catalogSource, OnPlayEntityParsedListener listener)
+        throws IOException {
+        PlayCatalog playCatalog =
+            getPlayCatalog(new InputStreamReader(catalogSource.open(), FileUtil.ENCODE_UTF_8), listener);
+        return playCatalog == null ? null : new PagedCatalog(playCatalog);
+    }
+
+    /**
+     * Parse the catalog delta json
+     *
+     * @param reader Delta json reader
+     * @return Catalog delta, null if the json is invalid
+     */
+    public static CatalogDelta getCatalogDelta(Reader reader) {
+        CatalogDeltaReader catalogDeltaReader = new CatalogDeltaReader(reader);
+        try {
+            return catalogDeltaReader.read();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            LogUtil.i("parse catalog delta error:" + e.getMessage());
+        } finally {
+            try {
+                catalogDeltaReader.close();
+            } catch (IOException e) {
+                LogUtil.i("close CatalogDeltaReader error :" + e.getMessage());
+            }
+        }
+        return null;
     }
 
     /**
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.utils;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor of the tasks which may run later, with the clock they are scheduled by
+ */
+public interface DelayedExecutor extends Executor {
+    /**
+     * Run the task after the delay
+     *
+     * @param task Task
+     * @param delayMs Delay, ms
+     */
+    void executeDelayed(Runnable task, long delayMs);
+
+    /**
+     * Remove the task which has not run yet
+     *
+     * @param task Task
+     */
+    void cancel(Runnable task);
+
+    /**
+     * Get the time of the clock the tasks are scheduled by
+     *
+     * @return Time, ms
+     */
+    long now();
+}
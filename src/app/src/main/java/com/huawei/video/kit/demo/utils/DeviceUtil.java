@@ -16,6 +16,7 @@
 
 package com.huawei.video.kit.demo.utils;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.Configuration;
 
@@ -47,4 +48,24 @@ public class DeviceUtil {
         int orientation = context.getResources().getConfiguration().orientation;
         return orientation == Configuration.ORIENTATION_PORTRAIT;
     }
+
+    /**
+     * Whether the trim memory level asks to release the caches. TRIM_MEMORY_UI_HIDDEN only means the ui
+     * is hidden, it is not counted.
+     *
+     * @param level The level of ComponentCallbacks2.onTrimMemory
+     * @return Whether memory is short
+     */
+    public static boolean isMemoryShort(int level) {
+        switch (level) {
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW:
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL:
+            case ComponentCallbacks2.TRIM_MEMORY_BACKGROUND:
+            case ComponentCallbacks2.TRIM_MEMORY_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_COMPLETE:
+                return true;
+            default:
+                return false;
+        }
+    }
 }
@@ -17,6 +17,7 @@
 package com.huawei.video.kit.demo.utils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 
 import android.content.Context;
@@ -61,4 +62,15 @@ public class FileUtil {
         return StringUtil.emptyStringValue();
     }
 
+    /**
+     * Open the play list file in the assets directory as stream
+     *
+     * @param context Context
+     * @return The file stream, the caller is responsible for closing it
+     * @throws IOException The file can not be opened
+     */
+    public static InputStream openAssetsFile(Context context) throws IOException {
+        return context.getAssets().open(PLAY_FILE_NAME);
+    }
+
 }
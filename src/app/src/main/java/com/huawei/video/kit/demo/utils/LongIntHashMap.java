@@ -0,0 +1,238 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.utils;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive long keys to primitive int values, no key or value is boxed.
+ * Open addressing with linear probing, the removal shifts the following entries back so no tombstone is left.
+ * Not thread safe.
+ */
+public class LongIntHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // Marks the free slot, the entry of this key is kept outside the table
+    private static final long FREE_KEY = 0L;
+
+    // Keys of the slots
+    private long[] keys;
+
+    // Values of the slots
+    private int[] values;
+
+    // The number of entries in the table
+    private int size;
+
+    // Resize the table above this number of entries
+    private int threshold;
+
+    // Whether the free key is in the map
+    private boolean hasFreeKey;
+
+    // The value of the free key
+    private int freeKeyValue;
+
+    /**
+     * Constructor
+     */
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param expectedSize The expected number of entries
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR) + 1, 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Get the value of the key
+     *
+     * @param key Key
+     * @param defaultValue Returned if the key is not in the map
+     * @return Value
+     */
+    public int get(long key, int defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != FREE_KEY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Whether the key is in the map
+     *
+     * @param key Key
+     * @return Contains the key
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != FREE_KEY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Put the value of the key
+     *
+     * @param key Key
+     * @param value Value
+     */
+    public void put(long key, int value) {
+        if (key == FREE_KEY) {
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Remove the key
+     *
+     * @param key Key
+     * @return Whether the key was in the map
+     */
+    public boolean remove(long key) {
+        if (key == FREE_KEY) {
+            boolean hadFreeKey = hasFreeKey;
+            hasFreeKey = false;
+            return hadFreeKey;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE_KEY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Shift the following entries of the probe chain back into the hole
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE_KEY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Get the number of entries
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return hasFreeKey ? size + 1 : size;
+    }
+
+    /**
+     * Get the keys, the order is undefined
+     *
+     * @return The keys
+     */
+    public long[] keys() {
+        long[] result = new long[size()];
+        int count = 0;
+        if (hasFreeKey) {
+            result[count++] = FREE_KEY;
+        }
+        for (long key : keys) {
+            if (key != FREE_KEY) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove all the entries
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spread the key bits, the ids are often sequential
+     */
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
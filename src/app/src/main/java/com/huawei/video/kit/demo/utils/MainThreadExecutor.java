@@ -0,0 +1,67 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Run the tasks on the main thread, the tests pass their own executor instead
+ */
+public class MainThreadExecutor implements DelayedExecutor {
+    private static final MainThreadExecutor INSTANCE = new MainThreadExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private MainThreadExecutor() {
+    }
+
+    /**
+     * Get the executor
+     *
+     * @return Main thread executor
+     */
+    public static MainThreadExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        mainHandler.post(runnable);
+    }
+
+    @Override
+    public void executeDelayed(Runnable task, long delayMs) {
+        mainHandler.postDelayed(task, delayMs);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        mainHandler.removeCallbacks(task);
+    }
+
+    /**
+     * Get the uptime, the clock the handler runs the delayed tasks by
+     *
+     * @return Time, ms
+     */
+    @Override
+    public long now() {
+        return SystemClock.uptimeMillis();
+    }
+}
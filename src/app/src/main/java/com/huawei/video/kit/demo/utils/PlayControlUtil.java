@@ -16,251 +16,264 @@
 
 package com.huawei.video.kit.demo.utils;
 
-import com.huawei.hms.videokit.player.common.PlayerConstants.PlayMode;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.huawei.video.kit.demo.bookmark.BookmarkCheckpointer;
+import com.huawei.video.kit.demo.contract.OnPlaybackConfigChangedListener;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
 
 /**
  * Play control tools
+ * <p>
+ * The player settings are kept in one immutable config. The readers never lock and get a consistent config
+ * with getPlaybackConfig, the setters are serialized and publish a modified copy.
  */
 public class PlayControlUtil {
     /**
-     * Local loads of players if the View is SurfaceView
-     */
-    private static boolean isSurfaceView = true;
-
-    /**
-     * Set play type 0: on demand (the default) 1: live
-     */
-    private static int videoType = 0;
-
-    /**
-     * Set the mute
-     * Default is mute
-     */
-    private static boolean isMute = false;
-
-    /**
-     * Set the play mode
-     * Default is video play
-     */
-    private static int playMode = PlayMode.PLAY_MODE_NORMAL;
-
-    /**
-     * Set the bandwidth switching mode
-     * The default is adaptive
-     */
-    private static int bandwidthSwitchMode = 0;
-
-    /**
-     * Whether to set up the bitrate
-     */
-    private static boolean initBitrateEnable = false;
-
-    /**
-     * The Bitrate type
-     * 0：The default priority search upwards
-     * 1：The priority search down
-     */
-    private static int initType = 0;
-
-    /**
-     * Bitrate (if set up by resolution rate setting is effective)
-     */
-    private static int initBitrate = 0;
-
-    /**
-     * Resolution width (width height must be set up in pairs)
+     * The current player settings, replaced as a whole on every change
      */
-    private static int initWidth = 0;
+    private static volatile PlaybackConfig playbackConfig = PlaybackConfig.DEFAULT;
 
     /**
-     * Resolution height (width height must be set up in pairs)
+     * Settings change listener, guarded by the class lock
      */
-    private static int initHeight = 0;
+    private static OnPlaybackConfigChangedListener onPlaybackConfigChangedListener;
 
     /**
-     * Whether close the logo
+     * Get the current player settings, the config does not change while it is used
+     *
+     * @return Playback config
      */
-    private static boolean closeLogo = false;
+    public static PlaybackConfig getPlaybackConfig() {
+        return playbackConfig;
+    }
 
     /**
-     * Close the logo, whether to affect all sources
-     * True: affects the whole play false: only under the influence of the sources of logo
+     * Replace all the player settings
+     *
+     * @param playbackConfig Playback config
      */
-    private static boolean takeEffectOfAll = false;
+    public static synchronized void setPlaybackConfig(PlaybackConfig playbackConfig) {
+        publish(playbackConfig);
+    }
 
     /**
-     * Save the data
+     * Replace all the player settings if they are not changed since the expected config was read
+     *
+     * @param expectedConfig The config read before
+     * @param playbackConfig The new config
+     * @return Whether the settings are replaced
      */
-    private static Map<String, Integer> savePlayDataMap = new HashMap<>();
+    public static synchronized boolean compareAndSetPlaybackConfig(PlaybackConfig expectedConfig,
+        PlaybackConfig playbackConfig) {
+        if (PlayControlUtil.playbackConfig != expectedConfig) {
+            return false;
+        }
+        publish(playbackConfig);
+        return true;
+    }
 
     /**
-     * The minimum bitrate
+     * Set the settings change listener
+     *
+     * @param listener Change listener, null to remove
      */
-    private static int minBitrate;
+    public static synchronized void setOnPlaybackConfigChangedListener(OnPlaybackConfigChangedListener listener) {
+        onPlaybackConfigChangedListener = listener;
+    }
 
     /**
-     * The maximum rate
+     * Publish the new settings and notify the listener, must hold the class lock
+     *
+     * @param newConfig The new config
      */
-    private static int maxBitrate;
-
-    private static boolean isLoadBuff = true;
+    private static void publish(PlaybackConfig newConfig) {
+        playbackConfig = newConfig;
+        if (onPlaybackConfigChangedListener != null) {
+            onPlaybackConfigChangedListener.onPlaybackConfigChanged(newConfig);
+        }
+    }
 
     public static boolean isSurfaceView() {
-        return isSurfaceView;
+        return playbackConfig.isSurfaceView();
     }
 
-    public static void setIsSurfaceView(boolean isSurfaceView) {
-        PlayControlUtil.isSurfaceView = isSurfaceView;
+    public static synchronized void setIsSurfaceView(boolean isSurfaceView) {
+        publish(playbackConfig.buildUpon().setIsSurfaceView(isSurfaceView).build());
     }
 
     public static int getVideoType() {
-        return videoType;
+        return playbackConfig.getVideoType();
     }
 
-    public static void setVideoType(int videoType) {
-        PlayControlUtil.videoType = videoType;
+    public static synchronized void setVideoType(int videoType) {
+        publish(playbackConfig.buildUpon().setVideoType(videoType).build());
     }
 
     public static boolean isMute() {
-        return isMute;
+        return playbackConfig.isMute();
     }
 
-    public static void setIsMute(boolean isMute) {
-        PlayControlUtil.isMute = isMute;
+    public static synchronized void setIsMute(boolean isMute) {
+        publish(playbackConfig.buildUpon().setIsMute(isMute).build());
     }
 
     public static int getPlayMode() {
-        return playMode;
+        return playbackConfig.getPlayMode();
     }
 
-    public static void setPlayMode(int playMode) {
-        PlayControlUtil.playMode = playMode;
+    public static synchronized void setPlayMode(int playMode) {
+        publish(playbackConfig.buildUpon().setPlayMode(playMode).build());
     }
 
     public static int getBandwidthSwitchMode() {
-        return bandwidthSwitchMode;
+        return playbackConfig.getBandwidthSwitchMode();
     }
 
-    public static void setBandwidthSwitchMode(int bandwidthSwitchMode) {
-        PlayControlUtil.bandwidthSwitchMode = bandwidthSwitchMode;
+    public static synchronized void setBandwidthSwitchMode(int bandwidthSwitchMode) {
+        publish(playbackConfig.buildUpon().setBandwidthSwitchMode(bandwidthSwitchMode).build());
     }
 
     public static boolean isInitBitrateEnable() {
-        return initBitrateEnable;
+        return playbackConfig.isInitBitrateEnable();
     }
 
-    public static void setInitBitrateEnable(boolean initBitrateEnable) {
-        PlayControlUtil.initBitrateEnable = initBitrateEnable;
+    public static synchronized void setInitBitrateEnable(boolean initBitrateEnable) {
+        publish(playbackConfig.buildUpon().setInitBitrateEnable(initBitrateEnable).build());
     }
 
     public static int getInitType() {
-        return initType;
+        return playbackConfig.getInitType();
     }
 
-    public static void setInitType(int initType) {
-        PlayControlUtil.initType = initType;
+    public static synchronized void setInitType(int initType) {
+        publish(playbackConfig.buildUpon().setInitType(initType).build());
     }
 
     public static int getInitBitrate() {
-        return initBitrate;
+        return playbackConfig.getInitBitrate();
     }
 
-    public static void setInitBitrate(int initBitrate) {
-        PlayControlUtil.initBitrate = initBitrate;
+    public static synchronized void setInitBitrate(int initBitrate) {
+        publish(playbackConfig.buildUpon().setInitBitrate(initBitrate).build());
     }
 
     public static int getInitWidth() {
-        return initWidth;
+        return playbackConfig.getInitWidth();
     }
 
-    public static void setInitWidth(int initWidth) {
-        PlayControlUtil.initWidth = initWidth;
+    public static synchronized void setInitWidth(int initWidth) {
+        publish(playbackConfig.buildUpon().setInitWidth(initWidth).build());
     }
 
     public static int getInitHeight() {
-        return initHeight;
+        return playbackConfig.getInitHeight();
     }
 
-    public static void setInitHeight(int initHeight) {
-        PlayControlUtil.initHeight = initHeight;
+    public static synchronized void setInitHeight(int initHeight) {
+        publish(playbackConfig.buildUpon().setInitHeight(initHeight).build());
     }
 
     public static boolean isTakeEffectOfAll() {
-        return takeEffectOfAll;
+        return playbackConfig.isTakeEffectOfAll();
     }
 
-    public static void setTakeEffectOfAll(boolean takeEffectOfAll) {
-        PlayControlUtil.takeEffectOfAll = takeEffectOfAll;
+    public static synchronized void setTakeEffectOfAll(boolean takeEffectOfAll) {
+        publish(playbackConfig.buildUpon().setTakeEffectOfAll(takeEffectOfAll).build());
     }
 
-    public static void savePlayData(String url, int progress) {
-        if (!StringUtil.isEmpty(url)) {
-            LogUtil.d("current play url :" + url + ", and current progress is " + progress);
-            savePlayDataMap.put(url, progress);
-        }
+    public static void savePlayData(long id, int progress, int duration) {
+        LogUtil.d("current play id :" + id + ", and current progress is " + progress + "/" + duration);
+        BookmarkCheckpointer.getInstance().save(id, progress, duration);
     }
 
-    public static int getPlayData(String url) {
-        if (savePlayDataMap.get(url) == null) {
-            return 0;
-        }
-        return savePlayDataMap.get(url);
+    /**
+     * Record the play progress for the next checkpoint, no storage is accessed
+     *
+     * @param id Entity id
+     * @param progress Position
+     * @param duration Duration of the title, 0 if unknown
+     */
+    public static void checkpointPlayData(long id, int progress, int duration) {
+        BookmarkCheckpointer.getInstance().onProgress(id, progress, duration);
     }
 
-    public static void clearPlayData(String url) {
-        if (StringUtil.isEmpty(url)) {
-            LogUtil.d("clear play url :" + url);
-            savePlayDataMap.remove(url);
-        }
+    public static int getPlayData(long id) {
+        return BookmarkCheckpointer.getInstance().get(id);
+    }
+
+    public static void clearPlayData(long id) {
+        LogUtil.d("clear play id :" + id);
+        BookmarkCheckpointer.getInstance().remove(id);
     }
 
     public static boolean isCloseLogo() {
-        return closeLogo;
+        return playbackConfig.isCloseLogo();
     }
 
-    public static void setCloseLogo(boolean closeLogo) {
-        PlayControlUtil.closeLogo = closeLogo;
+    public static synchronized void setCloseLogo(boolean closeLogo) {
+        publish(playbackConfig.buildUpon().setCloseLogo(closeLogo).build());
     }
 
     public static int getMinBitrate() {
-        return minBitrate;
+        return playbackConfig.getMinBitrate();
     }
 
-    public static void setMinBitrate(int minBitrate) {
-        PlayControlUtil.minBitrate = minBitrate;
+    public static synchronized void setMinBitrate(int minBitrate) {
+        publish(playbackConfig.buildUpon().setMinBitrate(minBitrate).build());
     }
 
     public static int getMaxBitrate() {
-        return maxBitrate;
+        return playbackConfig.getMaxBitrate();
     }
 
-    public static void setMaxBitrate(int maxBitrate) {
-        PlayControlUtil.maxBitrate = maxBitrate;
+    public static synchronized void setMaxBitrate(int maxBitrate) {
+        publish(playbackConfig.buildUpon().setMaxBitrate(maxBitrate).build());
     }
 
     /**
      * Whether need to modify the code bitrate range
      */
     public static boolean isSetBitrateRangeEnable() {
-        return maxBitrate != 0 || minBitrate != 0;
+        return playbackConfig.isSetBitrateRangeEnable();
     }
 
     /**
      * Remove bitrate range data
      */
-    public static void clearBitrateRange() {
-        maxBitrate = 0;
-        minBitrate = 0;
+    public static synchronized void clearBitrateRange() {
+        publish(playbackConfig.buildUpon().setMinBitrate(0).setMaxBitrate(0).build());
+    }
+
+    /**
+     * Drop the one time settings once they are applied to a player: the bitrate range, and the closed logo
+     * if it is not for all sources. A setting changed after the config was read is kept for the next player.
+     *
+     * @param appliedConfig The config applied to the player
+     */
+    public static synchronized void onPlaybackConfigApplied(PlaybackConfig appliedConfig) {
+        boolean isBitrateRangeDropped = appliedConfig.isSetBitrateRangeEnable()
+            && playbackConfig.getMinBitrate() == appliedConfig.getMinBitrate()
+            && playbackConfig.getMaxBitrate() == appliedConfig.getMaxBitrate();
+        boolean isCloseLogoDropped = appliedConfig.isCloseLogo() && !appliedConfig.isTakeEffectOfAll()
+            && playbackConfig.isCloseLogo() && !playbackConfig.isTakeEffectOfAll();
+        // Nothing to drop, the listener is not notified
+        if (!isBitrateRangeDropped && !isCloseLogoDropped) {
+            return;
+        }
+        PlaybackConfig.Builder builder = playbackConfig.buildUpon();
+        if (isBitrateRangeDropped) {
+            builder.setMinBitrate(0).setMaxBitrate(0);
+        }
+        if (isCloseLogoDropped) {
+            builder.setCloseLogo(false);
+        }
+        publish(builder.build());
     }
 
     public static boolean isLoadBuff() {
-        return isLoadBuff;
+        return playbackConfig.isLoadBuff();
     }
 
-    public static void setLoadBuff(boolean isLoadBuff) {
-        PlayControlUtil.isLoadBuff = isLoadBuff;
+    public static synchronized void setLoadBuff(boolean isLoadBuff) {
+        publish(playbackConfig.buildUpon().setLoadBuff(isLoadBuff).build());
     }
 }
@@ -0,0 +1,217 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Pull parser for the play list json, the entities are read one by one from the stream
+ * instead of building the whole json array in memory
+ */
+public class PlayListReader implements Closeable {
+    /**
+     * The default Huawei video ID
+     */
+    public static final String DEFAULT_APP_ID = "104";
+
+    // Json stream reader
+    private JsonReader jsonReader;
+
+    // Whether the outer array has been opened
+    private boolean isArrayBegin = false;
+
+    /**
+     * Constructor
+     *
+     * @param reader The play list json reader
+     */
+    public PlayListReader(Reader reader) {
+        this(new JsonReader(reader));
+    }
+
+    /**
+     * Constructor, read the entities from a json stream shared with other readers
+     *
+     * @param jsonReader Json stream reader
+     */
+    PlayListReader(JsonReader jsonReader) {
+        this.jsonReader = jsonReader;
+    }
+
+    /**
+     * Whether there are more entities in the play list
+     *
+     * @return Has more entities
+     * @throws IOException The json stream is broken
+     */
+    public boolean hasNext() throws IOException {
+        if (!isArrayBegin) {
+            jsonReader.beginArray();
+            isArrayBegin = true;
+        }
+        return jsonReader.hasNext();
+    }
+
+    /**
+     * Read the next entity, the elements which are not json object are skipped.
+     * The entity without a valid catalog id gets the stable id of its url.
+     *
+     * @return The next play entity, null if the play list is finished
+     * @throws IOException The json stream is broken
+     */
+    public PlayEntity next() throws IOException {
+        while (hasNext()) {
+            if (jsonReader.peek() == JsonToken.BEGIN_OBJECT) {
+                PlayEntity playEntity = readPlayEntity();
+                if (playEntity.getId() == 0) {
+                    playEntity.setId(StringUtil.getStableId(playEntity.getUrl()));
+                }
+                return playEntity;
+            }
+            jsonReader.skipValue();
+        }
+        return null;
+    }
+
+    /**
+     * Read the current json object as play entity
+     *
+     * @return Play entity, the id is 0 if the object has no valid catalog id
+     * @throws IOException The json stream is broken
+     */
+    PlayEntity readPlayEntity() throws IOException {
+        PlayEntity playEntity = new PlayEntity();
+        String appId = null;
+        String url = null;
+        String name = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String key = jsonReader.nextName();
+            if ("id".equals(key)) {
+                playEntity.setId(readCatalogId());
+            } else if ("appId".equals(key)) {
+                appId = readString();
+            } else if ("url".equals(key)) {
+                url = readString();
+            } else if ("name".equals(key)) {
+                name = readString();
+            } else if ("urlType".equals(key)) {
+                playEntity.setUrlType(readInt());
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        playEntity.setAppId(StringUtil.isEmpty(appId) ? DEFAULT_APP_ID : appId);
+        playEntity.setUrl(StringUtil.getNotEmptyString(url));
+        playEntity.setName(StringUtil.getNotEmptyString(name));
+        return playEntity;
+    }
+
+    /**
+     * Read the current value as catalog id. The catalog ids are positive, the negative ones would mix with
+     * the stable ids of StringUtil.getStableId, so they are dropped as if the id was missing.
+     *
+     * @return Catalog id, 0 if the value is not a valid catalog id
+     * @throws IOException The json stream is broken
+     */
+    long readCatalogId() throws IOException {
+        long id = readLong();
+        if (id < 0) {
+            LogUtil.i("drop the negative catalog id :" + id);
+            return 0;
+        }
+        return id;
+    }
+
+    /**
+     * Read the current value as string, the same as JSONObject.optString
+     *
+     * @return String value
+     * @throws IOException The json stream is broken
+     */
+    private String readString() throws IOException {
+        JsonToken token = jsonReader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return jsonReader.nextString();
+        } else if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(jsonReader.nextBoolean());
+        } else {
+            jsonReader.skipValue();
+            return "";
+        }
+    }
+
+    /**
+     * Read the current value as int, the same as JSONObject.optInt
+     *
+     * @return Int value
+     * @throws IOException The json stream is broken
+     */
+    private int readInt() throws IOException {
+        JsonToken token = jsonReader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            try {
+                return (int) Double.parseDouble(jsonReader.nextString());
+            } catch (NumberFormatException e) {
+                LogUtil.i("parse int value error :" + e.getMessage());
+                return 0;
+            }
+        } else {
+            jsonReader.skipValue();
+            return 0;
+        }
+    }
+
+    /**
+     * Read the current value as long, the same as JSONObject.optLong
+     *
+     * @return Long value
+     * @throws IOException The json stream is broken
+     */
+    private long readLong() throws IOException {
+        JsonToken token = jsonReader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            String value = jsonReader.nextString();
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                try {
+                    return (long) Double.parseDouble(value);
+                } catch (NumberFormatException ex) {
+                    LogUtil.i("parse long value error :" + ex.getMessage());
+                    return 0;
+                }
+            }
+        } else {
+            jsonReader.skipValue();
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        jsonReader.close();
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import android.content.Context;
+
+import com.huawei.video.kit.demo.contract.OnPlaybackConfigChangedListener;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+
+/**
+ * Persist the player settings in a small binary file. The file is loaded once in the background at startup
+ * and the changes are written back shortly after the last change, so a burst of changes is written once.
+ * <p>
+ * Layout, big endian: magic, version, flags (surfaceView, mute, initBitrateEnable, closeLogo, takeEffectOfAll),
+ * videoType, playMode, bandwidthSwitchMode, initType, initBitrate, initWidth, initHeight, minBitrate, maxBitrate,
+ * crc32 of the rest
+ */
+public class PlaybackConfigStore {
+    private static final String TAG = "PlaybackConfigStore";
+
+    private static final String FILE_NAME = "playback_config.bin";
+
+    private static final int MAGIC = 0x564B5043;
+
+    private static final int VERSION = 1;
+
+    private static final int FILE_SIZE = 52;
+
+    private static final int FLAG_SURFACE_VIEW = 1;
+
+    private static final int FLAG_MUTE = 1 << 1;
+
+    private static final int FLAG_INIT_BITRATE_ENABLE = 1 << 2;
+
+    private static final int FLAG_CLOSE_LOGO = 1 << 3;
+
+    private static final int FLAG_TAKE_EFFECT_OF_ALL = 1 << 4;
+
+    /**
+     * Wait for more changes before writing
+     */
+    private static final long WRITE_DELAY_MS = 1000;
+
+    private static final PlaybackConfigStore INSTANCE =
+        new PlaybackConfigStore(Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "PlaybackConfigStore");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }), WRITE_DELAY_MS);
+
+    // Load and write the file in the background
+    private final ScheduledExecutorService executor;
+
+    // The delay before writing
+    private final long writeDelayMs;
+
+    // Write the current settings
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (PlaybackConfigStore.this) {
+                isWriteScheduled = false;
+            }
+            write(PlayControlUtil.getPlaybackConfig());
+        }
+    };
+
+    // Settings file, only accessed on the store thread after open
+    private File file;
+
+    // The content of the file, null if unknown, only accessed on the store thread
+    private byte[] fileData;
+
+    // Whether a write is scheduled, guarded by this
+    private boolean isWriteScheduled = false;
+
+    /**
+     * Constructor
+     *
+     * @param executor The single thread the file is loaded and written on
+     * @param writeDelayMs The delay before writing, the changes within the delay are written together
+     */
+    PlaybackConfigStore(ScheduledExecutorService executor, long writeDelayMs) {
+        this.executor = executor;
+        this.writeDelayMs = writeDelayMs;
+    }
+
+    /**
+     * Get the store
+     *
+     * @return Playback config store
+     */
+    public static PlaybackConfigStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load the saved settings in the background and save the changes from now on.
+     * The settings changed before the file is loaded are kept.
+     *
+     * @param context Context
+     * @param onOpened Run on the store thread once the settings are published, may be null
+     */
+    public void open(Context context, Runnable onOpened) {
+        open(new File(context.getFilesDir(), FILE_NAME), onOpened);
+    }
+
+    /**
+     * Load the saved settings of the file in the background and save the changes to it from now on
+     *
+     * @param settingsFile Settings file
+     * @param onOpened Run on the store thread once the settings are published, may be null
+     * @return The load task, done once the settings are published
+     */
+    Future<?> open(final File settingsFile, final Runnable onOpened) {
+        final PlaybackConfig initialConfig = PlayControlUtil.getPlaybackConfig();
+        Future<?> loadFuture = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                file = settingsFile;
+                try {
+                    load(initialConfig);
+                } finally {
+                    if (onOpened != null) {
+                        onOpened.run();
+                    }
+                }
+            }
+        });
+        PlayControlUtil.setOnPlaybackConfigChangedListener(new OnPlaybackConfigChangedListener() {
+            @Override
+            public void onPlaybackConfigChanged(PlaybackConfig playbackConfig) {
+                scheduleWrite();
+            }
+        });
+        return loadFuture;
+    }
+
+    /**
+     * Write the settings after the delay, the changes within the delay are written together
+     */
+    private synchronized void scheduleWrite() {
+        if (!isWriteScheduled) {
+            isWriteScheduled = true;
+            executor.schedule(writeTask, writeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Load the file and publish the settings, runs on the store thread
+     *
+     * @param initialConfig The settings when the store is opened
+     */
+    private void load(PlaybackConfig initialConfig) {
+        long startTime = System.nanoTime();
+        byte[] data = new byte[FILE_SIZE];
+        FileInputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            int offset = 0;
+            int count;
+            while (offset < FILE_SIZE && (count = inputStream.read(data, offset, FILE_SIZE - offset)) > 0) {
+                offset += count;
+            }
+            if (offset < FILE_SIZE) {
+                throw new IOException("settings file is truncated");
+            }
+        } catch (FileNotFoundException e) {
+            LogUtil.i(TAG, "no saved settings");
+            return;
+        } catch (IOException e) {
+            LogUtil.w(TAG, "read settings error :" + e.getMessage());
+            return;
+        } finally {
+            closeQuietly(inputStream);
+        }
+        PlaybackConfig playbackConfig = decode(data);
+        if (playbackConfig == null) {
+            LogUtil.w(TAG, "settings file is corrupted, use the default settings");
+            return;
+        }
+        fileData = data;
+        if (!PlayControlUtil.compareAndSetPlaybackConfig(initialConfig, playbackConfig)) {
+            LogUtil.i(TAG, "settings are changed while loading, keep the changes");
+        }
+        LogUtil.i(TAG, "settings loaded in " + (System.nanoTime() - startTime) / 1000 + " us");
+    }
+
+    /**
+     * Write the settings to the file if they are changed, runs on the store thread
+     *
+     * @param playbackConfig Playback config
+     */
+    private void write(PlaybackConfig playbackConfig) {
+        byte[] data = encode(playbackConfig);
+        if (Arrays.equals(data, fileData)) {
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(tempFile);
+            outputStream.write(data);
+            outputStream.getFD().sync();
+        } catch (IOException e) {
+            LogUtil.w(TAG, "write settings error :" + e.getMessage());
+            return;
+        } finally {
+            closeQuietly(outputStream);
+        }
+        if (!tempFile.renameTo(file)) {
+            LogUtil.w(TAG, "rename settings file fail");
+            return;
+        }
+        fileData = data;
+    }
+
+    private static byte[] encode(PlaybackConfig playbackConfig) {
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+        int flags = (playbackConfig.isSurfaceView() ? FLAG_SURFACE_VIEW : 0)
+            | (playbackConfig.isMute() ? FLAG_MUTE : 0)
+            | (playbackConfig.isInitBitrateEnable() ? FLAG_INIT_BITRATE_ENABLE : 0)
+            | (playbackConfig.isCloseLogo() ? FLAG_CLOSE_LOGO : 0)
+            | (playbackConfig.isTakeEffectOfAll() ? FLAG_TAKE_EFFECT_OF_ALL : 0);
+        buffer.putInt(MAGIC)
+            .putInt(VERSION)
+            .putInt(flags)
+            .putInt(playbackConfig.getVideoType())
+            .putInt(playbackConfig.getPlayMode())
+            .putInt(playbackConfig.getBandwidthSwitchMode())
+            .putInt(playbackConfig.getInitType())
+            .putInt(playbackConfig.getInitBitrate())
+            .putInt(playbackConfig.getInitWidth())
+            .putInt(playbackConfig.getInitHeight())
+            .putInt(playbackConfig.getMinBitrate())
+            .putInt(playbackConfig.getMaxBitrate());
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.array(), 0, FILE_SIZE - 4);
+        buffer.putInt((int) crc32.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Decode the settings
+     *
+     * @param data File data
+     * @return Playback config, null if the data is not valid
+     */
+    private static PlaybackConfig decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, FILE_SIZE - 4);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+            || buffer.getInt(FILE_SIZE - 4) != (int) crc32.getValue()) {
+            return null;
+        }
+        int flags = buffer.getInt();
+        return new PlaybackConfig.Builder().setIsSurfaceView((flags & FLAG_SURFACE_VIEW) != 0)
+            .setIsMute((flags & FLAG_MUTE) != 0)
+            .setInitBitrateEnable((flags & FLAG_INIT_BITRATE_ENABLE) != 0)
+            .setCloseLogo((flags & FLAG_CLOSE_LOGO) != 0)
+            .setTakeEffectOfAll((flags & FLAG_TAKE_EFFECT_OF_ALL) != 0)
+            .setVideoType(buffer.getInt())
+            .setPlayMode(buffer.getInt())
+            .setBandwidthSwitchMode(buffer.getInt())
+            .setInitType(buffer.getInt())
+            .setInitBitrate(buffer.getInt())
+            .setInitWidth(buffer.getInt())
+            .setInitHeight(buffer.getInt())
+            .setMinBitrate(buffer.getInt())
+            .setMaxBitrate(buffer.getInt())
+            .build();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            LogUtil.i(TAG, "close settings stream error :" + e.getMessage());
+        }
+    }
+}
@@ -69,6 +69,26 @@ public class StringUtil {
         return value.split(split);
     }
 
+    /**
+     * Get a stable id of the string for the entities without catalog id, such as the input url.
+     * The id is the 64-bit FNV-1a hash with the sign bit set, so it never equals a catalog id,
+     * which is positive.
+     *
+     * @param value String value
+     * @return Negative id
+     */
+    public static long getStableId(String value) {
+        long hash = 0xcbf29ce484222325L;
+        String text = getNotEmptyString(value);
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        long id = hash | Long.MIN_VALUE;
+        // -1 is reserved as "no id" by the callers
+        return id == -1L ? -2L : id;
+    }
+
     /**
      * Get a string from the resources
      *
@@ -21,6 +21,8 @@ import java.util.List;
 import android.content.Context;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
@@ -29,6 +31,7 @@ import android.widget.ProgressBar;
 
 import com.huawei.video.kit.demo.R;
 import com.huawei.video.kit.demo.adapter.SelectPlayDataAdapter;
+import com.huawei.video.kit.demo.catalog.CatalogChange;
 import com.huawei.video.kit.demo.contract.OnHomePageListener;
 import com.huawei.video.kit.demo.entity.PlayEntity;
 import com.huawei.video.kit.demo.utils.DialogUtil;
@@ -49,6 +52,9 @@ public class HomePageView {
     // Input play url
     private EditText addressEt;
 
+    // Search play name
+    private EditText searchEt;
+
     // Play button
     private Button playBt;
 
@@ -90,9 +96,25 @@ public class HomePageView {
         playRecyclerView = (RecyclerView) contentView.findViewById(R.id.player_recycler_view);
         playLoading = (ProgressBar) contentView.findViewById(R.id.play_loading);
         addressEt = (EditText) contentView.findViewById(R.id.input_path_ed);
+        searchEt = (EditText) contentView.findViewById(R.id.search_play_ed);
+        searchEt.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                onHomePageListener.onSearchQueryChanged(s.toString());
+            }
+        });
         playBt = (Button) contentView.findViewById(R.id.main_play_btn);
         playBt.setOnClickListener(onHomePageListener);
         selectPlayDataAdapter = new SelectPlayDataAdapter(context, onHomePageListener);
+        selectPlayDataAdapter.setOnItemPressListener(onHomePageListener);
         playRecyclerView.setLayoutManager(new LinearLayoutManager(context));
         playRecyclerView.setAdapter(selectPlayDataAdapter);
         playRecyclerView.setVisibility(View.GONE);
@@ -110,6 +132,29 @@ public class HomePageView {
         playRecyclerView.setVisibility(View.VISIBLE);
     }
 
+    /**
+     * Update the list and animate only the changed ranges
+     *
+     * @param playList The updated data list
+     * @param changes The changes from the current list, in order
+     */
+    public void updateRecyclerView(List<PlayEntity> playList, List<CatalogChange> changes) {
+        selectPlayDataAdapter.updateSelectPlayList(playList, changes);
+    }
+
+    /**
+     * Append the loaded data to the list
+     *
+     * @param playList Data list
+     * @param positionStart The position of the first new data
+     * @param itemCount The number of new data
+     */
+    public void appendRecyclerView(List<PlayEntity> playList, int positionStart, int itemCount) {
+        selectPlayDataAdapter.appendSelectPlayList(playList, positionStart, itemCount);
+        playLoading.setVisibility(View.GONE);
+        playRecyclerView.setVisibility(View.VISIBLE);
+    }
+
     /**
      * Get input text
      *
@@ -35,12 +35,11 @@ import android.widget.RelativeLayout;
 import android.widget.SeekBar;
 import android.widget.TextView;
 
-import com.huawei.hms.videokit.player.WisePlayer;
 import com.huawei.video.kit.demo.R;
 import com.huawei.video.kit.demo.adapter.SelectPlayDataAdapter;
 import com.huawei.video.kit.demo.contract.OnPlayWindowListener;
-import com.huawei.video.kit.demo.contract.OnWisePlayerListener;
 import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.player.PlayerEngine;
 import com.huawei.video.kit.demo.utils.Constants;
 import com.huawei.video.kit.demo.utils.DeviceUtil;
 import com.huawei.video.kit.demo.utils.DialogUtil;
@@ -124,21 +123,21 @@ public class PlayView {
     // Android listener
     private OnPlayWindowListener onPlayWindowListener;
 
-    // VideoKit SDK listener
-    private OnWisePlayerListener onWisePlayerListener;
+    // Seek bar listener
+    private SeekBar.OnSeekBarChangeListener onSeekBarChangeListener;
 
     /**
      * Constructor
      *
      * @param context Context
      * @param onPlayWindowListener Android listener
-     * @param onWisePlayerListener VideoKit SDK listener
+     * @param onSeekBarChangeListener Seek bar listener
      */
     public PlayView(Context context, OnPlayWindowListener onPlayWindowListener,
-        OnWisePlayerListener onWisePlayerListener) {
+        SeekBar.OnSeekBarChangeListener onSeekBarChangeListener) {
         this.context = context;
         this.onPlayWindowListener = onPlayWindowListener;
-        this.onWisePlayerListener = onWisePlayerListener;
+        this.onSeekBarChangeListener = onSeekBarChangeListener;
     }
 
     /**
@@ -175,7 +174,7 @@ public class PlayView {
                 surfaceView.setVisibility(View.GONE);
             }
             seekBar = (SeekBar) view.findViewById(R.id.seek_bar);
-            seekBar.setOnSeekBarChangeListener(onWisePlayerListener);
+            seekBar.setOnSeekBarChangeListener(onSeekBarChangeListener);
             currentTimeTv = (TextView) view.findViewById(R.id.current_time_tv);
             totalTimeTv = (TextView) view.findViewById(R.id.total_time_tv);
             playImg = (ImageView) view.findViewById(R.id.play_btn);
@@ -226,11 +225,11 @@ public class PlayView {
     /**
      * Update play view
      *
-     * @param wisePlayer WisePlayer
+     * @param playerEngine Player engine
      */
-    public void updatePlayView(WisePlayer wisePlayer) {
-        if (wisePlayer != null) {
-            int totalTime = wisePlayer.getDuration();
+    public void updatePlayView(PlayerEngine playerEngine) {
+        if (playerEngine != null) {
+            int totalTime = playerEngine.getDuration();
             LogUtil.i(String.valueOf(totalTime));
             seekBar.setMax(totalTime);
             totalTimeTv.setText(TimeUtil.formatLongToTimeStr(totalTime));
@@ -344,16 +343,16 @@ public class PlayView {
     /**
      * Update Video view
      *
-     * @param wisePlayer WisePlayer
+     * @param playerEngine Player engine
      * @param name Video name
      */
-    public void setContentView(WisePlayer wisePlayer, String name) {
-        if (wisePlayer != null) {
+    public void setContentView(PlayerEngine playerEngine, String name) {
+        if (playerEngine != null) {
             videoNameTv.setText(context.getResources().getString(R.string.video_name, name));
             videoSizeTv.setText(context.getResources()
-                .getString(R.string.video_width_and_height, wisePlayer.getVideoWidth(), wisePlayer.getVideoHeight()));
+                .getString(R.string.video_width_and_height, playerEngine.getVideoWidth(), playerEngine.getVideoHeight()));
             videoTimeTv.setText(context.getResources()
-                .getString(R.string.video_time, TimeUtil.formatLongToTimeStr(wisePlayer.getDuration())));
+                .getString(R.string.video_time, TimeUtil.formatLongToTimeStr(playerEngine.getDuration())));
         }
     }
 
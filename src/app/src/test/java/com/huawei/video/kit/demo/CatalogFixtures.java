@@ -0,0 +1,145 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Generated catalogs and measuring helpers shared by the tests and benchmarks
+ */
+public final class CatalogFixtures {
+    private static final String[] HOSTS = {
+        "https://videoplay-mos-dra.dbankcdn.com/", "https://video.example.com/", "http://cdn.example.org/"
+    };
+
+    private static final String[] WORDS = {
+        "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet"
+    };
+
+    private CatalogFixtures() {
+    }
+
+    /**
+     * Create a play list with catalog ids 1 to size, a few shared url hosts and mostly the default appId
+     *
+     * @param size The number of entities
+     * @return Play list
+     */
+    public static List<PlayEntity> createPlayList(int size) {
+        List<PlayEntity> playList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            playList.add(createPlayEntity(i + 1));
+        }
+        return playList;
+    }
+
+    /**
+     * Create the entity of the catalog id
+     *
+     * @param id Catalog id
+     * @return Play entity
+     */
+    public static PlayEntity createPlayEntity(long id) {
+        PlayEntity playEntity = new PlayEntity();
+        playEntity.setId(id);
+        playEntity.setUrlType((int) (id % 3));
+        playEntity.setAppId(id % 50 == 0 ? "105" : "104");
+        playEntity.setUrl(HOSTS[(int) (id % HOSTS.length)] + "P_VT/video_injection/" + id + "/v3/index.mp4");
+        playEntity.setName(getName(id));
+        return playEntity;
+    }
+
+    /**
+     * Get the generated name of the catalog id, two words and the id
+     *
+     * @param id Catalog id
+     * @return Name
+     */
+    public static String getName(long id) {
+        return WORDS[(int) (id % WORDS.length)] + " " + WORDS[(int) (id / WORDS.length % WORDS.length)] + " " + id;
+    }
+
+    /**
+     * Write the play list as the play list json of the assets
+     *
+     * @param playList Play list
+     * @return Json
+     */
+    public static String toJson(List<PlayEntity> playList) {
+        StringBuilder builder = new StringBuilder(playList.size() * 128);
+        builder.append('[');
+        for (int i = 0; i < playList.size(); i++) {
+            PlayEntity playEntity = playList.get(i);
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(playEntity.getId())
+                .append(",\"urlType\":").append(playEntity.getUrlType())
+                .append(",\"appId\":\"").append(playEntity.getAppId())
+                .append("\",\"url\":\"").append(playEntity.getUrl())
+                .append("\",\"name\":\"").append(playEntity.getName()).append("\"}");
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Collect the garbage and reset the peak usage of the heap pools
+     */
+    public static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Get the peak heap usage since resetPeakHeap, the sum of the pool peaks so it is an upper bound
+     *
+     * @return Bytes
+     */
+    public static long getPeakHeap() {
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                bytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the heap in use after collecting the garbage
+     *
+     * @return Bytes
+     */
+    public static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.bookmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * The checkpointer records the saves and removals for the checkpoint thread, the caller never waits for the store
+ */
+public class BookmarkCheckpointerTest {
+    private static final long KEY = 9000000001L;
+
+    private static final long TIMEOUT_MS = 5000;
+
+    @Test
+    public void saveDoesNotWaitForTheStore() throws InterruptedException {
+        final BookmarkCheckpointer checkpointer = BookmarkCheckpointer.getInstance();
+        Thread mainThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                checkpointer.save(KEY, 3000, 0);
+                checkpointer.remove(KEY + 1);
+            }
+        });
+        // A write of the store holding its lock, such as a resize of the table
+        synchronized (BookmarkStore.getInstance()) {
+            mainThread.start();
+            mainThread.join(TIMEOUT_MS);
+            assertFalse("the save waits for the store", mainThread.isAlive());
+            // Seen before the checkpoint thread writes it
+            assertEquals(3000, checkpointer.get(KEY));
+        }
+        awaitStore(KEY, 3000);
+    }
+
+    @Test
+    public void removalIsSeenAtOnce() throws InterruptedException {
+        BookmarkCheckpointer checkpointer = BookmarkCheckpointer.getInstance();
+        checkpointer.save(KEY + 2, 4000, 0);
+        awaitStore(KEY + 2, 4000);
+        checkpointer.remove(KEY + 2);
+        assertEquals(0, checkpointer.get(KEY + 2));
+        awaitStore(KEY + 2, 0);
+    }
+
+    @Test
+    public void flushForgetsTheLastPositions() throws InterruptedException {
+        BookmarkCheckpointer checkpointer = BookmarkCheckpointer.getInstance();
+        checkpointer.save(KEY + 3, 5000, 0);
+        // The checkpoint thread runs the tasks in order, the first save is flushed once the second one is written
+        checkpointer.save(KEY + 4, 1234, 0);
+        awaitStore(KEY + 4, 1234);
+
+        // Close to the last checkpoint, but the title is no longer tracked after the flush
+        checkpointer.onProgress(KEY + 3, 5100, 0);
+        assertEquals(5100, checkpointer.get(KEY + 3));
+    }
+
+    private static void awaitStore(long key, int position) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (BookmarkStore.getInstance().get(key) != position && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(position, BookmarkStore.getInstance().get(key));
+    }
+}
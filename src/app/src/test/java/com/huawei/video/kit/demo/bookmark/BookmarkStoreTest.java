@@ -0,0 +1,91 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.bookmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.utils.LongIntHashMap;
+
+/**
+ * The lookups of the store read the published mirror and never wait for the lock of the writes
+ */
+public class BookmarkStoreTest {
+    private static final long KEY = 8000000001L;
+
+    private static final long TIMEOUT_MS = 5000;
+
+    @Test
+    public void lookupDoesNotWaitForTheWriteLock() throws InterruptedException {
+        final BookmarkStore store = BookmarkStore.getInstance();
+        store.put(KEY, 4200);
+        final AtomicInteger position = new AtomicInteger(-1);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                position.set(store.get(KEY));
+            }
+        });
+        // A write holding the lock, such as a resize of the table
+        synchronized (store) {
+            reader.start();
+            reader.join(TIMEOUT_MS);
+            assertFalse("the lookup waits for the lock", reader.isAlive());
+        }
+        assertEquals(4200, position.get());
+    }
+
+    @Test
+    public void lookupSeesTheLatestChange() {
+        BookmarkStore store = BookmarkStore.getInstance();
+        store.put(KEY + 1, 100);
+        assertEquals(100, store.get(KEY + 1));
+        store.put(KEY + 1, 200, 10000);
+        assertEquals(200, store.get(KEY + 1));
+        // Watched to the end, the bookmark is removed
+        store.put(KEY + 1, 9900, 10000);
+        assertEquals(0, store.get(KEY + 1));
+    }
+
+    @Test
+    public void batchAppliesTheRemovalsAndPositions() {
+        BookmarkStore store = BookmarkStore.getInstance();
+        store.put(KEY + 2, 100);
+        store.put(KEY + 3, 100);
+        LongIntHashMap positions = new LongIntHashMap();
+        LongIntHashMap durations = new LongIntHashMap();
+        LongIntHashMap removals = new LongIntHashMap();
+        removals.put(KEY + 2, 0);
+        positions.put(KEY + 3, 9900);
+        durations.put(KEY + 3, 10000);
+        positions.put(KEY + 4, 300);
+        durations.put(KEY + 4, 10000);
+        positions.put(KEY + 5, 500);
+        store.applyBatch(positions, durations, removals);
+
+        assertEquals(0, store.get(KEY + 2));
+        // Watched to the end, the bookmark is removed
+        assertEquals(0, store.get(KEY + 3));
+        assertEquals(300, store.get(KEY + 4));
+        assertEquals(500, store.get(KEY + 5));
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.bookmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import com.huawei.video.kit.demo.Benchmark;
+
+/**
+ * Benchmark of the mapped bookmark table and the mirror read by the store against the boxed HashMap
+ * of the previous play data store, the lookups are the resume lookups of titles with and without bookmark
+ */
+@Category(Benchmark.class)
+public class BookmarkTableBenchmarkTest {
+    private static final int[] SIZES = {2000, 20000};
+
+    private static final int LOOKUP_COUNT = 1000000;
+
+    private static final int ROUNDS = 5;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void lookupBenchmark() throws IOException {
+        for (int size : SIZES) {
+            File file = temporaryFolder.newFile();
+            file.delete();
+            BookmarkTable table = BookmarkTable.open(file);
+            Map<Long, Integer> hashMap = new HashMap<>();
+            long putStart = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                table.put(getKey(i), i + 1, i);
+            }
+            long tablePutNanos = System.nanoTime() - putStart;
+            putStart = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                hashMap.put(getKey(i), i + 1);
+            }
+            long hashMapPutNanos = System.nanoTime() - putStart;
+
+            // Half of the lookups are titles without bookmark
+            long[] lookups = new long[LOOKUP_COUNT];
+            Random random = new Random(size);
+            for (int i = 0; i < LOOKUP_COUNT; i++) {
+                lookups[i] = getKey(random.nextInt(size * 2));
+            }
+            BookmarkMirror mirror = table.createMirror();
+            long tableNanos = Long.MAX_VALUE;
+            long mirrorNanos = Long.MAX_VALUE;
+            long hashMapNanos = Long.MAX_VALUE;
+            long tableSum = 0;
+            long mirrorSum = 0;
+            long hashMapSum = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                tableSum = 0;
+                for (long key : lookups) {
+                    tableSum += table.get(key);
+                }
+                tableNanos = Math.min(tableNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                mirrorSum = 0;
+                for (long key : lookups) {
+                    mirrorSum += mirror.get(key, 0);
+                }
+                mirrorNanos = Math.min(mirrorNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                hashMapSum = 0;
+                for (long key : lookups) {
+                    hashMapSum += getPlayData(hashMap, key);
+                }
+                hashMapNanos = Math.min(hashMapNanos, System.nanoTime() - start);
+            }
+            assertEquals(hashMapSum, tableSum);
+            assertEquals(hashMapSum, mirrorSum);
+
+            long openStart = System.nanoTime();
+            BookmarkTable reopened = BookmarkTable.open(file);
+            long openMicros = (System.nanoTime() - openStart) / 1000;
+            assertEquals(size, reopened.size());
+            System.out.println("bookmarks " + size + ": put table " + tablePutNanos / size + " ns, HashMap "
+                + hashMapPutNanos / size + " ns; get table " + tableNanos / LOOKUP_COUNT + " ns, mirror "
+                + mirrorNanos / LOOKUP_COUNT + " ns, HashMap "
+                + hashMapNanos / LOOKUP_COUNT + " ns; reopen table " + openMicros + " us");
+        }
+    }
+
+    /**
+     * The lookup of the previous store, containsKey and get with unboxing
+     */
+    private static int getPlayData(Map<Long, Integer> hashMap, long key) {
+        if (hashMap.containsKey(key)) {
+            return hashMap.get(key);
+        }
+        return 0;
+    }
+
+    private static long getKey(int index) {
+        return 1000000L + index * 7L;
+    }
+}
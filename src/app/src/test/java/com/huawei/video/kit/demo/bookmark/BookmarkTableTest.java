@@ -0,0 +1,273 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.bookmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Bookmark table bounds and the repair of the tables left by a killed process
+ */
+public class BookmarkTableTest {
+    // The layout of the table file, see BookmarkTable
+    private static final int SIZE_OFFSET = 12;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int SLOT_SIZE = 24;
+
+    private static final int NEW_TABLE_CAPACITY = 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void lookupsMatchThePutsAndSurviveReopen() throws IOException {
+        File file = newTableFile();
+        BookmarkTable table = BookmarkTable.open(file);
+        table.setBounds(5000, BookmarkTable.NO_EXPIRE);
+        for (int i = 0; i < 2000; i++) {
+            table.put(1000000L + i * 7L, i + 1, i);
+        }
+        BookmarkMirror mirror = table.createMirror();
+        // Every other key of the range is a title without bookmark
+        for (int i = 0; i < 4000; i++) {
+            long key = 1000000L + i * 7L;
+            int expected = i < 2000 ? i + 1 : 0;
+            assertEquals(expected, table.get(key));
+            assertEquals(expected, mirror.get(key, 0));
+        }
+
+        BookmarkTable reopened = BookmarkTable.open(file);
+        assertEquals(2000, reopened.size());
+        assertEquals(2000, reopened.get(1000000L + 1999 * 7L));
+    }
+
+    @Test
+    public void evictsOverTheMaximumSize() throws IOException {
+        BookmarkTable table = BookmarkTable.open(newTableFile());
+        table.setBounds(10, BookmarkTable.NO_EXPIRE);
+        for (int i = 1; i <= 100; i++) {
+            table.put(i, i * 1000, i);
+        }
+        assertEquals(10, table.size());
+        assertEquals(100000, table.get(100));
+        assertEquals(90, table.getStats().getEvictionCount());
+
+        table.setBounds(3, BookmarkTable.NO_EXPIRE);
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    public void removesExpiredBookmarks() throws IOException {
+        BookmarkTable table = BookmarkTable.open(newTableFile());
+        long now = System.currentTimeMillis();
+        table.put(1, 1000, now - 10000);
+        table.put(2, 2000, now);
+        table.setBounds(100, 5000);
+
+        assertEquals(1, table.removeExpired());
+        assertEquals(0, table.get(1));
+        assertEquals(2000, table.get(2));
+    }
+
+    @Test
+    public void headerSizeBehindTheSlotsIsRecounted() throws IOException {
+        File file = newTableFile();
+        BookmarkTable table = BookmarkTable.open(file);
+        for (int i = 1; i <= 5; i++) {
+            table.put(i, i * 1000, i);
+        }
+        table.force();
+        // Killed with a size ahead of the slots
+        writeInt(file, SIZE_OFFSET, 50);
+
+        BookmarkTable reopened = BookmarkTable.open(file);
+        assertEquals(5, reopened.size());
+        reopened.setBounds(5, BookmarkTable.NO_EXPIRE);
+        reopened.put(6, 6000, 6);
+        assertEquals(5, reopened.size());
+        assertEquals(6000, reopened.get(6));
+        reopened.setBounds(1, BookmarkTable.NO_EXPIRE);
+        assertEquals(1, reopened.size());
+    }
+
+    @Test
+    public void keyCopiedByAnInterruptedRemovalIsKeptOnce() throws IOException {
+        long first = 1;
+        long second = findKeyWithSameHome(first);
+        File file = newTableFile();
+        BookmarkTable table = BookmarkTable.open(file);
+        table.put(first, 1000, 1);
+        table.put(second, 2000, 2);
+        table.force();
+        // Killed while removing the first key: the second one is copied back to the home slot
+        // and the slot after it is not freed yet
+        int home = home(first);
+        byte[] slot = readBytes(file, HEADER_SIZE + ((home + 1) & (NEW_TABLE_CAPACITY - 1)) * SLOT_SIZE, SLOT_SIZE);
+        writeBytes(file, HEADER_SIZE + home * SLOT_SIZE, slot);
+
+        BookmarkTable reopened = BookmarkTable.open(file);
+        assertEquals(1, reopened.size());
+        assertFalse(reopened.contains(first));
+        assertEquals(2000, reopened.get(second));
+        assertTrue(reopened.remove(second));
+        assertFalse(reopened.contains(second));
+        assertEquals(0, reopened.size());
+    }
+
+    @Test
+    public void removalKilledAtEveryStoreLeavesIntactBookmarks() throws IOException {
+        long first = 1;
+        long second = findKeyWithSameHome(first);
+        long third = findKeyWithSameHome(second);
+        // Its home is the slot after the home of the others, so the shift moves it back by one slot
+        long fourth = findKeyWithHome((home(first) + 1) & (NEW_TABLE_CAPACITY - 1));
+        long[] keys = {second, third, fourth};
+        int[] positions = {2000, 3000, 4000};
+        int storeCount = 0;
+        boolean isKilled = true;
+        while (isKilled) {
+            File file = newTableFile();
+            BookmarkTable table = BookmarkTable.open(file);
+            table.put(first, 1000, 1);
+            for (int i = 0; i < keys.length; i++) {
+                table.put(keys[i], positions[i], i + 2);
+            }
+            table.setBeforeStore(new KillAfter(storeCount));
+            try {
+                table.remove(first);
+                isKilled = false;
+            } catch (KilledException e) {
+                isKilled = true;
+            }
+
+            BookmarkTable reopened = BookmarkTable.open(file);
+            String message = "killed after " + storeCount + " stores";
+            int expectedSize = keys.length;
+            if (reopened.contains(first)) {
+                assertEquals(message, 1000, reopened.get(first));
+                expectedSize++;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(message, positions[i], reopened.get(keys[i]));
+            }
+            assertEquals(message, expectedSize, reopened.size());
+            // Every key is kept once
+            for (long key : keys) {
+                assertTrue(message, reopened.remove(key));
+                assertFalse(message, reopened.contains(key));
+            }
+            storeCount++;
+        }
+        // The removal shifts three slots back
+        assertTrue(storeCount > 15);
+    }
+
+    private File newTableFile() throws IOException {
+        File file = temporaryFolder.newFile();
+        assertTrue(file.delete());
+        return file;
+    }
+
+    private static long findKeyWithSameHome(long key) {
+        long candidate = key + 1;
+        while (home(candidate) != home(key)) {
+            candidate++;
+        }
+        return candidate;
+    }
+
+    private static long findKeyWithHome(int home) {
+        long candidate = 1;
+        while (home(candidate) != home) {
+            candidate++;
+        }
+        return candidate;
+    }
+
+    /**
+     * The home slot of the key in a new table, the same hash as BookmarkTable
+     */
+    private static int home(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (NEW_TABLE_CAPACITY - 1);
+    }
+
+    private static void writeInt(File file, int offset, int value) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(offset);
+            randomAccessFile.writeInt(value);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static byte[] readBytes(File file, int offset, int length) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            byte[] bytes = new byte[length];
+            randomAccessFile.seek(offset);
+            randomAccessFile.readFully(bytes);
+            return bytes;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static void writeBytes(File file, int offset, byte[] bytes) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(offset);
+            randomAccessFile.write(bytes);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Simulate a killed process: the stores after the given number are never done
+     */
+    private static class KillAfter implements Runnable {
+        private int remaining;
+
+        KillAfter(int count) {
+            remaining = count;
+        }
+
+        @Override
+        public void run() {
+            if (remaining-- == 0) {
+                throw new KilledException();
+            }
+        }
+    }
+
+    private static class KilledException extends RuntimeException {
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.catalog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.huawei.video.kit.demo.Benchmark;
+import com.huawei.video.kit.demo.CatalogFixtures;
+
+/**
+ * Search index results against a scan of the names, and the search time per keystroke at 100k entities
+ */
+public class CatalogSearchIndexTest {
+    private static final int SIZE = 100000;
+
+    // Budget of one keystroke on the search thread
+    private static final long KEYSTROKE_BUDGET_NANOS = 5000000L;
+
+    private static final String[] TYPED_QUERIES = {"charlie delta 4711", "juliet 9", "oxtro", "ho 123"};
+
+    @Test
+    public void searchMatchesNameScan() {
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            names.add(CatalogFixtures.getName(i));
+        }
+        names.add("Big Buck Bunny");
+        names.add("bunny-bunny");
+        names.add("大雄兔的故事");
+        CatalogSearchIndex searchIndex = build(names);
+
+        String[] queries = {
+            "a", "Al", "b", "bu", "bun", "BUNNY", "nny b", "雄", "雄兔", "兔的故", "charlie 1", "lie", "o 19", "1999",
+            "zzz", "a b c", " delta "
+        };
+        for (String query : queries) {
+            assertArrayEquals(query, scan(names, query), searchIndex.search(query));
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void keystrokeBenchmark() {
+        List<String> names = new ArrayList<>(SIZE);
+        for (int i = 1; i <= SIZE; i++) {
+            names.add(CatalogFixtures.getName(i));
+        }
+        long buildStart = System.nanoTime();
+        CatalogSearchIndex searchIndex = build(names);
+        long buildMillis = (System.nanoTime() - buildStart) / 1000000L;
+
+        // Warm up, the first searches are interpreted
+        for (int i = 0; i < 20; i++) {
+            typeQueries(searchIndex);
+        }
+        int keystrokes = 0;
+        long maxNanos = 0;
+        long totalNanos = 0;
+        for (String query : TYPED_QUERIES) {
+            for (int length = 1; length <= query.length(); length++) {
+                long start = System.nanoTime();
+                searchIndex.search(query.substring(0, length));
+                long nanos = System.nanoTime() - start;
+                maxNanos = Math.max(maxNanos, nanos);
+                totalNanos += nanos;
+                keystrokes++;
+            }
+        }
+        long averageNanos = totalNanos / keystrokes;
+        System.out.println("search index " + SIZE + " names: build " + buildMillis + " ms, keystroke average "
+            + averageNanos / 1000 + " us, max " + maxNanos / 1000 + " us");
+        assertTrue("average keystroke " + averageNanos + " ns", averageNanos < KEYSTROKE_BUDGET_NANOS);
+    }
+
+    private static void typeQueries(CatalogSearchIndex searchIndex) {
+        for (String query : TYPED_QUERIES) {
+            for (int length = 1; length <= query.length(); length++) {
+                searchIndex.search(query.substring(0, length));
+            }
+        }
+    }
+
+    private static CatalogSearchIndex build(List<String> names) {
+        CatalogSearchIndex.Builder builder = new CatalogSearchIndex.Builder();
+        for (String name : names) {
+            builder.add(name);
+        }
+        return builder.build();
+    }
+
+    /**
+     * The expected result, short queries match the word starts and longer ones anywhere in the name
+     */
+    private static int[] scan(List<String> names, String query) {
+        String text = query.trim().toLowerCase(Locale.ROOT);
+        int[] result = new int[names.size()];
+        int count = 0;
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            if (text.length() >= 3 ? name.contains(text) : matchesWordStart(name, text)) {
+                result[count++] = i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static boolean matchesWordStart(String name, String text) {
+        for (int i = 0; i < name.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1))
+                || Character.isIdeographic(name.charAt(i));
+            if (wordStart && name.startsWith(text, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
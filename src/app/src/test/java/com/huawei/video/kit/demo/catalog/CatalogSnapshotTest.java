@@ -0,0 +1,55 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.CatalogFixtures;
+
+/**
+ * The positions found on the main thread come only from the indexes already built
+ */
+public class CatalogSnapshotTest {
+    private static final int SIZE = 1000;
+
+    @Test
+    public void findPositionNeedsTheBuiltIdIndex() {
+        CatalogSnapshot snapshot = new CatalogSnapshot(1, new ListPlayCatalog(CatalogFixtures.createPlayList(SIZE)));
+        assertEquals(-1, snapshot.findPosition(10));
+
+        snapshot.getIdIndex();
+        assertEquals(9, snapshot.findPosition(10));
+        assertEquals(-1, snapshot.findPosition(SIZE + 1));
+    }
+
+    @Test
+    public void findPositionUsesTheDeltaIndex() {
+        CatalogSnapshot base = new CatalogSnapshot(1, new ListPlayCatalog(CatalogFixtures.createPlayList(SIZE)));
+        List<CatalogDelta.Operation> operations = new ArrayList<>();
+        operations.add(CatalogDelta.Operation.remove(1));
+        DeltaPlayCatalog deltaPlayCatalog = new DeltaPlayCatalog(base.getPlayCatalog(), base.getIdIndex())
+            .apply(new CatalogDelta(1, 0, operations), new ArrayList<CatalogChange>());
+        CatalogSnapshot snapshot = new CatalogSnapshot(2, 1, deltaPlayCatalog, null);
+        assertEquals(8, snapshot.findPosition(10));
+        assertEquals(-1, snapshot.findPosition(1));
+    }
+}
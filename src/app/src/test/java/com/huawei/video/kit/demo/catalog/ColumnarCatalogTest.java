@@ -0,0 +1,104 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.huawei.video.kit.demo.Benchmark;
+import com.huawei.video.kit.demo.CatalogFixtures;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Memory footprint of the columnar catalog against the ArrayList of entities at 100k entities,
+ * and the entities created on demand are the same as the added ones
+ */
+public class ColumnarCatalogTest {
+    private static final int SIZE = 100000;
+
+    @Test
+    public void entitiesRoundTrip() {
+        List<PlayEntity> playList = CatalogFixtures.createPlayList(1000);
+        PlayEntity noHost = CatalogFixtures.createPlayEntity(1001);
+        noHost.setUrl("{\"vodJson\":1}");
+        noHost.setName("名字");
+        playList.add(noHost);
+        ColumnarCatalog catalog = build(playList);
+
+        assertEquals(playList.size(), catalog.size());
+        for (int i = 0; i < playList.size(); i++) {
+            PlayEntity expected = playList.get(i);
+            PlayEntity actual = catalog.getPlayEntity(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getUrlType(), actual.getUrlType());
+            assertEquals(expected.getAppId(), actual.getAppId());
+            assertEquals(expected.getUrl(), actual.getUrl());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getName(), catalog.getName(i));
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void memoryFootprintBenchmark() {
+        long baseHeap = CatalogFixtures.getUsedHeap();
+        List<PlayEntity> playList = createParsedPlayList(SIZE);
+        long listBytes = CatalogFixtures.getUsedHeap() - baseHeap;
+
+        ColumnarCatalog catalog = build(playList);
+        assertEquals(SIZE, playList.size());
+        playList = null;
+        long columnarBytes = CatalogFixtures.getUsedHeap() - baseHeap;
+
+        System.out.println("catalog " + SIZE + " entities: ArrayList<PlayEntity> " + listBytes / 1024
+            + " KB, columnar " + columnarBytes / 1024 + " KB");
+        assertEquals(SIZE, catalog.size());
+        assertTrue("columnar " + columnarBytes + " list " + listBytes, columnarBytes * 2 < listBytes);
+    }
+
+    /**
+     * Create the play list as the json parser does, every entity has its own strings
+     */
+    private static List<PlayEntity> createParsedPlayList(int size) {
+        List<PlayEntity> playList = new ArrayList<>(size);
+        for (PlayEntity generated : CatalogFixtures.createPlayList(size)) {
+            PlayEntity playEntity = new PlayEntity();
+            playEntity.setId(generated.getId());
+            playEntity.setUrlType(generated.getUrlType());
+            playEntity.setAppId(new String(generated.getAppId()));
+            playEntity.setUrl(generated.getUrl());
+            playEntity.setName(generated.getName());
+            playList.add(playEntity);
+        }
+        return playList;
+    }
+
+    private static ColumnarCatalog build(List<PlayEntity> playList) {
+        ColumnarCatalog.Builder builder = new ColumnarCatalog.Builder();
+        for (PlayEntity playEntity : playList) {
+            builder.add(playEntity);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.catalog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.CatalogFixtures;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Deltas applied on the piece table against the same operations on a list, the id positions
+ * and the search index updated from the changes
+ */
+public class DeltaPlayCatalogTest {
+    private static final int BASE_SIZE = 2000;
+
+    private static final String[] QUERIES = {"a", "de", "echo", "lie 1", "new", "changed 7", "o 3"};
+
+    @Test
+    public void randomDeltasMatchTheList() {
+        Random random = new Random(7);
+        List<PlayEntity> expected = CatalogFixtures.createPlayList(BASE_SIZE);
+        PlayCatalog base = new ListPlayCatalog(new ArrayList<>(expected));
+        DeltaPlayCatalog catalog = new DeltaPlayCatalog(base, CatalogIdIndex.build(base));
+        CatalogSearchIndex searchIndex = CatalogSearchIndex.build(catalog);
+        long nextId = BASE_SIZE + 1;
+        for (int version = 1; version <= 30; version++) {
+            List<CatalogDelta.Operation> operations = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                long id = pickId(random, expected, nextId);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        long afterId = random.nextInt(8) == 0 ? CatalogDelta.INSERT_FIRST
+                            : random.nextInt(8) == 0 ? CatalogDelta.INSERT_LAST : pickId(random, expected, nextId);
+                        long newId = random.nextInt(4) == 0 ? id : nextId++;
+                        PlayEntity added = createEntity(newId, "new " + newId);
+                        operations.add(CatalogDelta.Operation.add(afterId, added));
+                        addToList(expected, afterId, added);
+                        break;
+                    case 1:
+                        operations.add(CatalogDelta.Operation.remove(id));
+                        int position = positionOf(expected, id);
+                        if (position >= 0) {
+                            expected.remove(position);
+                        }
+                        break;
+                    default:
+                        PlayEntity modified = createEntity(id, "changed " + id);
+                        operations.add(CatalogDelta.Operation.modify(modified));
+                        int modifiedPosition = positionOf(expected, id);
+                        if (modifiedPosition >= 0) {
+                            expected.set(modifiedPosition, modified);
+                        }
+                        break;
+                }
+            }
+            List<Long> previousIds = getIds(catalog);
+            List<CatalogChange> changes = new ArrayList<>();
+            catalog = catalog.apply(new CatalogDelta(version, version - 1, operations), changes);
+            searchIndex = searchIndex.update(catalog, changes);
+
+            assertEquals(expected.size(), catalog.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getId(), catalog.getId(i));
+                assertEquals(expected.get(i).getName(), catalog.getName(i));
+                assertEquals(i, catalog.indexOf(expected.get(i).getId()));
+            }
+            assertEquals(getIds(catalog), replay(previousIds, changes, catalog));
+            CatalogSearchIndex builtIndex = CatalogSearchIndex.build(catalog);
+            for (String query : QUERIES) {
+                assertArrayEquals(query, builtIndex.search(query), searchIndex.search(query));
+            }
+        }
+        assertEquals(-1, catalog.indexOf(nextId));
+    }
+
+    @Test
+    public void removedAndReaddedBaseId() {
+        List<PlayEntity> playList = CatalogFixtures.createPlayList(10);
+        PlayCatalog base = new ListPlayCatalog(playList);
+        DeltaPlayCatalog catalog = new DeltaPlayCatalog(base, CatalogIdIndex.build(base));
+        List<CatalogDelta.Operation> operations = new ArrayList<>();
+        operations.add(CatalogDelta.Operation.remove(5));
+        operations.add(CatalogDelta.Operation.add(CatalogDelta.INSERT_FIRST, createEntity(5, "again")));
+        List<CatalogChange> changes = new ArrayList<>();
+        catalog = catalog.apply(new CatalogDelta(1, 0, operations), changes);
+
+        assertEquals(10, catalog.size());
+        assertEquals(0, catalog.indexOf(5));
+        assertEquals("again", catalog.getName(0));
+        assertEquals(5, catalog.indexOf(6));
+        assertEquals(2, changes.size());
+    }
+
+    private static long pickId(Random random, List<PlayEntity> playList, long nextId) {
+        if (playList.isEmpty() || random.nextInt(10) == 0) {
+            // Unknown or removed ids are skipped
+            return 1 + random.nextInt((int) nextId);
+        }
+        return playList.get(random.nextInt(playList.size())).getId();
+    }
+
+    private static PlayEntity createEntity(long id, String name) {
+        PlayEntity playEntity = CatalogFixtures.createPlayEntity(id);
+        playEntity.setName(name);
+        return playEntity;
+    }
+
+    private static void addToList(List<PlayEntity> playList, long afterId, PlayEntity playEntity) {
+        int position = positionOf(playList, playEntity.getId());
+        if (position >= 0) {
+            playList.set(position, playEntity);
+        } else if (afterId == CatalogDelta.INSERT_FIRST) {
+            playList.add(0, playEntity);
+        } else {
+            int afterPosition = afterId == CatalogDelta.INSERT_LAST ? -1 : positionOf(playList, afterId);
+            playList.add(afterPosition >= 0 ? afterPosition + 1 : playList.size(), playEntity);
+        }
+    }
+
+    private static int positionOf(List<PlayEntity> playList, long id) {
+        for (int i = 0; i < playList.size(); i++) {
+            if (playList.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Long> getIds(PlayCatalog playCatalog) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < playCatalog.size(); i++) {
+            ids.add(playCatalog.getId(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Apply the changes as the adapters do, the inserted and changed ids are read from the new catalog
+     */
+    private static List<Long> replay(List<Long> ids, List<CatalogChange> changes, PlayCatalog playCatalog) {
+        List<Long> result = new ArrayList<>(ids);
+        for (CatalogChange change : changes) {
+            int start = change.getPositionStart();
+            for (int i = 0; i < change.getItemCount(); i++) {
+                if (change.getType() == CatalogChange.TYPE_INSERTED) {
+                    result.add(start + i, -1L);
+                } else if (change.getType() == CatalogChange.TYPE_REMOVED) {
+                    result.remove(start);
+                } else {
+                    result.set(start + i, -1L);
+                }
+            }
+        }
+        for (int i = 0; i < result.size(); i++) {
+            if (result.get(i) == -1L) {
+                result.set(i, playCatalog.getId(i));
+            }
+        }
+        return result;
+    }
+}
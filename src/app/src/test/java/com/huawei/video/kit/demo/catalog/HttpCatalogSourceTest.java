@@ -0,0 +1,203 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.huawei.video.kit.demo.contract.OnCatalogSourceChangedListener;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The http catalog source against a local http server: the copy, the 304 revalidation
+ * and the stale copy served while the new play list is downloaded
+ */
+public class HttpCatalogSourceTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private HttpServer server;
+
+    private String url;
+
+    // The play list served with its ETag
+    private volatile String body = "[{\"id\":1}]";
+
+    private volatile String etag = "\"v1\"";
+
+    // The status code served instead of the play list, 0 serves the play list
+    private volatile int failureCode = 0;
+
+    // The If-None-Match of every request, null if not sent
+    private final List<String> ifNoneMatches = Collections.synchronizedList(new ArrayList<String>());
+
+    // Counted down when a response is sent
+    private volatile CountDownLatch responseLatch = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/play_list.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                ifNoneMatches.add(ifNoneMatch);
+                if (failureCode != 0) {
+                    exchange.sendResponseHeaders(failureCode, -1);
+                } else if (etag.equals(ifNoneMatch)) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    byte[] bytes = body.getBytes(UTF_8);
+                    exchange.getResponseHeaders().set("ETag", etag);
+                    exchange.sendResponseHeaders(200, bytes.length);
+                    OutputStream outputStream = exchange.getResponseBody();
+                    outputStream.write(bytes);
+                    outputStream.close();
+                }
+                exchange.close();
+                responseLatch.countDown();
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/play_list.json";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void firstOpenDownloadsAndNextOpenServesTheCopy() throws Exception {
+        File cacheDir = temporaryFolder.newFolder();
+        HttpCatalogSource source = new HttpCatalogSource(cacheDir, url);
+        assertFalse(source.hasCache());
+
+        assertEquals(body, read(source.open()));
+        assertEquals(1, ifNoneMatches.size());
+        assertNull(ifNoneMatches.get(0));
+
+        // A new source on the same directory, as after a restart, the server is down
+        server.stop(0);
+        HttpCatalogSource restarted = new HttpCatalogSource(cacheDir, url);
+        assertTrue(restarted.hasCache());
+        assertEquals("[{\"id\":1}]", read(restarted.open()));
+    }
+
+    @Test
+    public void unchangedPlayListIsRevalidatedWith304() throws Exception {
+        HttpCatalogSource source = new HttpCatalogSource(temporaryFolder.newFolder(), url);
+        read(source.open());
+
+        assertFalse(source.revalidate());
+        assertEquals(2, ifNoneMatches.size());
+        assertEquals("\"v1\"", ifNoneMatches.get(1));
+        assertEquals("[{\"id\":1}]", read(source.open()));
+    }
+
+    @Test
+    public void staleCopyIsServedWhileRevalidating() throws Exception {
+        HttpCatalogSource source = new HttpCatalogSource(temporaryFolder.newFolder(), url);
+        read(source.open());
+
+        final CountDownLatch changedLatch = new CountDownLatch(1);
+        source.setOnCatalogSourceChangedListener(new OnCatalogSourceChangedListener() {
+            @Override
+            public void onCatalogSourceChanged(CatalogSource catalogSource) {
+                changedLatch.countDown();
+            }
+        });
+        body = "[{\"id\":2}]";
+        etag = "\"v2\"";
+
+        // The copy is returned at once, the new play list is downloaded in the background
+        assertEquals("[{\"id\":1}]", read(source.open()));
+        assertTrue(changedLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("[{\"id\":2}]", read(source.open()));
+
+        // The validators were replaced together with the body
+        assertFalse(source.revalidate());
+        assertEquals("\"v2\"", ifNoneMatches.get(ifNoneMatches.size() - 1));
+    }
+
+    @Test
+    public void failedRevalidationKeepsTheCopy() throws Exception {
+        HttpCatalogSource source = new HttpCatalogSource(temporaryFolder.newFolder(), url);
+        read(source.open());
+
+        failureCode = 500;
+        try {
+            source.revalidate();
+            fail("revalidate should fail on 500");
+        } catch (IOException e) {
+            // expected
+        }
+        assertTrue(source.hasCache());
+        responseLatch = new CountDownLatch(1);
+        assertEquals("[{\"id\":1}]", read(source.open()));
+        assertTrue(responseLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IOException.class)
+    public void firstOpenFailsWithoutCopy() throws Exception {
+        failureCode = 404;
+        new HttpCatalogSource(temporaryFolder.newFolder(), url).open();
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] bytes = new byte[1024];
+            int count;
+            while ((count = inputStream.read(bytes)) > 0) {
+                outputStream.write(bytes, 0, count);
+            }
+            return new String(outputStream.toByteArray(), UTF_8);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
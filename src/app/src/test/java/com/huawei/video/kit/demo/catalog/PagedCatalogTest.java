@@ -0,0 +1,118 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.CatalogFixtures;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Paging of the catalog: sequential accesses prefetch, scattered accesses do not touch the pages
+ */
+public class PagedCatalogTest {
+    private static final int SIZE = 10000;
+
+    private static final int PAGE_SIZE = 50;
+
+    private CountingCatalog source;
+
+    private PagedCatalog pagedCatalog;
+
+    @Before
+    public void setUp() {
+        source = new CountingCatalog(CatalogFixtures.createPlayList(SIZE));
+        pagedCatalog = new PagedCatalog(source, PAGE_SIZE, 2, 8);
+    }
+
+    @Test
+    public void scatteredAccessDecodesSingleEntities() {
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            int index = random.nextInt(SIZE);
+            assertEquals(index + 1, pagedCatalog.getScatteredPlayEntity(index).getId());
+        }
+
+        assertEquals(200, source.decodeCount.get());
+        assertEquals(0, pagedCatalog.getCachedPageCount());
+    }
+
+    @Test
+    public void scatteredAccessReadsTheCachedPage() {
+        pagedCatalog.getPlayEntity(5000);
+        int decodeCount = source.decodeCount.get();
+
+        assertEquals(5002, pagedCatalog.getScatteredPlayEntity(5001).getId());
+        assertEquals(decodeCount, source.decodeCount.get());
+    }
+
+    @Test
+    public void jumpsDoNotPrefetch() throws InterruptedException {
+        for (int pageIndex = 10; pageIndex < 200; pageIndex += 20) {
+            pagedCatalog.getPlayEntity(pageIndex * PAGE_SIZE);
+        }
+        Thread.sleep(100);
+
+        assertEquals(10 * PAGE_SIZE, source.decodeCount.get());
+    }
+
+    @Test
+    public void sequentialAccessPrefetches() throws InterruptedException {
+        pagedCatalog.getPlayEntity(10 * PAGE_SIZE);
+        pagedCatalog.getPlayEntity(10 * PAGE_SIZE + 1);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pagedCatalog.getCachedPageCount() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(5, pagedCatalog.getCachedPageCount());
+        assertTrue(source.decodeCount.get() >= 5 * PAGE_SIZE);
+    }
+
+    /**
+     * Count the decoded entities
+     */
+    private static class CountingCatalog extends PlayCatalog {
+        private final List<PlayEntity> playList;
+
+        private final AtomicInteger decodeCount = new AtomicInteger();
+
+        CountingCatalog(List<PlayEntity> playList) {
+            this.playList = playList;
+        }
+
+        @Override
+        public int size() {
+            return playList.size();
+        }
+
+        @Override
+        public PlayEntity getPlayEntity(int index) {
+            decodeCount.incrementAndGet();
+            return playList.get(index);
+        }
+    }
+}
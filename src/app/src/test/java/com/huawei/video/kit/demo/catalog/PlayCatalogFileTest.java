@@ -0,0 +1,100 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.catalog;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.utils.StringUtil;
+
+/**
+ * The ids of the binary catalog written by the compilePlayCatalog task
+ */
+public class PlayCatalogFileTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void negativeIdIsReadAsMissing() throws IOException {
+        PlayCatalogFile playCatalogFile = new PlayCatalogFile(write(new long[] {-5, 0, 7}));
+        long negativeId = StringUtil.getStableId(getUrl(0));
+        assertEquals(negativeId, playCatalogFile.getId(0));
+        assertEquals(negativeId, playCatalogFile.getPlayEntity(0).getId());
+        assertEquals(StringUtil.getStableId(getUrl(1)), playCatalogFile.getId(1));
+        assertEquals(StringUtil.getStableId(getUrl(1)), playCatalogFile.getPlayEntity(1).getId());
+        assertEquals(7, playCatalogFile.getId(2));
+        assertEquals(7, playCatalogFile.getPlayEntity(2).getId());
+        assertEquals(getUrl(0), playCatalogFile.getPlayEntity(0).getUrl());
+    }
+
+    private static String getUrl(int index) {
+        return "http://video.test/" + index + ".mp4";
+    }
+
+    /**
+     * Write the catalog in the layout of the compilePlayCatalog task, the ids are written verbatim
+     * like an older file without the filtering of the task
+     */
+    private static ByteBuffer write(long[] ids) throws IOException {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add("104".getBytes(UTF_8));
+        for (int i = 0; i < ids.length; i++) {
+            strings.add(getUrl(i).getBytes(UTF_8));
+            strings.add(("video " + i).getBytes(UTF_8));
+        }
+        int recordsOffset = 28;
+        int stringIndexOffset = recordsOffset + ids.length * 24;
+        int stringDataOffset = stringIndexOffset + (strings.size() + 1) * 4;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x564B4354);
+        out.writeInt(2);
+        out.writeInt(ids.length);
+        out.writeInt(strings.size());
+        out.writeInt(recordsOffset);
+        out.writeInt(stringIndexOffset);
+        out.writeInt(stringDataOffset);
+        for (int i = 0; i < ids.length; i++) {
+            out.writeLong(ids[i]);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(1 + i * 2);
+            out.writeInt(2 + i * 2);
+        }
+        int offset = 0;
+        for (byte[] string : strings) {
+            out.writeInt(offset);
+            offset += string.length;
+        }
+        out.writeInt(offset);
+        for (byte[] string : strings) {
+            out.write(string);
+        }
+        out.flush();
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+}
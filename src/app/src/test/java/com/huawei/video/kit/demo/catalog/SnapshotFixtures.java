@@ -0,0 +1,44 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.catalog;
+
+import java.util.List;
+
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Catalog snapshots for the tests outside the catalog package
+ */
+public final class SnapshotFixtures {
+    private SnapshotFixtures() {
+    }
+
+    /**
+     * Create the snapshot of the play list
+     *
+     * @param playList Play list
+     * @param isIndexed Whether the id index is built, as the loader does once the catalog is loaded
+     * @return Catalog snapshot
+     */
+    public static CatalogSnapshot create(List<PlayEntity> playList, boolean isIndexed) {
+        CatalogSnapshot snapshot = new CatalogSnapshot(1, new ListPlayCatalog(playList));
+        if (isIndexed) {
+            snapshot.getIdIndex();
+        }
+        return snapshot;
+    }
+}
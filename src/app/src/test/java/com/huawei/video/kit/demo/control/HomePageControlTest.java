@@ -0,0 +1,118 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.CatalogFixtures;
+import com.huawei.video.kit.demo.catalog.SnapshotFixtures;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.player.FakePlayerEngine;
+import com.huawei.video.kit.demo.player.PlaySession;
+import com.huawei.video.kit.demo.player.PlaySessionRegistry;
+import com.huawei.video.kit.demo.player.PlayerEngine;
+import com.huawei.video.kit.demo.player.PlayerEngineFactory;
+import com.huawei.video.kit.demo.player.VirtualClock;
+
+/**
+ * The pressed title is prepared until the press is cancelled or the play page takes its session
+ */
+public class HomePageControlTest {
+    private VirtualClock clock;
+
+    // The engines created by the registry
+    private final List<FakePlayerEngine> engines = new ArrayList<>();
+
+    private List<PlayEntity> playList;
+
+    private PlaySessionRegistry registry;
+
+    private HomePageControl homePageControl;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        playList = CatalogFixtures.createPlayList(10);
+        registry = new PlaySessionRegistry(new PlayerEngineFactory() {
+            @Override
+            public PlayerEngine create() {
+                FakePlayerEngine engine = new FakePlayerEngine(clock);
+                engines.add(engine);
+                return engine;
+            }
+        }, clock);
+        homePageControl = new HomePageControl(null, registry);
+        homePageControl.setCatalogSnapshot(SnapshotFixtures.create(playList, true));
+    }
+
+    @Test
+    public void cancelledPressReleasesTheSession() {
+        homePageControl.prepareSpeculatively(2);
+        assertEquals(1, engines.size());
+        clock.advance(100);
+        assertEquals(FakePlayerEngine.STATE_PREPARING, engines.get(0).getState());
+
+        homePageControl.cancelSpeculativePrepare();
+        assertTrue(engines.get(0).isReleased());
+        PlaySession session = registry.open(playList.get(2));
+        assertEquals(2, engines.size());
+        registry.release(session.getToken());
+    }
+
+    @Test
+    public void takenSessionIsNotReleasedByTheCancel() {
+        homePageControl.prepareSpeculatively(2);
+        PlaySession session = registry.open(playList.get(2));
+        assertSame(session, registry.take(session.getToken()));
+
+        homePageControl.cancelSpeculativePrepare();
+        assertFalse(engines.get(0).isReleased());
+        assertNotNull(session.getStandbyPlayer());
+    }
+
+    @Test
+    public void pressOnAnotherTitleReleasesTheFirst() {
+        homePageControl.prepareSpeculatively(2);
+        homePageControl.prepareSpeculatively(2);
+        assertEquals(1, engines.size());
+
+        homePageControl.prepareSpeculatively(5);
+        assertEquals(2, engines.size());
+        assertTrue(engines.get(0).isReleased());
+        assertFalse(engines.get(1).isReleased());
+    }
+
+    @Test
+    public void pressOutsideTheListOpensNothing() {
+        homePageControl.prepareSpeculatively(10);
+        homePageControl.cancelSpeculativePrepare();
+        assertTrue(engines.isEmpty());
+        assertNull(homePageControl.getPlayFromPosition(-1));
+    }
+}
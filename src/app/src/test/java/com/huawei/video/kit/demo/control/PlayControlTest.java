@@ -0,0 +1,276 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.CatalogFixtures;
+import com.huawei.video.kit.demo.catalog.SnapshotFixtures;
+import com.huawei.video.kit.demo.contract.OnPlayerAttachListener;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+import com.huawei.video.kit.demo.player.FakePlayerEngine;
+import com.huawei.video.kit.demo.player.PlayerEngine;
+import com.huawei.video.kit.demo.player.PlayerEngineFactory;
+import com.huawei.video.kit.demo.player.PlayerFactoryReadiness;
+import com.huawei.video.kit.demo.player.PlayerPreloader;
+import com.huawei.video.kit.demo.player.RecordingEngineListener;
+import com.huawei.video.kit.demo.player.VirtualClock;
+
+/**
+ * The play controls over the fake engine: attaching once the player factory is ready, playing, preloading
+ * the next entity and switching to it
+ */
+public class PlayControlTest {
+    private static final int SIZE = 10;
+
+    private VirtualClock clock;
+
+    // The engines created by the controls
+    private final List<FakePlayerEngine> engines = new ArrayList<>();
+
+    // The tasks posted to the main thread, run by the test
+    private final List<Runnable> mainTasks = new ArrayList<>();
+
+    private RecordingEngineListener listener;
+
+    private List<PlayEntity> playList;
+
+    private PlayControl playControl;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        listener = new RecordingEngineListener();
+        playList = CatalogFixtures.createPlayList(SIZE);
+        PlayerEngineFactory factory = new PlayerEngineFactory() {
+            @Override
+            public PlayerEngine create() {
+                FakePlayerEngine engine = new FakePlayerEngine(clock).setMediaDuration(60000);
+                engines.add(engine);
+                return engine;
+            }
+        };
+        Executor mainExecutor = new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                mainTasks.add(runnable);
+            }
+        };
+        playControl = new PlayControl(null, listener, factory, new PlayerPreloader(true), mainExecutor,
+            new PlayerFactoryReadiness(clock));
+        playControl.setCatalogSnapshot(SnapshotFixtures.create(playList, true));
+    }
+
+    @Test
+    public void playsTheCurrentEntity() {
+        playControl.setCurrentPlayData(playList.get(0));
+        playControl.ready();
+        clock.advance(1000);
+        assertEquals(1, listener.getEvents().size());
+        assertSame(engines.get(0), listener.getEngines().get(0));
+
+        playControl.start();
+        clock.advance(2000);
+        assertEquals(FakePlayerEngine.STATE_PLAYING, engines.get(0).getState());
+        assertTrue(playControl.getCurrentTime() > 0);
+    }
+
+    @Test
+    public void switchesToThePreloadedEntity() {
+        playControl.setCurrentPlayData(playList.get(3));
+        playControl.ready();
+        clock.advance(1000);
+        playControl.preloadNext();
+        assertEquals(2, engines.size());
+        clock.advance(1000);
+        // The standby engine is ready but its event is held
+        assertEquals(FakePlayerEngine.STATE_READY, engines.get(1).getState());
+        assertEquals(1, listener.getEvents().size());
+
+        assertTrue(playControl.switchToStandby(playList.get(4)));
+        assertEquals(FakePlayerEngine.STATE_IDLE, engines.get(0).getState());
+        assertEquals(playList.get(4).getName(), playControl.getCurrentPlayName());
+        assertEquals(1, listener.getEvents().size());
+
+        runMainTasks();
+        assertEquals(2, listener.getEvents().size());
+        assertEquals("ready", listener.getEvents().get(1));
+        assertSame(engines.get(1), listener.getEngines().get(1));
+        playControl.start();
+        clock.advance(1000);
+        assertEquals(FakePlayerEngine.STATE_PLAYING, engines.get(1).getState());
+    }
+
+    @Test
+    public void switchesOnlyToThePreloadedEntity() {
+        playControl.setCurrentPlayData(playList.get(3));
+        playControl.preloadNext();
+        assertFalse(playControl.switchToStandby(playList.get(5)));
+        assertTrue(playControl.switchToStandby(playList.get(4)));
+    }
+
+    @Test
+    public void failedStandbyIsDropped() {
+        playControl.setCurrentPlayData(playList.get(3));
+        playControl.preloadNext();
+        engines.get(1).failAt(100, 1, 0);
+        clock.advance(1000);
+        assertTrue(listener.getEvents().isEmpty());
+
+        assertFalse(playControl.switchToStandby(playList.get(4)));
+    }
+
+    @Test
+    public void preloadingIsSkippedWithoutThePosition() {
+        playControl.setCatalogSnapshot(SnapshotFixtures.create(playList, false));
+        playControl.setCurrentPlayData(playList.get(3));
+        playControl.preloadNext();
+        assertEquals(1, engines.size());
+
+        // Nothing after the last entity
+        playControl.setCatalogSnapshot(SnapshotFixtures.create(playList, true));
+        playControl.setCurrentPlayData(playList.get(SIZE - 1));
+        playControl.preloadNext();
+        assertEquals(1, engines.size());
+    }
+
+    @Test
+    public void releasedControlsDoNotAttach() {
+        playControl.setCurrentPlayData(playList.get(3));
+        playControl.preloadNext();
+        clock.advance(1000);
+        assertTrue(playControl.switchToStandby(playList.get(4)));
+        playControl.release();
+
+        runMainTasks();
+        assertTrue(listener.getEvents().isEmpty());
+        assertEquals(FakePlayerEngine.STATE_IDLE, engines.get(1).getState());
+    }
+
+    @Test
+    public void attachWaitsForTheFactory() {
+        final boolean[] isFactoryReady = {false};
+        PlayerFactoryReadiness readiness = new PlayerFactoryReadiness(clock);
+        PlayControl waitingControl = createWaitingControl(isFactoryReady, readiness);
+        assertTrue(waitingControl.initPlayFail());
+        RecordingAttachListener attachListener = new RecordingAttachListener();
+        waitingControl.attachPlayer(attachListener);
+        clock.advance(PlayControl.FACTORY_TIMEOUT_MS / 2);
+        assertTrue(attachListener.results.isEmpty());
+
+        isFactoryReady[0] = true;
+        readiness.onFactoryReady(null);
+        assertEquals("attached", attachListener.results.get(0));
+        assertFalse(waitingControl.initPlayFail());
+
+        // Already attached, notified right away
+        waitingControl.attachPlayer(attachListener);
+        assertEquals(2, attachListener.results.size());
+        clock.advance(PlayControl.FACTORY_TIMEOUT_MS);
+        assertEquals(2, attachListener.results.size());
+    }
+
+    @Test
+    public void attachFailsWithTheFactory() {
+        PlayerFactoryReadiness readiness = new PlayerFactoryReadiness(clock);
+        PlayControl waitingControl = createWaitingControl(new boolean[1], readiness);
+        RecordingAttachListener attachListener = new RecordingAttachListener();
+        waitingControl.attachPlayer(attachListener);
+        readiness.onFactoryFailed(7, "no service");
+        assertEquals("failed 7", attachListener.results.get(0));
+        assertTrue(waitingControl.initPlayFail());
+    }
+
+    @Test
+    public void attachTimesOut() {
+        PlayerFactoryReadiness readiness = new PlayerFactoryReadiness(clock);
+        PlayControl waitingControl = createWaitingControl(new boolean[1], readiness);
+        RecordingAttachListener attachListener = new RecordingAttachListener();
+        waitingControl.attachPlayer(attachListener);
+        clock.advance(PlayControl.FACTORY_TIMEOUT_MS);
+        assertEquals("failed " + PlayerFactoryReadiness.ERROR_FACTORY_TIMEOUT, attachListener.results.get(0));
+
+        readiness.onFactoryReady(null);
+        assertEquals(1, attachListener.results.size());
+    }
+
+    @Test
+    public void cancelledAttachIsNotNotified() {
+        final boolean[] isFactoryReady = {false};
+        PlayerFactoryReadiness readiness = new PlayerFactoryReadiness(clock);
+        PlayControl waitingControl = createWaitingControl(isFactoryReady, readiness);
+        RecordingAttachListener attachListener = new RecordingAttachListener();
+        waitingControl.attachPlayer(attachListener);
+        waitingControl.cancelAttachPlayer();
+        isFactoryReady[0] = true;
+        readiness.onFactoryReady(null);
+        clock.advance(PlayControl.FACTORY_TIMEOUT_MS);
+        assertTrue(attachListener.results.isEmpty());
+        assertTrue(waitingControl.initPlayFail());
+    }
+
+    /**
+     * Create the controls whose engines can be created only once the factory is ready
+     */
+    private PlayControl createWaitingControl(final boolean[] isFactoryReady, PlayerFactoryReadiness readiness) {
+        PlayerEngineFactory factory = new PlayerEngineFactory() {
+            @Override
+            public PlayerEngine create() {
+                if (!isFactoryReady[0]) {
+                    return null;
+                }
+                FakePlayerEngine engine = new FakePlayerEngine(clock);
+                engines.add(engine);
+                return engine;
+            }
+        };
+        return new PlayControl(null, listener, factory, new PlayerPreloader(true), clock, readiness);
+    }
+
+    private void runMainTasks() {
+        List<Runnable> tasks = new ArrayList<>(mainTasks);
+        mainTasks.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    private static class RecordingAttachListener implements OnPlayerAttachListener {
+        // The results in order
+        private final List<String> results = new ArrayList<>();
+
+        @Override
+        public void onPlayerAttached() {
+            results.add("attached");
+        }
+
+        @Override
+        public void onPlayerAttachFailed(int errorCode, String reason) {
+            results.add("failed " + errorCode);
+        }
+    }
+}
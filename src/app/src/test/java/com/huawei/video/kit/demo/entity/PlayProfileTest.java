@@ -0,0 +1,134 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.entity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.catalog.PlayProfileCache;
+
+/**
+ * The merge of the per title overrides into the global settings
+ */
+public class PlayProfileTest {
+    private static final int UNSET = PlayProfile.UNSET;
+
+    private static PlaybackConfig createRange(int minBitrate, int maxBitrate) {
+        return new PlaybackConfig.Builder().setMinBitrate(minBitrate).setMaxBitrate(maxBitrate).build();
+    }
+
+    @Test
+    public void profileOnly() {
+        PlaybackConfig config = new PlayProfile(1, 300, 2000, 800).applyTo(PlaybackConfig.DEFAULT);
+        assertEquals(1, config.getPlayMode());
+        assertEquals(300, config.getMinBitrate());
+        assertEquals(2000, config.getMaxBitrate());
+        assertTrue(config.isInitBitrateEnable());
+        assertEquals(800, config.getInitBitrate());
+    }
+
+    @Test
+    public void globalOnly() {
+        PlaybackConfig global = createRange(300, 2000);
+        PlaybackConfig config = new PlayProfile(UNSET, UNSET, UNSET, UNSET).applyTo(global);
+        assertEquals(global.getPlayMode(), config.getPlayMode());
+        assertEquals(300, config.getMinBitrate());
+        assertEquals(2000, config.getMaxBitrate());
+        assertFalse(config.isInitBitrateEnable());
+    }
+
+    @Test
+    public void partialRangeKeepsTheOtherGlobalBound() {
+        PlaybackConfig global = createRange(300, 2000);
+        PlaybackConfig capped = new PlayProfile(UNSET, UNSET, 1000, UNSET).applyTo(global);
+        assertEquals(300, capped.getMinBitrate());
+        assertEquals(1000, capped.getMaxBitrate());
+
+        PlaybackConfig raised = new PlayProfile(UNSET, 500, UNSET, UNSET).applyTo(global);
+        assertEquals(500, raised.getMinBitrate());
+        assertEquals(2000, raised.getMaxBitrate());
+
+        // Without a global cap the profile minimum stays uncapped
+        PlaybackConfig uncapped = new PlayProfile(UNSET, 500, UNSET, UNSET).applyTo(createRange(300, 0));
+        assertEquals(500, uncapped.getMinBitrate());
+        assertEquals(0, uncapped.getMaxBitrate());
+    }
+
+    @Test
+    public void partialRangeMovesTheCrossedGlobalBound() {
+        PlaybackConfig global = createRange(300, 2000);
+        PlaybackConfig capped = new PlayProfile(UNSET, UNSET, 200, UNSET).applyTo(global);
+        assertEquals(200, capped.getMinBitrate());
+        assertEquals(200, capped.getMaxBitrate());
+
+        PlaybackConfig raised = new PlayProfile(UNSET, 3000, UNSET, UNSET).applyTo(global);
+        assertEquals(3000, raised.getMinBitrate());
+        assertEquals(3000, raised.getMaxBitrate());
+    }
+
+    @Test
+    public void initBitrateIsClampedIntoTheRange() {
+        PlaybackConfig global = createRange(300, 2000);
+        assertEquals(2000, new PlayProfile(UNSET, UNSET, UNSET, 5000).applyTo(global).getInitBitrate());
+        assertEquals(300, new PlayProfile(UNSET, UNSET, UNSET, 100).applyTo(global).getInitBitrate());
+        assertEquals(1000, new PlayProfile(UNSET, UNSET, 1000, 5000).applyTo(global).getInitBitrate());
+        assertEquals(5000, new PlayProfile(UNSET, UNSET, UNSET, 5000).applyTo(createRange(300, 0)).getInitBitrate());
+    }
+
+    @Test
+    public void userInitBitrateWins() {
+        PlaybackConfig global = new PlaybackConfig.Builder().setInitBitrateEnable(true).setInitBitrate(700).build();
+        PlaybackConfig config = new PlayProfile(UNSET, UNSET, UNSET, 1500).applyTo(global);
+        assertTrue(config.isInitBitrateEnable());
+        assertEquals(700, config.getInitBitrate());
+    }
+
+    @Test
+    public void cacheCombinesTheProfileWithTheRememberedBitrate() {
+        PlayProfileCache cache = PlayProfileCache.getInstance();
+        long profileOnly = 9001;
+        long bitrateOnly = 9002;
+        long both = 9003;
+        long bothWithInit = 9004;
+        cache.putProfile(profileOnly, new PlayProfile(UNSET, 300, 2000, UNSET));
+        cache.recordBitrate(bitrateOnly, 1200);
+        cache.putProfile(both, new PlayProfile(UNSET, 300, 1000, UNSET));
+        cache.recordBitrate(both, 1200);
+        cache.putProfile(bothWithInit, new PlayProfile(UNSET, UNSET, UNSET, 800));
+        cache.recordBitrate(bothWithInit, 1200);
+
+        assertNull(cache.getProfile(9000));
+        assertEquals(UNSET, cache.getProfile(profileOnly).getInitBitrate());
+        assertEquals(1200, cache.getProfile(bitrateOnly).getInitBitrate());
+        assertEquals(UNSET, cache.getProfile(bitrateOnly).getMaxBitrate());
+        // The remembered bitrate fills the unset init bitrate and is clamped into the range of the profile
+        assertEquals(1200, cache.getProfile(both).getInitBitrate());
+        assertEquals(1000, cache.apply(both, PlaybackConfig.DEFAULT).getInitBitrate());
+        // The init bitrate of the profile wins over the remembered one
+        assertEquals(800, cache.apply(bothWithInit, PlaybackConfig.DEFAULT).getInitBitrate());
+
+        // The remembered bitrate is only used while the user has not set an init bitrate
+        PlaybackConfig global = new PlaybackConfig.Builder().setInitBitrateEnable(true).setInitBitrate(700).build();
+        assertEquals(700, cache.apply(bitrateOnly, global).getInitBitrate());
+        assertEquals(1200, cache.apply(bitrateOnly, PlaybackConfig.DEFAULT).getInitBitrate());
+    }
+}
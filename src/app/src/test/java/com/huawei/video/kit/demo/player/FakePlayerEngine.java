@@ -0,0 +1,792 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.view.SurfaceView;
+import android.view.TextureView;
+
+import com.huawei.video.kit.demo.contract.OnPlayerEngineListener;
+
+/**
+ * Scriptable player engine for the JVM tests and benchmarks of the play controls, driven by a virtual clock.
+ * The prepare and seek latencies, the stream bitrates, the bandwidth over time and the errors are set by the script.
+ * The media is downloaded at the bandwidth of the clock time: every ms of the stream takes bitrate / 1000 bits.
+ * Playing stops when the buffer runs out and resumes once the start buffer is downloaded again,
+ * in auto switching mode the bitrate is stepped down on every stall.
+ * The events are delivered synchronously while the clock is advanced, on the thread advancing it.
+ */
+public class FakePlayerEngine implements PlayerEngine {
+    /**
+     * The url is not set or the engine is reset
+     */
+    public static final int STATE_IDLE = 0;
+
+    /**
+     * Preparing after ready
+     */
+    public static final int STATE_PREPARING = 1;
+
+    /**
+     * Ready to start
+     */
+    public static final int STATE_READY = 2;
+
+    /**
+     * Playing
+     */
+    public static final int STATE_PLAYING = 3;
+
+    /**
+     * Paused
+     */
+    public static final int STATE_PAUSED = 4;
+
+    /**
+     * Suspended, resumed to the state before
+     */
+    public static final int STATE_SUSPENDED = 5;
+
+    /**
+     * Stopped
+     */
+    public static final int STATE_STOPPED = 6;
+
+    /**
+     * Played to the end
+     */
+    public static final int STATE_ENDED = 7;
+
+    /**
+     * Failed
+     */
+    public static final int STATE_ERROR = 8;
+
+    /**
+     * The default prepare latency, ms
+     */
+    public static final long DEFAULT_PREPARE_LATENCY_MS = 300;
+
+    /**
+     * The default seek latency, ms
+     */
+    public static final long DEFAULT_SEEK_LATENCY_MS = 100;
+
+    /**
+     * The default media to buffer before playing, ms
+     */
+    public static final int DEFAULT_START_BUFFER_MS = 1000;
+
+    /**
+     * The default bandwidth, b/s
+     */
+    public static final long DEFAULT_BANDWIDTH = 5000000;
+
+    /**
+     * Auto switching picks the highest bitrate within this share of the bandwidth
+     */
+    private static final double BANDWIDTH_USAGE = 0.8;
+
+    private static final int AUTO_SWITCH_MODE = 0;
+
+    private static final int UNSET = -1;
+
+    private final VirtualClock clock;
+
+    private long prepareLatencyMs = DEFAULT_PREPARE_LATENCY_MS;
+
+    private long seekLatencyMs = DEFAULT_SEEK_LATENCY_MS;
+
+    private int startBufferMs = DEFAULT_START_BUFFER_MS;
+
+    private int duration = 60000;
+
+    private int videoWidth = 1280;
+
+    private int videoHeight = 720;
+
+    // The stream bitrates in ascending order
+    private int[] streamBitrates = {500000, 1500000, 3000000};
+
+    // The start times of the bandwidth trace steps in ascending order, ms
+    private long[] bandwidthTimes = {0};
+
+    // The bandwidth of every trace step, b/s
+    private long[] bandwidths = {DEFAULT_BANDWIDTH};
+
+    private boolean isUrlSet = false;
+
+    private int bookmark = 0;
+
+    private int playMode = 0;
+
+    private boolean isMute = false;
+
+    private int videoType = 0;
+
+    private int bandwidthSwitchMode = AUTO_SWITCH_MODE;
+
+    private int initBitrate = UNSET;
+
+    private int minBitrate = UNSET;
+
+    private int maxBitrate = UNSET;
+
+    private float playSpeed = 1f;
+
+    private boolean isCycleMode = false;
+
+    private float volume = 1f;
+
+    private boolean bufferingStatus = true;
+
+    private OnPlayerEngineListener listener;
+
+    private int state = STATE_IDLE;
+
+    // The state to return to when resumed
+    private int suspendedState = STATE_IDLE;
+
+    // The time ready is called, ms
+    private long prepareStartTime = 0;
+
+    // Whether the start playing event is delivered
+    private boolean isStarted = false;
+
+    private int currentBitrate = 0;
+
+    // The play position, ms
+    private double position = 0;
+
+    // The end of the downloaded media, ms
+    private double bufferEnd = 0;
+
+    // The download speed of the last tick, b/s
+    private long bufferingSpeed = 0;
+
+    // Whether playing is stopped by an empty buffer
+    private boolean isStalled = false;
+
+    // The last delivered loading percent
+    private int loadingPercent = 100;
+
+    private int stallCount = 0;
+
+    private long stallTime = 0;
+
+    private boolean isReleased = false;
+
+    /**
+     * Constructor, the engine is ticked by the clock until it is released
+     *
+     * @param clock Virtual clock
+     */
+    public FakePlayerEngine(VirtualClock clock) {
+        this.clock = clock;
+        clock.add(this);
+    }
+
+    /**
+     * Set the time from ready to the ready event, the start buffer must also be downloaded
+     *
+     * @param prepareLatencyMs Latency, ms
+     * @return This engine
+     */
+    public FakePlayerEngine setPrepareLatency(long prepareLatencyMs) {
+        this.prepareLatencyMs = prepareLatencyMs;
+        return this;
+    }
+
+    /**
+     * Set the time from seek to the seek end event
+     *
+     * @param seekLatencyMs Latency, ms
+     * @return This engine
+     */
+    public FakePlayerEngine setSeekLatency(long seekLatencyMs) {
+        this.seekLatencyMs = seekLatencyMs;
+        return this;
+    }
+
+    /**
+     * Set the media to buffer before playing, after ready and after a stall
+     *
+     * @param startBufferMs Media duration, ms
+     * @return This engine
+     */
+    public FakePlayerEngine setStartBuffer(int startBufferMs) {
+        this.startBufferMs = startBufferMs;
+        return this;
+    }
+
+    /**
+     * Set the media duration
+     *
+     * @param duration Duration, ms
+     * @return This engine
+     */
+    public FakePlayerEngine setMediaDuration(int duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Set the video size
+     *
+     * @param width Width
+     * @param height Height
+     * @return This engine
+     */
+    public FakePlayerEngine setVideoSize(int width, int height) {
+        videoWidth = width;
+        videoHeight = height;
+        return this;
+    }
+
+    /**
+     * Set the stream bitrates
+     *
+     * @param bitrates Bitrates, b/s
+     * @return This engine
+     */
+    public FakePlayerEngine setStreamBitrates(int... bitrates) {
+        if (bitrates.length == 0) {
+            throw new IllegalArgumentException("no stream bitrate");
+        }
+        streamBitrates = Arrays.copyOf(bitrates, bitrates.length);
+        Arrays.sort(streamBitrates);
+        return this;
+    }
+
+    /**
+     * Set a constant bandwidth
+     *
+     * @param bandwidth Bandwidth, b/s
+     * @return This engine
+     */
+    public FakePlayerEngine setBandwidth(long bandwidth) {
+        return setBandwidthTrace(new long[] {0}, new long[] {bandwidth});
+    }
+
+    /**
+     * Set the bandwidth over time, every step lasts until the next one and the last one forever
+     *
+     * @param times The clock times the steps start at in ascending order, ms
+     * @param bandwidths The bandwidth of every step, b/s
+     * @return This engine
+     */
+    public FakePlayerEngine setBandwidthTrace(long[] times, long[] bandwidths) {
+        if (times.length == 0 || times.length != bandwidths.length) {
+            throw new IllegalArgumentException("invalid bandwidth trace");
+        }
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] < times[i - 1]) {
+                throw new IllegalArgumentException("bandwidth trace times are not ascending");
+            }
+        }
+        bandwidthTimes = Arrays.copyOf(times, times.length);
+        this.bandwidths = Arrays.copyOf(bandwidths, bandwidths.length);
+        return this;
+    }
+
+    /**
+     * Fail at the clock time, ignored if the engine is not preparing or playing by then
+     *
+     * @param time Clock time, ms
+     * @param what Error code
+     * @param extra Extra code
+     * @return This engine
+     */
+    public FakePlayerEngine failAt(long time, final int what, final int extra) {
+        clock.schedule(new Runnable() {
+            @Override
+            public void run() {
+                fail(what, extra);
+            }
+        }, time - clock.now());
+        return this;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Get the number of stalls while playing
+     *
+     * @return Stall count
+     */
+    public int getStallCount() {
+        return stallCount;
+    }
+
+    /**
+     * Get the time spent in stalls while playing
+     *
+     * @return Stall time, ms
+     */
+    public long getStallTime() {
+        return stallTime;
+    }
+
+    @Override
+    public void setPlayUrl(String[] urls) {
+        isUrlSet = urls != null && urls.length > 0;
+    }
+
+    @Override
+    public void setPlayUrl(String vodJson, String appId) {
+        isUrlSet = vodJson != null;
+    }
+
+    @Override
+    public void setBookmark(int bookmark) {
+        this.bookmark = bookmark;
+    }
+
+    @Override
+    public void setPlayMode(int playMode) {
+        this.playMode = playMode;
+    }
+
+    @Override
+    public int getPlayMode() {
+        return playMode;
+    }
+
+    @Override
+    public void setMute(boolean isMute) {
+        this.isMute = isMute;
+    }
+
+    public boolean isMute() {
+        return isMute;
+    }
+
+    @Override
+    public void setVideoType(int videoType) {
+        this.videoType = videoType;
+    }
+
+    public int getVideoType() {
+        return videoType;
+    }
+
+    @Override
+    public void setBandwidthSwitchMode(int mode) {
+        bandwidthSwitchMode = mode;
+    }
+
+    @Override
+    public void setInitBitrate(int type, int bitrate, int width, int height) {
+        initBitrate = bitrate;
+    }
+
+    @Override
+    public void setBitrateRange(int minBitrate, int maxBitrate) {
+        this.minBitrate = minBitrate;
+        this.maxBitrate = maxBitrate;
+    }
+
+    @Override
+    public void closeLogo() {
+    }
+
+    @Override
+    public void ready() {
+        if (state != STATE_IDLE || !isUrlSet) {
+            return;
+        }
+        state = STATE_PREPARING;
+        prepareStartTime = clock.now();
+        position = Math.max(0, Math.min(bookmark, duration));
+        bufferEnd = position;
+        currentBitrate = selectInitBitrate();
+    }
+
+    @Override
+    public void start() {
+        if (state != STATE_READY && state != STATE_PAUSED) {
+            return;
+        }
+        state = STATE_PLAYING;
+        if (!isStarted) {
+            isStarted = true;
+            if (listener != null) {
+                listener.onStartPlaying(this);
+            }
+        }
+    }
+
+    @Override
+    public void pause() {
+        if (state == STATE_PLAYING) {
+            state = STATE_PAUSED;
+        }
+    }
+
+    @Override
+    public void resume(int play) {
+        if (state != STATE_SUSPENDED) {
+            return;
+        }
+        state = suspendedState;
+        if (play == 0) {
+            start();
+        } else if (play == 1) {
+            pause();
+        }
+    }
+
+    @Override
+    public void suspend() {
+        if (state == STATE_READY || state == STATE_PLAYING || state == STATE_PAUSED) {
+            suspendedState = state;
+            state = STATE_SUSPENDED;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (state != STATE_IDLE) {
+            state = STATE_STOPPED;
+            bufferingSpeed = 0;
+        }
+    }
+
+    @Override
+    public void reset() {
+        state = STATE_IDLE;
+        isUrlSet = false;
+        bookmark = 0;
+        isStarted = false;
+        isStalled = false;
+        loadingPercent = 100;
+        position = 0;
+        bufferEnd = 0;
+        bufferingSpeed = 0;
+        currentBitrate = 0;
+    }
+
+    /**
+     * Seek to the position, the buffer is dropped if the position is not buffered
+     *
+     * @param position Position, ms
+     */
+    @Override
+    public void seek(int position) {
+        if (state == STATE_IDLE || state == STATE_STOPPED || state == STATE_ERROR) {
+            return;
+        }
+        double target = Math.max(0, Math.min(position, duration));
+        if (target < this.position || target > bufferEnd) {
+            bufferEnd = target;
+        }
+        this.position = target;
+        if (state == STATE_ENDED && target < duration) {
+            state = STATE_PAUSED;
+        }
+        clock.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!isReleased && listener != null) {
+                    listener.onSeekEnd(FakePlayerEngine.this);
+                }
+            }
+        }, seekLatencyMs);
+    }
+
+    @Override
+    public int getCurrentTime() {
+        return (int) position;
+    }
+
+    @Override
+    public int getDuration() {
+        return duration;
+    }
+
+    @Override
+    public int getBufferTime() {
+        return (int) bufferEnd;
+    }
+
+    @Override
+    public long getBufferingSpeed() {
+        return bufferingSpeed;
+    }
+
+    @Override
+    public int getVideoWidth() {
+        return videoWidth;
+    }
+
+    @Override
+    public int getVideoHeight() {
+        return videoHeight;
+    }
+
+    @Override
+    public List<Integer> getStreamBitrates() {
+        List<Integer> bitrates = new ArrayList<>();
+        for (int bitrate : streamBitrates) {
+            bitrates.add(bitrate);
+        }
+        return bitrates;
+    }
+
+    @Override
+    public int getCurrentBitrate() {
+        return currentBitrate;
+    }
+
+    /**
+     * Switch the bitrate, the buffered media is played before the new bitrate
+     *
+     * @param bitrate Bitrate, ignored if not a stream bitrate
+     */
+    @Override
+    public void switchBitrateSmooth(int bitrate) {
+        if (currentBitrate != 0 && Arrays.binarySearch(streamBitrates, bitrate) >= 0) {
+            currentBitrate = bitrate;
+        }
+    }
+
+    /**
+     * Switch the bitrate, the buffered media is dropped
+     *
+     * @param bitrate Bitrate, ignored if not a stream bitrate
+     */
+    @Override
+    public void switchBitrateDesignated(int bitrate) {
+        if (currentBitrate != 0 && Arrays.binarySearch(streamBitrates, bitrate) >= 0) {
+            currentBitrate = bitrate;
+            bufferEnd = position;
+        }
+    }
+
+    @Override
+    public void setPlaySpeed(float speed) {
+        playSpeed = speed;
+    }
+
+    @Override
+    public float getPlaySpeed() {
+        return playSpeed;
+    }
+
+    @Override
+    public void setCycleMode(boolean isCycleMode) {
+        this.isCycleMode = isCycleMode;
+    }
+
+    @Override
+    public boolean isCycleMode() {
+        return isCycleMode;
+    }
+
+    @Override
+    public void setVolume(float volume) {
+        this.volume = volume;
+    }
+
+    public float getVolume() {
+        return volume;
+    }
+
+    @Override
+    public void setBufferingStatus(boolean status) {
+        bufferingStatus = status;
+    }
+
+    @Override
+    public void setSurfaceChange() {
+    }
+
+    @Override
+    public void setView(SurfaceView surfaceView) {
+    }
+
+    @Override
+    public void setView(TextureView textureView) {
+    }
+
+    @Override
+    public void setListener(OnPlayerEngineListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Whether the engine is released
+     *
+     * @return Whether the engine is released
+     */
+    public boolean isReleased() {
+        return isReleased;
+    }
+
+    /**
+     * Stop ticking the engine, no more events are delivered
+     */
+    @Override
+    public void release() {
+        isReleased = true;
+        listener = null;
+        state = STATE_IDLE;
+        clock.remove(this);
+    }
+
+    /**
+     * Advance the engine, called by the clock
+     *
+     * @param elapsed The time since the last tick, ms
+     */
+    void onTick(long elapsed) {
+        if (state == STATE_IDLE || state == STATE_STOPPED || state == STATE_ERROR) {
+            return;
+        }
+        download(elapsed);
+        if (state == STATE_PREPARING) {
+            if (clock.now() - prepareStartTime >= prepareLatencyMs && hasStartBuffer()) {
+                state = STATE_READY;
+                if (listener != null) {
+                    listener.onReady(this);
+                }
+            }
+        } else if (state == STATE_PLAYING) {
+            play(elapsed);
+        }
+    }
+
+    private void download(long elapsed) {
+        if (!bufferingStatus || bufferEnd >= duration) {
+            bufferingSpeed = 0;
+            return;
+        }
+        bufferingSpeed = getBandwidth(clock.now());
+        bufferEnd = Math.min(duration, bufferEnd + (double) bufferingSpeed * elapsed / currentBitrate);
+    }
+
+    private void play(long elapsed) {
+        if (isStalled) {
+            stallTime += elapsed;
+            if (hasStartBuffer()) {
+                isStalled = false;
+                notifyLoading(100);
+            } else {
+                notifyLoading((int) ((bufferEnd - position) * 100 / startBufferMs));
+            }
+            return;
+        }
+        position += elapsed * playSpeed;
+        if (position >= duration) {
+            if (isCycleMode) {
+                // The whole media is buffered by now, play it again from the cache
+                position -= duration;
+                return;
+            }
+            position = duration;
+            state = STATE_ENDED;
+            if (listener != null) {
+                listener.onPlayEnd(this);
+            }
+        } else if (position >= bufferEnd) {
+            position = bufferEnd;
+            isStalled = true;
+            stallCount++;
+            if (bandwidthSwitchMode == AUTO_SWITCH_MODE) {
+                currentBitrate = stepDownBitrate();
+            }
+            notifyLoading(0);
+        }
+    }
+
+    private void fail(int what, int extra) {
+        if (isReleased || state == STATE_IDLE || state == STATE_STOPPED || state == STATE_ERROR
+            || state == STATE_ENDED) {
+            return;
+        }
+        state = STATE_ERROR;
+        bufferingSpeed = 0;
+        if (listener != null) {
+            listener.onError(this, what, extra);
+        }
+    }
+
+    private void notifyLoading(int percent) {
+        if (percent != loadingPercent) {
+            loadingPercent = percent;
+            if (listener != null) {
+                listener.onLoadingUpdate(this, percent);
+            }
+        }
+    }
+
+    private boolean hasStartBuffer() {
+        return bufferEnd - position >= Math.min(startBufferMs, duration - position);
+    }
+
+    private long getBandwidth(long time) {
+        int index = 0;
+        while (index + 1 < bandwidthTimes.length && bandwidthTimes[index + 1] <= time) {
+            index++;
+        }
+        return bandwidths[index];
+    }
+
+    /**
+     * Select the bitrate to start with: the init bitrate if set, the highest bitrate the bandwidth allows
+     * in auto switching mode, otherwise the lowest one, within the bitrate range
+     *
+     * @return Bitrate
+     */
+    private int selectInitBitrate() {
+        long limit;
+        if (initBitrate != UNSET) {
+            limit = initBitrate;
+        } else if (bandwidthSwitchMode == AUTO_SWITCH_MODE) {
+            limit = (long) (getBandwidth(clock.now()) * BANDWIDTH_USAGE);
+        } else {
+            limit = 0;
+        }
+        int selected = UNSET;
+        for (int bitrate : streamBitrates) {
+            if (isInRange(bitrate) && (selected == UNSET || bitrate <= limit)) {
+                selected = bitrate;
+            }
+        }
+        return selected == UNSET ? streamBitrates[0] : selected;
+    }
+
+    private int stepDownBitrate() {
+        int selected = currentBitrate;
+        for (int bitrate : streamBitrates) {
+            if (bitrate < currentBitrate && isInRange(bitrate)) {
+                selected = bitrate;
+            }
+        }
+        return selected;
+    }
+
+    private boolean isInRange(int bitrate) {
+        return (minBitrate == UNSET || bitrate >= minBitrate) && (maxBitrate == UNSET || bitrate <= maxBitrate);
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.CatalogFixtures;
+
+/**
+ * The session registry hands a preparing player to the play page once and releases the players nobody takes
+ */
+public class PlaySessionRegistryTest {
+    private VirtualClock clock;
+
+    private List<FakePlayerEngine> engines;
+
+    private PlaySessionRegistry registry;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        engines = new ArrayList<>();
+        registry = new PlaySessionRegistry(new PlayerEngineFactory() {
+            @Override
+            public PlayerEngine create() {
+                FakePlayerEngine engine = new FakePlayerEngine(clock).setPrepareLatency(200);
+                engines.add(engine);
+                return engine;
+            }
+        }, clock);
+    }
+
+    @Test
+    public void sessionIsTakenOnce() {
+        PlaySession session = registry.open(CatalogFixtures.createPlayEntity(1));
+        assertNotNull(session.getStandbyPlayer());
+
+        assertSame(session, registry.take(session.getToken()));
+        assertNull(registry.take(session.getToken()));
+        assertFalse(engines.get(0).isReleased());
+    }
+
+    @Test
+    public void tokenThatDoesNotMatchIsNotTaken() {
+        PlaySession session = registry.open(CatalogFixtures.createPlayEntity(1));
+
+        assertNull(registry.take(session.getToken() + 1));
+        assertNull(registry.take(PlaySessionRegistry.NO_TOKEN));
+        assertSame(session, registry.take(session.getToken()));
+    }
+
+    @Test
+    public void expiredSessionReleasesItsPlayer() {
+        PlaySession session = registry.open(CatalogFixtures.createPlayEntity(1));
+        clock.advance(PlaySessionRegistry.EXPIRE_MS - 1);
+        assertEquals(FakePlayerEngine.STATE_READY, engines.get(0).getState());
+        assertFalse(engines.get(0).isReleased());
+
+        clock.advance(1);
+        assertTrue(engines.get(0).isReleased());
+        assertEquals(FakePlayerEngine.STATE_IDLE, engines.get(0).getState());
+        assertNull(session.getStandbyPlayer());
+        assertNull(registry.take(session.getToken()));
+    }
+
+    @Test
+    public void takenSessionDoesNotExpire() {
+        PlaySession session = registry.open(CatalogFixtures.createPlayEntity(1));
+        registry.take(session.getToken());
+        clock.advance(PlaySessionRegistry.EXPIRE_MS * 2);
+
+        assertFalse(engines.get(0).isReleased());
+        assertNotNull(session.getStandbyPlayer());
+    }
+
+    @Test
+    public void sessionIsReusedForTheSameEntity() {
+        PlaySession session = registry.open(CatalogFixtures.createPlayEntity(1));
+        clock.advance(PlaySessionRegistry.EXPIRE_MS - 1000);
+
+        assertSame(session, registry.open(CatalogFixtures.createPlayEntity(1)));
+        assertEquals(1, engines.size());
+
+        // Opening again restarts the expiry
+        clock.advance(PlaySessionRegistry.EXPIRE_MS - 1);
+        assertFalse(engines.get(0).isReleased());
+        assertSame(session, registry.take(session.getToken()));
+
+        PlaySession other = registry.open(CatalogFixtures.createPlayEntity(2));
+        assertTrue(other.getToken() != session.getToken());
+        assertEquals(2, engines.size());
+    }
+
+    @Test
+    public void releasedSessionIsNotTaken() {
+        PlaySession session = registry.open(CatalogFixtures.createPlayEntity(1));
+        registry.release(session.getToken());
+
+        assertTrue(engines.get(0).isReleased());
+        assertNull(registry.take(session.getToken()));
+    }
+
+    @Test
+    public void clearReleasesAllSessions() {
+        PlaySession first = registry.open(CatalogFixtures.createPlayEntity(1));
+        PlaySession second = registry.open(CatalogFixtures.createPlayEntity(2));
+        registry.clear();
+
+        assertTrue(engines.get(0).isReleased());
+        assertTrue(engines.get(1).isReleased());
+        assertNull(registry.take(first.getToken()));
+        assertNull(registry.take(second.getToken()));
+
+        // The cancelled expiry does not run on the cleared sessions
+        clock.advance(PlaySessionRegistry.EXPIRE_MS);
+        assertEquals(2, engines.size());
+    }
+}
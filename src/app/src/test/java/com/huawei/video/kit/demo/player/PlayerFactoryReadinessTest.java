@@ -0,0 +1,129 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.huawei.hms.videokit.player.WisePlayerFactory;
+import com.huawei.video.kit.demo.contract.OnPlayerFactoryListener;
+
+/**
+ * The listeners waiting for the player factory: the result before and after adding, the timeout and the removal
+ */
+public class PlayerFactoryReadinessTest {
+    private static final long TIMEOUT_MS = 1000;
+
+    private VirtualClock clock;
+
+    private PlayerFactoryReadiness readiness;
+
+    // The results delivered to the listeners in order
+    private final List<String> results = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        readiness = new PlayerFactoryReadiness(clock);
+    }
+
+    @Test
+    public void readyBeforeAddIsDeliveredRightAway() {
+        readiness.onFactoryReady(null);
+        readiness.addListener(new RecordingListener("a"), TIMEOUT_MS);
+        assertEquals("a ready", results.get(0));
+
+        clock.advance(TIMEOUT_MS);
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void readyAfterAddNotifiesEveryWaitingListener() {
+        readiness.addListener(new RecordingListener("a"), TIMEOUT_MS);
+        readiness.addListener(new RecordingListener("b"), TIMEOUT_MS);
+        clock.advance(TIMEOUT_MS / 2);
+        assertTrue(results.isEmpty());
+
+        readiness.onFactoryReady(null);
+        assertEquals(2, results.size());
+        assertEquals("a ready", results.get(0));
+        assertEquals("b ready", results.get(1));
+        // The timeouts are cancelled
+        clock.advance(TIMEOUT_MS);
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void listenerTimesOutOnce() {
+        readiness.addListener(new RecordingListener("a"), TIMEOUT_MS);
+        clock.advance(TIMEOUT_MS - 1);
+        assertTrue(results.isEmpty());
+        clock.advance(1);
+        assertEquals("a failed " + PlayerFactoryReadiness.ERROR_FACTORY_TIMEOUT, results.get(0));
+
+        readiness.onFactoryReady(null);
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void failureIsDeliveredBeforeAndAfterAdd() {
+        readiness.addListener(new RecordingListener("a"), TIMEOUT_MS);
+        readiness.onFactoryFailed(7, "no service");
+        readiness.addListener(new RecordingListener("b"), TIMEOUT_MS);
+        assertEquals(2, results.size());
+        assertEquals("a failed 7", results.get(0));
+        assertEquals("b failed 7", results.get(1));
+
+        clock.advance(TIMEOUT_MS);
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void removedListenerIsNotNotified() {
+        RecordingListener listener = new RecordingListener("a");
+        readiness.addListener(listener, TIMEOUT_MS);
+        readiness.removeListener(listener);
+        clock.advance(TIMEOUT_MS);
+        readiness.onFactoryReady(null);
+        assertTrue(results.isEmpty());
+    }
+
+    private class RecordingListener implements OnPlayerFactoryListener {
+        private final String name;
+
+        RecordingListener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onFactoryReady(WisePlayerFactory wisePlayerFactory) {
+            results.add(name + " ready");
+        }
+
+        @Override
+        public void onFactoryFailed(int errorCode, String reason) {
+            results.add(name + " failed " + errorCode);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.huawei.video.kit.demo.contract.OnPlayerEngineListener;
+
+/**
+ * Record the ready, error and end events with the engines they come from
+ */
+public class RecordingEngineListener implements OnPlayerEngineListener {
+    // The event names in the order they are received
+    private final List<String> events = new ArrayList<>();
+
+    // The engine of every event
+    private final List<PlayerEngine> engines = new ArrayList<>();
+
+    public List<String> getEvents() {
+        return events;
+    }
+
+    public List<PlayerEngine> getEngines() {
+        return engines;
+    }
+
+    @Override
+    public void onReady(PlayerEngine engine) {
+        record("ready", engine);
+    }
+
+    @Override
+    public boolean onError(PlayerEngine engine, int what, int extra) {
+        record("error " + what, engine);
+        return true;
+    }
+
+    @Override
+    public boolean onEvent(PlayerEngine engine, int what, int extra, Object o) {
+        return false;
+    }
+
+    @Override
+    public void onResolutionUpdated(PlayerEngine engine, int width, int height) {
+    }
+
+    @Override
+    public void onLoadingUpdate(PlayerEngine engine, int percent) {
+    }
+
+    @Override
+    public void onStartPlaying(PlayerEngine engine) {
+    }
+
+    @Override
+    public void onPlayEnd(PlayerEngine engine) {
+        record("end", engine);
+    }
+
+    @Override
+    public void onSeekEnd(PlayerEngine engine) {
+    }
+
+    private void record(String event, PlayerEngine engine) {
+        events.add(event);
+        engines.add(engine);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.CatalogFixtures;
+
+/**
+ * The standby player holds the ready and error events of its engine until it is attached
+ */
+public class StandbyPlayerTest {
+    private VirtualClock clock;
+
+    private FakePlayerEngine engine;
+
+    private PlayerPreloader.StandbyPlayer standbyPlayer;
+
+    private RecordingEngineListener listener;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        engine = new FakePlayerEngine(clock).setPrepareLatency(200);
+        standbyPlayer = new PlayerPreloader.StandbyPlayer(engine, CatalogFixtures.createPlayEntity(1));
+        engine.setListener(standbyPlayer);
+        engine.setPlayUrl(new String[] {"http://example.com/1.mp4"});
+        engine.ready();
+        listener = new RecordingEngineListener();
+    }
+
+    @Test
+    public void readyIsDeliveredOnAttach() {
+        standbyPlayer.setListener(listener);
+        clock.advance(1000);
+        assertEquals(FakePlayerEngine.STATE_READY, engine.getState());
+        assertTrue(listener.getEvents().isEmpty());
+
+        standbyPlayer.attach();
+        assertEquals(1, listener.getEvents().size());
+        assertEquals("ready", listener.getEvents().get(0));
+    }
+
+    @Test
+    public void readyAfterAttachIsRelayed() {
+        standbyPlayer.setListener(listener);
+        standbyPlayer.attach();
+        assertTrue(listener.getEvents().isEmpty());
+
+        clock.advance(1000);
+        assertEquals(1, listener.getEvents().size());
+        assertEquals("ready", listener.getEvents().get(0));
+    }
+
+    @Test
+    public void errorBeforeAttachFailsThePlayer() {
+        engine.failAt(100, 1, 2);
+        clock.advance(1000);
+        assertTrue(standbyPlayer.isFailed());
+
+        standbyPlayer.setListener(listener);
+        standbyPlayer.attach();
+        assertTrue(listener.getEvents().isEmpty());
+    }
+
+    @Test
+    public void releaseStopsTheEvents() {
+        standbyPlayer.setListener(listener);
+        standbyPlayer.attach();
+        standbyPlayer.release();
+        clock.advance(1000);
+        assertEquals(FakePlayerEngine.STATE_IDLE, engine.getState());
+        assertTrue(listener.getEvents().isEmpty());
+    }
+}
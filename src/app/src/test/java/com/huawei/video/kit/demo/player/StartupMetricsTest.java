@@ -0,0 +1,149 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.player;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.huawei.video.kit.demo.utils.Constants.UrlType;
+
+/**
+ * The startup phases are kept per url type and phase, relative to the click
+ */
+public class StartupMetricsTest {
+    private StartupMetrics startupMetrics;
+
+    @Before
+    public void setUp() {
+        startupMetrics = StartupMetrics.getInstance();
+        startupMetrics.reset();
+    }
+
+    @Test
+    public void phasesAreKeptPerUrlType() {
+        startupMetrics.record(UrlType.URL, createTimer(1000, 100, 400, 500));
+        startupMetrics.record(UrlType.URL, createTimer(2000, 300, 800, 900));
+        startupMetrics.record(UrlType.URL_JSON, createTimer(3000, 50, 1500, 2000));
+
+        StartupStats urlReady = startupMetrics.getStats(UrlType.URL, StartupTimer.PHASE_ON_READY);
+        assertEquals(2, urlReady.getCount());
+        assertEquals(100, urlReady.getMin());
+        assertEquals(300, urlReady.getMax());
+        StartupStats urlProgress = startupMetrics.getStats(UrlType.URL, StartupTimer.PHASE_FIRST_PROGRESS);
+        assertEquals(2, urlProgress.getCount());
+        assertEquals(500, urlProgress.getMin());
+        assertEquals(900, urlProgress.getMax());
+
+        StartupStats jsonProgress = startupMetrics.getStats(UrlType.URL_JSON, StartupTimer.PHASE_FIRST_PROGRESS);
+        assertEquals(1, jsonProgress.getCount());
+        assertEquals(2000, jsonProgress.getP50());
+        assertEquals(0, startupMetrics.getStats(UrlType.URL_MULTIPLE, StartupTimer.PHASE_FIRST_PROGRESS).getCount());
+
+        // The phases not marked are not counted
+        assertEquals(0, startupMetrics.getStats(UrlType.URL, StartupTimer.PHASE_CREATE).getCount());
+    }
+
+    @Test
+    public void preparedPhasesAreNegative() {
+        StartupTimer startupTimer = new StartupTimer();
+        startupTimer.mark(StartupTimer.PHASE_SET_URL, 700);
+        startupTimer.mark(StartupTimer.PHASE_CLICK, 1000);
+        startupTimer.mark(StartupTimer.PHASE_FIRST_PROGRESS, 1200);
+        startupMetrics.record(UrlType.URL_MULTIPLE, startupTimer);
+
+        assertEquals(-300, startupMetrics.getStats(UrlType.URL_MULTIPLE, StartupTimer.PHASE_SET_URL).getMin());
+        assertEquals(200, startupMetrics.getStats(UrlType.URL_MULTIPLE, StartupTimer.PHASE_FIRST_PROGRESS).getMin());
+    }
+
+    @Test
+    public void preparingBeforeTheClickIsSavedTime() {
+        // Cold play, the player is prepared after the click
+        startupMetrics.record(UrlType.URL, createTimer(1000, 400, 450, 600));
+
+        // Handed off play, the session prepared from the touch down 120 ms before the click
+        StartupTimer sessionTimer = new StartupTimer();
+        sessionTimer.mark(StartupTimer.PHASE_SET_URL, 9880);
+        sessionTimer.mark(StartupTimer.PHASE_READY, 9885);
+        StartupTimer startupTimer = new StartupTimer();
+        startupTimer.mark(StartupTimer.PHASE_CLICK, 10000);
+        startupTimer.merge(sessionTimer);
+        startupTimer.mark(StartupTimer.PHASE_ON_READY, 10280);
+        startupTimer.mark(StartupTimer.PHASE_START, 10330);
+        startupTimer.mark(StartupTimer.PHASE_FIRST_PROGRESS, 10480);
+        startupMetrics.record(UrlType.URL, startupTimer);
+
+        StartupStats saved = startupMetrics.getSavedStats(UrlType.URL);
+        assertEquals(1, saved.getCount());
+        assertEquals(120, saved.getMax());
+        StartupStats progress = startupMetrics.getStats(UrlType.URL, StartupTimer.PHASE_FIRST_PROGRESS);
+        assertEquals(480, progress.getMin());
+        assertEquals(600, progress.getMax());
+    }
+
+    @Test
+    public void playerReadyBeforeTheClickSavesItsPreparing() {
+        StartupTimer startupTimer = new StartupTimer();
+        startupTimer.mark(StartupTimer.PHASE_SET_URL, 5000);
+        startupTimer.mark(StartupTimer.PHASE_ON_READY, 5300);
+        startupTimer.mark(StartupTimer.PHASE_CLICK, 7000);
+        startupTimer.mark(StartupTimer.PHASE_START, 7050);
+        startupTimer.mark(StartupTimer.PHASE_FIRST_PROGRESS, 7100);
+        startupMetrics.record(UrlType.URL_JSON, startupTimer);
+
+        assertEquals(300, startupMetrics.getSavedStats(UrlType.URL_JSON).getMax());
+        assertEquals(0, startupMetrics.getSavedStats(UrlType.URL).getCount());
+    }
+
+    @Test
+    public void timerWithoutClickIsIgnored() {
+        StartupTimer startupTimer = new StartupTimer();
+        startupTimer.mark(StartupTimer.PHASE_FIRST_PROGRESS, 1200);
+        startupMetrics.record(UrlType.URL, startupTimer);
+
+        assertEquals(0, startupMetrics.getStats(UrlType.URL, StartupTimer.PHASE_FIRST_PROGRESS).getCount());
+    }
+
+    @Test
+    public void unknownUrlTypeIsCountedAsUrl() {
+        startupMetrics.record(-1, createTimer(1000, 100, 200, 300));
+
+        assertEquals(1, startupMetrics.getStats(UrlType.URL, StartupTimer.PHASE_FIRST_PROGRESS).getCount());
+    }
+
+    @Test
+    public void windowKeepsTheRecentPlays() {
+        for (int i = 1; i <= StartupMetrics.WINDOW_SIZE + 50; i++) {
+            startupMetrics.record(UrlType.URL, createTimer(i * 10000L, 10, 20, i));
+        }
+
+        StartupStats stats = startupMetrics.getStats(UrlType.URL, StartupTimer.PHASE_FIRST_PROGRESS);
+        assertEquals(StartupMetrics.WINDOW_SIZE, stats.getCount());
+        assertEquals(51, stats.getMin());
+        assertEquals(StartupMetrics.WINDOW_SIZE + 50, stats.getMax());
+    }
+
+    private static StartupTimer createTimer(long clickTime, long onReady, long start, long firstProgress) {
+        StartupTimer startupTimer = new StartupTimer();
+        startupTimer.mark(StartupTimer.PHASE_CLICK, clickTime);
+        startupTimer.mark(StartupTimer.PHASE_ON_READY, clickTime + onReady);
+        startupTimer.mark(StartupTimer.PHASE_START, clickTime + start);
+        startupTimer.mark(StartupTimer.PHASE_FIRST_PROGRESS, clickTime + firstProgress);
+        return startupTimer;
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.huawei.video.kit.demo.utils.DelayedExecutor;
+
+/**
+ * Manually advanced clock of the fake player engines, so the JVM tests and benchmarks are deterministic.
+ * Time passes only in advance, in steps of at most one tick, and the scheduled tasks run at their exact time.
+ * The clock is also the main thread executor of the tests, the executed tasks run in the next advance.
+ * Not thread safe, the clock and its engines must be used on one thread.
+ */
+public class VirtualClock implements DelayedExecutor {
+    /**
+     * The default tick, ms
+     */
+    public static final long DEFAULT_TICK_MS = 10;
+
+    // The longest step the engines are advanced by, ms
+    private final long tickMs;
+
+    // The current time, ms
+    private long now = 0;
+
+    // The engines driven by the clock
+    private final List<FakePlayerEngine> engines = new ArrayList<>();
+
+    // The scheduled tasks by time, the tasks of the same time in schedule order
+    private final PriorityQueue<ScheduledTask> tasks = new PriorityQueue<>();
+
+    // Keep the schedule order of the tasks of the same time
+    private long sequence = 0;
+
+    /**
+     * Constructor with the default tick
+     */
+    public VirtualClock() {
+        this(DEFAULT_TICK_MS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tickMs The longest step the engines are advanced by, ms
+     */
+    public VirtualClock(long tickMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("invalid tick " + tickMs);
+        }
+        this.tickMs = tickMs;
+    }
+
+    /**
+     * Get the current time
+     *
+     * @return Time since the clock is created, ms
+     */
+    @Override
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Run the task once the clock is advanced by the delay
+     *
+     * @param task Task
+     * @param delayMs Delay, ms, a negative delay is the same as 0
+     */
+    public void schedule(Runnable task, long delayMs) {
+        tasks.add(new ScheduledTask(now + Math.max(0, delayMs), sequence++, task));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        schedule(task, 0);
+    }
+
+    @Override
+    public void executeDelayed(Runnable task, long delayMs) {
+        schedule(task, delayMs);
+    }
+
+    /**
+     * Remove every scheduled run of the task
+     *
+     * @param task Task
+     */
+    @Override
+    public void cancel(Runnable task) {
+        Iterator<ScheduledTask> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().task == task) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Advance the time, the engines are ticked and the due tasks run on the calling thread
+     *
+     * @param durationMs Duration, ms
+     */
+    public void advance(long durationMs) {
+        long end = now + durationMs;
+        while (true) {
+            runDueTasks();
+            if (now >= end) {
+                return;
+            }
+            long next = Math.min(now + tickMs, end);
+            ScheduledTask task = tasks.peek();
+            if (task != null && task.time < next) {
+                next = task.time;
+            }
+            long elapsed = next - now;
+            now = next;
+            for (FakePlayerEngine engine : new ArrayList<>(engines)) {
+                engine.onTick(elapsed);
+            }
+        }
+    }
+
+    void add(FakePlayerEngine engine) {
+        engines.add(engine);
+    }
+
+    void remove(FakePlayerEngine engine) {
+        engines.remove(engine);
+    }
+
+    private void runDueTasks() {
+        while (!tasks.isEmpty() && tasks.peek().time <= now) {
+            tasks.poll().task.run();
+        }
+    }
+
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+        private final long time;
+
+        private final long sequence;
+
+        private final Runnable task;
+
+        ScheduledTask(long time, long sequence, Runnable task) {
+            this.time = time;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            if (time != other.time) {
+                return time < other.time ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.content.ComponentCallbacks2;
+
+import com.huawei.hms.videokit.player.WisePlayer;
+
+/**
+ * Pool counting, bounds, the players which cannot be reset, and the trim under memory pressure
+ */
+public class WisePlayerPoolTest {
+    private VirtualClock clock;
+
+    private WisePlayerPool pool;
+
+    // The created players in creation order
+    private final List<PlayerRecord> players = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        pool = new WisePlayerPool(1, clock);
+    }
+
+    @Test
+    public void noPlayerBeforeTheFactoryIsReady() {
+        assertNull(pool.acquire());
+        assertEquals(0, pool.getMissCount());
+    }
+
+    @Test
+    public void countsPooledAndCreatedPlayers() {
+        startCreating();
+        assertEquals(1, pool.getIdleCount());
+
+        WisePlayer first = pool.acquire();
+        assertSame(players.get(0).player, first);
+        assertEquals(1, pool.getHitCount());
+        // The used idle player is replaced once the main thread is free
+        assertEquals(0, pool.getIdleCount());
+        clock.advance(0);
+        assertEquals(1, pool.getIdleCount());
+
+        pool.acquire();
+        WisePlayer created = pool.acquire();
+        assertEquals(2, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertSame(players.get(2).player, created);
+    }
+
+    @Test
+    public void keepsAtMostTheMaximumIdlePlayers() {
+        startCreating();
+        WisePlayer first = pool.acquire();
+        WisePlayer second = pool.acquire();
+        pool.recycle(first);
+        pool.recycle(second);
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, players.get(0).resetCount);
+        assertEquals(0, players.get(0).releaseCount);
+        assertEquals(1, players.get(1).releaseCount);
+
+        assertSame(first, pool.acquire());
+    }
+
+    @Test
+    public void playerWhichCannotBeResetIsReleased() {
+        startCreating();
+        WisePlayer wisePlayer = pool.acquire();
+        players.get(0).isResetFailing = true;
+        pool.recycle(wisePlayer);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, players.get(0).releaseCount);
+        assertNotSame(wisePlayer, pool.acquire());
+    }
+
+    @Test
+    public void trimReleasesOnlyWhenMemoryIsShort() {
+        startCreating();
+        pool.trim(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(1, pool.getIdleCount());
+
+        pool.trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, players.get(0).releaseCount);
+    }
+
+    @Test
+    public void noPrewarmForAWhileAfterTheMemoryWasShort() {
+        startCreating();
+        pool.acquire();
+        // The prewarm posted by the acquire is dropped by the trim
+        pool.trim(ComponentCallbacks2.TRIM_MEMORY_MODERATE);
+        clock.advance(0);
+        assertEquals(0, pool.getIdleCount());
+
+        pool.acquire();
+        clock.advance(WisePlayerPool.PREWARM_PAUSE_MS - 1);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(2, players.size());
+
+        clock.advance(1);
+        pool.acquire();
+        clock.advance(0);
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    private void startCreating() {
+        pool.setPlayerCreator(new WisePlayerPool.PlayerCreator() {
+            @Override
+            public WisePlayer create() {
+                PlayerRecord record = new PlayerRecord();
+                players.add(record);
+                return record.player;
+            }
+        });
+    }
+
+    /**
+     * A player answering every call with the default value, the reset and the release are counted
+     */
+    private static class PlayerRecord implements InvocationHandler {
+        private final WisePlayer player = (WisePlayer) Proxy.newProxyInstance(WisePlayer.class.getClassLoader(),
+            new Class<?>[] {WisePlayer.class}, this);
+
+        private int resetCount = 0;
+
+        private int releaseCount = 0;
+
+        private boolean isResetFailing = false;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if ("reset".equals(name)) {
+                if (isResetFailing) {
+                    throw new IllegalStateException("player is broken");
+                }
+                resetCount++;
+            } else if ("release".equals(name)) {
+                releaseCount++;
+            } else if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            return getDefaultValue(method.getReturnType());
+        }
+
+        private static Object getDefaultValue(Class<?> type) {
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == int.class) {
+                return 0;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            if (type == float.class) {
+                return 0f;
+            }
+            if (type == double.class) {
+                return 0d;
+            }
+            return null;
+        }
+    }
+}
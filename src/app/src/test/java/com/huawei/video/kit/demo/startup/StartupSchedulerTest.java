@@ -0,0 +1,235 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.video.kit.demo.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Dependency order, threads and validation of the startup tasks, a single thread executor is the main thread
+ */
+public class StartupSchedulerTest {
+    private static final String MAIN_THREAD = "main-test";
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private ExecutorService mainExecutor;
+
+    // The names of the finished tasks with their threads, guarded by itself
+    private final List<String> finished = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mainExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, MAIN_THREAD);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        mainExecutor.shutdownNow();
+    }
+
+    @Test
+    public void tasksRunAfterTheirDependencies() throws Exception {
+        CountDownLatch doneLatch = new CountDownLatch(1);
+        StartupScheduler scheduler = new StartupScheduler(mainExecutor)
+            .add(new RecordingTask("source", true))
+            .add(new RecordingTask("catalog", false, "source"))
+            .add(new RecordingTask("settings", false, "source"))
+            .add(new RecordingTask("home", true, doneLatch, "catalog", "settings"));
+        start(scheduler);
+
+        assertTrue(doneLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        synchronized (finished) {
+            assertEquals(4, finished.size());
+            assertEquals("source " + MAIN_THREAD, finished.get(0));
+            assertEquals("home " + MAIN_THREAD, finished.get(3));
+            for (int i = 1; i < 3; i++) {
+                assertTrue(finished.get(i), finished.get(i).contains(" StartupScheduler-"));
+            }
+        }
+    }
+
+    @Test
+    public void independentTasksRunInParallel() throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final CountDownLatch doneLatch = new CountDownLatch(2);
+        StartupScheduler scheduler = new StartupScheduler(mainExecutor);
+        for (String name : new String[] {"bookmarks", "profiles"}) {
+            scheduler.add(new StartupTask(name, false) {
+                @Override
+                public void run() {
+                    try {
+                        // Both tasks must be running to pass the barrier
+                        barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                        doneLatch.countDown();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        }
+        start(scheduler);
+
+        assertTrue(doneLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failedTaskStillStartsItsDependents() throws Exception {
+        CountDownLatch doneLatch = new CountDownLatch(1);
+        StartupScheduler scheduler = new StartupScheduler(mainExecutor).add(new StartupTask("failing", false) {
+            @Override
+            public void run() {
+                throw new IllegalStateException("broken");
+            }
+        }).add(new RecordingTask("dependent", true, doneLatch, "failing"));
+        start(scheduler);
+
+        assertTrue(doneLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        synchronized (finished) {
+            assertEquals("dependent " + MAIN_THREAD, finished.get(0));
+        }
+    }
+
+    @Test
+    public void deferredTaskEndsWhenItsWorkCallsBack() throws Exception {
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        final ExecutorService workExecutor = Executors.newSingleThreadExecutor();
+        CountDownLatch freeLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(1);
+        StartupScheduler scheduler = new StartupScheduler(mainExecutor);
+        // More deferred tasks than pool threads, the pool still runs the other task
+        for (int i = 0; i < 4; i++) {
+            scheduler.add(new StartupTask("deferred " + i, false) {
+                @Override
+                public void run() {
+                    final Runnable doneCallback = defer();
+                    workExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                releaseLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            doneCallback.run();
+                        }
+                    });
+                }
+            });
+        }
+        scheduler.add(new RecordingTask("free", false, freeLatch))
+            .add(new RecordingTask("dependent", true, doneLatch, "deferred 0", "deferred 3"));
+        start(scheduler);
+
+        assertTrue(freeLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        synchronized (finished) {
+            assertEquals(1, finished.size());
+        }
+        releaseLatch.countDown();
+        assertTrue(doneLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        synchronized (finished) {
+            assertEquals("dependent " + MAIN_THREAD, finished.get(1));
+        }
+        workExecutor.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateTaskIsRejected() {
+        new StartupScheduler(mainExecutor).add(new RecordingTask("settings", false))
+            .add(new RecordingTask("settings", true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unknownDependencyIsRejected() throws Throwable {
+        startAndRethrow(new StartupScheduler(mainExecutor).add(new RecordingTask("catalog", false, "source")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cycleIsRejected() throws Throwable {
+        startAndRethrow(new StartupScheduler(mainExecutor)
+            .add(new RecordingTask("root", true))
+            .add(new RecordingTask("first", false, "root", "second"))
+            .add(new RecordingTask("second", false, "first")));
+    }
+
+    private void start(final StartupScheduler scheduler) throws Exception {
+        mainExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                scheduler.start();
+                return null;
+            }
+        }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void startAndRethrow(StartupScheduler scheduler) throws Throwable {
+        try {
+            start(scheduler);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        synchronized (finished) {
+            assertTrue(finished.isEmpty());
+        }
+    }
+
+    /**
+     * Record the task name and thread once it is done
+     */
+    private class RecordingTask extends StartupTask {
+        private final CountDownLatch doneLatch;
+
+        RecordingTask(String name, boolean isMainThread, String... dependencies) {
+            this(name, isMainThread, null, dependencies);
+        }
+
+        RecordingTask(String name, boolean isMainThread, CountDownLatch doneLatch, String... dependencies) {
+            super(name, isMainThread, dependencies);
+            this.doneLatch = doneLatch;
+        }
+
+        @Override
+        public void run() {
+            synchronized (finished) {
+                finished.add(getName() + " " + Thread.currentThread().getName());
+            }
+            if (doneLatch != null) {
+                doneLatch.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import com.huawei.video.kit.demo.catalog.CatalogDelta;
+
+/**
+ * Catalog delta parsing, android.util.JsonReader is provided by Robolectric
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CatalogDeltaReaderTest {
+    @Test
+    public void readsOperations() throws IOException {
+        CatalogDelta delta = read("{\"version\":3,\"baseVersion\":2,\"operations\":["
+            + "{\"op\":\"add\",\"after\":12,\"entry\":{\"id\":50,\"name\":\"added\",\"url\":\"http://a/50.mp4\"}},"
+            + "{\"op\":\"remove\",\"id\":5},"
+            + "{\"op\":\"modify\",\"id\":7,\"entry\":{\"name\":\"modified\",\"url\":\"http://a/7.mp4\"}},"
+            + "{\"op\":\"add\",\"entry\":{\"name\":\"no id\",\"url\":\"http://a/x.mp4\"}}]}");
+
+        assertEquals(3, delta.getVersion());
+        assertEquals(2, delta.getBaseVersion());
+        assertEquals(4, delta.getOperations().size());
+        assertEquals(50, delta.getOperations().get(0).getId());
+        assertEquals(12, delta.getOperations().get(0).getAfterId());
+        assertEquals(CatalogDelta.Operation.TYPE_REMOVE, delta.getOperations().get(1).getType());
+        assertEquals(7, delta.getOperations().get(2).getId());
+        assertEquals(StringUtil.getStableId("http://a/x.mp4"), delta.getOperations().get(3).getId());
+        assertEquals(CatalogDelta.INSERT_LAST, delta.getOperations().get(3).getAfterId());
+    }
+
+    @Test
+    public void negativeIdsAreNotCatalogIds() throws IOException {
+        CatalogDelta delta = read("{\"version\":1,\"baseVersion\":0,\"operations\":["
+            + "{\"op\":\"remove\",\"id\":-9},"
+            + "{\"op\":\"modify\",\"id\":-7,\"entry\":{\"name\":\"modified\",\"url\":\"http://a/7.mp4\"}},"
+            + "{\"op\":\"add\",\"entry\":{\"id\":-3,\"name\":\"added\",\"url\":\"http://a/3.mp4\"}}]}");
+
+        assertEquals(1, delta.getOperations().size());
+        assertEquals(StringUtil.getStableId("http://a/3.mp4"), delta.getOperations().get(0).getId());
+    }
+
+    @Test(expected = IOException.class)
+    public void missingVersionFails() throws IOException {
+        read("{\"operations\":[]}");
+    }
+
+    private static CatalogDelta read(String json) throws IOException {
+        CatalogDeltaReader reader = new CatalogDeltaReader(new StringReader(json));
+        try {
+            return reader.read();
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import com.huawei.video.kit.demo.catalog.PlayCatalog;
+import com.huawei.video.kit.demo.contract.OnPlayEntityParsedListener;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Play list parsing, android.util.JsonReader is provided by Robolectric
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DataFormatUtilTest {
+    @Test
+    public void parsesEntitiesWithDefaults() throws IOException {
+        String json = "[{\"id\":7,\"name\":\"first\",\"url\":\"http://a/1.mp4\",\"urlType\":0,\"appId\":\"105\"},"
+            + "5,{\"name\":\"second\",\"url\":\"http://a/2.mp4\",\"urlType\":\"1\",\"extra\":[1,2]}]";
+        List<PlayEntity> playList = DataFormatUtil.getPlayList(new StringReader(json), null);
+
+        assertEquals(2, playList.size());
+        assertEquals(7, playList.get(0).getId());
+        assertEquals("105", playList.get(0).getAppId());
+        assertEquals("second", playList.get(1).getName());
+        assertEquals(1, playList.get(1).getUrlType());
+        assertEquals(PlayListReader.DEFAULT_APP_ID, playList.get(1).getAppId());
+        assertEquals(StringUtil.getStableId("http://a/2.mp4"), playList.get(1).getId());
+    }
+
+    @Test
+    public void negativeIdGetsStableId() throws IOException {
+        String json = "[{\"id\":-5,\"name\":\"first\",\"url\":\"http://a/1.mp4\"}]";
+        List<PlayEntity> playList = DataFormatUtil.getPlayList(new StringReader(json), null);
+
+        assertEquals(1, playList.size());
+        assertEquals(StringUtil.getStableId("http://a/1.mp4"), playList.get(0).getId());
+    }
+
+    @Test
+    public void truncatedJsonFails() {
+        assertParseFails("[{\"name\":\"first\",\"url\":\"http://a/1.mp4\"},{\"name\":\"sec");
+    }
+
+    @Test
+    public void malformedJsonFails() {
+        assertParseFails("[{\"name\":\"first\",\"url\":}]");
+    }
+
+    @Test
+    public void jsonWithoutArrayFails() {
+        assertParseFails("{\"name\":\"first\"}");
+    }
+
+    @Test
+    public void brokenJsonGivesEmptyList() {
+        assertTrue(DataFormatUtil.getPlayList(new StringReader("[{\"name\":\"first\"},{")).isEmpty());
+    }
+
+    @Test
+    public void stoppedParsingReturnsNull() throws IOException {
+        String json = "[{\"name\":\"first\"},{\"name\":\"second\"}]";
+        PlayCatalog playCatalog = DataFormatUtil.getPlayCatalog(new StringReader(json),
+            new OnPlayEntityParsedListener() {
+                @Override
+                public boolean onPlayEntityParsed(int position, PlayEntity playEntity) {
+                    return position == 0;
+                }
+            });
+
+        assertNull(playCatalog);
+    }
+
+    private static void assertParseFails(String json) {
+        try {
+            DataFormatUtil.getPlayCatalog(new StringReader(json), null);
+            fail("parsed a broken play list");
+        } catch (IOException e) {
+            // Expected, the caller keeps its catalog
+        }
+    }
+}
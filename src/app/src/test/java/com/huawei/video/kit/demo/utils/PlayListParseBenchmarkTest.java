@@ -0,0 +1,115 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import com.huawei.video.kit.demo.Benchmark;
+import com.huawei.video.kit.demo.CatalogFixtures;
+import com.huawei.video.kit.demo.entity.PlayEntity;
+
+/**
+ * Compare the streaming play list parser with the JSONArray parser it replaced, peak heap and parse time
+ * for 1k, 10k and 100k entities. Both read the UTF-8 bytes of the asset, the JSONArray parser through
+ * the whole string as FileUtil.parseAssetsFile did.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@Category(Benchmark.class)
+public class PlayListParseBenchmarkTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int RUNS = 3;
+
+    @Test
+    public void benchmark() throws Exception {
+        for (int size : new int[] {1000, 10000, 100000}) {
+            byte[] json = CatalogFixtures.toJson(CatalogFixtures.createPlayList(size)).getBytes(UTF_8);
+            // Warm up both parsers
+            assertEquals(size, parseStreaming(json).size());
+            assertEquals(size, parseJsonArray(json).size());
+
+            long streamingTime = Long.MAX_VALUE;
+            long jsonArrayTime = Long.MAX_VALUE;
+            long streamingPeak = Long.MAX_VALUE;
+            long jsonArrayPeak = Long.MAX_VALUE;
+            for (int i = 0; i < RUNS; i++) {
+                CatalogFixtures.resetPeakHeap();
+                long baseHeap = CatalogFixtures.getPeakHeap();
+                long startTime = System.nanoTime();
+                parseStreaming(json);
+                streamingTime = Math.min(streamingTime, System.nanoTime() - startTime);
+                streamingPeak = Math.min(streamingPeak, CatalogFixtures.getPeakHeap() - baseHeap);
+
+                CatalogFixtures.resetPeakHeap();
+                baseHeap = CatalogFixtures.getPeakHeap();
+                startTime = System.nanoTime();
+                parseJsonArray(json);
+                jsonArrayTime = Math.min(jsonArrayTime, System.nanoTime() - startTime);
+                jsonArrayPeak = Math.min(jsonArrayPeak, CatalogFixtures.getPeakHeap() - baseHeap);
+            }
+            System.out.println("play list " + size + " entities, " + json.length / 1024 + " KB: streaming "
+                + streamingTime / 1000000 + " ms, peak " + streamingPeak / 1024 + " KB; JSONArray "
+                + jsonArrayTime / 1000000 + " ms, peak " + jsonArrayPeak / 1024 + " KB");
+        }
+    }
+
+    private static List<PlayEntity> parseStreaming(byte[] json) {
+        return DataFormatUtil.getPlayList(new InputStreamReader(new ByteArrayInputStream(json), UTF_8));
+    }
+
+    /**
+     * The JSONArray parser replaced by the streaming parser
+     *
+     * @param json Play list json
+     * @return Play list
+     * @throws JSONException The json is broken
+     */
+    private static List<PlayEntity> parseJsonArray(byte[] json) throws JSONException {
+        List<PlayEntity> list = new ArrayList<>();
+        JSONArray array = new JSONArray(new String(json, UTF_8));
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject jsonObject = array.optJSONObject(i);
+            if (jsonObject != null) {
+                PlayEntity playEntity = new PlayEntity();
+                String appId = jsonObject.optString("appId");
+                playEntity.setAppId(appId.isEmpty() ? PlayListReader.DEFAULT_APP_ID : appId);
+                playEntity.setUrl(jsonObject.optString("url"));
+                playEntity.setUrlType(jsonObject.optInt("urlType"));
+                playEntity.setName(jsonObject.optString("name"));
+                list.add(playEntity);
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.huawei.video.kit.demo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import com.huawei.video.kit.demo.Benchmark;
+import com.huawei.video.kit.demo.entity.PlaybackConfig;
+
+/**
+ * The settings file round trip, the corrupted files and the writes after a burst of changes
+ */
+public class PlaybackConfigStoreTest {
+    private static final int FILE_SIZE = 52;
+
+    private static final long WRITE_DELAY_MS = 20;
+
+    // Budget of loading the settings at startup
+    private static final long OPEN_BUDGET_NANOS = 1000000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        PlayControlUtil.setOnPlaybackConfigChangedListener(null);
+        PlayControlUtil.setPlaybackConfig(PlaybackConfig.DEFAULT);
+    }
+
+    @Test
+    public void everyFieldRoundTrips() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "playback_config.bin");
+        PlaybackConfig config = createConfig();
+        save(file, config);
+        assertEquals(FILE_SIZE, file.length());
+
+        PlayControlUtil.setPlaybackConfig(PlaybackConfig.DEFAULT);
+        new PlaybackConfigStore(new CountingExecutor(), WRITE_DELAY_MS).open(file, null).get();
+        PlaybackConfig loaded = PlayControlUtil.getPlaybackConfig();
+        assertEquals(config.isSurfaceView(), loaded.isSurfaceView());
+        assertEquals(config.getVideoType(), loaded.getVideoType());
+        assertEquals(config.isMute(), loaded.isMute());
+        assertEquals(config.getPlayMode(), loaded.getPlayMode());
+        assertEquals(config.getBandwidthSwitchMode(), loaded.getBandwidthSwitchMode());
+        assertEquals(config.isInitBitrateEnable(), loaded.isInitBitrateEnable());
+        assertEquals(config.getInitType(), loaded.getInitType());
+        assertEquals(config.getInitBitrate(), loaded.getInitBitrate());
+        assertEquals(config.getInitWidth(), loaded.getInitWidth());
+        assertEquals(config.getInitHeight(), loaded.getInitHeight());
+        assertEquals(config.isCloseLogo(), loaded.isCloseLogo());
+        assertEquals(config.isTakeEffectOfAll(), loaded.isTakeEffectOfAll());
+        assertEquals(config.getMinBitrate(), loaded.getMinBitrate());
+        assertEquals(config.getMaxBitrate(), loaded.getMaxBitrate());
+    }
+
+    @Test
+    public void corruptedFileIsIgnored() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "playback_config.bin");
+        save(file, createConfig());
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(30);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(30);
+            randomAccessFile.write(value ^ 1);
+        } finally {
+            randomAccessFile.close();
+        }
+        assertLoadsDefault(file);
+
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(FILE_SIZE - 4);
+        } finally {
+            randomAccessFile.close();
+        }
+        assertLoadsDefault(file);
+    }
+
+    @Test
+    public void burstOfChangesIsWrittenOnce() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "playback_config.bin");
+        CountingExecutor executor = new CountingExecutor();
+        new PlaybackConfigStore(executor, WRITE_DELAY_MS).open(file, null).get();
+        PlayControlUtil.setIsMute(true);
+        PlayControlUtil.setPlayMode(1);
+        PlayControlUtil.setMaxBitrate(3000);
+        assertEquals(1, executor.scheduleCount.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        PlayControlUtil.setOnPlaybackConfigChangedListener(null);
+        PlayControlUtil.setPlaybackConfig(PlaybackConfig.DEFAULT);
+        new PlaybackConfigStore(new CountingExecutor(), WRITE_DELAY_MS).open(file, null).get();
+        assertTrue(PlayControlUtil.isMute());
+        assertEquals(1, PlayControlUtil.getPlayMode());
+        assertEquals(3000, PlayControlUtil.getMaxBitrate());
+    }
+
+    @Test
+    public void appliedConfigWithoutOneTimeSettingsIsNotPublished() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "playback_config.bin");
+        CountingExecutor executor = new CountingExecutor();
+        new PlaybackConfigStore(executor, WRITE_DELAY_MS).open(file, null).get();
+        PlaybackConfig config = PlayControlUtil.getPlaybackConfig();
+        PlayControlUtil.onPlaybackConfigApplied(config);
+        assertSame(config, PlayControlUtil.getPlaybackConfig());
+        assertEquals(0, executor.scheduleCount.get());
+
+        PlayControlUtil.setMinBitrate(500);
+        PlayControlUtil.onPlaybackConfigApplied(PlayControlUtil.getPlaybackConfig());
+        assertFalse(PlayControlUtil.isSetBitrateRangeEnable());
+        assertEquals(1, executor.scheduleCount.get());
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void openWithinBudget() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "playback_config.bin");
+        save(file, createConfig());
+        long minNanos = Long.MAX_VALUE;
+        // The first opens load the classes
+        for (int i = 0; i < 50; i++) {
+            PlaybackConfigStore store = new PlaybackConfigStore(new CountingExecutor(), WRITE_DELAY_MS);
+            long start = System.nanoTime();
+            store.open(file, null).get();
+            minNanos = Math.min(minNanos, System.nanoTime() - start);
+        }
+        System.out.println("settings open " + minNanos / 1000 + " us");
+        assertTrue("open " + minNanos + " ns", minNanos < OPEN_BUDGET_NANOS);
+    }
+
+    private static PlaybackConfig createConfig() {
+        return new PlaybackConfig.Builder().setIsSurfaceView(false)
+            .setVideoType(1)
+            .setIsMute(true)
+            .setPlayMode(1)
+            .setBandwidthSwitchMode(1)
+            .setInitBitrateEnable(true)
+            .setInitType(1)
+            .setInitBitrate(1500)
+            .setInitWidth(1280)
+            .setInitHeight(720)
+            .setCloseLogo(true)
+            .setTakeEffectOfAll(true)
+            .setMinBitrate(300)
+            .setMaxBitrate(4000)
+            .build();
+    }
+
+    /**
+     * Write the config through a store and wait for the delayed write
+     */
+    private static void save(File file, PlaybackConfig config)
+        throws InterruptedException, ExecutionException {
+        CountingExecutor executor = new CountingExecutor();
+        new PlaybackConfigStore(executor, WRITE_DELAY_MS).open(file, null).get();
+        PlayControlUtil.setPlaybackConfig(config);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        PlayControlUtil.setOnPlaybackConfigChangedListener(null);
+    }
+
+    private static void assertLoadsDefault(File file) throws InterruptedException, ExecutionException {
+        PlayControlUtil.setPlaybackConfig(PlaybackConfig.DEFAULT);
+        new PlaybackConfigStore(new CountingExecutor(), WRITE_DELAY_MS).open(file, null).get();
+        assertSame(PlaybackConfig.DEFAULT, PlayControlUtil.getPlaybackConfig());
+        PlayControlUtil.setOnPlaybackConfigChangedListener(null);
+    }
+
+    /**
+     * The store thread, counting the delayed writes. The writes still scheduled run on shutdown.
+     */
+    private static class CountingExecutor extends ScheduledThreadPoolExecutor {
+        private final AtomicInteger scheduleCount = new AtomicInteger();
+
+        CountingExecutor() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            // The load is submitted without delay
+            if (delay > 0) {
+                scheduleCount.incrementAndGet();
+            }
+            return super.schedule(command, delay, unit);
+        }
+    }
+}